@@ -32,12 +32,17 @@ android {
     sourceSets {
         getByName("main") {
             assets {
-                srcDirs("src\\main\\assets", "src\\main\\assets")
+                srcDirs("src\\main\\assets", "build/generated/atlas")
             }
         }
     }
 }
 
+// Pack the assets into texture atlases before the assets are merged.
+tasks.named("preBuild") {
+    dependsOn(":atlas-packer:packAtlas")
+}
+
 dependencies {
 
     implementation("androidx.appcompat:appcompat:1.6.1")
@@ -0,0 +1,292 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The animation clips of the sprite sheets, read from a clip file in the assets. A clip is a
+ * run of frames of one sprite sheet shown for a fixed time each, which loops, plays once and
+ * holds its last frame, or plays forwards and backwards. Each clip is given a small id, and
+ * an entity plays a clip by storing the id and a time cursor, which advance() moves on and
+ * turns into a frame number.
+ *
+ * The clips are kept as parallel arrays of precomputed values rather than objects, so
+ * advancing a run of entities reads a few array elements per entity and picks the frame
+ * with arithmetic and Math.min instead of branching on the loop mode:
+ *
+ *   the time wraps at the clip length, or at twice the length less two frames for a ping
+ *   pong, and is held below the length of a clip played once;
+ *   the frame index is reflected back from the end for a ping pong by taking the smaller of
+ *   it and its mirror, which for the other modes is too far away to be chosen.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public final class AnimationLibrary {
+
+    /** The loop modes */
+    public static final int LOOP = 0;
+    public static final int ONCE = 1;
+    public static final int PING_PONG = 2;
+
+    /** The largest number of clips, so an id fits a short */
+    public static final int MAX_CLIPS = Short.MAX_VALUE;
+
+    /** The clip ids by sprite sheet and clip name */
+    private final HashMap<String, Integer> mIds = new HashMap<>();
+
+    /** The first frame, the last frame index, the mirror of the frame index and the loop mode */
+    private int[] mFirstFrame, mLastIndex, mReflect, mMode;
+
+    /** One over the frame duration, the time the cursor wraps at and the time it is held below */
+    private float[] mFramesPerMs, mWrap, mHold;
+
+    /** The frame duration in milliseconds */
+    private float[] mFrameDuration;
+
+    /** The number of clips */
+    private int mClipCount;
+
+    /**
+     * Constructs an empty AnimationLibrary
+     */
+    public AnimationLibrary() {
+        mFirstFrame = new int[8];
+        mLastIndex = new int[8];
+        mReflect = new int[8];
+        mMode = new int[8];
+        mFramesPerMs = new float[8];
+        mWrap = new float[8];
+        mHold = new float[8];
+        mFrameDuration = new float[8];
+    }
+
+    /**
+     * Loads the clips from a clip file
+     * @param path The path of the clip file
+     * @param textureLoader Opens the asset files
+     * @return The animation library
+     * @throws IOException
+     */
+    public static AnimationLibrary load(String path, TextureLoader textureLoader) throws IOException {
+        AnimationLibrary library = new AnimationLibrary();
+        Reader reader = new InputStreamReader(textureLoader.open(path));
+        try {
+            library.parse(new BufferedReader(reader));
+        } finally {
+            reader.close();
+        }
+        return library;
+    }
+
+    /**
+     * Reads the clip lines, each a sprite name, clip name, first frame, frame count, frame
+     * duration in milliseconds and loop mode
+     * @param reader The clip file
+     * @throws IOException
+     */
+    void parse(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.length() == 0 || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+            try {
+                int mode;
+                if (tokens[5].equals("loop")) {
+                    mode = LOOP;
+                } else if (tokens[5].equals("once")) {
+                    mode = ONCE;
+                } else if (tokens[5].equals("pingpong")) {
+                    mode = PING_PONG;
+                } else {
+                    throw new IllegalArgumentException(tokens[5]);
+                }
+                addClip(tokens[0], tokens[1], Integer.parseInt(tokens[2]), Integer.parseInt(tokens[3]),
+                        Float.parseFloat(tokens[4]), mode);
+            } catch (RuntimeException e) {
+                throw new IOException("Bad clip line: " + line);
+            }
+        }
+    }
+
+    /**
+     * Adds a clip
+     * @param sprite The sprite sheet name
+     * @param name The clip name
+     * @param firstFrame The first frame number in the sprite sheet
+     * @param frameCount The number of frames
+     * @param frameDuration The time each frame is shown in milliseconds
+     * @param mode LOOP, ONCE or PING_PONG
+     * @return The clip id
+     */
+    public int addClip(String sprite, String name, int firstFrame, int frameCount, float frameDuration, int mode) {
+        if (firstFrame < 0 || frameCount < 1 || !(frameDuration > 0) || mode < LOOP || mode > PING_PONG) {
+            throw new IllegalArgumentException("clip " + sprite + " " + name);
+        }
+        if (mClipCount == MAX_CLIPS) {
+            throw new IllegalStateException("AnimationLibrary is full");
+        }
+        if (mClipCount == mFirstFrame.length) {
+            grow();
+        }
+
+        int clip = mClipCount++;
+        float length = frameCount * frameDuration;
+        // A ping pong of one frame is a loop of one frame
+        if (mode == PING_PONG && frameCount == 1) {
+            mode = LOOP;
+        }
+
+        mFirstFrame[clip] = firstFrame;
+        mLastIndex[clip] = frameCount - 1;
+        mMode[clip] = mode;
+        mFrameDuration[clip] = frameDuration;
+        mFramesPerMs[clip] = 1 / frameDuration;
+        switch (mode) {
+            case ONCE:
+                // Too long to wrap, as dividing by infinity would give 0 * infinity
+                mWrap[clip] = Float.MAX_VALUE;
+                mHold[clip] = length - frameDuration / 2;
+                mReflect[clip] = Integer.MAX_VALUE;
+                break;
+            case PING_PONG:
+                mWrap[clip] = 2 * (frameCount - 1) * frameDuration;
+                mHold[clip] = Float.POSITIVE_INFINITY;
+                mReflect[clip] = 2 * (frameCount - 1);
+                break;
+            default:
+                mWrap[clip] = length;
+                mHold[clip] = Float.POSITIVE_INFINITY;
+                mReflect[clip] = Integer.MAX_VALUE;
+                break;
+        }
+        mIds.put(sprite + "/" + name, clip);
+        return clip;
+    }
+
+    /**
+     * Doubles the clip arrays
+     */
+    private void grow() {
+        int capacity = Math.min(mFirstFrame.length * 2, MAX_CLIPS);
+        mFirstFrame = Arrays.copyOf(mFirstFrame, capacity);
+        mLastIndex = Arrays.copyOf(mLastIndex, capacity);
+        mReflect = Arrays.copyOf(mReflect, capacity);
+        mMode = Arrays.copyOf(mMode, capacity);
+        mFramesPerMs = Arrays.copyOf(mFramesPerMs, capacity);
+        mWrap = Arrays.copyOf(mWrap, capacity);
+        mHold = Arrays.copyOf(mHold, capacity);
+        mFrameDuration = Arrays.copyOf(mFrameDuration, capacity);
+    }
+
+    /**
+     * Returns the id of a clip
+     * @param sprite The sprite sheet name
+     * @param name The clip name
+     * @return The clip id
+     */
+    public int getClip(String sprite, String name) {
+        Integer clip = mIds.get(sprite + "/" + name);
+        if (clip == null) {
+            throw new IllegalArgumentException("No clip " + name + " for " + sprite);
+        }
+        return clip;
+    }
+
+    /**
+     * Returns the number of clips
+     * @return The clip count
+     */
+    public int getClipCount() {
+        return mClipCount;
+    }
+
+    /**
+     * Returns the loop mode of a clip
+     * @param clip The clip id
+     * @return LOOP, ONCE or PING_PONG
+     */
+    public int getLoopMode(int clip) {
+        return mMode[clip];
+    }
+
+    /**
+     * Returns the time each frame of a clip is shown
+     * @param clip The clip id
+     * @return The frame duration in milliseconds
+     */
+    public float getFrameDuration(int clip) {
+        return mFrameDuration[clip];
+    }
+
+    /**
+     * Moves a time cursor on through a clip
+     * @param clip The clip id
+     * @param time The time cursor
+     * @param dt The time step
+     * @return The time cursor, wrapped or held within the clip
+     */
+    public float advanceTime(int clip, float time, float dt) {
+        float t = Math.min(time + dt, mHold[clip]);
+        float wrap = mWrap[clip];
+        return t - (int) (t / wrap) * wrap;
+    }
+
+    /**
+     * Returns the frame shown at a time cursor of a clip
+     * @param clip The clip id
+     * @param time The time cursor, as returned by advanceTime()
+     * @return The frame number in the sprite sheet
+     */
+    public int getFrame(int clip, float time) {
+        int index = (int) (time * mFramesPerMs[clip]);
+        index = Math.min(Math.min(index, mReflect[clip] - index), mLastIndex[clip]);
+        return mFirstFrame[clip] + index;
+    }
+
+    /**
+     * Moves on the clips of a range of the entities of a store and sets their frames
+     * @param store The entities
+     * @param from The first index
+     * @param to The index after the last
+     * @param dt The time step
+     */
+    public void advance(EntityStore store, int from, int to, float dt) {
+        advance(store.getClips(), store.getAnimationTimes(), store.getFrames(), from, to, dt);
+    }
+
+    /**
+     * Moves on the time cursors of a range of clips and sets the frames they show
+     * @param clips The clip id of each entity
+     * @param times The time cursor of each entity
+     * @param frames Receives the frame number of each entity
+     * @param from The first index
+     * @param to The index after the last
+     * @param dt The time step
+     */
+    public void advance(short[] clips, float[] times, int[] frames, int from, int to, float dt) {
+        final int[] firstFrame = mFirstFrame, lastIndex = mLastIndex, reflect = mReflect;
+        final float[] framesPerMs = mFramesPerMs, wrap = mWrap, hold = mHold;
+        for (int i = from; i < to; i++) {
+            int clip = clips[i];
+            float t = Math.min(times[i] + dt, hold[clip]);
+            float w = wrap[clip];
+            t -= (int) (t / w) * w;
+            times[i] = t;
+
+            int index = (int) (t * framesPerMs[clip]);
+            index = Math.min(Math.min(index, reflect[clip] - index), lastIndex[clip]);
+            frames[i] = firstFrame[clip] + index;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.microedition.khronos.opengles.GL10;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.opengl.GLUtils;
+import android.util.Log;
+
+/**
+ * Loads textures from the application's assets with BitmapFactory and GLUtils.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class AssetTextureLoader implements TextureLoader {
+
+    /** Provides access to an application's raw asset files */
+    private final AssetManager mAssetManager;
+
+    /**
+     * Constructs the AssetTextureLoader
+     * @param assetManager Provides access to an application's raw asset files
+     */
+    public AssetTextureLoader(AssetManager assetManager) {
+        mAssetManager = assetManager;
+    }
+
+    @Override
+    public InputStream open(String path) throws IOException {
+        return mAssetManager.open(path);
+    }
+
+    @Override
+    public boolean load(GL10 gl, String path, int[] size, CollisionMaskBuilder mask) {
+        InputStream is = null;
+        Bitmap bitmap = null;
+        try {
+            is = mAssetManager.open(path);
+            bitmap = BitmapFactory.decodeStream(is);
+        } catch (IOException e) {
+            Log.e("error", e.toString());
+        } finally { // handle exception
+            if (is != null) {
+                try {
+                    is.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+        if (bitmap == null) {
+            return false;
+        }
+
+        GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, bitmap, 0);
+        size[0] = bitmap.getWidth();
+        size[1] = bitmap.getHeight();
+        size[2] = bitmap.getByteCount();
+
+        // Pack the alpha a row at a time while the pixels are still in memory
+        if (mask != null) {
+            int width = bitmap.getWidth();
+            int height = bitmap.getHeight();
+            int[] row = new int[width];
+            mask.begin(width, height);
+            for (int y = 0; y < height; y++) {
+                bitmap.getPixels(row, 0, width, 0, y, width, 1);
+                mask.addRow(y, row, 0);
+            }
+        }
+        bitmap.recycle();
+        return true;
+    }
+}
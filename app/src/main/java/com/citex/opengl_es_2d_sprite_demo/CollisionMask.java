@@ -0,0 +1,253 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * The pixel shapes of the frames of a sprite sheet, for telling whether two sprites whose
+ * frame rectangles overlap really touch. Each frame is a bitset of its solid pixels, packed
+ * a row at a time into longs, with the tight box around those pixels, and is stored once as
+ * drawn facing left and once mirrored as drawn facing right.
+ *
+ * A test first compares the tight boxes, which rejects the transparent padding around the
+ * frames without reading the bits. Where the boxes overlap, each row of one frame is ANDed
+ * with the same row of the other 64 pixels at a time, shifting the other frame's bits into
+ * line with the first's words, and the test stops at the first word with a bit in common.
+ *
+ * Frames are in the coordinates of the untrimmed source frame, placed by their top left
+ * corner like the sprites, so a trimmed atlas frame has the same shape as the image it was
+ * packed from.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public final class CollisionMask {
+
+    /** The frame size */
+    private final int mFrameWidth, mFrameHeight;
+
+    /** The number of frames */
+    private final int mFrameCount;
+
+    /** The number of longs in a row */
+    private final int mWordsPerRow;
+
+    /** The rows of each frame facing left, then mirrored, frame by frame */
+    private final long[] mBits;
+
+    /** The tight box of each frame and facing: left, top, right and bottom, inclusive */
+    private final int[] mBounds;
+
+    /**
+     * Constructs a CollisionMask with every frame empty
+     * @param frameWidth The frame width
+     * @param frameHeight The frame height
+     * @param frameCount The number of frames
+     */
+    public CollisionMask(int frameWidth, int frameHeight, int frameCount) {
+        mFrameWidth = frameWidth;
+        mFrameHeight = frameHeight;
+        mFrameCount = frameCount;
+        mWordsPerRow = (frameWidth + 63) >>> 6;
+        mBits = new long[frameCount * 2 * frameHeight * mWordsPerRow];
+        mBounds = new int[frameCount * 2 * 4];
+        for (int shape = 0; shape < frameCount * 2; shape++) {
+            setEmptyBounds(shape);
+        }
+    }
+
+    /**
+     * Sets a frame from a rectangle of a packed image
+     * @param frame The frame number
+     * @param image The packed image
+     * @param x The x coordinate of the rectangle in the image
+     * @param y The y coordinate of the rectangle in the image
+     * @param width The rectangle width
+     * @param height The rectangle height
+     * @param offsetX The x offset of the rectangle within the frame, where it was trimmed
+     * @param offsetY The y offset of the rectangle within the frame
+     */
+    public void setFrame(int frame, CollisionMaskBuilder image, int x, int y, int width, int height,
+                         int offsetX, int offsetY) {
+        int left = frame * 2, right = left + 1;
+        int leftRows = left * mFrameHeight * mWordsPerRow;
+        int rightRows = right * mFrameHeight * mWordsPerRow;
+        for (int i = 0; i < mFrameHeight * mWordsPerRow; i++) {
+            mBits[leftRows + i] = 0;
+            mBits[rightRows + i] = 0;
+        }
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+        for (int row = 0; row < height; row++) {
+            int frameY = offsetY + row;
+            if (frameY < 0 || frameY >= mFrameHeight) {
+                continue;
+            }
+            for (int column = 0; column < width; column++) {
+                int frameX = offsetX + column;
+                if (frameX < 0 || frameX >= mFrameWidth || !image.isSolid(x + column, y + row)) {
+                    continue;
+                }
+                int mirroredX = mFrameWidth - 1 - frameX;
+                mBits[leftRows + frameY * mWordsPerRow + (frameX >>> 6)] |= 1L << frameX;
+                mBits[rightRows + frameY * mWordsPerRow + (mirroredX >>> 6)] |= 1L << mirroredX;
+                minX = Math.min(minX, frameX);
+                maxX = Math.max(maxX, frameX);
+                minY = Math.min(minY, frameY);
+                maxY = Math.max(maxY, frameY);
+            }
+        }
+
+        if (maxX < 0) {
+            setEmptyBounds(left);
+            setEmptyBounds(right);
+            return;
+        }
+        setBounds(left, minX, minY, maxX, maxY);
+        setBounds(right, mFrameWidth - 1 - maxX, minY, mFrameWidth - 1 - minX, maxY);
+    }
+
+    /**
+     * Stores the tight box of a frame and facing
+     */
+    private void setBounds(int shape, int left, int top, int right, int bottom) {
+        int i = shape * 4;
+        mBounds[i] = left;
+        mBounds[i + 1] = top;
+        mBounds[i + 2] = right;
+        mBounds[i + 3] = bottom;
+    }
+
+    /**
+     * Stores a box with its left edge past its right, which never overlaps anything
+     */
+    private void setEmptyBounds(int shape) {
+        setBounds(shape, 1, 1, 0, 0);
+    }
+
+    /**
+     * Returns the index of the shape of a frame drawn facing a direction
+     */
+    private static int shapeOf(int frame, char direction) {
+        return frame * 2 + (direction == 'r' ? 1 : 0);
+    }
+
+    /**
+     * Returns whether a frame has a solid pixel in the same place as a frame of another mask
+     * @param frame The frame number
+     * @param direction The direction the frame is drawn facing, 'l' or 'r'
+     * @param x The x coordinate of the frame
+     * @param y The y coordinate of the frame
+     * @param other The other mask, which may be this one
+     * @param otherFrame The frame number in the other mask
+     * @param otherDirection The direction the other frame is drawn facing
+     * @param otherX The x coordinate of the other frame
+     * @param otherY The y coordinate of the other frame
+     * @return True if the frames touch
+     */
+    public boolean overlaps(int frame, char direction, int x, int y,
+                            CollisionMask other, int otherFrame, char otherDirection, int otherX, int otherY) {
+        int a = shapeOf(frame, direction) * 4;
+        int b = shapeOf(otherFrame, otherDirection) * 4;
+        final int[] boundsA = mBounds, boundsB = other.mBounds;
+
+        // Compare the tight boxes first, in screen coordinates.
+        int left = Math.max(x + boundsA[a], otherX + boundsB[b]);
+        int right = Math.min(x + boundsA[a + 2], otherX + boundsB[b + 2]);
+        if (left > right) {
+            return false;
+        }
+        int top = Math.max(y + boundsA[a + 1], otherY + boundsB[b + 1]);
+        int bottom = Math.min(y + boundsA[a + 3], otherY + boundsB[b + 3]);
+        if (top > bottom) {
+            return false;
+        }
+
+        // Walk this frame's words across the overlap, masking the partial words at the ends.
+        final long[] bitsA = mBits, bitsB = other.mBits;
+        final int wordsA = mWordsPerRow, wordsB = other.mWordsPerRow;
+        int firstWord = (left - x) >> 6, lastWord = (right - x) >> 6;
+        long firstMask = -1L << ((left - x) & 63);
+        long lastMask = -1L >>> (63 - ((right - x) & 63));
+        // The bit of the other frame's row in line with bit 0 of word 0 of this frame's row
+        int shift = x - otherX;
+        int rowA = ((a >> 2) * mFrameHeight + top - y) * wordsA;
+        int rowB = ((b >> 2) * other.mFrameHeight + top - otherY) * wordsB;
+        for (int row = top; row <= bottom; row++, rowA += wordsA, rowB += wordsB) {
+            for (int word = firstWord; word <= lastWord; word++) {
+                long bits = bitsA[rowA + word];
+                if (word == firstWord) {
+                    bits &= firstMask;
+                }
+                if (word == lastWord) {
+                    bits &= lastMask;
+                }
+                if (bits != 0 && (bits & extract(bitsB, rowB, wordsB, (word << 6) + shift)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the 64 bits of a row starting at a bit, which may be before the row starts,
+     * with the bits outside the row clear
+     */
+    private static long extract(long[] bits, int row, int words, int bit) {
+        int word = bit >> 6, shift = bit & 63;
+        long low = word >= 0 && word < words ? bits[row + word] >>> shift : 0;
+        long high = shift != 0 && word + 1 >= 0 && word + 1 < words ? bits[row + word + 1] << (64 - shift) : 0;
+        return low | high;
+    }
+
+    /**
+     * Returns whether a pixel of a frame is solid
+     * @param frame The frame number
+     * @param direction The direction the frame is drawn facing, 'l' or 'r'
+     * @param x The x coordinate within the frame
+     * @param y The y coordinate within the frame
+     * @return True if the pixel collides
+     */
+    public boolean isSolid(int frame, char direction, int x, int y) {
+        if (x < 0 || y < 0 || x >= mFrameWidth || y >= mFrameHeight) {
+            return false;
+        }
+        int row = (shapeOf(frame, direction) * mFrameHeight + y) * mWordsPerRow;
+        return (mBits[row + (x >>> 6)] >>> x & 1) != 0;
+    }
+
+    /**
+     * Copies the tight box around the solid pixels of a frame
+     * @param frame The frame number
+     * @param direction The direction the frame is drawn facing, 'l' or 'r'
+     * @param bounds Receives the left, top, right and bottom, inclusive, with the left past
+     *               the right for a frame with no solid pixels
+     */
+    public void getBounds(int frame, char direction, int[] bounds) {
+        System.arraycopy(mBounds, shapeOf(frame, direction) * 4, bounds, 0, 4);
+    }
+
+    /**
+     * Returns the frame width
+     * @return The width
+     */
+    public int getFrameWidth() {
+        return mFrameWidth;
+    }
+
+    /**
+     * Returns the frame height
+     * @return The height
+     */
+    public int getFrameHeight() {
+        return mFrameHeight;
+    }
+
+    /**
+     * Returns the number of frames
+     * @return The frame count
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+}
@@ -0,0 +1,136 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * Packs the alpha of an image into a bitset while the image is being loaded, one bit for
+ * each pixel opaque enough to collide, so the shapes of the frames are still known after the
+ * bitmap has been uploaded and recycled. The TextureLoader hands over the image a row at a
+ * time as ARGB ints, and a CollisionMask later cuts the frames of a sprite sheet out of the
+ * packed image.
+ *
+ * The rows are packed into longs, the lowest bit of the first long of a row holding the
+ * leftmost pixel, which takes an eighth of a byte for each pixel of the image.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public final class CollisionMaskBuilder {
+
+    /** The alpha at or above which a pixel collides */
+    public static final int DEFAULT_ALPHA_THRESHOLD = 128;
+
+    /** The alpha at or above which a pixel collides */
+    private final int mAlphaThreshold;
+
+    /** The image size */
+    private int mWidth, mHeight;
+
+    /** The number of longs in a row */
+    private int mWordsPerRow;
+
+    /** The packed rows, or null until an image is begun */
+    private long[] mBits;
+
+    /**
+     * Constructs a CollisionMaskBuilder with the default alpha threshold
+     */
+    public CollisionMaskBuilder() {
+        this(DEFAULT_ALPHA_THRESHOLD);
+    }
+
+    /**
+     * Constructs the CollisionMaskBuilder
+     * @param alphaThreshold The alpha from 1 to 255 at or above which a pixel collides
+     */
+    public CollisionMaskBuilder(int alphaThreshold) {
+        if (alphaThreshold < 1 || alphaThreshold > 255) {
+            throw new IllegalArgumentException("alphaThreshold");
+        }
+        mAlphaThreshold = alphaThreshold;
+    }
+
+    /**
+     * Starts an image with every pixel clear
+     * @param width The image width
+     * @param height The image height
+     */
+    public void begin(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mWordsPerRow = (width + 63) >>> 6;
+        mBits = new long[mWordsPerRow * height];
+    }
+
+    /**
+     * Packs a row of the image
+     * @param y The row
+     * @param argb The pixels of the row as ARGB ints
+     * @param offset The index of the leftmost pixel in argb
+     */
+    public void addRow(int y, int[] argb, int offset) {
+        final long[] bits = mBits;
+        final int threshold = mAlphaThreshold;
+        int row = y * mWordsPerRow;
+        for (int word = 0, x = 0; word < mWordsPerRow; word++) {
+            long packed = 0;
+            int end = Math.min(x + 64, mWidth);
+            for (int bit = 0; x < end; x++, bit++) {
+                if (argb[offset + x] >>> 24 >= threshold) {
+                    packed |= 1L << bit;
+                }
+            }
+            bits[row + word] = packed;
+        }
+    }
+
+    /**
+     * Packs a whole image
+     * @param argb The pixels as ARGB ints, row by row
+     * @param width The image width
+     * @param height The image height
+     */
+    public void setPixels(int[] argb, int width, int height) {
+        begin(width, height);
+        for (int y = 0; y < height; y++) {
+            addRow(y, argb, y * width);
+        }
+    }
+
+    /**
+     * Returns whether an image has been packed
+     * @return True once begin() has been called
+     */
+    public boolean hasImage() {
+        return mBits != null;
+    }
+
+    /**
+     * Returns whether a pixel collides, false outside the image
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @return True if the pixel is opaque enough to collide
+     */
+    public boolean isSolid(int x, int y) {
+        if (x < 0 || y < 0 || x >= mWidth || y >= mHeight) {
+            return false;
+        }
+        return (mBits[y * mWordsPerRow + (x >>> 6)] >>> x & 1) != 0;
+    }
+
+    /**
+     * Returns the image width
+     * @return The width
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * Returns the image height
+     * @return The height
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+}
@@ -0,0 +1,407 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.Arrays;
+
+/**
+ * Stores entities as parallel primitive arrays of position, velocity, animation clip, time
+ * and frame, time waiting for an update, flags and id in a spatial index such as a
+ * SpatialHash, so a system can run over thousands of them in order without an object per
+ * entity. The live entities are always packed at the front of the arrays: removing one moves
+ * the last entity into its place, and the arrays double when they fill, so adding and
+ * removing never allocate once they have grown.
+ *
+ * Because removal moves entities, an entity is identified outside the store by a handle
+ * rather than its index. A handle holds a slot number and the generation of the slot, and the
+ * generation changes when the slot is reused, so a handle kept after its entity was removed
+ * is recognised as stale instead of reaching another entity.
+ *
+ * The arrays returned by getX(), getY() and the other bulk accessors are valid for the
+ * indices 0 to size() - 1 until the next add.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class EntityStore {
+
+    /** The handle returned for no entity */
+    public static final int NONE = -1;
+
+    /** The number of handle bits holding the slot, leaving the rest for the generation */
+    private static final int SLOT_BITS = 20;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (31 - SLOT_BITS)) - 1;
+
+    /** The largest number of entities a handle can address */
+    public static final int MAX_ENTITIES = 1 << SLOT_BITS;
+
+    /** The entity data, packed at the front of the arrays */
+    private float[] mX, mY, mVelocityX, mVelocityY;
+    private int[] mFrame, mFlags;
+
+    /** The animation clip id and time cursor of each entity, see AnimationLibrary */
+    private short[] mClip;
+    private float[] mAnimationTime;
+
+    /** The time each entity has waited for an update skipped by an UpdateScheduler */
+    private float[] mPendingTime;
+
+    /** The id of each entity in a spatial index, or NONE */
+    private int[] mSpatialId;
+
+    /** The slot of the entity at each index */
+    private int[] mSlots;
+
+    /** The index of the entity in each slot, or the next free slot while the slot is free */
+    private int[] mSlotIndices;
+
+    /** The generation of each slot */
+    private int[] mGenerations;
+
+    /** The number of live entities and slots handed out */
+    private int mSize, mSlotCount;
+
+    /** The head of the free slot list */
+    private int mFreeSlot = NONE;
+
+    /**
+     * Constructs the EntityStore
+     * @param capacity The number of entities to make room for
+     */
+    public EntityStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        mX = new float[capacity];
+        mY = new float[capacity];
+        mVelocityX = new float[capacity];
+        mVelocityY = new float[capacity];
+        mFrame = new int[capacity];
+        mFlags = new int[capacity];
+        mClip = new short[capacity];
+        mAnimationTime = new float[capacity];
+        mPendingTime = new float[capacity];
+        mSpatialId = new int[capacity];
+        mSlots = new int[capacity];
+        mSlotIndices = new int[capacity];
+        mGenerations = new int[capacity];
+    }
+
+    /**
+     * Adds an entity at rest
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @return The entity handle
+     */
+    public int add(float x, float y) {
+        int slot;
+        if (mFreeSlot != NONE) {
+            slot = mFreeSlot;
+            mFreeSlot = mSlotIndices[slot];
+        } else {
+            if (mSlotCount == MAX_ENTITIES) {
+                throw new IllegalStateException("EntityStore is full");
+            }
+            if (mSlotCount == mSlotIndices.length) {
+                growSlots();
+            }
+            slot = mSlotCount++;
+        }
+
+        if (mSize == mX.length) {
+            growEntities();
+        }
+        int index = mSize++;
+        mX[index] = x;
+        mY[index] = y;
+        mVelocityX[index] = 0;
+        mVelocityY[index] = 0;
+        mFrame[index] = 0;
+        mFlags[index] = 0;
+        mClip[index] = 0;
+        mAnimationTime[index] = 0;
+        mPendingTime[index] = 0;
+        mSpatialId[index] = NONE;
+        mSlots[index] = slot;
+        mSlotIndices[slot] = index;
+        return mGenerations[slot] << SLOT_BITS | slot;
+    }
+
+    /**
+     * Removes an entity, moving the last entity into its index
+     * @param handle The entity handle
+     * @return True if the entity was live
+     */
+    public boolean remove(int handle) {
+        int index = indexOf(handle);
+        if (index == NONE) {
+            return false;
+        }
+
+        int last = --mSize;
+        if (index != last) {
+            mX[index] = mX[last];
+            mY[index] = mY[last];
+            mVelocityX[index] = mVelocityX[last];
+            mVelocityY[index] = mVelocityY[last];
+            mFrame[index] = mFrame[last];
+            mFlags[index] = mFlags[last];
+            mClip[index] = mClip[last];
+            mAnimationTime[index] = mAnimationTime[last];
+            mPendingTime[index] = mPendingTime[last];
+            mSpatialId[index] = mSpatialId[last];
+            int movedSlot = mSlots[last];
+            mSlots[index] = movedSlot;
+            mSlotIndices[movedSlot] = index;
+        }
+
+        // Retire the handle and put the slot on the free list.
+        int slot = handle & SLOT_MASK;
+        mGenerations[slot] = (mGenerations[slot] + 1) & GENERATION_MASK;
+        mSlotIndices[slot] = mFreeSlot;
+        mFreeSlot = slot;
+        return true;
+    }
+
+    /**
+     * Removes every entity. Handles given out before are stale afterwards.
+     */
+    public void clear() {
+        while (mSize > 0) {
+            int slot = mSlots[mSize - 1];
+            remove(mGenerations[slot] << SLOT_BITS | slot);
+        }
+    }
+
+    /**
+     * Returns the index of an entity in the arrays
+     * @param handle The entity handle
+     * @return The index, or NONE if the handle is stale
+     */
+    public int indexOf(int handle) {
+        if (handle < 0) {
+            return NONE;
+        }
+        int slot = handle & SLOT_MASK;
+        if (slot >= mSlotCount || mGenerations[slot] != handle >>> SLOT_BITS) {
+            return NONE;
+        }
+        // A free slot of the same generation cannot occur, as removal changes the generation.
+        return mSlotIndices[slot];
+    }
+
+    /**
+     * Returns whether a handle refers to a live entity
+     * @param handle The entity handle
+     * @return True if the entity is live
+     */
+    public boolean contains(int handle) {
+        return indexOf(handle) != NONE;
+    }
+
+    /**
+     * Returns the handle of the entity at an index
+     * @param index The index
+     * @return The entity handle
+     */
+    public int getHandle(int index) {
+        int slot = mSlots[index];
+        return mGenerations[slot] << SLOT_BITS | slot;
+    }
+
+    /**
+     * Returns the number of live entities
+     * @return The entity count
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Moves every entity by its velocity
+     * @param dt The time step the velocities are multiplied by
+     */
+    public void integrate(float dt) {
+        integrate(0, mSize, dt);
+    }
+
+    /**
+     * Moves a range of the entities by their velocity
+     * @param from The first index
+     * @param to The index after the last
+     * @param dt The time step the velocities are multiplied by
+     */
+    public void integrate(int from, int to, float dt) {
+        final float[] x = mX, y = mY, vx = mVelocityX, vy = mVelocityY;
+        for (int i = from; i < to; i++) {
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+        }
+    }
+
+    /**
+     * Sets the position of an entity
+     * @param index The index
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    public void setPosition(int index, float x, float y) {
+        mX[index] = x;
+        mY[index] = y;
+    }
+
+    /**
+     * Sets the velocity of an entity
+     * @param index The index
+     * @param velocityX The x velocity
+     * @param velocityY The y velocity
+     */
+    public void setVelocity(int index, float velocityX, float velocityY) {
+        mVelocityX[index] = velocityX;
+        mVelocityY[index] = velocityY;
+    }
+
+    /**
+     * Sets the animation frame of an entity
+     * @param index The index
+     * @param frame The frame number
+     */
+    public void setFrame(int index, int frame) {
+        mFrame[index] = frame;
+    }
+
+    /**
+     * Starts an animation clip on an entity from its first frame
+     * @param index The index
+     * @param clip The clip id
+     */
+    public void setClip(int index, int clip) {
+        mClip[index] = (short) clip;
+        mAnimationTime[index] = 0;
+    }
+
+    /**
+     * Sets the flags of an entity
+     * @param index The index
+     * @param flags The flags
+     */
+    public void setFlags(int index, int flags) {
+        mFlags[index] = flags;
+    }
+
+    /**
+     * Sets the id of an entity in a spatial index, which moves with the entity when another
+     * is removed
+     * @param index The index
+     * @param id The id in the spatial index, or NONE
+     */
+    public void setSpatialId(int index, int id) {
+        mSpatialId[index] = id;
+    }
+
+    /**
+     * Returns the x coordinates
+     * @return The x coordinate of each entity
+     */
+    public float[] getX() {
+        return mX;
+    }
+
+    /**
+     * Returns the y coordinates
+     * @return The y coordinate of each entity
+     */
+    public float[] getY() {
+        return mY;
+    }
+
+    /**
+     * Returns the x velocities
+     * @return The x velocity of each entity
+     */
+    public float[] getVelocityX() {
+        return mVelocityX;
+    }
+
+    /**
+     * Returns the y velocities
+     * @return The y velocity of each entity
+     */
+    public float[] getVelocityY() {
+        return mVelocityY;
+    }
+
+    /**
+     * Returns the animation frames
+     * @return The frame number of each entity
+     */
+    public int[] getFrames() {
+        return mFrame;
+    }
+
+    /**
+     * Returns the animation clips
+     * @return The clip id of each entity
+     */
+    public short[] getClips() {
+        return mClip;
+    }
+
+    /**
+     * Returns the animation time cursors
+     * @return The time into its clip of each entity
+     */
+    public float[] getAnimationTimes() {
+        return mAnimationTime;
+    }
+
+    /**
+     * Returns the time waited for skipped updates
+     * @return The time each entity has gone without an update, see UpdateScheduler
+     */
+    public float[] getPendingTimes() {
+        return mPendingTime;
+    }
+
+    /**
+     * Returns the ids in a spatial index
+     * @return The spatial index id of each entity, or NONE
+     */
+    public int[] getSpatialIds() {
+        return mSpatialId;
+    }
+
+    /**
+     * Returns the flags
+     * @return The flags of each entity
+     */
+    public int[] getFlags() {
+        return mFlags;
+    }
+
+    /**
+     * Doubles the entity arrays
+     */
+    private void growEntities() {
+        int capacity = mX.length * 2;
+        mX = Arrays.copyOf(mX, capacity);
+        mY = Arrays.copyOf(mY, capacity);
+        mVelocityX = Arrays.copyOf(mVelocityX, capacity);
+        mVelocityY = Arrays.copyOf(mVelocityY, capacity);
+        mFrame = Arrays.copyOf(mFrame, capacity);
+        mFlags = Arrays.copyOf(mFlags, capacity);
+        mClip = Arrays.copyOf(mClip, capacity);
+        mAnimationTime = Arrays.copyOf(mAnimationTime, capacity);
+        mPendingTime = Arrays.copyOf(mPendingTime, capacity);
+        mSpatialId = Arrays.copyOf(mSpatialId, capacity);
+        mSlots = Arrays.copyOf(mSlots, capacity);
+    }
+
+    /**
+     * Doubles the slot arrays
+     */
+    private void growSlots() {
+        int capacity = Math.min(mSlotIndices.length * 2, MAX_ENTITIES);
+        mSlotIndices = Arrays.copyOf(mSlotIndices, capacity);
+        mGenerations = Arrays.copyOf(mGenerations, capacity);
+    }
+}
@@ -0,0 +1,24 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * Updates a range of the entities of an EntityStore for one step. A ParallelUpdateStage
+ * calls it for separate ranges on several threads at once, so an updater may read and write
+ * only the entities in the range it is given and must keep no state of its own between
+ * calls. Updated that way, each entity ends the step the same whichever thread ran it.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public interface EntityUpdater {
+
+    /**
+     * Updates the entities from one index up to another
+     * @param store The entities
+     * @param from The first index
+     * @param to The index after the last
+     * @param dt The time step
+     */
+    void update(EntityStore store, int from, int to, float dt);
+}
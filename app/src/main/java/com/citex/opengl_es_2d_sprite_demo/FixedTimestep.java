@@ -0,0 +1,138 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * Runs the simulation at a fixed rate independent of the frame rate. The time of each frame
+ * is added to an accumulator, and the game is updated in whole steps while a step of time is
+ * left, carrying the remainder into the next frame. The fraction of a step left over is the
+ * alpha the frame is drawn with, between the states before and after the last step.
+ *
+ * A slow frame is caught up with several steps, so the simulation keeps its pace while
+ * frames are dropped. The steps run in a frame are capped, and time beyond the cap is
+ * discarded, so a stall such as a context loss cannot leave the game updating for longer
+ * than it draws.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public final class FixedTimestep {
+
+    /** A 60Hz step in milliseconds */
+    public static final float DEFAULT_STEP = 1000f / 60;
+
+    /** The number of steps a frame may catch up before time is discarded */
+    public static final int DEFAULT_MAX_STEPS = 5;
+
+    /** The length of a step in milliseconds */
+    private final float mStep;
+
+    /** The most steps run in one frame */
+    private final int mMaxSteps;
+
+    /** The time not yet simulated, less than a step after each frame */
+    private float mAccumulator;
+
+    /** The number of steps run by the last frame */
+    private int mLastFrameSteps;
+
+    /** The total steps run and the time discarded by the cap */
+    private long mStepCount;
+    private float mDroppedTime;
+
+    /**
+     * Constructs a 60Hz FixedTimestep
+     */
+    public FixedTimestep() {
+        this(DEFAULT_STEP, DEFAULT_MAX_STEPS);
+    }
+
+    /**
+     * Constructs the FixedTimestep
+     * @param step The length of a step in milliseconds
+     * @param maxSteps The most steps run in one frame
+     */
+    public FixedTimestep(float step, int maxSteps) {
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("step");
+        }
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("maxSteps");
+        }
+        mStep = step;
+        mMaxSteps = maxSteps;
+    }
+
+    /**
+     * Adds the time of a frame and returns the number of steps to run for it
+     * @param frameDelta The time since the last frame in milliseconds
+     * @return The number of steps, at most the step cap
+     */
+    public int advance(float frameDelta) {
+        // A clock running backwards or a bad reading adds no time.
+        if (frameDelta > 0) {
+            mAccumulator += frameDelta;
+        }
+
+        int steps = (int) (mAccumulator / mStep);
+        if (steps > mMaxSteps) {
+            float dropped = (steps - mMaxSteps) * mStep;
+            mDroppedTime += dropped;
+            mAccumulator -= dropped;
+            steps = mMaxSteps;
+        }
+        mAccumulator = Math.max(mAccumulator - steps * mStep, 0);
+
+        mLastFrameSteps = steps;
+        mStepCount += steps;
+        return steps;
+    }
+
+    /**
+     * Returns how far the time of the frame is between the last two steps, which the frame
+     * is drawn at
+     * @return The interpolation alpha, from 0 to 1
+     */
+    public float getAlpha() {
+        return Math.min(mAccumulator / mStep, 1);
+    }
+
+    /**
+     * Returns the length of a step, which each update is passed
+     * @return The step in milliseconds
+     */
+    public float getStep() {
+        return mStep;
+    }
+
+    /**
+     * Returns the number of steps run by the last frame
+     * @return The step count, 0 when the frame was drawn without an update
+     */
+    public int getLastFrameSteps() {
+        return mLastFrameSteps;
+    }
+
+    /**
+     * Returns the number of steps run since the timestep was made
+     * @return The step count
+     */
+    public long getStepCount() {
+        return mStepCount;
+    }
+
+    /**
+     * Returns the time discarded because frames took longer than the step cap
+     * @return The time in milliseconds
+     */
+    public float getDroppedTime() {
+        return mDroppedTime;
+    }
+
+    /**
+     * Discards the time not yet simulated, so the next frame starts on a step
+     */
+    public void reset() {
+        mAccumulator = 0;
+    }
+}
@@ -0,0 +1,226 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * A quad for every frame of a sprite sheet, followed by a horizontally flipped copy of each
+ * quad. A frame is selected by its offset in the table, so drawing any frame binds the same
+ * buffer and issues one four vertex triangle strip whose corners are placed by a
+ * QuadTransform.
+ * Each quad stores its own position as well as its texture coordinates because trimmed
+ * atlas frames differ in size and offset. The positions are only read on the CPU, to be
+ * transformed or copied into a batch, so the hardware buffer holds just the texture
+ * coordinates.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+class FrameMesh {
+
+    /** The number of floats per vertex (x, y, u, v) */
+    static final int FLOATS_PER_VERTEX = 4;
+
+    /** The number of floats per quad */
+    static final int FLOATS_PER_QUAD = FLOATS_PER_VERTEX * 4;
+
+    /** The number of texture coordinate floats per quad in the hardware buffer */
+    private static final int TEXCOORDS_PER_QUAD = 2 * 4;
+
+    /** The number of frames */
+    private final int mFrameCount;
+
+    /** The quad table, frames first and then the flipped frames */
+    private final float[] mVertices;
+
+    /** The texture coordinates of the quad table, uploaded or drawn from client memory */
+    private final FloatBuffer mTexCoordBuffer;
+
+    /** The transformed positions of the quad being drawn */
+    private final float[] mPositions = new float[8];
+
+    /** The direct buffer the transformed positions are drawn from */
+    private final FloatBuffer mPositionBuffer;
+
+    /** The hardware buffer handle */
+    private int mVertBufferIndex;
+
+    /** Is the hardware buffer allocated */
+    private boolean mUseHardwareBuffers;
+
+    /** The asset reported as the owner of the hardware buffer */
+    private final String mOwner;
+
+    /**
+     * Constructs the FrameMesh
+     * @param frameCount The number of frames
+     * @param owner The asset reported as the owner of the hardware buffer
+     */
+    FrameMesh(int frameCount, String owner) {
+        mFrameCount = frameCount;
+        mOwner = owner;
+        mVertices = new float[frameCount * 2 * FLOATS_PER_QUAD];
+        mTexCoordBuffer = ByteBuffer.allocateDirect(frameCount * 2 * TEXCOORDS_PER_QUAD * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        mPositionBuffer = ByteBuffer.allocateDirect(mPositions.length * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Sets the quad of a frame and its flipped copy. The coordinates are stored swapped for
+     * the rotated projection in the same way as GLSprite.
+     * @param frame The frame number
+     * @param textureWidth The texture width
+     * @param textureHeight The texture height
+     * @param x The x coordinate of the frame in the texture
+     * @param y The y coordinate of the frame in the texture
+     * @param w The width of the frame in the texture
+     * @param h The height of the frame in the texture
+     * @param offsetX The x offset of a trimmed frame within its source frame
+     * @param offsetY The y offset of a trimmed frame within its source frame
+     * @param sourceWidth The width of the source frame
+     */
+    void setFrame(int frame, float textureWidth, float textureHeight, float x, float y, float w, float h,
+                  float offsetX, float offsetY, float sourceWidth) {
+        float uMin = x / textureWidth;
+        float vMin = y / textureHeight;
+        float uMax = (x + w) / textureWidth;
+        float vMax = (y + h) / textureHeight;
+
+        putQuad(mVertices, frame, offsetX, offsetY, w, h, uMin, vMin, uMax, vMax);
+        putQuad(mVertices, mFrameCount + frame, sourceWidth - offsetX - w, offsetY, w, h, uMax, vMin, uMin, vMax);
+        mUseHardwareBuffers = false;
+    }
+
+    /**
+     * Writes a quad into a table of (x, y, u, v) vertices, swapped for the rotated projection
+     * @param v The quad table
+     * @param quad The index of the quad in the table
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param w The quad width
+     * @param h The quad height
+     * @param uLeft The texture coordinate at the left edge
+     * @param vTop The texture coordinate at the top edge
+     * @param uRight The texture coordinate at the right edge
+     * @param vBottom The texture coordinate at the bottom edge
+     */
+    static void putQuad(float[] v, int quad, float x, float y, float w, float h,
+                        float uLeft, float vTop, float uRight, float vBottom) {
+        int i = quad * FLOATS_PER_QUAD;
+
+        v[i++] = y;     v[i++] = x;     v[i++] = uLeft;  v[i++] = vTop; //0
+        v[i++] = y + h; v[i++] = x;     v[i++] = uLeft;  v[i++] = vBottom; //1
+        v[i++] = y;     v[i++] = x + w; v[i++] = uRight; v[i++] = vTop; //2
+        v[i++] = y + h; v[i++] = x + w; v[i++] = uRight; v[i]   = vBottom; //3
+    }
+
+    /**
+     * Returns the index of a frame's quad in the table
+     * @param frame The frame number
+     * @param flipped Is the frame flipped horizontally
+     * @return The quad index
+     */
+    int getQuad(int frame, boolean flipped) {
+        return flipped ? mFrameCount + frame : frame;
+    }
+
+    /**
+     * Returns the quad table, FLOATS_PER_QUAD floats per quad
+     * @return The quad table
+     */
+    float[] getVertices() {
+        return mVertices;
+    }
+
+    /**
+     * Draws a frame with its corners transformed on the CPU. The texture coordinates are read
+     * from the hardware buffer and only the four transformed positions are sent from client
+     * memory.
+     * @param gl The GL context
+     * @param frame The frame number
+     * @param flipped Is the frame flipped horizontally
+     * @param transform Places the frame on the screen
+     */
+    void draw(GL10 gl, int frame, boolean flipped, QuadTransform transform) {
+        int quad = getQuad(frame, flipped);
+        transform.transformPositions(mVertices, quad, mPositions);
+        mPositionBuffer.put(mPositions, 0, mPositions.length);
+        mPositionBuffer.position(0);
+
+        if (mUseHardwareBuffers) {
+            GL11 gl11 = (GL11) gl;
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mVertBufferIndex);
+            gl11.glTexCoordPointer(2, GL10.GL_FLOAT, 0, quad * TEXCOORDS_PER_QUAD * 4);
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
+        } else {
+            mTexCoordBuffer.position(quad * TEXCOORDS_PER_QUAD);
+            gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, mTexCoordBuffer);
+            mTexCoordBuffer.position(0);
+        }
+        gl.glVertexPointer(2, GL10.GL_FLOAT, 0, mPositionBuffer);
+        gl.glDrawArrays(GL10.GL_TRIANGLE_STRIP, 0, 4);
+    }
+
+    /**
+     * Uploads the texture coordinates of the quad table to a hardware buffer if they have not
+     * already been uploaded
+     * @param gl The GL context
+     */
+    void generateHardwareBuffers(GL10 gl) {
+        final float[] vertices = mVertices;
+        final FloatBuffer texCoords = mTexCoordBuffer;
+        texCoords.clear();
+        for (int i = 2; i < vertices.length; i += FLOATS_PER_VERTEX) {
+            texCoords.put(vertices[i]);
+            texCoords.put(vertices[i + 1]);
+        }
+        texCoords.position(0);
+        final int bytes = texCoords.capacity() * 4;
+
+        if (!mUseHardwareBuffers && gl instanceof GL11) {
+            GL11 gl11 = (GL11) gl;
+            GLResourceRegistry registry = GLResourceRegistry.getInstance();
+            if (mVertBufferIndex == 0) {
+                mVertBufferIndex = registry.genBuffer(gl11, mOwner);
+            }
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mVertBufferIndex);
+            gl11.glBufferData(GL11.GL_ARRAY_BUFFER, bytes, texCoords, GL11.GL_STATIC_DRAW);
+            registry.setBytes(GLResourceRegistry.BUFFER, mVertBufferIndex, bytes);
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
+            mUseHardwareBuffers = true;
+        }
+    }
+
+    /**
+     * When the OpenGL ES device is lost, GL handles become invalidated.
+     * Forget the old handle so a new one is made.
+     */
+    void invalidateHardwareBuffers() {
+        mVertBufferIndex = 0;
+        mUseHardwareBuffers = false;
+    }
+
+    /**
+     * Deletes the hardware buffer allocated by this object (if any).
+     * @param gl The GL context
+     */
+    void releaseHardwareBuffers(GL10 gl) {
+        GLResourceRegistry.getInstance().release(gl, GLResourceRegistry.BUFFER, mVertBufferIndex);
+        invalidateHardwareBuffers();
+    }
+
+    /**
+     * Returns the hardware buffer handle
+     * @return The buffer handle or 0 if none is allocated
+     */
+    int getVertexBuffer() {
+        return mVertBufferIndex;
+    }
+}
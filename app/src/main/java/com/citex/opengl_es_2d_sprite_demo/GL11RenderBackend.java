@@ -0,0 +1,70 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Draws render queue commands with the GLES 1.x fixed function pipeline. Sprites go into a
+ * SpriteBatch so those sharing a texture cost one draw call, rotated sprites included since
+ * their corners are transformed on the CPU. Tiled strips are drawn from their own cached
+ * vertex buffers after flushing the batch. Nothing is drawn through the matrix stack.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class GL11RenderBackend implements RenderBackend {
+
+    /** Draws consecutive sprites sharing a texture */
+    private final SpriteBatch mSpriteBatch;
+
+    /** The GL context between begin() and end() */
+    private GL10 mGL;
+
+    /**
+     * Constructs the GL11RenderBackend
+     * @param batchCapacity The number of quads the sprite batch holds before flushing
+     */
+    public GL11RenderBackend(int batchCapacity) {
+        mSpriteBatch = new SpriteBatch(batchCapacity);
+    }
+
+    @Override
+    public void begin(GL10 gl) {
+        mGL = gl;
+        mSpriteBatch.begin(gl);
+    }
+
+    @Override
+    public void drawSprite(SpriteSheet sheet, int frameNumber, boolean flipped, float x, float y) {
+        sheet.drawFrame(mSpriteBatch, frameNumber, flipped ? 'r' : 'l', x, y);
+    }
+
+    @Override
+    public void drawRotated(SpriteSheet sheet, int frameNumber, boolean flipped, float angle,
+                            int x, int y, int centerX, int centerY) {
+        sheet.drawFrame(mSpriteBatch, frameNumber, flipped ? 'r' : 'l', angle, x, y, centerX, centerY);
+    }
+
+    @Override
+    public void drawTiled(SpriteSheet sheet, int frameNumber, float x, float y, float repeatWidth, float repeatHeight) {
+        mSpriteBatch.flush();
+        sheet.drawFrame(mGL, frameNumber, x, y, repeatWidth, repeatHeight);
+    }
+
+    @Override
+    public void end() {
+        mSpriteBatch.end();
+        mGL = null;
+    }
+
+    @Override
+    public void invalidateHardwareBuffers() {
+        mSpriteBatch.invalidateHardwareBuffers();
+    }
+
+    @Override
+    public void releaseHardwareBuffers(GL10 gl) {
+        mSpriteBatch.releaseHardwareBuffers(gl);
+    }
+}
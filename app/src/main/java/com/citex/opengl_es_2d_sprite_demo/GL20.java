@@ -0,0 +1,95 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.nio.Buffer;
+
+/**
+ * The OpenGL ES 2.0 functions used by the shader backend. Android only exposes GLES 2.0 as
+ * the static methods of android.opengl.GLES20, so the backend goes through this interface to
+ * be able to run against a recording GL on a plain JVM. The methods have the same names and
+ * signatures as their GLES20 counterparts.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public interface GL20 {
+
+    int GL_NO_ERROR = 0;
+    int GL_TRIANGLES = 0x0004;
+    int GL_SRC_ALPHA = 0x0302;
+    int GL_ONE_MINUS_SRC_ALPHA = 0x0303;
+    int GL_CULL_FACE = 0x0B44;
+    int GL_DEPTH_TEST = 0x0B71;
+    int GL_DITHER = 0x0BD0;
+    int GL_BLEND = 0x0BE2;
+    int GL_TEXTURE_2D = 0x0DE1;
+    int GL_UNSIGNED_BYTE = 0x1401;
+    int GL_UNSIGNED_SHORT = 0x1403;
+    int GL_FLOAT = 0x1406;
+    int GL_EXTENSIONS = 0x1F03;
+    int GL_COLOR_BUFFER_BIT = 0x4000;
+    int GL_TEXTURE0 = 0x84C0;
+    int GL_ARRAY_BUFFER = 0x8892;
+    int GL_ELEMENT_ARRAY_BUFFER = 0x8893;
+    int GL_STREAM_DRAW = 0x88E0;
+    int GL_STATIC_DRAW = 0x88E4;
+    int GL_DYNAMIC_DRAW = 0x88E8;
+    int GL_FRAGMENT_SHADER = 0x8B30;
+    int GL_VERTEX_SHADER = 0x8B31;
+    int GL_COMPILE_STATUS = 0x8B81;
+    int GL_LINK_STATUS = 0x8B82;
+
+    // Textures, shared with the GL10 loading path
+    void glGenTextures(int n, int[] textures, int offset);
+    void glDeleteTextures(int n, int[] textures, int offset);
+    void glBindTexture(int target, int texture);
+    void glActiveTexture(int texture);
+    void glTexParameterf(int target, int pname, float param);
+    void glTexImage2D(int target, int level, int internalformat, int width, int height, int border,
+                      int format, int type, Buffer pixels);
+    void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height,
+                         int format, int type, Buffer pixels);
+
+    // Buffers, shared with the GL11 loading path
+    void glGenBuffers(int n, int[] buffers, int offset);
+    void glDeleteBuffers(int n, int[] buffers, int offset);
+    void glBindBuffer(int target, int buffer);
+    void glBufferData(int target, int size, Buffer data, int usage);
+    void glBufferSubData(int target, int offset, int size, Buffer data);
+
+    // Shaders
+    int glCreateShader(int type);
+    void glShaderSource(int shader, String string);
+    void glCompileShader(int shader);
+    void glGetShaderiv(int shader, int pname, int[] params, int offset);
+    String glGetShaderInfoLog(int shader);
+    void glDeleteShader(int shader);
+    int glCreateProgram();
+    void glAttachShader(int program, int shader);
+    void glBindAttribLocation(int program, int index, String name);
+    void glLinkProgram(int program);
+    void glGetProgramiv(int program, int pname, int[] params, int offset);
+    String glGetProgramInfoLog(int program);
+    void glUseProgram(int program);
+    void glDeleteProgram(int program);
+    int glGetUniformLocation(int program, String name);
+    void glUniform1i(int location, int x);
+    void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset);
+
+    // Vertex attributes and drawing
+    void glEnableVertexAttribArray(int index);
+    void glDisableVertexAttribArray(int index);
+    void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, int offset);
+    void glDrawElements(int mode, int count, int type, int offset);
+
+    // State
+    void glViewport(int x, int y, int width, int height);
+    void glClearColor(float red, float green, float blue, float alpha);
+    void glClear(int mask);
+    void glEnable(int cap);
+    void glDisable(int cap);
+    void glBlendFunc(int sfactor, int dfactor);
+    int glGetError();
+    String glGetString(int name);
+}
@@ -0,0 +1,83 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * Presents a GL20 as the GL10/GL11 which the texture atlas, sprite sheets and resource
+ * registry are written against, so the game's resources can be loaded and released on a
+ * GLES 2.0 context. Calls which GLES 2.0 shares with GLES 1.1, such as texture and buffer
+ * management, are forwarded. Fixed function calls such as glTexEnvf or the crop rectangle
+ * have no GLES 2.0 counterpart and are dropped.
+ *
+ * Calls are dispatched by reflection, so the adapter is meant for loading and not for
+ * drawing.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class GL20Adapter implements InvocationHandler {
+
+    /** The GL interfaces the adapter implements */
+    private static final Class<?>[] INTERFACES = {GL10.class, GL11.class};
+
+    /** The GL the shared calls are forwarded to */
+    private final GL20 mGL;
+
+    /** The GL20 method matching each GL10/GL11 method, or the method itself when there is none */
+    private final Map<Method, Method> mMethods = new HashMap<>();
+
+    /**
+     * Creates a GL11 which forwards the calls GLES 2.0 shares with GLES 1.1
+     * @param gl The GL20 to forward to
+     * @return The GL context
+     */
+    public static GL11 create(GL20 gl) {
+        return (GL11) Proxy.newProxyInstance(GL20Adapter.class.getClassLoader(), INTERFACES,
+                new GL20Adapter(gl));
+    }
+
+    private GL20Adapter(GL20 gl) {
+        mGL = gl;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Method target = mMethods.get(method);
+        if (target == null) {
+            try {
+                target = GL20.class.getMethod(method.getName(), method.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                target = method;
+            }
+            mMethods.put(method, target);
+        }
+
+        if (target != method) {
+            try {
+                return target.invoke(mGL, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        Class<?> type = method.getReturnType();
+        if (type == int.class) {
+            return 0;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == String.class) {
+            return "";
+        }
+        return null;
+    }
+}
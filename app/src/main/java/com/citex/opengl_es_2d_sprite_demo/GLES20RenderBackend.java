@@ -0,0 +1,385 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+import android.util.Log;
+
+/**
+ * Draws render queue commands through OpenGL ES 2.0 with a single sprite shader. Every
+ * sprite, rotated or not, is written into one streaming vertex buffer whose vertices carry
+ * their position, texture coordinate, rotation and tint, so sprites sharing a texture cost
+ * one draw call and the matrix stack is never used. The projection maps the game
+ * resolution straight to the screen.
+ *
+ * The GL10 passed to begin() is not used. The stream and index buffers are generated through
+ * the GL given to the constructor, which the resource registry tracks them with, so drawing a
+ * frame only calls the GL20.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class GLES20RenderBackend implements RenderBackend {
+
+    /** The vertex attribute locations */
+    static final int ATTRIBUTE_POSITION = 0;
+    static final int ATTRIBUTE_TEXCOORD = 1;
+    static final int ATTRIBUTE_ROTATION = 2;
+    static final int ATTRIBUTE_TINT = 3;
+
+    /**
+     * The position attribute holds the pivot in xy and the corner's offset from the pivot in
+     * zw. Positive angles turn the offset counter-clockwise on screen, as glRotatef does in
+     * the rotated GLES 1.x projection.
+     */
+    static final String VERTEX_SHADER =
+            "uniform mat4 u_projection;\n" +
+            "attribute vec4 a_position;\n" +
+            "attribute vec2 a_texCoord;\n" +
+            "attribute float a_rotation;\n" +
+            "attribute vec4 a_tint;\n" +
+            "varying vec2 v_texCoord;\n" +
+            "varying vec4 v_tint;\n" +
+            "void main() {\n" +
+            "    float c = cos(a_rotation);\n" +
+            "    float s = sin(a_rotation);\n" +
+            "    vec2 offset = vec2(a_position.z * c + a_position.w * s, a_position.w * c - a_position.z * s);\n" +
+            "    gl_Position = u_projection * vec4(a_position.xy + offset, 0.0, 1.0);\n" +
+            "    v_texCoord = a_texCoord;\n" +
+            "    v_tint = a_tint;\n" +
+            "}\n";
+
+    static final String FRAGMENT_SHADER =
+            "precision mediump float;\n" +
+            "uniform sampler2D u_texture;\n" +
+            "varying vec2 v_texCoord;\n" +
+            "varying vec4 v_tint;\n" +
+            "void main() {\n" +
+            "    gl_FragColor = texture2D(u_texture, v_texCoord) * v_tint;\n" +
+            "}\n";
+
+    /** The number of 32 bit words per vertex (pivot x, y, offset x, y, u, v, rotation, tint) */
+    static final int WORDS_PER_VERTEX = 8;
+
+    /** The size of an interleaved vertex in bytes */
+    private static final int VERTEX_STRIDE = WORDS_PER_VERTEX * 4;
+
+    /** The number of words per quad */
+    private static final int WORDS_PER_QUAD = WORDS_PER_VERTEX * 4;
+
+    /** The GLES 2.0 functions */
+    private final GL20 mGL;
+
+    /** The GL the resource registry generates the buffers through */
+    private final GL11 mResourceGL;
+
+    /** The number of quads the stream holds before it is flushed */
+    private final int mCapacity;
+
+    /** The vertex stream with floats stored as their bits, and the buffer used to upload it */
+    private final int[] mVertices;
+    private final IntBuffer mVertexBuffer;
+
+    /** The number of quads waiting to be drawn and their texture */
+    private int mQuadCount, mTextureName;
+
+    /** The tint of the next sprites, four bytes in RGBA memory order */
+    private int mTint;
+
+    /** The shader program and its projection uniform */
+    private int mProgram, mProjectionLocation;
+
+    /** The projection from game coordinates to clip space */
+    private final float[] mProjection = new float[16];
+    private boolean mProjectionChanged;
+
+    /** The streaming vertex buffer handle */
+    private int mVertBufferIndex;
+
+    /** The number of draw calls issued since begin() */
+    private int mDrawCallCount;
+
+    /**
+     * Constructs the GLES20RenderBackend
+     * @param gl The GLES 2.0 functions
+     * @param resourceGL The GL the resource registry generates the buffers through, such as a
+     *                   GL20Adapter
+     * @param capacity The number of quads to stream before flushing
+     */
+    public GLES20RenderBackend(GL20 gl, GL11 resourceGL, int capacity) {
+        if (capacity < 1 || capacity > SpriteBatch.MAX_QUADS) {
+            throw new IllegalArgumentException("capacity");
+        }
+
+        mGL = gl;
+        mResourceGL = resourceGL;
+        mCapacity = capacity;
+        mVertices = new int[capacity * WORDS_PER_QUAD];
+        mVertexBuffer = ByteBuffer.allocateDirect(mVertices.length * 4)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+
+        setTint(1, 1, 1, 1);
+        setProjection(480, 272);
+    }
+
+    /**
+     * Sets the size of the game area mapped to the viewport, with 0,0 at the top left
+     * @param width The width in game coordinates
+     * @param height The height in game coordinates
+     */
+    public void setProjection(float width, float height) {
+        float[] m = mProjection;
+        for (int i = 0; i < 16; i++) {
+            m[i] = 0;
+        }
+        m[0] = 2 / width;
+        m[5] = -2 / height;
+        m[10] = -1;
+        m[12] = -1;
+        m[13] = 1;
+        m[15] = 1;
+        mProjectionChanged = true;
+    }
+
+    /**
+     * Sets the colour the next sprites are multiplied by
+     * @param red The red component from 0 to 1
+     * @param green The green component from 0 to 1
+     * @param blue The blue component from 0 to 1
+     * @param alpha The alpha component from 0 to 1
+     */
+    public void setTint(float red, float green, float blue, float alpha) {
+        int r = (int) (red * 255 + 0.5f), g = (int) (green * 255 + 0.5f);
+        int b = (int) (blue * 255 + 0.5f), a = (int) (alpha * 255 + 0.5f);
+        if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+            mTint = r | g << 8 | b << 16 | a << 24;
+        } else {
+            mTint = r << 24 | g << 16 | b << 8 | a;
+        }
+    }
+
+    @Override
+    public void begin(GL10 gl) {
+        mQuadCount = 0;
+        mTextureName = 0;
+        mDrawCallCount = 0;
+        generateHardwareBuffers();
+
+        GL20 gl20 = mGL;
+        gl20.glUseProgram(mProgram);
+        if (mProjectionChanged) {
+            gl20.glUniformMatrix4fv(mProjectionLocation, 1, false, mProjection, 0);
+            mProjectionChanged = false;
+        }
+
+        QuadIndexBuffer.getInstance().bind(gl20, mResourceGL, mCapacity);
+        gl20.glBindBuffer(GL20.GL_ARRAY_BUFFER, mVertBufferIndex);
+        gl20.glEnableVertexAttribArray(ATTRIBUTE_POSITION);
+        gl20.glEnableVertexAttribArray(ATTRIBUTE_TEXCOORD);
+        gl20.glEnableVertexAttribArray(ATTRIBUTE_ROTATION);
+        gl20.glEnableVertexAttribArray(ATTRIBUTE_TINT);
+        gl20.glVertexAttribPointer(ATTRIBUTE_POSITION, 4, GL20.GL_FLOAT, false, VERTEX_STRIDE, 0);
+        gl20.glVertexAttribPointer(ATTRIBUTE_TEXCOORD, 2, GL20.GL_FLOAT, false, VERTEX_STRIDE, 4 * 4);
+        gl20.glVertexAttribPointer(ATTRIBUTE_ROTATION, 1, GL20.GL_FLOAT, false, VERTEX_STRIDE, 6 * 4);
+        gl20.glVertexAttribPointer(ATTRIBUTE_TINT, 4, GL20.GL_UNSIGNED_BYTE, true, VERTEX_STRIDE, 7 * 4);
+    }
+
+    @Override
+    public void drawSprite(SpriteSheet sheet, int frameNumber, boolean flipped, float x, float y) {
+        putQuad(sheet.getTextureName(frameNumber), sheet.getQuads(), sheet.getQuad(frameNumber, flipped),
+                x, y, 0, 0, 0);
+    }
+
+    @Override
+    public void drawRotated(SpriteSheet sheet, int frameNumber, boolean flipped, float angle,
+                            int x, int y, int centerX, int centerY) {
+        if (frameNumber < sheet.getFrameCount()) {
+            putQuad(sheet.getTextureName(frameNumber), sheet.getQuads(), sheet.getQuad(frameNumber, flipped),
+                    x + centerX, y + centerY, centerX, centerY, (float) Math.toRadians(angle));
+        }
+    }
+
+    @Override
+    public void drawTiled(SpriteSheet sheet, int frameNumber, float x, float y, float repeatWidth, float repeatHeight) {
+        if (repeatWidth < 0 || repeatHeight < 0) {
+            return;
+        }
+
+        TiledMesh mesh = sheet.getTiledMesh(frameNumber, (int) x, (int) y, repeatWidth, repeatHeight);
+        int texture = sheet.getTextureName(frameNumber);
+        float[] quads = mesh.getVertices();
+        for (int quad = 0; quad < mesh.getQuadCount(); quad++) {
+            putQuad(texture, quads, quad, 0, 0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Adds a quad from a table of quads in the rotated projection to the stream
+     * @param textureName The texture to draw with
+     * @param quads The quad table, four (y, x, u, v) vertices per quad
+     * @param quad The index of the quad in the table
+     * @param pivotX The x coordinate of the pivot
+     * @param pivotY The y coordinate of the pivot
+     * @param centerX The x coordinate of the pivot within the quad table
+     * @param centerY The y coordinate of the pivot within the quad table
+     * @param rotation The rotation about the pivot in radians
+     */
+    private void putQuad(int textureName, float[] quads, int quad, float pivotX, float pivotY,
+                         float centerX, float centerY, float rotation) {
+        if (textureName != mTextureName || mQuadCount == mCapacity) {
+            flush();
+            mTextureName = textureName;
+        }
+
+        int[] v = mVertices;
+        int i = mQuadCount * WORDS_PER_QUAD;
+        int j = quad * FrameMesh.FLOATS_PER_QUAD;
+        int px = Float.floatToRawIntBits(pivotX);
+        int py = Float.floatToRawIntBits(pivotY);
+        int r = Float.floatToRawIntBits(rotation);
+
+        for (int vertex = 0; vertex < 4; vertex++) {
+            float localY = quads[j++];
+            float localX = quads[j++];
+            v[i++] = px;
+            v[i++] = py;
+            v[i++] = Float.floatToRawIntBits(localX - centerX);
+            v[i++] = Float.floatToRawIntBits(localY - centerY);
+            v[i++] = Float.floatToRawIntBits(quads[j++]);
+            v[i++] = Float.floatToRawIntBits(quads[j++]);
+            v[i++] = r;
+            v[i++] = mTint;
+        }
+
+        mQuadCount++;
+    }
+
+    /**
+     * Draws the quads waiting in the stream
+     */
+    public void flush() {
+        if (mQuadCount == 0) {
+            return;
+        }
+
+        GL20 gl = mGL;
+        int words = mQuadCount * WORDS_PER_QUAD;
+        mVertexBuffer.clear();
+        mVertexBuffer.put(mVertices, 0, words);
+        mVertexBuffer.position(0);
+
+        gl.glBindTexture(GL20.GL_TEXTURE_2D, mTextureName);
+        // Orphan the previous contents so the driver does not stall on them.
+        gl.glBufferData(GL20.GL_ARRAY_BUFFER, words * 4, mVertexBuffer, GL20.GL_STREAM_DRAW);
+        GLResourceRegistry.getInstance().setBytes(GLResourceRegistry.BUFFER, mVertBufferIndex, words * 4);
+        gl.glDrawElements(GL20.GL_TRIANGLES, mQuadCount * 6, GL20.GL_UNSIGNED_SHORT, 0);
+
+        mDrawCallCount++;
+        mQuadCount = 0;
+    }
+
+    @Override
+    public void end() {
+        flush();
+    }
+
+    /**
+     * Compiles the sprite shader and allocates the streaming vertex buffer if they have not
+     * already been made. The quads are drawn with the shared QuadIndexBuffer.
+     */
+    public void generateHardwareBuffers() {
+        GL20 gl20 = mGL;
+        if (mProgram == 0) {
+            mProgram = createProgram(gl20);
+            mProjectionLocation = gl20.glGetUniformLocation(mProgram, "u_projection");
+            gl20.glUseProgram(mProgram);
+            gl20.glUniform1i(gl20.glGetUniformLocation(mProgram, "u_texture"), 0);
+            mProjectionChanged = true;
+        }
+
+        if (mVertBufferIndex == 0) {
+            mVertBufferIndex = GLResourceRegistry.getInstance().genBuffer(mResourceGL, "GLES20RenderBackend");
+        }
+    }
+
+    /**
+     * Compiles and links the sprite shader with its attributes at fixed locations
+     */
+    private static int createProgram(GL20 gl) {
+        int vertexShader = compileShader(gl, GL20.GL_VERTEX_SHADER, VERTEX_SHADER);
+        int fragmentShader = compileShader(gl, GL20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+
+        int program = gl.glCreateProgram();
+        gl.glAttachShader(program, vertexShader);
+        gl.glAttachShader(program, fragmentShader);
+        gl.glBindAttribLocation(program, ATTRIBUTE_POSITION, "a_position");
+        gl.glBindAttribLocation(program, ATTRIBUTE_TEXCOORD, "a_texCoord");
+        gl.glBindAttribLocation(program, ATTRIBUTE_ROTATION, "a_rotation");
+        gl.glBindAttribLocation(program, ATTRIBUTE_TINT, "a_tint");
+        gl.glLinkProgram(program);
+
+        // The program keeps the shaders until it is deleted.
+        gl.glDeleteShader(vertexShader);
+        gl.glDeleteShader(fragmentShader);
+
+        int[] status = new int[1];
+        gl.glGetProgramiv(program, GL20.GL_LINK_STATUS, status, 0);
+        if (status[0] == 0) {
+            Log.e("GLES20RenderBackend", "Could not link program: " + gl.glGetProgramInfoLog(program));
+        }
+        return program;
+    }
+
+    /**
+     * Compiles a shader
+     */
+    private static int compileShader(GL20 gl, int type, String source) {
+        int shader = gl.glCreateShader(type);
+        gl.glShaderSource(shader, source);
+        gl.glCompileShader(shader);
+
+        int[] status = new int[1];
+        gl.glGetShaderiv(shader, GL20.GL_COMPILE_STATUS, status, 0);
+        if (status[0] == 0) {
+            Log.e("GLES20RenderBackend", "Could not compile shader: " + gl.glGetShaderInfoLog(shader));
+        }
+        return shader;
+    }
+
+    @Override
+    public void invalidateHardwareBuffers() {
+        mVertBufferIndex = 0;
+        mProgram = 0;
+    }
+
+    @Override
+    public void releaseHardwareBuffers(GL10 gl) {
+        GLResourceRegistry registry = GLResourceRegistry.getInstance();
+        registry.release(gl, GLResourceRegistry.BUFFER, mVertBufferIndex);
+        if (mProgram != 0) {
+            mGL.glDeleteProgram(mProgram);
+        }
+        invalidateHardwareBuffers();
+    }
+
+    /**
+     * Returns the number of draw calls issued since begin()
+     * @return The draw call count
+     */
+    public int getDrawCallCount() {
+        return mDrawCallCount;
+    }
+
+    /**
+     * Returns the projection from game coordinates to clip space
+     */
+    float[] getProjection() {
+        return mProjection;
+    }
+}
@@ -0,0 +1,118 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import javax.microedition.khronos.egl.EGL10;
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+import android.content.res.AssetManager;
+
+/**
+ * An OpenGL ES 2.0 renderer for the same GamePanel as GLSurfaceViewRenderer. The game's
+ * draws go through GLES20RenderBackend and its sprite shader instead of the matrix stack,
+ * and textures and buffers are loaded and released through a GL20Adapter. The adapter
+ * dispatches by reflection, so it is kept off the per frame path: the backend and the quad
+ * index buffer hold it only to generate buffers, and each frame the game is handed the GL10
+ * of the GL thread, which it does not call when drawing through the backend.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class GLES20Renderer extends GLSurfaceViewRenderer {
+
+    /** A GLES 2.0 config without a depth buffer */
+    public static final int[] CONFIG_SPEC = {
+            EGL10.EGL_RENDERABLE_TYPE, GLSurfaceView.EGL_OPENGL_ES2_BIT, EGL10.EGL_DEPTH_SIZE, 0, EGL10.EGL_NONE};
+
+    /** The GLES 2.0 functions */
+    private final GL20 mGL20;
+
+    /** The GL the game loads and releases its resources through, a GL20Adapter */
+    private final GL11 mGL;
+
+    /** Draws the game's sprites */
+    private GLES20RenderBackend mBackend;
+
+    /**
+     * Constructs the GLES20Renderer
+     */
+    public GLES20Renderer(AssetManager assetManager) {
+        this(new AssetTextureLoader(assetManager), new AndroidGL20());
+    }
+
+    /**
+     * Constructs the GLES20Renderer
+     * @param textureLoader Opens the asset files and uploads their images to textures
+     * @param gl The GLES 2.0 functions
+     */
+    public GLES20Renderer(TextureLoader textureLoader, GL20 gl) {
+        super(textureLoader);
+        mGL20 = gl;
+        mGL = GL20Adapter.create(gl);
+    }
+
+    /**
+     * Called whenever the surface is created. Loads the game and compiles the sprite shader.
+     * @param unused The GLES 1.x context, not used
+     */
+    @Override
+    public void surfaceCreated(GL10 unused) {
+        mGL20.glClearColor(0.5f, 0.5f, 0.5f, 1);
+        mGL20.glDisable(GL20.GL_DEPTH_TEST);
+        mGL20.glDisable(GL20.GL_DITHER);
+        mGL20.glEnable(GL20.GL_BLEND);
+        mGL20.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        mGL20.glActiveTexture(GL20.GL_TEXTURE0);
+
+        // Handles from a lost context are no longer valid.
+        GLResourceRegistry.getInstance().invalidateAll();
+
+        mBackend = new GLES20RenderBackend(mGL20, mGL, SpriteBatch.MAX_QUADS);
+        mBackend.generateHardwareBuffers();
+        setGamePanel(new GamePanel(mGL, getTextureLoader(), mBackend));
+    }
+
+    /**
+     * Called when the size of the window changes.
+     * @param unused The GLES 1.x context, not used
+     * @param width The width of the window
+     * @param height The height of the window
+     */
+    @Override
+    public void sizeChanged(GL10 unused, int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        getGamePanel().setSurfaceSize(width, height);
+
+        mGL20.glViewport(0, 0, width, height);
+        GamePanel gamePanel = getGamePanel();
+        mBackend.setProjection(gamePanel.getResolutionWidth(), gamePanel.getResolutionHeight());
+    }
+
+    /**
+     * Draws the sprites
+     * @param gl The GL context of the GL thread, passed to the game but not called
+     */
+    @Override
+    public void drawFrame(GL10 gl) {
+        drawGamePanel(gl);
+    }
+
+    /**
+     * Returns a GLES 2.0 configuration
+     */
+    @Override
+    public int[] getConfigSpec() {
+        return CONFIG_SPEC;
+    }
+
+    /**
+     * Called when the rendering thread shuts down. Releases the game's resources through
+     * GLES 2.0.
+     * @param unused The GLES 1.x context, not used
+     */
+    @Override
+    public void shutdown(GL10 unused) {
+        super.shutdown(mGL);
+    }
+}
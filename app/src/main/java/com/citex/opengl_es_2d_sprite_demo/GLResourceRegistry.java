@@ -0,0 +1,332 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+import javax.microedition.khronos.opengles.GL11ExtensionPack;
+
+/**
+ * Tracks every texture, hardware buffer and framebuffer allocated on the GL thread. Handles are reference
+ * counted so sprites cloned from a sprite sheet share its texture and buffers, and are only
+ * deleted when the last owner releases them. The registry records the owning asset and the
+ * size of each handle, and the creation site when site tracking is on, so the live handles
+ * can be listed in a leak report and the memory they hold can be checked to stay flat.
+ *
+ * The registry is only used from the GL thread and is not synchronized.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class GLResourceRegistry {
+
+    /** The resource kinds */
+    public static final int TEXTURE = 0;
+    public static final int BUFFER = 1;
+    public static final int FRAMEBUFFER = 2;
+
+    /** The kind names used in the leak report */
+    private static final String[] KIND_NAMES = {"texture ", "buffer ", "framebuffer "};
+
+    /** The number of stack frames kept for the creation site */
+    private static final int SITE_DEPTH = 4;
+
+    /** The registry shared by the GL thread */
+    private static final GLResourceRegistry sInstance = new GLResourceRegistry();
+
+    /** The live handles of each kind in creation order, indexed by kind */
+    private final List<LinkedHashMap<Integer, Resource>> mResources = new ArrayList<>();
+
+    /** Whether the creation site of each handle is captured for the leak report */
+    private boolean mTrackingSites;
+
+    /** The number of bytes held by the live handles */
+    private long mLiveBytes;
+
+    /** Counts the times every handle was deleted or forgotten at once */
+    private int mGeneration;
+
+    /** The workspace used to generate and delete handles */
+    private final int[] mNameWorkspace = new int[1];
+
+    /**
+     * Constructs the GLResourceRegistry
+     */
+    private GLResourceRegistry() {
+        for (int kind = TEXTURE; kind <= FRAMEBUFFER; kind++) {
+            mResources.add(new LinkedHashMap<Integer, Resource>());
+        }
+    }
+
+    /**
+     * Returns the registry shared by the GL thread
+     * @return The registry
+     */
+    public static GLResourceRegistry getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Sets whether the creation site of each handle tracked from now on is captured. Capturing
+     * it walks the stack for every handle, so it is meant for debug builds.
+     * @param trackingSites True to list creation sites in the leak report
+     */
+    public void setTrackingSites(boolean trackingSites) {
+        mTrackingSites = trackingSites;
+    }
+
+    /**
+     * Generates a texture name owned by an asset
+     * @param gl The GL context
+     * @param owner The asset owning the texture
+     * @return The texture name
+     */
+    public int genTexture(GL10 gl, String owner) {
+        gl.glGenTextures(1, mNameWorkspace, 0);
+        track(TEXTURE, mNameWorkspace[0], owner);
+        return mNameWorkspace[0];
+    }
+
+    /**
+     * Generates a hardware buffer name owned by an asset
+     * @param gl The GL context
+     * @param owner The asset owning the buffer
+     * @return The buffer name
+     */
+    public int genBuffer(GL11 gl, String owner) {
+        gl.glGenBuffers(1, mNameWorkspace, 0);
+        track(BUFFER, mNameWorkspace[0], owner);
+        return mNameWorkspace[0];
+    }
+
+    /**
+     * Generates a framebuffer name owned by an asset
+     * @param gl The GL context
+     * @param owner The asset owning the framebuffer
+     * @return The framebuffer name
+     */
+    public int genFramebuffer(GL11ExtensionPack gl, String owner) {
+        gl.glGenFramebuffersOES(1, mNameWorkspace, 0);
+        track(FRAMEBUFFER, mNameWorkspace[0], owner);
+        return mNameWorkspace[0];
+    }
+
+    /**
+     * Starts tracking a handle which was generated elsewhere with one reference
+     * @param kind The resource kind
+     * @param name The GL name
+     * @param owner The asset owning the handle
+     */
+    public void track(int kind, int name, String owner) {
+        if (name == 0) {
+            return;
+        }
+
+        Resource resource = new Resource(kind, name, owner, mTrackingSites ? new Throwable() : null);
+        Resource previous = mResources.get(kind).put(name, resource);
+        if (previous != null) { // the driver reused a name we never saw deleted
+            mLiveBytes -= previous.bytes;
+        }
+    }
+
+    /**
+     * Records the number of bytes uploaded to a handle, replacing any earlier upload
+     * @param kind The resource kind
+     * @param name The GL name
+     * @param bytes The size of the upload
+     */
+    public void setBytes(int kind, int name, int bytes) {
+        Resource resource = mResources.get(kind).get(name);
+        if (resource != null) {
+            mLiveBytes += bytes - resource.bytes;
+            resource.bytes = bytes;
+        }
+    }
+
+    /**
+     * Adds an owner to a handle
+     * @param kind The resource kind
+     * @param name The GL name
+     */
+    public void retain(int kind, int name) {
+        Resource resource = mResources.get(kind).get(name);
+        if (resource != null) {
+            resource.references++;
+        }
+    }
+
+    /**
+     * Removes an owner from a handle and deletes it when no owners remain. Handles which are
+     * not tracked are ignored.
+     * @param gl The GL context
+     * @param kind The resource kind
+     * @param name The GL name
+     */
+    public void release(GL10 gl, int kind, int name) {
+        Resource resource = mResources.get(kind).get(name);
+        if (resource == null) {
+            return;
+        }
+
+        if (--resource.references == 0) {
+            mResources.get(kind).remove(name);
+            delete(gl, resource);
+        }
+    }
+
+    /**
+     * Deletes every live handle regardless of its reference count. Called when the
+     * rendering thread shuts down after the game has released what it owns.
+     * @param gl The GL context
+     * @return The number of handles which were still live
+     */
+    public int releaseAll(GL10 gl) {
+        int count = 0;
+        for (LinkedHashMap<Integer, Resource> resources : mResources) {
+            Iterator<Resource> it = resources.values().iterator();
+            while (it.hasNext()) {
+                delete(gl, it.next());
+                it.remove();
+                count++;
+            }
+        }
+        mGeneration++;
+        return count;
+    }
+
+    /**
+     * When the OpenGL ES device is lost, GL handles become invalidated.
+     * Forget every handle without deleting it.
+     */
+    public void invalidateAll() {
+        for (LinkedHashMap<Integer, Resource> resources : mResources) {
+            resources.clear();
+        }
+        mLiveBytes = 0;
+        mGeneration++;
+    }
+
+    /**
+     * Returns a number which changes whenever every handle is deleted or forgotten, so a
+     * handle kept outside an owning object can be recreated after a context loss
+     * @return The generation
+     */
+    public int getGeneration() {
+        return mGeneration;
+    }
+
+    /**
+     * Deletes a handle which has been removed from the registry
+     */
+    private void delete(GL10 gl, Resource resource) {
+        mNameWorkspace[0] = resource.name;
+        if (resource.kind == TEXTURE) {
+            gl.glDeleteTextures(1, mNameWorkspace, 0);
+        } else if (resource.kind == FRAMEBUFFER) {
+            if (gl instanceof GL11ExtensionPack) {
+                ((GL11ExtensionPack) gl).glDeleteFramebuffersOES(1, mNameWorkspace, 0);
+            }
+        } else if (gl instanceof GL11) {
+            ((GL11) gl).glDeleteBuffers(1, mNameWorkspace, 0);
+        }
+        mLiveBytes -= resource.bytes;
+    }
+
+    /**
+     * Returns the number of live handles of a kind
+     * @param kind The resource kind
+     * @return The live handle count
+     */
+    public int getLiveCount(int kind) {
+        return mResources.get(kind).size();
+    }
+
+    /**
+     * Returns the number of bytes uploaded to the live handles
+     * @return The live byte count
+     */
+    public long getLiveBytes() {
+        return mLiveBytes;
+    }
+
+    /**
+     * Returns the reference count of a handle
+     * @param kind The resource kind
+     * @param name The GL name
+     * @return The reference count or 0 if the handle is not live
+     */
+    public int getReferences(int kind, int name) {
+        Resource resource = mResources.get(kind).get(name);
+        return resource != null ? resource.references : 0;
+    }
+
+    /**
+     * Lists the live handles with their owning asset and creation site
+     * @return The leak report, one line per handle
+     */
+    public String getLeakReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(getLiveCount(TEXTURE)).append(" textures, ")
+                .append(getLiveCount(BUFFER)).append(" buffers, ")
+                .append(getLiveCount(FRAMEBUFFER)).append(" framebuffers, ")
+                .append(mLiveBytes).append(" bytes live\n");
+
+        for (LinkedHashMap<Integer, Resource> resources : mResources) {
+            for (Resource resource : resources.values()) {
+                report.append(KIND_NAMES[resource.kind])
+                        .append(resource.name)
+                        .append(" refs=").append(resource.references)
+                        .append(" bytes=").append(resource.bytes)
+                        .append(" owner=").append(resource.owner);
+                if (resource.site != null) {
+                    for (StackTraceElement element : creationSite(resource.site)) {
+                        report.append("\n    at ").append(element);
+                    }
+                }
+                report.append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Returns the stack frames which called into the registry. The trace is only turned into
+     * stack frames when a report is made.
+     */
+    private static StackTraceElement[] creationSite(Throwable trace) {
+        StackTraceElement[] stack = trace.getStackTrace();
+        ArrayList<StackTraceElement> site = new ArrayList<>();
+        for (StackTraceElement element : stack) {
+            if (!element.getClassName().equals(GLResourceRegistry.class.getName())) {
+                site.add(element);
+                if (site.size() == SITE_DEPTH) {
+                    break;
+                }
+            }
+        }
+        return site.toArray(new StackTraceElement[0]);
+    }
+
+    /**
+     * A live texture, buffer or framebuffer
+     */
+    private static final class Resource {
+        final int kind, name;
+        final String owner;
+        final Throwable site; // null when sites were not tracked
+        int references = 1;
+        int bytes;
+
+        Resource(int kind, int name, String owner, Throwable site) {
+            this.kind = kind;
+            this.name = name;
+            this.owner = owner;
+            this.site = site;
+        }
+    }
+}
@@ -1,14 +1,10 @@
 package com.citex.opengl_es_2d_sprite_demo;
 
 import java.io.IOException;
-import java.io.InputStream;
 import javax.microedition.khronos.opengles.GL10;
 import javax.microedition.khronos.opengles.GL11;
 import javax.microedition.khronos.opengles.GL11Ext;
 import android.content.res.AssetManager;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.opengl.GLUtils;
 import android.util.Log;
 
 /**
@@ -44,8 +40,26 @@ public class GLSprite extends Renderable implements Cloneable {
     /** Is the texture flipped horizontally */
     boolean flipTexture;
 
-    /** Provides access to an application's raw asset files */
-    private AssetManager mAssetManager;
+    /** The offset of a trimmed frame within its source frame */
+    private float mOffsetX, mOffsetY;
+
+    /** The transparent width trimmed from the right of the source frame */
+    private float mTrimRight;
+
+    /** Places the vertex grid on the screen without the model view matrix */
+    private final QuadTransform mTransform = new QuadTransform();
+
+    /** The tiled strip drawn by draw(gl, x, y, repeatWidth, repeatHeight) */
+    private TiledMesh mTiledMesh;
+
+    /** The asset reported as the owner of the texture and buffers */
+    private String mAssetName;
+
+    /** The alpha of the loaded image, packed before the bitmap was recycled */
+    private CollisionMaskBuilder mCollisionPixels;
+
+    /** Opens the asset files and uploads their images to textures */
+    private TextureLoader mTextureLoader;
 
     /**
      * Constructs the GLSprite
@@ -58,6 +72,17 @@ public class GLSprite extends Renderable implements Cloneable {
         this(gl, texturePath, null, assetManager);
     }
 
+    /**
+     * Constructs the GLSprite
+     * @param gl The GL context
+     * @param texturePath The texture path
+     * @param textureLoader Opens the asset files and uploads their images to textures
+     * @throws IOException
+     */
+    public GLSprite(GL10 gl, String texturePath, TextureLoader textureLoader) throws IOException {
+        this(gl, texturePath, null, textureLoader);
+    }
+
     /**
      * Constructs the GLSprite
      * @param gl The GL context
@@ -67,12 +92,25 @@ public class GLSprite extends Renderable implements Cloneable {
      * @throws IOException
      */
     public GLSprite(GL10 gl, String texturePath, float clip[], AssetManager assetManager) throws IOException {
+        this(gl, texturePath, clip, assetManager != null ? new AssetTextureLoader(assetManager) : null);
+    }
+
+    /**
+     * Constructs the GLSprite
+     * @param gl The GL context
+     * @param texturePath The texture path
+     * @param clip The clipping region
+     * @param textureLoader Opens the asset files and uploads their images to textures
+     * @throws IOException
+     */
+    public GLSprite(GL10 gl, String texturePath, float clip[], TextureLoader textureLoader) throws IOException {
         super();
 
         //Pre-allocate and store these objects so we can use them at runtime
         mTextureNameWorkspace = new int[1];
         mCropWorkspace = new int[4];
-        mAssetManager = assetManager;
+        mTextureLoader = textureLoader;
+        mAssetName = texturePath;
         mTextureID = loadBitmap(gl, texturePath);
 
         if (mTextureID != -1) {
@@ -84,6 +122,46 @@ public class GLSprite extends Renderable implements Cloneable {
         }
     }
 
+    /**
+     * Constructs the GLSprite from a texture which has already been uploaded
+     * @param gl The GL context
+     * @param textureName The texture name
+     * @param width The texture width
+     * @param height The texture height
+     */
+    GLSprite(GL10 gl, int textureName, int width, int height) {
+        this(gl, textureName, width, height, "texture " + textureName);
+    }
+
+    /**
+     * Constructs the GLSprite from a texture which has already been uploaded. A texture the
+     * registry already tracks keeps its owner and creation site, and the sprite takes over
+     * its reference.
+     * @param gl The GL context
+     * @param textureName The texture name
+     * @param width The texture width
+     * @param height The texture height
+     * @param owner The asset reported as the owner of the texture and vertex buffers
+     */
+    GLSprite(GL10 gl, int textureName, int width, int height, String owner) {
+        super();
+
+        mTextureNameWorkspace = new int[1];
+        mCropWorkspace = new int[4];
+        mTextureID = textureName;
+        mAssetName = owner;
+        this.width = width;
+        this.height = height;
+        GLResourceRegistry registry = GLResourceRegistry.getInstance();
+        if (registry.getReferences(GLResourceRegistry.TEXTURE, textureName) == 0) {
+            registry.track(GLResourceRegistry.TEXTURE, textureName, owner);
+        }
+
+        if (mTextureID != -1) {
+            setVertices(gl, null);
+        }
+    }
+
     /**
      * Sets a vertex grid with the clipping region and calculates the texture mapping
      * coordinates
@@ -111,13 +189,15 @@ public class GLSprite extends Renderable implements Cloneable {
         uMax = (spriteX + spriteWidth) / width;
         vMax = (spriteY + spriteHeight) / height;
 
+        // The tiled strip was built from the previous clipping region
+        if (mTiledMesh != null) {
+            mTiledMesh.releaseHardwareBuffers(gl);
+            mTiledMesh = null;
+        }
+
         // Setup the vertices for the quad (Beginning iPhone Games Development p.268 UV)
-        Grid verts = new Grid(2, 2, false);
-        verts.set(0, 0, 0.0f, 0.0f, 0.0f, uMin, vMin, null); //0
-        verts.set(1, 0, spriteHeight, 0.0f, 0.0f, uMin, vMax, null); //1
-        verts.set(0, 1, 0.0f, spriteWidth, 0.0f, uMax, vMin, null); //2
-        verts.set(1, 1, spriteHeight, spriteWidth, 0.0f, uMax, vMax, null); //3
-        setGrid(verts);
+        releaseGrid(gl);
+        setGrid(createGrid(spriteWidth, spriteHeight, uMin, vMin, uMax, vMax, mOffsetX));
 
         if (mTextureID != -1) {
             // Load our texture and set its texture name
@@ -134,21 +214,13 @@ public class GLSprite extends Renderable implements Cloneable {
     public void flipSprite(GL10 gl, boolean horizontal) {
         if (horizontal && flipTexture == false) //flip horizontally
         {
-            Grid verts = new Grid(2, 2, false);
-            verts.set(0, 0, 0.0f, 0.0f, 0.0f, uMax, vMin, null); //0
-            verts.set(1, 0, spriteHeight, 0.0f, 0.0f, uMax, vMax, null); //1
-            verts.set(0, 1, 0.0f, spriteWidth, 0.0f, uMin, vMin, null); //2
-            verts.set(1, 1, spriteHeight, spriteWidth, 0.0f, uMin, vMax, null); //3
-            setGrid(verts);
+            releaseGrid(gl);
+            setGrid(createGrid(spriteWidth, spriteHeight, uMax, vMin, uMin, vMax, mTrimRight));
             flipTexture = true;
         } else if (!horizontal && flipTexture == true) //restore to original
         {
-            Grid verts = new Grid(2, 2, false);
-            verts.set(0, 0, 0.0f, 0.0f, 0.0f, uMin, vMin, null); //0
-            verts.set(1, 0, spriteHeight, 0.0f, 0.0f, uMin, vMax, null); //1
-            verts.set(0, 1, 0.0f, spriteWidth, 0.0f, uMax, vMin, null); //2
-            verts.set(1, 1, spriteHeight, spriteWidth, 0.0f, uMax, vMax, null); //3
-            setGrid(verts);
+            releaseGrid(gl);
+            setGrid(createGrid(spriteWidth, spriteHeight, uMin, vMin, uMax, vMax, mOffsetX));
             flipTexture = false;
         }
 
@@ -170,13 +242,8 @@ public class GLSprite extends Renderable implements Cloneable {
             uMax = (spriteX + w) / width;
             vMax = (spriteY + h) / height;
 
-            Grid verts = new Grid(2, 2, false);
-            verts.set(0, 0, 0.0f, 0.0f, 0.0f, uMin, vMin, null); //0
-            verts.set(1, 0, h, 0.0f, 0.0f, uMin, vMax, null); //1
-            verts.set(0, 1, 0.0f, w, 0.0f, uMax, vMin, null); //2
-            verts.set(1, 1, h, w, 0.0f, uMax, vMax, null); //3
-
-            setGrid(verts);
+            releaseGrid(gl);
+            setGrid(createGrid(w, h, uMin, vMin, uMax, vMax, mOffsetX));
             flipTexture = true;
         } else if (w == 0 && h == 0 && flipTexture == true) //restore to original
         {
@@ -185,12 +252,8 @@ public class GLSprite extends Renderable implements Cloneable {
             uMax = (spriteX + spriteWidth) / width;
             vMax = (spriteY + spriteHeight) / height;
 
-            Grid verts = new Grid(2, 2, false);
-            verts.set(0, 0, 0.0f, 0.0f, 0.0f, uMin, vMin, null); //0
-            verts.set(1, 0, spriteHeight, 0.0f, 0.0f, uMin, vMax, null); //1
-            verts.set(0, 1, 0.0f, spriteWidth, 0.0f, uMax, vMin, null); //2
-            verts.set(1, 1, spriteHeight, spriteWidth, 0.0f, uMax, vMax, null); //3
-            setGrid(verts);
+            releaseGrid(gl);
+            setGrid(createGrid(spriteWidth, spriteHeight, uMin, vMin, uMax, vMax, mOffsetX));
             flipTexture = false;
         }
 
@@ -201,11 +264,50 @@ public class GLSprite extends Renderable implements Cloneable {
     }
 
     /**
-     * Creates a copy of the GLSprite object
+     * Releases this sprite's reference to the hardware buffers of the current vertex grid
+     * before it is replaced
+     * @param gl The GL context
+     */
+    private void releaseGrid(GL10 gl) {
+        if (mGrid != null) {
+            mGrid.releaseHardwareBuffers(gl);
+        }
+    }
+
+    /**
+     * Creates the vertex grid for a quad placed at the trimmed offset within its source frame
+     * @param w The quad width
+     * @param h The quad height
+     * @param uLeft The texture coordinate at the left edge
+     * @param vTop The texture coordinate at the top edge
+     * @param uRight The texture coordinate at the right edge
+     * @param vBottom The texture coordinate at the bottom edge
+     * @param offsetX The x offset of the quad
+     * @return The vertex grid
+     */
+    private Grid createGrid(float w, float h, float uLeft, float vTop, float uRight, float vBottom, float offsetX) {
+        Grid verts = new Grid(2, 2, VertexFormat.FLOAT_2D);
+        verts.setOwner(mAssetName);
+        verts.set(0, 0, mOffsetY, offsetX, 0.0f, uLeft, vTop, null); //0
+        verts.set(1, 0, mOffsetY + h, offsetX, 0.0f, uLeft, vBottom, null); //1
+        verts.set(0, 1, mOffsetY, offsetX + w, 0.0f, uRight, vTop, null); //2
+        verts.set(1, 1, mOffsetY + h, offsetX + w, 0.0f, uRight, vBottom, null); //3
+        return verts;
+    }
+
+    /**
+     * Creates a copy of the GLSprite object. The copy shares the texture and vertex grid, which
+     * stay allocated until every copy has been destroyed.
      */
     public Object clone() {
         try {
-            return super.clone();
+            GLSprite copy = (GLSprite) super.clone();
+            copy.mTiledMesh = null;
+            GLResourceRegistry.getInstance().retain(GLResourceRegistry.TEXTURE, mTextureName);
+            if (mGrid != null) {
+                mGrid.retainHardwareBuffers();
+            }
+            return copy;
         } catch (CloneNotSupportedException e) {
             // This should never happen
             throw new InternalError(e.toString());
@@ -252,6 +354,23 @@ public class GLSprite extends Renderable implements Cloneable {
         return mTextureName;
     }
 
+    /**
+     * Returns the asset reported as the owner of the texture and buffers
+     * @return The asset name
+     */
+    String getAssetName() {
+        return mAssetName;
+    }
+
+    /**
+     * Returns the alpha of the loaded image, from which the collision masks of its frames
+     * are cut
+     * @return The packed image, or null if the loader did not provide its pixels
+     */
+    public CollisionMaskBuilder getCollisionPixels() {
+        return mCollisionPixels;
+    }
+
     /**
      * Sets the vertex grid
      * @param grid The vertex grid
@@ -274,11 +393,9 @@ public class GLSprite extends Renderable implements Cloneable {
      */
     public void draw(GL10 gl) {
         gl.glBindTexture(GL10.GL_TEXTURE_2D, mTextureName);
-        // Draw using verts or VBO verts.
-        gl.glPushMatrix();
-        gl.glTranslatef(x, y, 0);
-        mGrid.draw(gl, true, false);
-        gl.glPopMatrix();
+        // x and y hold the swapped coordinates of the rotated projection.
+        mTransform.setTranslation(y, x);
+        mGrid.draw(gl, mTransform);
     }
 
     /**
@@ -307,51 +424,18 @@ public class GLSprite extends Renderable implements Cloneable {
         if(repeatWidth < 0 || repeatHeight < 0)
             return;
 
-        // Loop through width.
-        for(int a = 0; a < repeatWidth / spriteWidth; a++) {
-
-            // Loop through height.
-            for(int b = 0; b < repeatHeight / spriteHeight; b++) {
-
-                int subW = (int)spriteWidth;
-                int subH = (int)spriteHeight;
-
-                cropSprite(gl, 0, 0);
-
-                // Crop width.
-                if(a == (int)(repeatWidth / spriteWidth)) {
-
-                    if(repeatWidth % (a * spriteWidth) != 0) {
-                        subW = (int)(repeatWidth - a * spriteWidth) + 1;
-                    }
-
-                    if(subW < 1) {
-                        subW = 1;
-                    }
-
-                    cropSprite(gl, subW, subH);
-                }
-
-                // Crop height.
-                if(b == (int)(repeatHeight / spriteHeight)) {
-
-                    if(repeatHeight % (b * spriteHeight) != 0) {
-                        subH = (int)(repeatHeight - b * spriteHeight);
-                    }
-
-                    if(subH < 1) {
-                        subH = 1;
-                    }
-
-                    cropSprite(gl, subW, subH);
-                }
-
-                draw(gl, (int)x + a * spriteWidth, (int)y + b * spriteHeight);
-
-            }
-
+        // Build the strip once and reuse it while the size is unchanged.
+        if(mTiledMesh == null) {
+            mTiledMesh = new TiledMesh(mAssetName);
+        }
+        if(!mTiledMesh.matches(0, (int) x, (int) y, repeatWidth, repeatHeight)) {
+            mTiledMesh.build(0, (int) x, (int) y, width, height, spriteX, spriteY, spriteWidth, spriteHeight,
+                    mOffsetX, mOffsetY, mOffsetX + spriteWidth + mTrimRight, mOffsetY + spriteHeight,
+                    repeatWidth, repeatHeight);
         }
 
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, mTextureName);
+        mTiledMesh.draw(gl);
     }
 
     /**
@@ -375,6 +459,22 @@ public class GLSprite extends Renderable implements Cloneable {
         draw(gl);
     }
 
+    /**
+     * Adds the sprite to a batch at x,y coordinates in a 'l' - left or 'r' - right direction
+     * @param batch The sprite batch
+     * @param direction The direction the sprite is facing
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    public void draw(SpriteBatch batch, char direction, float x, float y) {
+        if(direction == 'r') {
+            batch.draw(mTextureName, x + mTrimRight, y + mOffsetY, spriteWidth, spriteHeight, uMax, vMin, uMin, vMax);
+        }
+        else {
+            batch.draw(mTextureName, x + mOffsetX, y + mOffsetY, spriteWidth, spriteHeight, uMin, vMin, uMax, vMax);
+        }
+    }
+
     /**
      * Draws the sprite rotated to an angle with a center position
      * @param gl The GL context
@@ -385,16 +485,9 @@ public class GLSprite extends Renderable implements Cloneable {
     public void draw(GL10 gl, float angle, float centerX, float centerY) {
         gl.glBindTexture(GL10.GL_TEXTURE_2D, mTextureName);
 
-        // Draw using verts or VBO verts.
-        gl.glPushMatrix();
-
-        // Rotate.
-        gl.glTranslatef(x + centerY, y + centerX, 0);
-        gl.glRotatef(angle,0,0,1.0f);
-        gl.glTranslatef(-centerY, -centerX, 0);
-
-        mGrid.draw(gl, true, false);
-        gl.glPopMatrix();
+        // Rotate the corners on the CPU, x and y hold the swapped coordinates.
+        mTransform.setRotation(angle, y, x, centerX, centerY);
+        mGrid.draw(gl, mTransform);
     }
 
     /**
@@ -430,10 +523,9 @@ public class GLSprite extends Renderable implements Cloneable {
     public int loadBitmap(GL10 gl, String texturePath) throws IOException {
         int textureName = -1;
 
-        if (mAssetManager != null && gl != null) {
-            gl.glGenTextures(1, mTextureNameWorkspace, 0);
-
-            textureName = mTextureNameWorkspace[0];
+        if (mTextureLoader != null && gl != null) {
+            textureName = GLResourceRegistry.getInstance().genTexture(gl, texturePath);
+            mTextureNameWorkspace[0] = textureName;
             gl.glBindTexture(GL10.GL_TEXTURE_2D, textureName);
 
             gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_NEAREST);
@@ -444,37 +536,24 @@ public class GLSprite extends Renderable implements Cloneable {
 
             gl.glTexEnvf(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_MODE, GL10.GL_REPLACE);
 
-            InputStream is = null;
-            Bitmap bitmap = null;
-            try {
-                is = mAssetManager.open(texturePath);
-                bitmap = BitmapFactory.decodeStream(is);
-            } catch (IOException e) {
-                Log.e("error", e.toString());
-            } finally { // handle exception
-                if (is != null) {
-                    try {
-                        is.close();
-                    } catch (IOException e) {
-                    }
-                }
-            }
-            if (bitmap != null) {
-                width = bitmap.getWidth();
-                height = bitmap.getHeight();
+            int[] size = new int[3];
+            CollisionMaskBuilder mask = new CollisionMaskBuilder();
+            if (mTextureLoader.load(gl, texturePath, size, mask)) {
+                width = size[0];
+                height = size[1];
+                mCollisionPixels = mask.hasImage() ? mask : null;
 
-                GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, bitmap, 0);
+                GLResourceRegistry.getInstance().setBytes(GLResourceRegistry.TEXTURE, textureName, size[2]);
 
                 mCropWorkspace[0] = 0;
-                mCropWorkspace[1] = bitmap.getHeight();
-                mCropWorkspace[2] = bitmap.getWidth();
-                mCropWorkspace[3] = -bitmap.getHeight();
-
-                bitmap.recycle();
+                mCropWorkspace[1] = size[1];
+                mCropWorkspace[2] = size[0];
+                mCropWorkspace[3] = -size[1];
 
                 ((GL11) gl).glTexParameteriv(GL10.GL_TEXTURE_2D,
                         GL11Ext.GL_TEXTURE_CROP_RECT_OES, mCropWorkspace, 0);
             } else {
+                GLResourceRegistry.getInstance().release(gl, GLResourceRegistry.TEXTURE, textureName);
                 textureName = -1;
             }
 
@@ -497,23 +576,48 @@ public class GLSprite extends Renderable implements Cloneable {
      * @return A BufferedImage that is the subimage of this BufferedImage.
      */
     public GLSprite getSubImage(Object gl, int x, int y, int w, int h)
+    {
+        return getSubImage(gl, x, y, w, h, 0, 0, w);
+    }
+
+    /**
+     * Returns a subimage holding a frame which has been trimmed from a larger source frame.
+     * The frame is drawn at its offset within the source frame and mirrored within it when
+     * flipped.
+     * @param x - the X coordinate of the upper-left corner of the trimmed frame
+     * @param y - the Y coordinate of the upper-left corner of the trimmed frame
+     * @param w - the width of the trimmed frame
+     * @param h - the height of the trimmed frame
+     * @param offsetX - the X offset of the trimmed frame within the source frame
+     * @param offsetY - the Y offset of the trimmed frame within the source frame
+     * @param sourceWidth - the width of the source frame
+     * @return The GLSprite representing the frame
+     */
+    public GLSprite getSubImage(Object gl, int x, int y, int w, int h, int offsetX, int offsetY, int sourceWidth)
     {
         GLSprite subImage = (GLSprite) this.clone();
+        subImage.mOffsetX = offsetX;
+        subImage.mOffsetY = offsetY;
+        subImage.mTrimRight = sourceWidth - offsetX - w;
+        subImage.flipTexture = false;
         subImage.setVertices((GL10)gl, createClip(x, y, w, h));
         return subImage;
     }
 
     /**
-     * Destroys the textures and release hardware buffers
+     * Releases this sprite's references to the texture and hardware buffers. They are deleted
+     * once every sprite sharing them has been destroyed.
      * @param gl The GL context
      */
     public void destroy(GL10 gl) {
         if (mTextureID != -1) {
-            int[] textureToDelete = new int[1];
-            textureToDelete[0] = getTextureName();
-            gl.glDeleteTextures(1, textureToDelete, 0);
+            GLResourceRegistry.getInstance().release(gl, GLResourceRegistry.TEXTURE, getTextureName());
             setTextureName(0);
-            getGrid().releaseHardwareBuffers(gl);
+            releaseGrid(gl);
+        }
+        if (mTiledMesh != null) {
+            mTiledMesh.releaseHardwareBuffers(gl);
+            mTiledMesh = null;
         }
     }
 
@@ -156,6 +156,43 @@ public class GLSurfaceView extends SurfaceView implements SurfaceHolder.Callback
         mGLThread.requestExitAndWait();
     }
 
+    /**
+     * Returns whether the display has a config matching a specification, such as one which
+     * renders GLES 2.0
+     * @param configSpec The EGL config specification
+     * @return True if a config matches
+     */
+    public static boolean isConfigSupported(int[] configSpec) {
+        EGL10 egl = (EGL10) EGLContext.getEGL();
+        EGLDisplay display = egl.eglGetDisplay(EGL10.EGL_DEFAULT_DISPLAY);
+        egl.eglInitialize(display, new int[2]);
+
+        int[] numConfig = new int[1];
+        boolean supported = egl.eglChooseConfig(display, configSpec, null, 0, numConfig)
+                && numConfig[0] > 0;
+
+        egl.eglTerminate(display);
+        return supported;
+    }
+
+    /**
+     * Returns the value of an attribute in an EGL config specification, or 0 if it is not set
+     */
+    private static int getConfigAttribute(int[] configSpec, int attribute) {
+        for (int i = 0; i + 1 < configSpec.length; i += 2) {
+            if (configSpec[i] == attribute) {
+                return configSpec[i + 1];
+            }
+        }
+        return 0;
+    }
+
+    /** The EGL renderable type of a GLES 2.0 config */
+    public static final int EGL_OPENGL_ES2_BIT = 4;
+
+    /** The EGL context attribute selecting the GLES version */
+    private static final int EGL_CONTEXT_CLIENT_VERSION = 0x3098;
+
     // ----------------------------------------------------------------------
 
     /**
@@ -245,10 +282,15 @@ public class GLSurfaceView extends SurfaceView implements SurfaceHolder.Callback
 
             /*
             * Create an OpenGL ES context. This must be done only once, an
-            * OpenGL context is a somewhat heavy object.
+            * OpenGL context is a somewhat heavy object. A config which
+            * renders GLES 2.0 gets a GLES 2.0 context.
             */
+            int[] contextAttributes = null;
+            if (getConfigAttribute(configSpec, EGL10.EGL_RENDERABLE_TYPE) == EGL_OPENGL_ES2_BIT) {
+                contextAttributes = new int[] {EGL_CONTEXT_CLIENT_VERSION, 2, EGL10.EGL_NONE};
+            }
             mEglContext = mEgl.eglCreateContext(mEglDisplay, mEglConfig,
-                    EGL10.EGL_NO_CONTEXT, null);
+                    EGL10.EGL_NO_CONTEXT, contextAttributes);
 
             mEglSurface = null;
         }
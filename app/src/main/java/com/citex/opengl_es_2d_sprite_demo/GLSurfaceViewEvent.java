@@ -26,12 +26,40 @@ public class GLSurfaceViewEvent extends GLSurfaceView {
      */
     public GLSurfaceViewEvent(Context context, AssetManager assetManager) {
         super(context);
-        mRenderer = new GLSurfaceViewRenderer(assetManager);
+        // Use the shader renderer when the display has a GLES 2.0 config.
+        if (isConfigSupported(GLES20Renderer.CONFIG_SPEC)) {
+            mRenderer = new GLES20Renderer(assetManager);
+        } else {
+            StateCachingGL stateCache = new StateCachingGL();
+            setGLWrapper(stateCache);
+            mRenderer = new GLSurfaceViewRenderer(assetManager);
+            mRenderer.setStateCache(stateCache);
+        }
+        // Update the game alongside the GL thread when there is a core for it.
+        mRenderer.setSimulationThreaded(Runtime.getRuntime().availableProcessors() > 1);
         setRenderer(mRenderer);
         this.requestFocus();
         this.setFocusableInTouchMode(true);
     }
    
+    /**
+     * Pauses the rendering and game update threads
+     */
+    @Override
+    public void onPause() {
+        super.onPause();
+        mRenderer.onPause();
+    }
+
+    /**
+     * Resumes the rendering and game update threads
+     */
+    @Override
+    public void onResume() {
+        super.onResume();
+        mRenderer.onResume();
+    }
+
     /**
      * Called when a touch screen motion event occurs
      * @param event The motion event that occurred 
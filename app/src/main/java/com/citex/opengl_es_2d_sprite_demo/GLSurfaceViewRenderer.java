@@ -3,8 +3,7 @@ package com.citex.opengl_es_2d_sprite_demo;
 import javax.microedition.khronos.egl.EGL10;
 import javax.microedition.khronos.opengles.GL10;
 import android.content.res.AssetManager;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.util.Log;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 
@@ -23,28 +22,40 @@ import android.view.MotionEvent;
 
 public class GLSurfaceViewRenderer implements GLSurfaceView.Renderer {
 
-    /** Specifies the format our textures should be converted to upon load. */
-    private BitmapFactory.Options sBitmapOptions = new BitmapFactory.Options();
-
     /** The device screen size */
     public static int mWidth, mHeight;
 
 	/** Delta time frame rate variables */
 	private long time1, time2;
 
-    /** Provides access to an application's raw asset files */
-    private AssetManager mAssetManager;
+    /** Opens the asset files and uploads their images to textures */
+    private TextureLoader mTextureLoader;
 
     /** The drawing panel */
     private GamePanel mGamePanel;
 
+    /** Drops redundant state changes, or null when the GL is not wrapped */
+    private StateCachingGL mStateCache;
+
+    /** Whether the game is updated on its own thread */
+    private boolean mSimulationThreaded;
+
+    /** Updates the game, or null when the game is updated as each frame is drawn */
+    private SimulationThread mSimulationThread;
+
     /**
      * Constructs the GLSurfaceViewRenderer
      */
     public GLSurfaceViewRenderer(AssetManager assetManager) {
-        // Set our bitmaps to 16-bit, 565 format.
-        sBitmapOptions.inPreferredConfig = Bitmap.Config.RGB_565;
-        mAssetManager = assetManager;
+        this(new AssetTextureLoader(assetManager));
+    }
+
+    /**
+     * Constructs the GLSurfaceViewRenderer
+     * @param textureLoader Opens the asset files and uploads their images to textures
+     */
+    public GLSurfaceViewRenderer(TextureLoader textureLoader) {
+        mTextureLoader = textureLoader;
     }
 
     /**
@@ -69,7 +80,10 @@ public class GLSurfaceViewRenderer implements GLSurfaceView.Renderer {
         gl.glDisable(GL10.GL_DITHER);
         gl.glDisable(GL10.GL_LIGHTING);
 
-        mGamePanel = new GamePanel(gl, mAssetManager);
+        // Handles from a lost context are no longer valid.
+        GLResourceRegistry.getInstance().invalidateAll();
+
+        setGamePanel(new GamePanel(gl, mTextureLoader));
     }
 
     /**
@@ -82,6 +96,7 @@ public class GLSurfaceViewRenderer implements GLSurfaceView.Renderer {
 
         mWidth = width;
         mHeight = height;
+        mGamePanel.setSurfaceSize(width, height);
 
         // Set the viewport
         gl.glViewport(0, 0, width, height);
@@ -112,20 +127,44 @@ public class GLSurfaceViewRenderer implements GLSurfaceView.Renderer {
      */
     public void drawFrame(GL10 gl) {
 
-    	time2 = System.currentTimeMillis(); // Get current time
-		float delta = (int) (time2 - time1); // Calculate how long it's been since last updated
-
-        if(delta < 0)
-            delta = 0.01f;
-
         Grid.beginDrawing(gl, true, false);
        	
         // Draw the game panel
-        mGamePanel.paintComponent(gl, delta);
+        drawGamePanel(gl);
 
         Grid.endDrawing(gl);
 
-        time1 = time2; // Update our time variables.             
+        if (mStateCache != null) {
+            mStateCache.endFrame();
+        }
+    }
+
+    /**
+     * Draws the latest state of the game, first updating it if it has no thread of its own
+     * @param gl The GL context
+     */
+    protected void drawGamePanel(GL10 gl) {
+        if (mSimulationThread != null) {
+            mGamePanel.render(gl);
+        } else {
+            mGamePanel.paintComponent(gl, getFrameDelta());
+        }
+    }
+
+    /**
+     * Returns the time since the last frame
+     * @return The delta time in milliseconds
+     */
+    protected float getFrameDelta() {
+    	time2 = System.nanoTime(); // Get current time
+		// Calculate how long it's been since last updated, with nothing to catch up on the first frame
+		float delta = time1 == 0 ? 0 : (time2 - time1) / 1000000f;
+
+        if(delta < 0)
+            delta = 0;
+
+        time1 = time2; // Update our time variables.
+        return delta;
     }
 
     /**
@@ -140,14 +179,112 @@ public class GLSurfaceViewRenderer implements GLSurfaceView.Renderer {
 
     /**
      * Called when the rendering thread shuts down.  This is a good place to
-     * release OpenGL ES resources.
+     * release OpenGL ES resources. Anything the game did not release is reported
+     * as a leak and then deleted.
      * @param gl
      */
     public void shutdown(GL10 gl) {
+        stopSimulationThread();
     	mGamePanel.destroy(gl);
-    	
+        QuadIndexBuffer.getInstance().releaseHardwareBuffers(gl);
+
+        GLResourceRegistry registry = GLResourceRegistry.getInstance();
+        if (registry.getLiveCount(GLResourceRegistry.TEXTURE) + registry.getLiveCount(GLResourceRegistry.BUFFER) > 0) {
+            Log.w("GLResourceRegistry", "Leaked GL resources: " + registry.getLeakReport());
+        }
+        registry.releaseAll(gl);
     }
     
+    /**
+     * Sets the state cache wrapping the GL so the calls it drops can be counted per frame
+     * @param stateCache The state cache installed with GLSurfaceView.setGLWrapper
+     */
+    public void setStateCache(StateCachingGL stateCache) {
+        mStateCache = stateCache;
+    }
+
+    /**
+     * Returns the state cache wrapping the GL
+     * @return The state cache or null when the GL is not wrapped
+     */
+    public StateCachingGL getStateCache() {
+        return mStateCache;
+    }
+
+    /**
+     * Returns the drawing panel
+     * @return The game panel or null before the surface is created
+     */
+    public GamePanel getGamePanel() {
+        return mGamePanel;
+    }
+
+    /**
+     * Sets the drawing panel made for a new surface
+     * @param gamePanel The game panel
+     */
+    protected void setGamePanel(GamePanel gamePanel) {
+        stopSimulationThread();
+        mGamePanel = gamePanel;
+        if (mSimulationThreaded) {
+            mSimulationThread = new SimulationThread(gamePanel);
+            mSimulationThread.start();
+        }
+    }
+
+    /**
+     * Sets whether the game is updated on its own thread, which takes effect when the surface
+     * is next created. Worth doing on a device with more than one core.
+     * @param threaded True to update the game on a SimulationThread
+     */
+    public void setSimulationThreaded(boolean threaded) {
+        mSimulationThreaded = threaded;
+    }
+
+    /**
+     * Returns the thread updating the game
+     * @return The simulation thread, or null when the game is updated as each frame is drawn
+     */
+    public SimulationThread getSimulationThread() {
+        return mSimulationThread;
+    }
+
+    /**
+     * Stops the thread updating the game, if there is one
+     */
+    private void stopSimulationThread() {
+        if (mSimulationThread != null) {
+            mSimulationThread.requestExitAndWait();
+            mSimulationThread = null;
+        }
+    }
+
+    /**
+     * Stops updating the game while the activity is paused
+     */
+    public void onPause() {
+        if (mSimulationThread != null) {
+            mSimulationThread.onPause();
+        }
+    }
+
+    /**
+     * Carries on updating the game when the activity resumes
+     */
+    public void onResume() {
+        if (mSimulationThread != null) {
+            mSimulationThread.onResume();
+        }
+    }
+
+    /**
+     * Returns the loader the game panel opens its assets with
+     * @return The texture loader
+     */
+    protected TextureLoader getTextureLoader() {
+        return mTextureLoader;
+    }
+
     /**
      * Pass the key down event to the GamePanel
      * @param event Description of the key event
@@ -1,13 +1,13 @@
 package com.citex.opengl_es_2d_sprite_demo;
 
+import java.util.Arrays;
+
 import javax.microedition.khronos.opengles.GL10;
 import android.content.res.AssetManager;
 import android.util.Log;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 
-import java.util.ArrayList;
-
 /**
  * 	This class draws all of the graphics for sprite demo test.
  *
@@ -18,152 +18,424 @@ import java.util.ArrayList;
 
 public class GamePanel {
 
+	/** The render queue layers, drawn from back to front */
+	private static final int LAYER_BACKGROUND = 0;
+	private static final int LAYER_SKY = 1;
+	private static final int LAYER_ACTORS = 2;
+	private static final int LAYER_TERRAIN = 3;
+
+	/** Set in the flags of an enemy overlapping another enemy */
+	public static final int FLAG_TOUCHING = 1;
+
+	/** The texture atlas holding every sprite */
+	private TextureAtlas mAtlas;
+
 	/** The background image */
-	private GLSprite mBackground;
+	private SpriteSheet mBackground;
 
 	/** The moon rotating image */
-	private GLSprite mMoon;
+	private SpriteSheet mMoon;
 
-	/** The moon rotation angle */
-	private float mMoonAngle;
+	/** The moon rotation angle, now and after the previous step */
+	private float mMoonAngle, mPreviousMoonAngle;
 
-	/** The player x coordinate */
-	private int mPlayerX;
+	/** The player, a store holding one entity */
+	private final EntityStore mPlayer;
 
-	/** The player frame number from the sprite sheet */
-	private int mPlayerFrameNumber;
+	/** The player handle in the store */
+	private final int mPlayerHandle;
+
+	/** The player position after the previous step */
+	private float mPreviousPlayerX, mPreviousPlayerY;
 
 	/** The player sprite sheet */
     private SpriteSheet mPlayerSprite;
 
 	/** Stores the enemy positions */
-	private final ArrayList<EnemyPosition> mEnemyPositions;
+	private final EntityStore mEnemies;
+
+	/** Moves and animates the enemies when the scheduler says they are due */
+	private final EntityUpdater mEnemyUpdater = new EntityUpdater() {
+		@Override
+		public void update(EntityStore store, int from, int to, float dt) {
+			store.integrate(from, to, dt);
+			mAnimations.advance(store, from, to, dt);
+		}
+	};
+
+	/** Updates the enemies near the player every step and the others less often */
+	private final UpdateScheduler mEnemyScheduler;
+
+	/** Runs the enemy scheduler each step */
+	private final ParallelUpdateStage mEnemyUpdate;
+
+	/** Finds the enemies near a position for collision tests, kept in step with the store */
+	private final SpatialHash mEnemyHash;
+
+	/** The handle of the enemy with each spatial hash id */
+	private int[] mEnemyHashHandles = new int[256];
+
+	/** The enemy ids found by a spatial hash query */
+	private final int[] mQueryResults = new int[64];
+
+	/** The number of enemies overlapping the player this frame */
+	private int mPlayerCollisionCount;
+
+	/** Finds the pairs of enemies overlapping each other */
+	private final SweepAndPrune mEnemyBroadphase;
+
+	/** Marks both enemies of each pair whose pixels overlap */
+	private final PairListener mEnemyPairListener = new PairListener() {
+		@Override
+		public void onPair(int first, int second) {
+			float[] x = mEnemies.getX();
+			float[] y = mEnemies.getY();
+			int[] frames = mEnemies.getFrames();
+			if(!touches(mEnemySprite, frames[first], x[first], y[first], mEnemySprite, frames[second], x[second], y[second]))
+				return;
+			int[] flags = mEnemies.getFlags();
+			flags[first] |= FLAG_TOUCHING;
+			flags[second] |= FLAG_TOUCHING;
+			mEnemyCollisionCount++;
+		}
+	};
 
-	/** The player frame number from the sprite sheet */
-	private int mEnemyFrameNumber;
+	/** The number of pairs of enemies overlapping each other this frame */
+	private int mEnemyCollisionCount;
 
 	/** The player sprite sheet */
 	private SpriteSheet mEnemySprite;
 
-	/** The terrain block frame number from the sprite sheet */
-	private int mBlockFrameNumber;
+	/** Sorts the draws of a frame to minimise texture and buffer switches */
+	private final RenderQueue mRenderQueue;
+
+	/** Drops draws outside the screen and counts them */
+	private final ViewportCuller mCuller;
+
+	/** The sprite sheet indices in the render queue */
+	private final int mBackgroundSheet, mMoonSheet, mPlayerSheet, mEnemySheet, mBlockSheet;
+
+	/** The terrain block animation time cursor */
+	private float mBlockAnimationTime;
 
 	/** The terrain block sprite sheet */
 	private SpriteSheet mBlockSprite;
 
-	/** Limits frame updates */
-	private float mFrameLimiter;
+	/** Holds the terrain strip between block animation frames */
+	private final LayerCache mTerrainCache;
+
+	/** The terrain cache index in the render queue, or -1 when the terrain is drawn directly */
+	private final int mTerrainCacheSheet;
+
+	/** The animation clips of the sprite sheets */
+	private AnimationLibrary mAnimations;
+
+	/** The clips played by the player, enemies and terrain blocks */
+	private final int mPlayerClip, mEnemyClip, mBlockClip;
+
+	/** Divides the frame time into fixed update steps */
+	private final FixedTimestep mTimestep;
+
+	/** Hands the state after each update to the renderer */
+	private final TripleBuffer<GameSnapshot> mSnapshots =
+			new TripleBuffer<GameSnapshot>(new GameSnapshot(), new GameSnapshot(), new GameSnapshot());
+
+	/** The touch samples waiting to be handled by the thread updating the game */
+	private final TouchRingBuffer mTouches = new TouchRingBuffer(256);
+
+	/** Adds an enemy where each touch sample lands */
+	private final TouchListener mTouchListener = new TouchListener() {
+		@Override
+		public void onTouch(int action, float x, float y, long time, int pointerId) {
+			addEnemy(x, y);
+		}
+	};
 
 	/** Screen resolution */
 	private final float mResolutionWidth, mResolutionHeight;
 
-	/** Provides access to an application's raw asset files */
-	private final AssetManager mAssetManager;
+	/** Opens the asset files and uploads their images to textures */
+	private final TextureLoader mTextureLoader;
 	
 	/**
 	 * Constructs the GamePanel
 	 * @param gl The GL context
 	 */
 	public GamePanel(GL10 gl, AssetManager assetManager) {
+		this(gl, new AssetTextureLoader(assetManager));
+	}
+
+	/**
+	 * Constructs the GamePanel drawing with the fixed function pipeline
+	 * @param gl The GL context
+	 * @param textureLoader Opens the asset files and uploads their images to textures
+	 */
+	public GamePanel(GL10 gl, TextureLoader textureLoader) {
+		this(gl, textureLoader, new GL11RenderBackend(SpriteBatch.MAX_QUADS));
+	}
+
+	/**
+	 * Constructs the GamePanel
+	 * @param gl The GL context
+	 * @param textureLoader Opens the asset files and uploads their images to textures
+	 * @param backend Draws the sprites with the active GL version
+	 */
+	public GamePanel(GL10 gl, TextureLoader textureLoader, RenderBackend backend) {
 
 		mResolutionWidth = 480f;
 		mResolutionHeight = 272f;
 
-		mAssetManager = assetManager;
+		mTextureLoader = textureLoader;
 
-		String spriteFilename = "background.png";
+		String spriteFilename = "atlas.txt";
 		try {
-			mBackground = new GLSprite(gl, spriteFilename, assetManager);
+			mAtlas = TextureAtlas.load(gl, spriteFilename, textureLoader);
 		}
 		catch(Exception e) {
-			Log.e("Sprite method test", "error loading spritesheet" + spriteFilename);
+			Log.e("Sprite method test", "error loading texture atlas" + spriteFilename);
 		}
 
-		spriteFilename = "moon.png";
+		String clipFilename = "clips.txt";
 		try {
-			mMoon = new GLSprite(gl, spriteFilename, assetManager);
+			mAnimations = AnimationLibrary.load(clipFilename, textureLoader);
 		}
 		catch(Exception e) {
-			Log.e("Sprite method test", "error loading spritesheet" + spriteFilename);
+			Log.e("Sprite method test", "error loading animation clips" + clipFilename);
 		}
+		mPlayerClip = mAnimations.getClip("player", "run");
+		mEnemyClip = mAnimations.getClip("enemy", "walk");
+		mBlockClip = mAnimations.getClip("block", "shimmer");
+
+		// The frame sizes are read from the atlas, see app/src/main/atlas/frames.txt
+		mBackground = mAtlas.getSpriteSheet(gl, "background");
+		mMoon = mAtlas.getSpriteSheet(gl, "moon");
+		mPlayerSprite = mAtlas.getSpriteSheet(gl, "player");
+		mEnemies = new EntityStore(256);
+		mEnemySprite = mAtlas.getSpriteSheet(gl, "enemy");
+		mBlockSprite = mAtlas.getSpriteSheet(gl, "block");
+		mEnemyHash = new SpatialHash(32, mEnemySprite.getFrameWidth(), mEnemySprite.getFrameHeight(), 256);
+		mEnemyBroadphase = new SweepAndPrune(256);
+		mEnemyScheduler = new UpdateScheduler(mEnemyUpdater, mEnemySprite.getFrameWidth(), mEnemySprite.getFrameHeight());
+		mEnemyScheduler.setViewport(0, 0, mResolutionWidth, mResolutionHeight);
+		mEnemyUpdate = new ParallelUpdateStage(mEnemyScheduler);
+
+		mRenderQueue = new RenderQueue(1024, backend);
+		mCuller = new ViewportCuller(mResolutionWidth, mResolutionHeight);
+		mRenderQueue.setCuller(mCuller);
+		mBackgroundSheet = mRenderQueue.addSheet(mBackground);
+		mMoonSheet = mRenderQueue.addSheet(mMoon);
+		mPlayerSheet = mRenderQueue.addSheet(mPlayerSprite);
+		mEnemySheet = mRenderQueue.addSheet(mEnemySprite);
+		mBlockSheet = mRenderQueue.addSheet(mBlockSprite);
+
+		mTerrainCache = new LayerCache(gl, "terrain cache", 0, mResolutionHeight - 16, mResolutionWidth, 16,
+				mResolutionWidth, mResolutionHeight);
+		mTerrainCacheSheet = mTerrainCache.isSupported() ? mRenderQueue.addSheet(mTerrainCache.getSheet()) : -1;
+
+		// The player runs across the screen above the terrain
+		mPlayer = new EntityStore(1);
+		mPlayerHandle = mPlayer.add(-32, mResolutionHeight - mBlockSprite.getFrameHeight() - mPlayerSprite.getFrameHeight());
+		mPlayer.setVelocity(0, 0.15f, 0);
+		mPlayer.setClip(0, mPlayerClip);
+		mAnimations.advance(mPlayer, 0, 1, 0);
+		mPreviousPlayerX = mPlayer.getX()[0];
+		mPreviousPlayerY = mPlayer.getY()[0];
+		mTimestep = new FixedTimestep();
+
+		// Give the renderer a state to draw before the first update
+		publish();
+	}
 
-		spriteFilename = "player.png";
-		try {
-			mPlayerSprite = new SpriteSheet(gl, spriteFilename, 32, 32, 14, mAssetManager);
-		}
-		catch(Exception e) {
-			Log.e("Sprite method test", "error loading spritesheet" + spriteFilename);
-		}
+	/**
+	 * Runs the fixed steps of game time covered by a frame and draws the frame between the
+	 * last two steps, on the GL thread
+	 * @param gl The GL context
+	 * @param dt The delta time between frame updates
+	 */
+	public void paintComponent(GL10 gl, float dt) {
+		runSteps(dt);
+		publish();
+		render(gl, mSnapshots.acquire(), mTimestep.getAlpha());
+	}
 
-		mEnemyPositions = new ArrayList<>();
-		spriteFilename = "enemy.png";
-		try {
-			mEnemySprite = new SpriteSheet(gl, spriteFilename, 48, 48, 8, mAssetManager);
-		}
-		catch(Exception e) {
-			Log.e("Sprite method test", "error loading spritesheet" + spriteFilename);
-		}
+	/**
+	 * Runs the fixed steps of game time covered by a time on the simulation thread, and
+	 * publishes the state for the renderer if the game moved
+	 * @param dt The delta time since the last call
+	 * @return The number of steps run
+	 */
+	public int simulate(float dt) {
+		int steps = runSteps(dt);
+		if(steps > 0)
+			publish();
+		return steps;
+	}
 
-		spriteFilename = "block.png";
-		try {
-			mBlockSprite = new SpriteSheet(gl, spriteFilename, 16, 16, 4, mAssetManager);
-		}
-		catch(Exception e) {
-			Log.e("Sprite method test", "error loading spritesheet" + spriteFilename);
+	/**
+	 * Draws the latest state published by the simulation thread without waiting for it,
+	 * between its last two steps by the time since it was published
+	 * @param gl The GL context
+	 */
+	public void render(GL10 gl) {
+		GameSnapshot snapshot = mSnapshots.acquire();
+		float alpha = (System.nanoTime() - snapshot.getTime()) / (mTimestep.getStep() * 1000000f);
+		render(gl, snapshot, Math.max(0, Math.min(alpha, 1)));
+	}
+
+	/**
+	 * Adds the enemies touched since the last call and runs the update steps covered by a time
+	 */
+	private int runSteps(float dt) {
+		mTouches.drain(mTouchListener);
+
+		int steps = mTimestep.advance(dt);
+		for(int i = 0; i < steps; i++) {
+			update(mTimestep.getStep());
 		}
+		return steps;
+	}
 
-		mPlayerX = -32;
-		mPlayerFrameNumber = 11;
-		mFrameLimiter = 0;
+	/**
+	 * Writes the state the renderer draws to a snapshot and publishes it
+	 */
+	private void publish() {
+		int player = mPlayer.indexOf(mPlayerHandle);
+		GameSnapshot snapshot = mSnapshots.getBack();
+		snapshot.mStep = mTimestep.getStepCount();
+		snapshot.mTime = System.nanoTime();
+		snapshot.mMoonAngle = mMoonAngle;
+		snapshot.mPreviousMoonAngle = mPreviousMoonAngle;
+		snapshot.mPlayerX = mPlayer.getX()[player];
+		snapshot.mPlayerY = mPlayer.getY()[player];
+		snapshot.mPreviousPlayerX = mPreviousPlayerX;
+		snapshot.mPreviousPlayerY = mPreviousPlayerY;
+		snapshot.mPlayerFrame = mPlayer.getFrames()[player];
+		snapshot.mBlockFrame = mAnimations.getFrame(mBlockClip, mBlockAnimationTime);
+		snapshot.setEnemies(mEnemies.getX(), mEnemies.getY(), mEnemies.getFrames(), mEnemies.size());
+		mSnapshots.publish();
 	}
 
 	/**
-	 * Draws the player, background, tileset and entities, handles collision detection
-	 * and control the state of the game
-	 * @param gl The GL context
-	 * @param dt The delta time between frame updates
+	 * Moves the player and moon, handles collision detection and advances the animation
+	 * @param dt The fixed time step
 	 */
-	public void paintComponent(GL10 gl, float dt) {
+	private void update(float dt) {
 
-		// Draw background
-		mBackground.draw(gl, 0, 0);
+		// Keep the last state to draw between it and the new one
+		int player = mPlayer.indexOf(mPlayerHandle);
+		mPreviousMoonAngle = mMoonAngle;
+		mPreviousPlayerX = mPlayer.getX()[player];
+		mPreviousPlayerY = mPlayer.getY()[player];
 
-		// Draw rotating moon
+		// Rotate moon
 		mMoonAngle -= 0.1f * dt;
 		if(mMoonAngle == 0)
 			mMoonAngle = 360f;
-		mMoon.draw(gl, 'r', mMoonAngle, mResolutionWidth - 50, 25, mMoon.getWidth() / 2, mMoon.getHeight() / 2);
 
-		// Make player run across screen
-		mPlayerX += 0.15 * dt;
-		if(mPlayerX > mResolutionWidth) {
-			mPlayerX = -32;
+		// Make player run across screen, jumping back without drawing the way between
+		mPlayer.integrate(dt);
+		float playerX = mPlayer.getX()[player];
+		float playerY = mPlayer.getY()[player];
+		if(playerX > mResolutionWidth) {
+			playerX = -32;
+			mPlayer.setPosition(player, playerX, playerY);
+			mPreviousPlayerX = playerX;
 		}
-		mPlayerSprite.drawFrame(gl, mPlayerFrameNumber, 'r', mPlayerX, mResolutionHeight - mBlockSprite.getFrameHeight() - mPlayerSprite.getFrameHeight());
 
-		for(int i = 0; i < mEnemyPositions.size(); i++)
-			mEnemySprite.drawFrame(gl, mEnemyFrameNumber, 'r',  mEnemyPositions.get(i).x, mEnemyPositions.get(i).y);
+		// Move and animate the enemies, in parallel chunks once there are enough of them,
+		// skipping steps for those off the screen or far from the player
+		mEnemyScheduler.beginStep(playerX + mPlayerSprite.getFrameWidth() / 2, playerY + mPlayerSprite.getFrameHeight() / 2);
+		mEnemyUpdate.run(mEnemies, dt);
+
+		// Move the enemies in the spatial hash, which relinks only those crossing into another cell
+		int enemyCount = mEnemies.size();
+		float[] enemyX = mEnemies.getX();
+		float[] enemyY = mEnemies.getY();
+		int[] hashIds = mEnemies.getSpatialIds();
+		for(int i = 0; i < enemyCount; i++) {
+			mEnemyHash.move(hashIds[i], enemyX[i], enemyY[i]);
+		}
 
-		// Draw terrain
-		mBlockSprite.drawFrame(gl, mBlockFrameNumber, 0, mResolutionHeight - 16, mResolutionWidth, 16);
+		// Find the enemies near the player without scanning them all, then keep those whose pixels touch it
+		int candidates = Math.min(mEnemyHash.queryRegion(playerX, playerY,
+				playerX + mPlayerSprite.getFrameWidth(), playerY + mPlayerSprite.getFrameHeight(), mQueryResults),
+				mQueryResults.length);
+		int playerFrame = mPlayer.getFrames()[player];
+		int[] enemyFrames = mEnemies.getFrames();
+		mPlayerCollisionCount = 0;
+		for(int i = 0; i < candidates; i++) {
+			int enemy = mEnemies.indexOf(mEnemyHashHandles[mQueryResults[i]]);
+			if(touches(mPlayerSprite, playerFrame, playerX, playerY,
+					mEnemySprite, enemyFrames[enemy], enemyX[enemy], enemyY[enemy]))
+				mPlayerCollisionCount++;
+		}
 
-		mFrameLimiter += 0.03f * dt;
-		if(mFrameLimiter > 5) {
+		// Flag the enemies touching each other, sweeping along them in order of their left edges
+		int[] flags = mEnemies.getFlags();
+		for(int i = 0; i < enemyCount; i++) {
+			flags[i] &= ~FLAG_TOUCHING;
+		}
+		mEnemyBroadphase.update(enemyX, enemyY, enemyCount,
+				mEnemySprite.getFrameWidth(), mEnemySprite.getFrameHeight());
+		mEnemyCollisionCount = 0;
+		mEnemyBroadphase.findPairs(mEnemyPairListener);
+
+		// Advance the animation clips
+		mAnimations.advance(mPlayer, 0, mPlayer.size(), dt);
+		mBlockAnimationTime = mAnimations.advanceTime(mBlockClip, mBlockAnimationTime, dt);
+	}
 
-			mPlayerFrameNumber++;
-			if (mPlayerFrameNumber > 13)
-				mPlayerFrameNumber = 11;
+	/**
+	 * Tests whether two sprites whose frame rectangles overlap touch, by their pixels when
+	 * the collision masks were built. Both sprites are drawn facing right.
+	 */
+	private static boolean touches(SpriteSheet sprite, int frame, float x, float y,
+								   SpriteSheet otherSprite, int otherFrame, float otherX, float otherY) {
+		CollisionMask mask = sprite.getCollisionMask();
+		CollisionMask otherMask = otherSprite.getCollisionMask();
+		if(mask == null || otherMask == null)
+			return true;
+		return mask.overlaps(frame, 'r', (int) Math.floor(x), (int) Math.floor(y),
+				otherMask, otherFrame, 'r', (int) Math.floor(otherX), (int) Math.floor(otherY));
+	}
 
-			mEnemyFrameNumber++;
-			if (mEnemyFrameNumber > 7)
-				mEnemyFrameNumber = 0;
+	/**
+	 * Draws the background, moon, player, enemies and tileset of a snapshot
+	 * @param gl The GL context
+	 * @param snapshot The state to draw
+	 * @param alpha How far the frame is from the previous step to the snapshot's
+	 */
+	private void render(GL10 gl, GameSnapshot snapshot, float alpha) {
 
-			mBlockFrameNumber++;
-			if(mBlockFrameNumber > 3)
-				mBlockFrameNumber = 0;
+		// Draw background
+		mRenderQueue.drawFrame(LAYER_BACKGROUND, mBackgroundSheet, 0, 'l', 0, 0);
 
-			mFrameLimiter = 0;
+		// Draw rotating moon
+		mRenderQueue.drawFrame(LAYER_SKY, mMoonSheet, 0, 'r', snapshot.getMoonAngle(alpha), (int) mResolutionWidth - 50, 25, mMoon.getFrameWidth() / 2, mMoon.getFrameHeight() / 2);
+
+		// Draw player
+		mRenderQueue.drawFrame(LAYER_ACTORS, mPlayerSheet, snapshot.getPlayerFrame(), 'r', snapshot.getPlayerX(alpha), snapshot.getPlayerY(alpha));
+
+		// Draw the enemies in one pass over their positions, batched with any other sprites sharing their texture.
+		// The enemies stand still, so they are drawn where they are.
+		mRenderQueue.drawFrames(LAYER_ACTORS, mEnemySheet, snapshot.getEnemyFrames(), 'r',
+				snapshot.getEnemyX(), snapshot.getEnemyY(), snapshot.getEnemyCount());
+
+		// Draw terrain, redrawing the cached strip only when the block frame changes
+		int blockFrameNumber = snapshot.getBlockFrame();
+		if(mTerrainCacheSheet != -1) {
+			if(!mTerrainCache.isValid(blockFrameNumber)) {
+				mTerrainCache.begin(gl);
+				mBlockSprite.drawFrame(gl, blockFrameNumber, 0, mResolutionHeight - 16, mResolutionWidth, 16);
+				mTerrainCache.end(gl, blockFrameNumber);
+			}
+			mRenderQueue.drawFrame(LAYER_TERRAIN, mTerrainCacheSheet, 0, 'l', 0, mResolutionHeight - 16);
+		}
+		else {
+			mRenderQueue.drawFrame(LAYER_TERRAIN, mBlockSheet, blockFrameNumber, 0, mResolutionHeight - 16, mResolutionWidth, 16);
 		}
+
+		mRenderQueue.execute(gl);
 	}
 
 	/**
@@ -185,13 +457,153 @@ public class GamePanel {
      * @param event The motion event that occurred 
      */
     public void onTouchEvent(final MotionEvent event) {
-		// Add a new enemy to the scene
-		EnemyPosition enemyPosition = new EnemyPosition();
-		enemyPosition.x = (event.getX() / GLSurfaceViewRenderer.mWidth) * mResolutionWidth - mEnemySprite.getFrameWidth() / 2;
-		enemyPosition.y = (event.getY() / GLSurfaceViewRenderer.mHeight) * mResolutionHeight - mEnemySprite.getFrameHeight() / 2;
-		mEnemyPositions.add(enemyPosition);
+		// Add new enemies to the scene on the thread updating the game
+		mTouches.add(event);
     }
 
+	/**
+	 * Called when the surface changes size, to scale touches to the game resolution and
+	 * restore the viewport after drawing into the terrain cache
+	 * @param width The width of the surface
+	 * @param height The height of the surface
+	 */
+	public void setSurfaceSize(int width, int height) {
+		mTouches.setScale(mResolutionWidth / width, mResolutionHeight / height);
+		mTerrainCache.setSurfaceSize(width, height);
+	}
+
+	/**
+	 * Gets the buffer carrying touch samples to the thread updating the game
+	 * @return The touch ring buffer
+	 */
+	public TouchRingBuffer getTouches() {
+		return mTouches;
+	}
+
+	/**
+	 * Adds an enemy centred on a position. Called on the thread updating the game.
+	 * @param x The x coordinate
+	 * @param y The y coordinate
+	 * @return The enemy handle
+	 */
+	public int addEnemy(float x, float y) {
+		float left = x - mEnemySprite.getFrameWidth() / 2;
+		float top = y - mEnemySprite.getFrameHeight() / 2;
+		int handle = mEnemies.add(left, top);
+		int enemy = mEnemies.indexOf(handle);
+		mEnemies.setClip(enemy, mEnemyClip);
+		mAnimations.advance(mEnemies, enemy, enemy + 1, 0);
+
+		int hashId = mEnemyHash.add(left, top);
+		if(hashId == mEnemyHashHandles.length)
+			mEnemyHashHandles = Arrays.copyOf(mEnemyHashHandles, hashId * 2);
+		mEnemyHashHandles[hashId] = handle;
+		mEnemies.setSpatialId(enemy, hashId);
+		return handle;
+	}
+
+	/**
+	 * Removes an enemy from the store and the spatial hash. Called on the thread updating the game.
+	 * @param handle The enemy handle
+	 * @return True if the enemy was live
+	 */
+	public boolean removeEnemy(int handle) {
+		int enemy = mEnemies.indexOf(handle);
+		if(enemy == EntityStore.NONE)
+			return false;
+		mEnemyHash.remove(mEnemies.getSpatialIds()[enemy]);
+		return mEnemies.remove(handle);
+	}
+
+	/**
+	 * Gets the animation clips of the sprite sheets
+	 * @return The animation library
+	 */
+	public AnimationLibrary getAnimations() {
+		return mAnimations;
+	}
+
+	/**
+	 * Gets the store of the enemies
+	 * @return The enemy store
+	 */
+	public EntityStore getEnemies() {
+		return mEnemies;
+	}
+
+	/**
+	 * Gets the spatial hash of the enemy positions
+	 * @return The enemy spatial hash
+	 */
+	public SpatialHash getEnemyHash() {
+		return mEnemyHash;
+	}
+
+	/**
+	 * Gets the number of enemies whose pixels overlap the player in the last frame
+	 * @return The collision count
+	 */
+	public int getPlayerCollisionCount() {
+		return mPlayerCollisionCount;
+	}
+
+	/**
+	 * Gets the number of pairs of enemies whose pixels overlap in the last frame
+	 * @return The enemy pair count
+	 */
+	public int getEnemyCollisionCount() {
+		return mEnemyCollisionCount;
+	}
+
+	/**
+	 * Gets the scheduler deciding which enemies are updated each step, and holding the
+	 * number of updates it skipped in the last one
+	 * @return The enemy update scheduler
+	 */
+	public UpdateScheduler getEnemyScheduler() {
+		return mEnemyScheduler;
+	}
+
+	/**
+	 * Gets the broadphase finding the enemies overlapping each other
+	 * @return The enemy sweep and prune
+	 */
+	public SweepAndPrune getEnemyBroadphase() {
+		return mEnemyBroadphase;
+	}
+
+	/**
+	 * Gets the timestep dividing the frame time into update steps
+	 * @return The fixed timestep
+	 */
+	public FixedTimestep getTimestep() {
+		return mTimestep;
+	}
+
+	/**
+	 * Gets the buffer handing snapshots of the game to the renderer
+	 * @return The snapshot buffer
+	 */
+	public TripleBuffer<GameSnapshot> getSnapshots() {
+		return mSnapshots;
+	}
+
+	/**
+	 * Gets the culler holding the drawn and culled sprite counts of the last frame
+	 * @return The viewport culler
+	 */
+	public ViewportCuller getCuller() {
+		return mCuller;
+	}
+
+	/**
+	 * Gets the cache holding the terrain strip
+	 * @return The terrain layer cache
+	 */
+	LayerCache getTerrainCache() {
+		return mTerrainCache;
+	}
+
 	/**
 	 * Gets the screen resolution width
 	 * @return Resolution width
@@ -213,8 +625,13 @@ public class GamePanel {
      * @param gl The GL context
      */
 	public void destroy(GL10 gl) {
+		mBackground.destroy(gl);
+		mMoon.destroy(gl);
 		mPlayerSprite.destroy(gl);
-        Runtime r = Runtime.getRuntime();
-        r.gc();
+		mEnemySprite.destroy(gl);
+		mBlockSprite.destroy(gl);
+		mTerrainCache.destroy(gl);
+		mAtlas.destroy(gl);
+		mRenderQueue.releaseHardwareBuffers(gl);
 	}
 }
\ No newline at end of file
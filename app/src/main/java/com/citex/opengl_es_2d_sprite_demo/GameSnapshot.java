@@ -0,0 +1,148 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * The state of the game after an update step, as much of it as is needed to draw a frame:
+ * the moon angle, the player position and the animation frames, with the moon and player
+ * after the step before so the frame can be drawn between the two, and a copy of the enemy
+ * positions and frames. The game writes a snapshot and publishes it through a TripleBuffer,
+ * after which the snapshot is only read until the renderer hands it back, so the renderer can
+ * draw it while the next step runs on another thread.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public final class GameSnapshot {
+
+    /** The number of the step the snapshot was taken after */
+    long mStep;
+
+    /** The time the snapshot was published, from System.nanoTime() */
+    long mTime;
+
+    /** The moon rotation angle after this step and the one before */
+    float mMoonAngle, mPreviousMoonAngle;
+
+    /** The player position after this step and the one before */
+    float mPlayerX, mPlayerY, mPreviousPlayerX, mPreviousPlayerY;
+
+    /** The animation frames */
+    int mPlayerFrame, mBlockFrame;
+
+    /** The enemy positions and animation frames */
+    private float[] mEnemyX = new float[0], mEnemyY = new float[0];
+    private int[] mEnemyFrames = new int[0];
+    private int mEnemyCount;
+
+    /**
+     * Copies the enemy positions and frames, growing the arrays if they are too short
+     * @param x The x coordinates
+     * @param y The y coordinates
+     * @param frames The frame numbers
+     * @param count The number of enemies
+     */
+    void setEnemies(float[] x, float[] y, int[] frames, int count) {
+        if (mEnemyX.length < count) {
+            int capacity = Math.max(count, mEnemyX.length * 2);
+            mEnemyX = new float[capacity];
+            mEnemyY = new float[capacity];
+            mEnemyFrames = new int[capacity];
+        }
+        System.arraycopy(x, 0, mEnemyX, 0, count);
+        System.arraycopy(y, 0, mEnemyY, 0, count);
+        System.arraycopy(frames, 0, mEnemyFrames, 0, count);
+        mEnemyCount = count;
+    }
+
+    /**
+     * Returns the number of the update step the snapshot was taken after
+     * @return The step number
+     */
+    public long getStep() {
+        return mStep;
+    }
+
+    /**
+     * Returns the time the snapshot was published
+     * @return The time in nanoseconds from System.nanoTime()
+     */
+    public long getTime() {
+        return mTime;
+    }
+
+    /**
+     * Returns the moon angle between the step before and this one
+     * @param alpha 0 for the step before, 1 for this step
+     * @return The moon rotation angle
+     */
+    public float getMoonAngle(float alpha) {
+        return mPreviousMoonAngle + (mMoonAngle - mPreviousMoonAngle) * alpha;
+    }
+
+    /**
+     * Returns the player x coordinate between the step before and this one
+     * @param alpha 0 for the step before, 1 for this step
+     * @return The x coordinate
+     */
+    public float getPlayerX(float alpha) {
+        return mPreviousPlayerX + (mPlayerX - mPreviousPlayerX) * alpha;
+    }
+
+    /**
+     * Returns the player y coordinate between the step before and this one
+     * @param alpha 0 for the step before, 1 for this step
+     * @return The y coordinate
+     */
+    public float getPlayerY(float alpha) {
+        return mPreviousPlayerY + (mPlayerY - mPreviousPlayerY) * alpha;
+    }
+
+    /**
+     * Returns the player animation frame
+     * @return The frame number
+     */
+    public int getPlayerFrame() {
+        return mPlayerFrame;
+    }
+
+    /**
+     * Returns the enemy animation frames, valid for the indices below getEnemyCount()
+     * @return The frame numbers
+     */
+    public int[] getEnemyFrames() {
+        return mEnemyFrames;
+    }
+
+    /**
+     * Returns the terrain block animation frame
+     * @return The frame number
+     */
+    public int getBlockFrame() {
+        return mBlockFrame;
+    }
+
+    /**
+     * Returns the enemy x coordinates, valid for the indices below getEnemyCount()
+     * @return The x coordinates
+     */
+    public float[] getEnemyX() {
+        return mEnemyX;
+    }
+
+    /**
+     * Returns the enemy y coordinates, valid for the indices below getEnemyCount()
+     * @return The y coordinates
+     */
+    public float[] getEnemyY() {
+        return mEnemyY;
+    }
+
+    /**
+     * Returns the number of enemies
+     * @return The enemy count
+     */
+    public int getEnemyCount() {
+        return mEnemyCount;
+    }
+}
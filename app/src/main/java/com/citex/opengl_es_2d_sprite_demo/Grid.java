@@ -16,12 +16,10 @@
 
 package com.citex.opengl_es_2d_sprite_demo;
 
-import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.CharBuffer;
 import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 
 import javax.microedition.khronos.opengles.GL10;
 import javax.microedition.khronos.opengles.GL11;
@@ -40,34 +38,27 @@ import javax.microedition.khronos.opengles.GL11;
  */
 
 class Grid {
-    private FloatBuffer mFloatVertexBuffer;
-    private FloatBuffer mFloatTexCoordBuffer;
-    private FloatBuffer mFloatColorBuffer;
-    private IntBuffer mFixedVertexBuffer;
-    private IntBuffer mFixedTexCoordBuffer;
-    private IntBuffer mFixedColorBuffer;
+    private ByteBuffer mVertexBuffer;
     private CharBuffer mIndexBuffer;
-    private Buffer mVertexBuffer;
-    private Buffer mTexCoordBuffer;
-    private Buffer mColorBuffer;
-    private int mCoordinateSize;
-    private int mCoordinateType;
+    private float[] mTransformedVertices;
+    private FloatBuffer mTransformedVertexBuffer;
+    private VertexFormat mFormat;
     private int mW;
     private int mH;
     private int mIndexCount;
+    private boolean mSharedIndices;
     private boolean mUseHardwareBuffers;
     private int mVertBufferIndex;
     private int mIndexBufferIndex;
-    private int mTextureCoordBufferIndex;
-    private int mColorBufferIndex;
+    private String mOwner;
 
     /**
      * Construct the Grid
      * @param vertsAcross The number of verts across
      * @param vertsDown The number of verts down 
-     * @param useFixedPoint Use fixed point arithmetic
+     * @param format The attributes stored for each vertex
      */
-    public Grid(int vertsAcross, int vertsDown, boolean useFixedPoint) {
+    public Grid(int vertsAcross, int vertsDown, VertexFormat format) {
         if (vertsAcross < 0 || vertsAcross >= 65536) {
             throw new IllegalArgumentException("vertsAcross");
         }
@@ -82,64 +73,39 @@ class Grid {
 
         mW = vertsAcross;
         mH = vertsDown;
+        mFormat = format;
         int size = vertsAcross * vertsDown;
         final int FLOAT_SIZE = 4;
-        final int FIXED_SIZE = 4;
         final int CHAR_SIZE = 2;
 
-        if (useFixedPoint) {
-        	mFixedVertexBuffer = ByteBuffer.allocateDirect(FIXED_SIZE * size * 3)
-            	.order(ByteOrder.nativeOrder()).asIntBuffer();
-        	mFixedTexCoordBuffer = ByteBuffer.allocateDirect(FIXED_SIZE * size * 2)
-            	.order(ByteOrder.nativeOrder()).asIntBuffer();
-        	mFixedColorBuffer = ByteBuffer.allocateDirect(FIXED_SIZE * size * 4)
-        		.order(ByteOrder.nativeOrder()).asIntBuffer();
-
-        	mVertexBuffer = mFixedVertexBuffer;
-        	mTexCoordBuffer = mFixedTexCoordBuffer;
-        	mColorBuffer = mFixedColorBuffer;
-        	mCoordinateSize = FIXED_SIZE;
-        	mCoordinateType = GL10.GL_FIXED;
-
-        } else {
-        	mFloatVertexBuffer = ByteBuffer.allocateDirect(FLOAT_SIZE * size * 3)
-            	.order(ByteOrder.nativeOrder()).asFloatBuffer();
-        	mFloatTexCoordBuffer = ByteBuffer.allocateDirect(FLOAT_SIZE * size * 2)
-            	.order(ByteOrder.nativeOrder()).asFloatBuffer();
-        	mFloatColorBuffer = ByteBuffer.allocateDirect(FLOAT_SIZE * size * 4)
-        	.order(ByteOrder.nativeOrder()).asFloatBuffer();
-
-
-        	mVertexBuffer = mFloatVertexBuffer;
-        	mTexCoordBuffer = mFloatTexCoordBuffer;
-        	mColorBuffer = mFloatColorBuffer;
-        	mCoordinateSize = FLOAT_SIZE;
-        	mCoordinateType = GL10.GL_FLOAT;
-        }
-
-
+        // The declared attributes are interleaved, so undeclared ones take no memory.
+        mVertexBuffer = ByteBuffer.allocateDirect(format.getStride() * size)
+            .order(ByteOrder.nativeOrder());
 
         int quadW = mW - 1;
         int quadH = mH - 1;
         int quadCount = quadW * quadH;
         int indexCount = quadCount * 6;
         mIndexCount = indexCount;
-        mIndexBuffer = ByteBuffer.allocateDirect(CHAR_SIZE * indexCount)
-            .order(ByteOrder.nativeOrder()).asCharBuffer();
-
-        /*
-         * Initialize triangle list mesh.
-         *
-         *     [0]-----[  1] ...
-         *      |    /   |
-         *      |   /    |
-         *      |  /     |
-         *     [w]-----[w+1] ...
-         *      |       |
-         *
-         */
-
-        {
+
+        // A single quad, such as a sprite, draws with the indices shared by every quad.
+        mSharedIndices = quadCount == 1;
+        if (!mSharedIndices) {
+            mIndexBuffer = ByteBuffer.allocateDirect(CHAR_SIZE * indexCount)
+                .order(ByteOrder.nativeOrder()).asCharBuffer();
+
+            /*
+             * Initialize triangle list mesh.
+             *
+             *     [0]-----[  1] ...
+             *      |    /   |
+             *      |   /    |
+             *      |  /     |
+             *     [w]-----[w+1] ...
+             *      |       |
+             *
+             */
+
             int i = 0;
             for (int y = 0; y < quadH; y++) {
                 for (int x = 0; x < quadW; x++) {
@@ -159,6 +125,10 @@ class Grid {
             }
         }
 
+        mTransformedVertices = new float[size * 2];
+        mTransformedVertexBuffer = ByteBuffer.allocateDirect(FLOAT_SIZE * size * 2)
+            .order(ByteOrder.nativeOrder()).asFloatBuffer();
+
         mVertBufferIndex = 0;
     }
 
@@ -174,39 +144,73 @@ class Grid {
         }
 
         final int index = mW * j + i;
+        final VertexFormat format = mFormat;
+        final ByteBuffer vertices = mVertexBuffer;
+        final int vertex = index * format.getStride();
+
+        final int positionType = format.getPositionType();
+        final int positionSize = VertexFormat.sizeOf(positionType);
+        putComponent(vertices, vertex, positionType, x);
+        putComponent(vertices, vertex + positionSize, positionType, y);
+        if (format.getPositionSize() == 3) {
+            putComponent(vertices, vertex + positionSize * 2, positionType, z);
+        }
 
-        final int posIndex = index * 3;
-        final int texIndex = index * 2;
-        final int colorIndex = index * 4;
+        if (format.hasTexCoords()) {
+            final int texCoordType = format.getTexCoordType();
+            final float texCoordScale = format.getTexCoordScale();
+            final int offset = vertex + format.getTexCoordOffset();
+            putComponent(vertices, offset, texCoordType, u * texCoordScale);
+            putComponent(vertices, offset + VertexFormat.sizeOf(texCoordType), texCoordType, v * texCoordScale);
+        }
 
-        if (mCoordinateType == GL10.GL_FLOAT) {
-        	mFloatVertexBuffer.put(posIndex, x);
-        	mFloatVertexBuffer.put(posIndex + 1, y);
-        	mFloatVertexBuffer.put(posIndex + 2, z);
+        if (color != null && format.hasColor()) {
+            final int colorType = format.getColorType();
+            final int colorSize = VertexFormat.sizeOf(colorType);
+            final int offset = vertex + format.getColorOffset();
+            for (int component = 0; component < 4; component++) {
+                putComponent(vertices, offset + component * colorSize, colorType, color[component]);
+            }
+        }
+    }
 
-        	mFloatTexCoordBuffer.put(texIndex, u);
-        	mFloatTexCoordBuffer.put(texIndex + 1, v);
+    /**
+     * Writes a component in a GL type. Unsigned bytes are normalised from the range 0 to 1,
+     * while shorts and bytes are rounded from values already scaled to their range.
+     */
+    private static void putComponent(ByteBuffer buffer, int offset, int type, float value) {
+        switch (type) {
+            case GL10.GL_FLOAT:
+                buffer.putFloat(offset, value);
+                break;
+            case GL10.GL_FIXED:
+                buffer.putInt(offset, (int)(value * (1 << 16)));
+                break;
+            case GL10.GL_SHORT:
+                buffer.putShort(offset, (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value))));
+                break;
+            case GL10.GL_BYTE:
+                buffer.put(offset, (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, Math.round(value))));
+                break;
+            case GL10.GL_UNSIGNED_BYTE:
+                buffer.put(offset, (byte) Math.max(0, Math.min(255, Math.round(value * 255))));
+                break;
+        }
+    }
 
-        	if (color != null) {
-        		mFloatColorBuffer.put(colorIndex, color[0]);
-        		mFloatColorBuffer.put(colorIndex + 1, color[1]);
-        		mFloatColorBuffer.put(colorIndex + 2, color[2]);
-        		mFloatColorBuffer.put(colorIndex + 3, color[3]);
-        	}
-        } else {
-        	mFixedVertexBuffer.put(posIndex, (int)(x * (1 << 16)));
-        	mFixedVertexBuffer.put(posIndex + 1, (int)(y * (1 << 16)));
-        	mFixedVertexBuffer.put(posIndex + 2, (int)(z * (1 << 16)));
-
-        	mFixedTexCoordBuffer.put(texIndex, (int)(u * (1 << 16)));
-        	mFixedTexCoordBuffer.put(texIndex + 1, (int)(v * (1 << 16)));
-
-        	if (color != null) {
-        		mFixedColorBuffer.put(colorIndex, (int)(color[0] * (1 << 16)));
-        		mFixedColorBuffer.put(colorIndex + 1, (int)(color[1] * (1 << 16)));
-        		mFixedColorBuffer.put(colorIndex + 2, (int)(color[2] * (1 << 16)));
-        		mFixedColorBuffer.put(colorIndex + 3, (int)(color[3] * (1 << 16)));
-        	}
+    /**
+     * Reads a position component in a GL type
+     */
+    private static float getComponent(ByteBuffer buffer, int offset, int type) {
+        switch (type) {
+            case GL10.GL_FLOAT:
+                return buffer.getFloat(offset);
+            case GL10.GL_FIXED:
+                return buffer.getInt(offset) / (float) (1 << 16);
+            case GL10.GL_SHORT:
+                return buffer.getShort(offset);
+            default:
+                return buffer.get(offset);
         }
     }
 
@@ -225,16 +229,118 @@ class Grid {
     public void draw(GL10 gl, boolean useTexture, boolean useColor) {
 
             GL11 gl11 = (GL11)gl;
-            // draw using hardware buffers
-            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mVertBufferIndex);
-            gl11.glVertexPointer(3, mCoordinateType, 0, 0);
+            final VertexFormat format = mFormat;
+            final int stride = format.getStride();
+            final boolean drawColor = useColor && format.hasColor();
 
-            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mTextureCoordBufferIndex);
-            gl11.glTexCoordPointer(2, mCoordinateType, 0, 0);
+            // draw using the interleaved hardware buffer
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mVertBufferIndex);
+            gl11.glVertexPointer(format.getPositionSize(), format.getPositionType(), stride, 0);
+            if (format.hasTexCoords()) {
+                gl11.glTexCoordPointer(2, format.getTexCoordType(), stride, format.getTexCoordOffset());
+            } else {
+                // beginDrawing leaves the array enabled, which would read a stale pointer.
+                gl11.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+            }
+            if (drawColor) {
+                gl11.glEnableClientState(GL10.GL_COLOR_ARRAY);
+                gl11.glColorPointer(4, format.getColorType(), stride, format.getColorOffset());
+            }
 
-            gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, mIndexBufferIndex);
+            beginTexCoordScale(gl);
+            bindIndices(gl11);
             gl11.glDrawElements(GL11.GL_TRIANGLES, mIndexCount,
                     GL11.GL_UNSIGNED_SHORT, 0);
+            endTexCoordScale(gl);
+
+            if (drawColor) {
+                gl11.glDisableClientState(GL10.GL_COLOR_ARRAY);
+            }
+            if (!format.hasTexCoords()) {
+                gl11.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+            }
+    }
+
+    /**
+     * Renders the grid with its vertices transformed on the CPU instead of through the model
+     * view matrix. The transformed positions are sent from client memory while the texture
+     * coordinates are read from the interleaved hardware buffer.
+     * @param gl The GL context
+     * @param transform Places the grid on the screen
+     */
+    public void draw(GL10 gl, QuadTransform transform) {
+        final float[] transformed = mTransformedVertices;
+        final int vertexCount = mW * mH;
+        final int positionType = mFormat.getPositionType();
+        final int stride = mFormat.getStride();
+        final int componentBytes = VertexFormat.sizeOf(positionType);
+        for (int i = 0; i < vertexCount; i++) {
+            float x = getComponent(mVertexBuffer, i * stride, positionType);
+            float y = getComponent(mVertexBuffer, i * stride + componentBytes, positionType);
+            transformed[i * 2] = transform.transformX(x, y);
+            transformed[i * 2 + 1] = transform.transformY(x, y);
+        }
+        mTransformedVertexBuffer.put(transformed, 0, vertexCount * 2);
+        mTransformedVertexBuffer.position(0);
+
+        GL11 gl11 = (GL11)gl;
+        final boolean hasTexCoords = mFormat.hasTexCoords();
+        if (hasTexCoords) {
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mVertBufferIndex);
+            gl11.glTexCoordPointer(2, mFormat.getTexCoordType(), stride, mFormat.getTexCoordOffset());
+        } else {
+            gl11.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+        }
+
+        gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
+        gl11.glVertexPointer(2, GL10.GL_FLOAT, 0, mTransformedVertexBuffer);
+
+        beginTexCoordScale(gl);
+        bindIndices(gl11);
+        gl11.glDrawElements(GL11.GL_TRIANGLES, mIndexCount,
+                GL11.GL_UNSIGNED_SHORT, 0);
+        endTexCoordScale(gl);
+
+        if (!hasTexCoords) {
+            gl11.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+        }
+    }
+
+    /**
+     * Binds the shared quad indices for a single quad, or the grid's own indices
+     */
+    private void bindIndices(GL11 gl11) {
+        if (mSharedIndices) {
+            QuadIndexBuffer.getInstance().bind(gl11, 1);
+        } else {
+            gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, mIndexBufferIndex);
+        }
+    }
+
+    /**
+     * Scales integer texture coordinates back to the range 0 to 1 through the texture matrix,
+     * which OpenGL ES 1.x applies instead of normalising them. The renderer keeps the
+     * projection matrix selected, so it is selected again afterwards.
+     */
+    private void beginTexCoordScale(GL10 gl) {
+        float scale = mFormat.getTexCoordScale();
+        if (scale != 1) {
+            gl.glMatrixMode(GL10.GL_TEXTURE);
+            gl.glLoadIdentity();
+            gl.glScalef(1 / scale, 1 / scale, 1);
+            gl.glMatrixMode(GL10.GL_PROJECTION);
+        }
+    }
+
+    /**
+     * Restores the texture matrix for the float texture coordinates of other meshes
+     */
+    private void endTexCoordScale(GL10 gl) {
+        if (mFormat.getTexCoordScale() != 1) {
+            gl.glMatrixMode(GL10.GL_TEXTURE);
+            gl.glLoadIdentity();
+            gl.glMatrixMode(GL10.GL_PROJECTION);
+        }
     }
 
     /**
@@ -261,8 +367,6 @@ class Grid {
     public void invalidateHardwareBuffers() {
         mVertBufferIndex = 0;
         mIndexBufferIndex = 0;
-        mTextureCoordBufferIndex = 0;
-        mColorBufferIndex = 0;
         mUseHardwareBuffers = false;
     }
 
@@ -270,25 +374,31 @@ class Grid {
      * Deletes the hardware buffers allocated by this object (if any).
      */
     public void releaseHardwareBuffers(GL10 gl) {
-        //if (mUseHardwareBuffers) {
-            if (gl instanceof GL11) {
-                GL11 gl11 = (GL11)gl;
-                int[] buffer = new int[1];
-                buffer[0] = mVertBufferIndex;
-                gl11.glDeleteBuffers(1, buffer, 0);
-
-                buffer[0] = mTextureCoordBufferIndex;
-                gl11.glDeleteBuffers(1, buffer, 0);
+        GLResourceRegistry registry = GLResourceRegistry.getInstance();
+        registry.release(gl, GLResourceRegistry.BUFFER, mVertBufferIndex);
+        registry.release(gl, GLResourceRegistry.BUFFER, mIndexBufferIndex);
 
-                buffer[0] = mColorBufferIndex;
-                gl11.glDeleteBuffers(1, buffer, 0);
+        // Keep the handles while a cloned sprite still shares this grid.
+        if (registry.getReferences(GLResourceRegistry.BUFFER, mVertBufferIndex) == 0) {
+            invalidateHardwareBuffers();
+        }
+    }
 
-                buffer[0] = mIndexBufferIndex;
-                gl11.glDeleteBuffers(1, buffer, 0);
-            }
+    /**
+     * Adds an owner to the hardware buffers when the grid is shared by a cloned sprite.
+     */
+    public void retainHardwareBuffers() {
+        GLResourceRegistry registry = GLResourceRegistry.getInstance();
+        registry.retain(GLResourceRegistry.BUFFER, mVertBufferIndex);
+        registry.retain(GLResourceRegistry.BUFFER, mIndexBufferIndex);
+    }
 
-            invalidateHardwareBuffers();
-        //}
+    /**
+     * Sets the asset reported as the owner of the hardware buffers
+     * @param owner The owning asset
+     */
+    public void setOwner(String owner) {
+        mOwner = owner;
     }
 
     /**
@@ -302,57 +412,38 @@ class Grid {
         if (!mUseHardwareBuffers) {
             if (gl instanceof GL11) {
                 GL11 gl11 = (GL11)gl;
-                int[] buffer = new int[1];
+                GLResourceRegistry registry = GLResourceRegistry.getInstance();
 
-                // Allocate and fill the vertex buffer.
-                gl11.glGenBuffers(1, buffer, 0);
-                mVertBufferIndex = buffer[0];
+                // Allocate and fill the interleaved vertex buffer.
+                mVertBufferIndex = registry.genBuffer(gl11, mOwner);
                 gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mVertBufferIndex);
-                final int vertexSize = mVertexBuffer.capacity() * mCoordinateSize;
+                final int vertexSize = mVertexBuffer.capacity();
                 gl11.glBufferData(GL11.GL_ARRAY_BUFFER, vertexSize,
                         mVertexBuffer, GL11.GL_STATIC_DRAW);
-
-                // Allocate and fill the texture coordinate buffer.
-                gl11.glGenBuffers(1, buffer, 0);
-                mTextureCoordBufferIndex = buffer[0];
-                gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER,
-                        mTextureCoordBufferIndex);
-                final int texCoordSize =
-                    mTexCoordBuffer.capacity() * mCoordinateSize;
-                gl11.glBufferData(GL11.GL_ARRAY_BUFFER, texCoordSize,
-                        mTexCoordBuffer, GL11.GL_STATIC_DRAW);
-
-                // Allocate and fill the color buffer.
-                gl11.glGenBuffers(1, buffer, 0);
-                mColorBufferIndex = buffer[0];
-                gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER,
-                		mColorBufferIndex);
-                final int colorSize =
-                    mColorBuffer.capacity() * mCoordinateSize;
-                gl11.glBufferData(GL11.GL_ARRAY_BUFFER, colorSize,
-                		mColorBuffer, GL11.GL_STATIC_DRAW);
+                registry.setBytes(GLResourceRegistry.BUFFER, mVertBufferIndex, vertexSize);
 
                 // Unbind the array buffer.
                 gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
 
-                // Allocate and fill the index buffer.
-                gl11.glGenBuffers(1, buffer, 0);
-                mIndexBufferIndex = buffer[0];
-                gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER,
-                        mIndexBufferIndex);
-                // A char is 2 bytes.
-                final int indexSize = mIndexBuffer.capacity() * 2;
-                gl11.glBufferData(GL11.GL_ELEMENT_ARRAY_BUFFER, indexSize, mIndexBuffer,
-                        GL11.GL_STATIC_DRAW);
-
-                // Unbind the element array buffer.
-                gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, 0);
+                // Allocate and fill the index buffer unless the grid shares the quad indices.
+                if (!mSharedIndices) {
+                    mIndexBufferIndex = registry.genBuffer(gl11, mOwner);
+                    gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER,
+                            mIndexBufferIndex);
+                    // A char is 2 bytes.
+                    final int indexSize = mIndexBuffer.capacity() * 2;
+                    gl11.glBufferData(GL11.GL_ELEMENT_ARRAY_BUFFER, indexSize, mIndexBuffer,
+                            GL11.GL_STATIC_DRAW);
+                    registry.setBytes(GLResourceRegistry.BUFFER, mIndexBufferIndex, indexSize);
+
+                    // Unbind the element array buffer.
+                    gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, 0);
+                }
 
                 mUseHardwareBuffers = true;
 
                 assert mVertBufferIndex != 0;
-                assert mTextureCoordBufferIndex != 0;
-                assert mIndexBufferIndex != 0;
+                assert mSharedIndices || mIndexBufferIndex != 0;
                 assert gl11.glGetError() == 0;
 
 
@@ -364,24 +455,16 @@ class Grid {
     	return mVertBufferIndex;
     }
 
-    public final int getTextureBuffer() {
-    	return mTextureCoordBufferIndex;
-    }
-
     public final int getIndexBuffer() {
     	return mIndexBufferIndex;
     }
 
-    public final int getColorBuffer() {
-    	return mColorBufferIndex;
-    }
-
 	public final int getIndexCount() {
 		return mIndexCount;
 	}
 
-	public boolean getFixedPoint() {
-		return (mCoordinateType == GL10.GL_FIXED);
+	public VertexFormat getFormat() {
+		return mFormat;
 	}
 
 }
@@ -0,0 +1,238 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+import javax.microedition.khronos.opengles.GL11ExtensionPack;
+
+/**
+ * Caches a rarely changing region of the screen in an offscreen texture through the
+ * GL_OES_framebuffer_object extension. The region is drawn into the texture only when its
+ * contents change, identified by a version number such as an animation frame, and is
+ * otherwise composited with one quad through the sprite sheet returned by getSheet().
+ *
+ * The region is rendered at the game resolution with the projection flipped vertically, so
+ * the top row of the region is the first row of the texture as it is for loaded images. The
+ * texture is cleared to transparent, which suits sprites whose pixels are either opaque or
+ * fully transparent. The viewport is restored to the surface size passed to
+ * setSurfaceSize() and the clear color to the one set before begin(). Where the extension is missing, such as through the GLES 2.0 adapter,
+ * isSupported() returns false and the layer should be drawn directly.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class LayerCache {
+
+    /** The extension needed to render to a texture */
+    public static final String EXTENSION = "GL_OES_framebuffer_object";
+
+    /** The region of the screen in game coordinates */
+    private final float mX, mY, mWidth, mHeight;
+
+    /** The game resolution the projection maps to */
+    private final float mResolutionWidth, mResolutionHeight;
+
+    /** The size of the surface the viewport is restored to */
+    private int mSurfaceWidth, mSurfaceHeight;
+
+    /** The clear color set before the region was drawn */
+    private final float[] mClearColor = new float[4];
+
+    /** The framebuffer rendering into the texture, or 0 when unsupported */
+    private int mFramebuffer;
+
+    /** The texture holding the region drawn as a one frame sprite sheet */
+    private SpriteSheet mSheet;
+
+    /** The version the texture was drawn at */
+    private int mVersion;
+
+    /** Does the texture hold the region */
+    private boolean mValid;
+
+    /** The number of times the region has been drawn into the texture */
+    private int mRenderCount;
+
+    /**
+     * Constructs the LayerCache, allocating the texture and framebuffer if the extension is
+     * supported
+     * @param gl The GL context
+     * @param owner The asset reported as the owner of the texture and framebuffer
+     * @param x The x coordinate of the region
+     * @param y The y coordinate of the region
+     * @param width The width of the region
+     * @param height The height of the region
+     * @param resolutionWidth The width of the game resolution
+     * @param resolutionHeight The height of the game resolution
+     */
+    public LayerCache(GL10 gl, String owner, float x, float y, float width, float height,
+                      float resolutionWidth, float resolutionHeight) {
+        mX = x;
+        mY = y;
+        mWidth = width;
+        mHeight = height;
+        mResolutionWidth = resolutionWidth;
+        mResolutionHeight = resolutionHeight;
+
+        if (gl instanceof GL11ExtensionPack) {
+            String extensions = gl.glGetString(GL10.GL_EXTENSIONS);
+            if (extensions != null && extensions.contains(EXTENSION)) {
+                generateHardwareBuffers(gl, (GL11ExtensionPack) gl, owner);
+            }
+        }
+    }
+
+    /**
+     * Allocates the texture and attaches it to a new framebuffer, leaving the cache
+     * unsupported if the framebuffer is incomplete
+     */
+    private void generateHardwareBuffers(GL10 gl, GL11ExtensionPack pack, String owner) {
+        int textureWidth = nextPowerOfTwo((int) Math.ceil(mWidth));
+        int textureHeight = nextPowerOfTwo((int) Math.ceil(mHeight));
+        GLResourceRegistry registry = GLResourceRegistry.getInstance();
+
+        int texture = registry.genTexture(gl, owner);
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, texture);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_NEAREST);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_NEAREST);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S, GL10.GL_CLAMP_TO_EDGE);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_CLAMP_TO_EDGE);
+        gl.glTexImage2D(GL10.GL_TEXTURE_2D, 0, GL10.GL_RGBA, textureWidth, textureHeight, 0,
+                GL10.GL_RGBA, GL10.GL_UNSIGNED_BYTE, null);
+
+        mFramebuffer = registry.genFramebuffer(pack, owner);
+        pack.glBindFramebufferOES(GL11ExtensionPack.GL_FRAMEBUFFER_OES, mFramebuffer);
+        pack.glFramebufferTexture2DOES(GL11ExtensionPack.GL_FRAMEBUFFER_OES,
+                GL11ExtensionPack.GL_COLOR_ATTACHMENT0_OES, GL10.GL_TEXTURE_2D, texture, 0);
+        int status = pack.glCheckFramebufferStatusOES(GL11ExtensionPack.GL_FRAMEBUFFER_OES);
+        pack.glBindFramebufferOES(GL11ExtensionPack.GL_FRAMEBUFFER_OES, 0);
+
+        if (status != GL11ExtensionPack.GL_FRAMEBUFFER_COMPLETE_OES) {
+            registry.release(gl, GLResourceRegistry.FRAMEBUFFER, mFramebuffer);
+            registry.release(gl, GLResourceRegistry.TEXTURE, texture);
+            mFramebuffer = 0;
+            return;
+        }
+
+        // The sprite takes over the reference to the texture, which keeps its owner and site.
+        GLSprite sprite = new GLSprite(gl, texture, textureWidth, textureHeight, owner);
+        registry.setBytes(GLResourceRegistry.TEXTURE, texture, textureWidth * textureHeight * 4);
+        mSheet = new SpriteSheet(gl, sprite, (int) mWidth, (int) mHeight, 1);
+    }
+
+    /**
+     * Returns the smallest power of two which is at least a size
+     */
+    private static int nextPowerOfTwo(int size) {
+        int power = 1;
+        while (power < size) {
+            power <<= 1;
+        }
+        return power;
+    }
+
+    /**
+     * Returns whether the region can be cached on this GL context
+     * @return True if the framebuffer is complete
+     */
+    public boolean isSupported() {
+        return mFramebuffer != 0;
+    }
+
+    /**
+     * Returns whether the texture holds the region at a version
+     * @param version The version of the region's contents
+     * @return True if the cached texture can be composited
+     */
+    public boolean isValid(int version) {
+        return mValid && mVersion == version;
+    }
+
+    /**
+     * Sets the size of the surface the viewport is restored to after drawing the region
+     * @param width The width of the surface
+     * @param height The height of the surface
+     */
+    public void setSurfaceSize(int width, int height) {
+        mSurfaceWidth = width;
+        mSurfaceHeight = height;
+    }
+
+    /**
+     * Forces the region to be drawn again on the next frame
+     */
+    public void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * Redirects drawing into the texture. The caller draws the region in game coordinates
+     * and then calls end().
+     * @param gl The GL context
+     */
+    public void begin(GL10 gl) {
+        GL11ExtensionPack pack = (GL11ExtensionPack) gl;
+        pack.glBindFramebufferOES(GL11ExtensionPack.GL_FRAMEBUFFER_OES, mFramebuffer);
+
+        // Keep the caller's clear color, read back only on the rare frames the region is drawn.
+        ((GL11) gl).glGetFloatv(GL11.GL_COLOR_CLEAR_VALUE, mClearColor, 0);
+
+        // Map the game resolution one to one onto the texture with the region at its origin.
+        gl.glViewport((int) -mX, (int) -mY, (int) mResolutionWidth, (int) mResolutionHeight);
+        gl.glClearColor(0, 0, 0, 0);
+        gl.glClear(GL10.GL_COLOR_BUFFER_BIT);
+
+        // Flip the y axis of the game, which is the x axis of the rotated projection.
+        gl.glMatrixMode(GL10.GL_PROJECTION);
+        gl.glPushMatrix();
+        gl.glTranslatef(mResolutionHeight, 0, 0);
+        gl.glScalef(-1, 1, 1);
+    }
+
+    /**
+     * Restores drawing to the screen and marks the texture as holding a version of the region
+     * @param gl The GL context
+     * @param version The version of the region's contents
+     */
+    public void end(GL10 gl, int version) {
+        gl.glPopMatrix();
+        ((GL11ExtensionPack) gl).glBindFramebufferOES(GL11ExtensionPack.GL_FRAMEBUFFER_OES, 0);
+        gl.glViewport(0, 0, mSurfaceWidth, mSurfaceHeight);
+        gl.glClearColor(mClearColor[0], mClearColor[1], mClearColor[2], mClearColor[3]);
+
+        mVersion = version;
+        mValid = true;
+        mRenderCount++;
+    }
+
+    /**
+     * Returns the texture holding the region as a one frame sprite sheet
+     * @return The sprite sheet, or null when unsupported
+     */
+    public SpriteSheet getSheet() {
+        return mSheet;
+    }
+
+    /**
+     * Returns the number of times the region has been drawn into the texture
+     * @return The render count
+     */
+    public int getRenderCount() {
+        return mRenderCount;
+    }
+
+    /**
+     * Deletes the texture and framebuffer
+     * @param gl The GL context
+     */
+    public void destroy(GL10 gl) {
+        if (mSheet != null) {
+            mSheet.destroy(gl);
+            mSheet = null;
+        }
+        GLResourceRegistry.getInstance().release(gl, GLResourceRegistry.FRAMEBUFFER, mFramebuffer);
+        mFramebuffer = 0;
+        mValid = false;
+    }
+}
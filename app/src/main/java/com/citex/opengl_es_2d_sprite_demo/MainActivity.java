@@ -2,6 +2,7 @@ package com.citex.opengl_es_2d_sprite_demo;
 
 import androidx.appcompat.app.AppCompatActivity;
 import android.app.Activity;
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
 import android.util.DisplayMetrics;
 import android.widget.RelativeLayout;
@@ -28,6 +29,10 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        // List where leaked GL handles were created in debug builds
+        GLResourceRegistry.getInstance().setTrackingSites(
+                (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+
         // Create the GLSurface view for rendering
         mGLSurfaceView = new GLSurfaceViewEvent(this, getAssets());
         setContentView(mGLSurfaceView);
@@ -0,0 +1,20 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * Receives the overlapping pairs of boxes found by a SweepAndPrune sweep, one call for each
+ * pair. The ids are passed as ints, so reporting a pair allocates nothing.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public interface PairListener {
+
+    /**
+     * Called for a pair of overlapping boxes
+     * @param first The id of the box starting further left
+     * @param second The id of the other box
+     */
+    void onPair(int first, int second);
+}
@@ -0,0 +1,146 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs an EntityUpdater over every entity of a store, splitting the entities into chunks
+ * updated in parallel on a ForkJoinPool. The chunks are fixed runs of consecutive indices,
+ * long enough that a thread streams through whole cache lines of each array and short
+ * enough to balance the work across the cores. The chunk boundaries depend only on the
+ * number of entities, never on the threads, and the updater touches only its own chunk, so a
+ * parallel run leaves the store exactly as a sequential one does.
+ *
+ * Below a threshold the entities are updated in one sequential pass on the calling thread,
+ * where handing the work to the pool would cost more than it saves.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class ParallelUpdateStage {
+
+    /** Moves every entity by its velocity */
+    public static final EntityUpdater INTEGRATE = new EntityUpdater() {
+        @Override
+        public void update(EntityStore store, int from, int to, float dt) {
+            store.integrate(from, to, dt);
+        }
+    };
+
+    /** 4096 entities, 16KB of each float array */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    /** The number of entities below which the update stays on the calling thread */
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 16384;
+
+    /** The pool shared by the stages, with a thread for each core */
+    private static ForkJoinPool sSharedPool;
+
+    /** The pool the chunks run on */
+    private final ForkJoinPool mPool;
+
+    /** Updates each chunk */
+    private final EntityUpdater mUpdater;
+
+    /** The number of entities in a chunk and in the smallest parallel update */
+    private final int mChunkSize, mSequentialThreshold;
+
+    /** The number of chunks in the last update, 1 when it ran sequentially */
+    private int mLastChunkCount;
+
+    /**
+     * Constructs a ParallelUpdateStage running on the shared pool with the default chunks
+     * @param updater Updates each chunk
+     */
+    public ParallelUpdateStage(EntityUpdater updater) {
+        this(getSharedPool(), updater, DEFAULT_CHUNK_SIZE, DEFAULT_SEQUENTIAL_THRESHOLD);
+    }
+
+    /**
+     * Constructs the ParallelUpdateStage
+     * @param pool The pool the chunks run on
+     * @param updater Updates each chunk
+     * @param chunkSize The number of entities in a chunk
+     * @param sequentialThreshold The number of entities below which the update is sequential
+     */
+    public ParallelUpdateStage(ForkJoinPool pool, EntityUpdater updater, int chunkSize, int sequentialThreshold) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize");
+        }
+        mPool = pool;
+        mUpdater = updater;
+        mChunkSize = chunkSize;
+        mSequentialThreshold = sequentialThreshold;
+    }
+
+    /**
+     * Returns the pool shared by the stages, making it on first use
+     * @return A pool with as many threads as the device has cores
+     */
+    public static synchronized ForkJoinPool getSharedPool() {
+        if (sSharedPool == null) {
+            sSharedPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        return sSharedPool;
+    }
+
+    /**
+     * Updates every entity of a store, returning when all of the chunks are done
+     * @param store The entities
+     * @param dt The time step
+     */
+    public void run(EntityStore store, float dt) {
+        int size = store.size();
+        if (size < mSequentialThreshold || mPool.getParallelism() == 1) {
+            mUpdater.update(store, 0, size, dt);
+            mLastChunkCount = 1;
+            return;
+        }
+
+        int chunks = (size + mChunkSize - 1) / mChunkSize;
+        mPool.invoke(new ChunkTask(store, dt, 0, chunks));
+        mLastChunkCount = chunks;
+    }
+
+    /**
+     * Returns the number of chunks the last update was split into
+     * @return The chunk count, 1 when the update ran sequentially
+     */
+    public int getLastChunkCount() {
+        return mLastChunkCount;
+    }
+
+    /**
+     * Updates a run of chunks, halving it until each half is a single chunk
+     */
+    private final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final EntityStore mStore;
+        private final float mDt;
+        private final int mFirstChunk, mEndChunk;
+
+        ChunkTask(EntityStore store, float dt, int firstChunk, int endChunk) {
+            mStore = store;
+            mDt = dt;
+            mFirstChunk = firstChunk;
+            mEndChunk = endChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (mEndChunk - mFirstChunk == 1) {
+                int from = mFirstChunk * mChunkSize;
+                mUpdater.update(mStore, from, Math.min(from + mChunkSize, mStore.size()), mDt);
+                return;
+            }
+
+            int middle = (mFirstChunk + mEndChunk) >>> 1;
+            invokeAll(new ChunkTask(mStore, mDt, mFirstChunk, middle),
+                    new ChunkTask(mStore, mDt, middle, mEndChunk));
+        }
+    }
+}
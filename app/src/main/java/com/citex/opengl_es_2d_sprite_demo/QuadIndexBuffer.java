@@ -0,0 +1,220 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * The triangle list indices of a run of quads, shared by every quad drawn with
+ * glDrawElements. Each quad of four vertices is drawn as the triangles 0,1,2 and 1,2,3, the
+ * same pattern as a 2x2 Grid, so one index buffer serves sprites, batches, tiled strips and
+ * the GLES 2.0 stream alike.
+ *
+ * The indices are generated for a power of two number of quads and grown when a draw needs
+ * more, up to the 16k quads 16 bit indices can address. The hardware buffer is made on the
+ * first draw of a GL context and made again after a context loss, which is detected through
+ * the generation of the GLResourceRegistry, so the process holds one index buffer object.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public final class QuadIndexBuffer {
+
+    /** The maximum number of quads which can be addressed with 16 bit indices */
+    public static final int MAX_QUADS = 16384;
+
+    /** The number of quads the indices are first generated for */
+    private static final int INITIAL_QUADS = 64;
+
+    /** The owner reported to the GLResourceRegistry */
+    private static final String OWNER = "QuadIndexBuffer";
+
+    /** The index buffer shared by the GL thread */
+    private static final QuadIndexBuffer sInstance = new QuadIndexBuffer();
+
+    /** The client side indices */
+    private CharBuffer mIndexBuffer;
+
+    /** The number of quads the client side indices cover */
+    private int mQuadCapacity;
+
+    /** The hardware buffer handle and the number of quads uploaded to it */
+    private int mBufferIndex, mBufferQuads;
+
+    /** The GL context and registry generation the hardware buffer belongs to */
+    private GL10 mContext;
+    private int mGeneration;
+
+    /** The number of times the indices have been uploaded */
+    private int mUploadCount;
+
+    /**
+     * Constructs a QuadIndexBuffer. The game draws with the shared instance.
+     */
+    QuadIndexBuffer() {
+        grow(INITIAL_QUADS);
+    }
+
+    /**
+     * Returns the index buffer shared by the GL thread
+     * @return The index buffer
+     */
+    public static QuadIndexBuffer getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Returns client side indices for drawing without hardware buffers
+     * @param quads The number of quads to be drawn
+     * @return The indices, positioned at the first quad
+     */
+    public CharBuffer getIndices(int quads) {
+        grow(quads);
+        return mIndexBuffer;
+    }
+
+    /**
+     * Binds the hardware index buffer to GL_ELEMENT_ARRAY_BUFFER, making or growing it first
+     * if it does not cover a number of quads
+     * @param gl The GL context
+     * @param quads The number of quads to be drawn
+     */
+    public void bind(GL11 gl, int quads) {
+        grow(quads);
+        if (!isCurrent(gl)) {
+            mBufferIndex = create(gl);
+        }
+
+        gl.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, mBufferIndex);
+        if (mBufferQuads < quads) {
+            gl.glBufferData(GL11.GL_ELEMENT_ARRAY_BUFFER, mQuadCapacity * 6 * 2, mIndexBuffer,
+                    GL11.GL_STATIC_DRAW);
+            uploaded();
+        }
+    }
+
+    /**
+     * Binds the hardware index buffer through the GLES 2.0 functions, making or growing it
+     * first if it does not cover a number of quads
+     * @param gl20 The GLES 2.0 functions
+     * @param gl The GL the registry generates the buffer through, only called when the buffer
+     *           is made
+     * @param quads The number of quads to be drawn
+     */
+    public void bind(GL20 gl20, GL11 gl, int quads) {
+        grow(quads);
+        if (!isCurrent(gl)) {
+            mBufferIndex = create(gl);
+        }
+
+        gl20.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, mBufferIndex);
+        if (mBufferQuads < quads) {
+            gl20.glBufferData(GL20.GL_ELEMENT_ARRAY_BUFFER, mQuadCapacity * 6 * 2, mIndexBuffer,
+                    GL20.GL_STATIC_DRAW);
+            uploaded();
+        }
+    }
+
+    /**
+     * Returns whether the hardware buffer was made on a context which is still current
+     */
+    private boolean isCurrent(GL10 gl) {
+        return mBufferIndex != 0 && mContext == gl
+                && mGeneration == GLResourceRegistry.getInstance().getGeneration();
+    }
+
+    /**
+     * Generates the hardware buffer handle for a context
+     */
+    private int create(GL11 gl) {
+        GLResourceRegistry registry = GLResourceRegistry.getInstance();
+        mContext = gl;
+        mGeneration = registry.getGeneration();
+        mBufferQuads = 0;
+        return registry.genBuffer(gl, OWNER);
+    }
+
+    /**
+     * Records that the client side indices were uploaded to the hardware buffer
+     */
+    private void uploaded() {
+        mBufferQuads = mQuadCapacity;
+        mUploadCount++;
+        GLResourceRegistry.getInstance().setBytes(GLResourceRegistry.BUFFER, mBufferIndex, mQuadCapacity * 6 * 2);
+    }
+
+    /**
+     * Grows the client side indices to the next power of two covering a number of quads
+     */
+    private void grow(int quads) {
+        if (quads <= mQuadCapacity) {
+            return;
+        }
+        if (quads > MAX_QUADS) {
+            throw new IllegalArgumentException("quads");
+        }
+
+        int capacity = Math.max(mQuadCapacity, INITIAL_QUADS);
+        while (capacity < quads) {
+            capacity <<= 1;
+        }
+
+        CharBuffer indices = ByteBuffer.allocateDirect(capacity * 6 * 2)
+                .order(ByteOrder.nativeOrder()).asCharBuffer();
+        for (int i = 0; i < capacity; i++) {
+            char vertex = (char) (i * 4);
+            indices.put(vertex);
+            indices.put((char) (vertex + 1));
+            indices.put((char) (vertex + 2));
+            indices.put((char) (vertex + 1));
+            indices.put((char) (vertex + 2));
+            indices.put((char) (vertex + 3));
+        }
+        indices.position(0);
+
+        mIndexBuffer = indices;
+        mQuadCapacity = capacity;
+    }
+
+    /**
+     * Deletes the hardware buffer if it belongs to the current context
+     * @param gl The GL context
+     */
+    public void releaseHardwareBuffers(GL10 gl) {
+        if (isCurrent(gl)) {
+            GLResourceRegistry.getInstance().release(gl, GLResourceRegistry.BUFFER, mBufferIndex);
+        }
+        invalidateHardwareBuffers();
+    }
+
+    /**
+     * When the OpenGL ES device is lost, GL handles become invalidated.
+     * Forget the old handle so a new one is made on the next bind.
+     */
+    public void invalidateHardwareBuffers() {
+        mBufferIndex = 0;
+        mBufferQuads = 0;
+        mContext = null;
+    }
+
+    /**
+     * Returns the number of quads the indices cover
+     * @return The quad capacity
+     */
+    public int getQuadCapacity() {
+        return mQuadCapacity;
+    }
+
+    /**
+     * Returns the number of times the indices have been uploaded to a hardware buffer
+     * @return The upload count
+     */
+    public int getUploadCount() {
+        return mUploadCount;
+    }
+}
@@ -0,0 +1,116 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * A 2D affine transform applied to quad corners on the CPU, so a sprite can be placed and
+ * rotated by writing its transformed vertices instead of pushing a model view matrix. The
+ * transform works in GL coordinates, which are the screen coordinates swapped for the
+ * rotated projection, and matches the glTranslatef and glRotatef calls it replaces.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+final class QuadTransform {
+
+    /** The linear part of the transform */
+    private float m00 = 1, m01, m10, m11 = 1;
+
+    /** The translation of the transform */
+    private float mTranslateX, mTranslateY;
+
+    /**
+     * Sets a translation to a screen position
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    void setTranslation(float x, float y) {
+        m00 = 1; m01 = 0;
+        m10 = 0; m11 = 1;
+        mTranslateX = y;
+        mTranslateY = x;
+    }
+
+    /**
+     * Sets a rotation about a center position followed by a translation to a screen position,
+     * the same as glTranslatef(y + centerY, x + centerX), glRotatef(angle) and
+     * glTranslatef(-centerY, -centerX)
+     * @param angle The angle of rotation in degrees
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param centerX The center x of rotation
+     * @param centerY The center y of rotation
+     */
+    void setRotation(float angle, float x, float y, float centerX, float centerY) {
+        double radians = Math.toRadians(angle);
+        float c = (float) Math.cos(radians);
+        float s = (float) Math.sin(radians);
+
+        m00 = c; m01 = -s;
+        m10 = s; m11 = c;
+        mTranslateX = y + centerY - (c * centerY - s * centerX);
+        mTranslateY = x + centerX - (s * centerY + c * centerX);
+    }
+
+    /**
+     * Returns the transformed GL x coordinate of a point
+     * @param x The GL x coordinate
+     * @param y The GL y coordinate
+     * @return The transformed GL x coordinate
+     */
+    float transformX(float x, float y) {
+        return m00 * x + m01 * y + mTranslateX;
+    }
+
+    /**
+     * Returns the transformed GL y coordinate of a point
+     * @param x The GL x coordinate
+     * @param y The GL y coordinate
+     * @return The transformed GL y coordinate
+     */
+    float transformY(float x, float y) {
+        return m10 * x + m11 * y + mTranslateY;
+    }
+
+    /**
+     * Writes the four transformed corners of a quad into a table of quads, copying the
+     * texture coordinates
+     * @param src The source quad table, four (y, x, u, v) vertices per quad
+     * @param srcQuad The index of the quad in the source table
+     * @param dst The destination quad table
+     * @param dstQuad The index of the quad in the destination table
+     */
+    void transform(float[] src, int srcQuad, float[] dst, int dstQuad) {
+        int i = srcQuad * FrameMesh.FLOATS_PER_QUAD;
+        int j = dstQuad * FrameMesh.FLOATS_PER_QUAD;
+
+        for (int vertex = 0; vertex < 4; vertex++) {
+            float gx = src[i++];
+            float gy = src[i++];
+            dst[j++] = m00 * gx + m01 * gy + mTranslateX;
+            dst[j++] = m10 * gx + m11 * gy + mTranslateY;
+            dst[j++] = src[i++];
+            dst[j++] = src[i++];
+        }
+    }
+
+    /**
+     * Writes the transformed corners of a quad as (x, y) positions, without the texture
+     * coordinates
+     * @param src The source quad table, four (y, x, u, v) vertices per quad
+     * @param srcQuad The index of the quad in the source table
+     * @param dst The destination array of eight floats
+     */
+    void transformPositions(float[] src, int srcQuad, float[] dst) {
+        int i = srcQuad * FrameMesh.FLOATS_PER_QUAD;
+        int j = 0;
+
+        for (int vertex = 0; vertex < 4; vertex++) {
+            float gx = src[i];
+            float gy = src[i + 1];
+            dst[j++] = m00 * gx + m01 * gy + mTranslateX;
+            dst[j++] = m10 * gx + m11 * gy + mTranslateY;
+            i += FrameMesh.FLOATS_PER_VERTEX;
+        }
+    }
+}
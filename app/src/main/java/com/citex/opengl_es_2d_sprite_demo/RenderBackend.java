@@ -0,0 +1,74 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Draws the sorted commands of a RenderQueue. The fixed function backend draws through
+ * GLES 1.x, the shader backend through GLES 2.0, so the game can submit
+ * its draws without knowing which one is active.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public interface RenderBackend {
+
+    /**
+     * Starts drawing a frame
+     * @param gl The GL context
+     */
+    void begin(GL10 gl);
+
+    /**
+     * Draws a frame of a sprite sheet
+     * @param sheet The sprite sheet
+     * @param frameNumber The frame number
+     * @param flipped Is the sprite facing right
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    void drawSprite(SpriteSheet sheet, int frameNumber, boolean flipped, float x, float y);
+
+    /**
+     * Draws a frame of a sprite sheet rotated to an angle about a center position
+     * @param sheet The sprite sheet
+     * @param frameNumber The frame number
+     * @param flipped Is the sprite facing right
+     * @param angle The angle of rotation in degrees
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param centerX The center x of rotation
+     * @param centerY The center y of rotation
+     */
+    void drawRotated(SpriteSheet sheet, int frameNumber, boolean flipped, float angle,
+                     int x, int y, int centerX, int centerY);
+
+    /**
+     * Draws a frame of a sprite sheet repeated to a width and height
+     * @param sheet The sprite sheet
+     * @param frameNumber The frame number
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param repeatWidth The width to repeat the sprite
+     * @param repeatHeight The height to repeat the sprite
+     */
+    void drawTiled(SpriteSheet sheet, int frameNumber, float x, float y, float repeatWidth, float repeatHeight);
+
+    /**
+     * Draws anything still pending and finishes the frame
+     */
+    void end();
+
+    /**
+     * When the OpenGL ES device is lost, GL handles become invalidated.
+     * Forget the old handles so new ones are made on the next begin().
+     */
+    void invalidateHardwareBuffers();
+
+    /**
+     * Deletes the GL objects allocated by the backend
+     * @param gl The GL context
+     */
+    void releaseHardwareBuffers(GL10 gl);
+}
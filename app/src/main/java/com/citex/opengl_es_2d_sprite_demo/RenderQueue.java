@@ -0,0 +1,501 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Collects the draws of a frame as 64 bit sort keys with their payload in primitive arrays,
+ * radix sorts them and executes them when the frame ends. Layers are drawn in order. Inside
+ * a layer draws are grouped by texture and buffer, then ordered by depth, so a scene mixing
+ * many sprite types switches state as little as possible. The sorted commands are drawn by
+ * a RenderBackend, which for GLES 1.x draws sprites with the same texture which follow each
+ * other with one SpriteBatch call.
+ *
+ * A layer can be marked as ordered when its draws overlap and must keep the order they were
+ * submitted in.
+ *
+ * Key layout, from the most significant bit:
+ *   layer 8 bits | texture 16 bits | buffer 16 bits | depth 24 bits
+ * and in an ordered layer:
+ *   layer 8 bits | submission sequence 56 bits
+ *
+ * When a ViewportCuller is set, draws entirely outside the visible rectangle are dropped as
+ * they are submitted, tested with the frame size of their sprite sheet.
+ *
+ * Submitting does not allocate once the command arrays have grown to the size of a frame.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class RenderQueue {
+
+    /** The number of layers */
+    public static final int LAYER_COUNT = 256;
+
+    /** The key fields */
+    private static final int LAYER_SHIFT = 56;
+    private static final int TEXTURE_SHIFT = 40;
+    private static final int BUFFER_SHIFT = 24;
+    private static final long FIELD_MASK = 0xFFFFL;
+    private static final int DEPTH_MAX = 0xFFFFFF;
+
+    /** The depth of a sprite with its bottom edge at y = 0 */
+    private static final int DEPTH_BIAS = 0x800000;
+
+    /** The command kinds */
+    private static final int KIND_SPRITE = 0;
+    private static final int KIND_ROTATED = 1;
+    private static final int KIND_TILED = 2;
+
+    /** The payload of a command: kind, sheet, frame, flipped and x, y, w, h, angle */
+    private static final int INTS_PER_COMMAND = 4;
+    private static final int FLOATS_PER_COMMAND = 5;
+
+    /** The sort keys and the command each key belongs to */
+    private long[] mKeys, mSortedKeys;
+    private int[] mCommands, mSortedCommands;
+
+    /** The command payloads */
+    private int[] mInts;
+    private float[] mFloats;
+
+    /** The number of commands submitted this frame */
+    private int mCount;
+
+    /** The digit histogram used by the radix sort */
+    private final int[] mHistogram = new int[256];
+
+    /** The layers which keep their submission order */
+    private final boolean[] mOrderedLayers = new boolean[LAYER_COUNT];
+
+    /** The sprite sheets commands refer to by index */
+    private SpriteSheet[] mSheets = new SpriteSheet[8];
+    private int mSheetCount;
+
+    /** Drops draws outside the visible rectangle, or null to submit every draw */
+    private ViewportCuller mCuller;
+
+    /** The visible indices of a run of sprites passed to drawFrames */
+    private int[] mVisible;
+
+    /** Draws the sorted commands */
+    private final RenderBackend mBackend;
+
+    /** The commands executed and the texture switches made in the last frame */
+    private int mExecutedCount, mTextureSwitchCount;
+
+    /**
+     * Constructs the RenderQueue drawing with the fixed function pipeline
+     * @param capacity The number of commands to make room for
+     * @param batchCapacity The number of quads the sprite batch holds before flushing
+     */
+    public RenderQueue(int capacity, int batchCapacity) {
+        this(capacity, new GL11RenderBackend(batchCapacity));
+    }
+
+    /**
+     * Constructs the RenderQueue
+     * @param capacity The number of commands to make room for
+     * @param backend Draws the sorted commands
+     */
+    public RenderQueue(int capacity, RenderBackend backend) {
+        capacity = Math.max(capacity, 1);
+        mKeys = new long[capacity];
+        mSortedKeys = new long[capacity];
+        mCommands = new int[capacity];
+        mSortedCommands = new int[capacity];
+        mInts = new int[capacity * INTS_PER_COMMAND];
+        mFloats = new float[capacity * FLOATS_PER_COMMAND];
+        mVisible = new int[capacity];
+        mBackend = backend;
+    }
+
+    /**
+     * Registers a sprite sheet so draws can refer to it
+     * @param sheet The sprite sheet
+     * @return The sheet index passed to the draw methods
+     */
+    public int addSheet(SpriteSheet sheet) {
+        if (mSheetCount == mSheets.length) {
+            SpriteSheet[] sheets = new SpriteSheet[mSheetCount * 2];
+            System.arraycopy(mSheets, 0, sheets, 0, mSheetCount);
+            mSheets = sheets;
+        }
+        mSheets[mSheetCount] = sheet;
+        return mSheetCount++;
+    }
+
+    /**
+     * Sets whether a layer keeps the order its draws were submitted in instead of being
+     * grouped by texture
+     * @param layer The layer
+     * @param ordered True to keep the submission order
+     */
+    public void setLayerOrdered(int layer, boolean ordered) {
+        mOrderedLayers[layer] = ordered;
+    }
+
+    /**
+     * Sets the culler testing draws against the visible rectangle
+     * @param culler The culler, or null to submit every draw
+     */
+    public void setCuller(ViewportCuller culler) {
+        mCuller = culler;
+    }
+
+    /**
+     * Returns the culler testing draws against the visible rectangle
+     * @return The culler or null
+     */
+    public ViewportCuller getCuller() {
+        return mCuller;
+    }
+
+    /**
+     * Submits a frame of a sprite sheet at x,y coordinates in a 'l' - left or 'r' - right
+     * direction. Sprites lower on the screen are drawn over those above them.
+     * @param layer The layer
+     * @param sheet The sheet index from addSheet
+     * @param frameNumber The frame number
+     * @param direction The direction the sprite is facing
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    public void drawFrame(int layer, int sheet, int frameNumber, char direction, float x, float y) {
+        SpriteSheet spriteSheet = mSheets[sheet];
+        if (mCuller != null && !mCuller.isVisible(x, y, spriteSheet.getFrameWidth(), spriteSheet.getFrameHeight())) {
+            return;
+        }
+        submitSprite(layer, sheet, spriteSheet, frameNumber, direction, x, y);
+    }
+
+    /**
+     * Submits the same frame of a sprite sheet at many x,y coordinates in a 'l' - left or
+     * 'r' - right direction, culling the whole run in one pass
+     * @param layer The layer
+     * @param sheet The sheet index from addSheet
+     * @param frameNumber The frame number
+     * @param direction The direction the sprites are facing
+     * @param x The x coordinates
+     * @param y The y coordinates
+     * @param count The number of sprites
+     */
+    public void drawFrames(int layer, int sheet, int frameNumber, char direction, float[] x, float[] y, int count) {
+        SpriteSheet spriteSheet = mSheets[sheet];
+        if (mCuller == null) {
+            for (int i = 0; i < count; i++) {
+                submitSprite(layer, sheet, spriteSheet, frameNumber, direction, x[i], y[i]);
+            }
+            return;
+        }
+
+        if (mVisible.length < count) {
+            mVisible = new int[Math.max(count, mVisible.length * 2)];
+        }
+        int[] visible = mVisible;
+        int visibleCount = mCuller.cull(x, y, count, spriteSheet.getFrameWidth(), spriteSheet.getFrameHeight(), visible);
+        for (int n = 0; n < visibleCount; n++) {
+            int i = visible[n];
+            submitSprite(layer, sheet, spriteSheet, frameNumber, direction, x[i], y[i]);
+        }
+    }
+
+    /**
+     * Submits a frame of a sprite sheet for each of many x,y coordinates in a 'l' - left or
+     * 'r' - right direction, culling the whole run in one pass
+     * @param layer The layer
+     * @param sheet The sheet index from addSheet
+     * @param frameNumbers The frame number of each sprite
+     * @param direction The direction the sprites are facing
+     * @param x The x coordinates
+     * @param y The y coordinates
+     * @param count The number of sprites
+     */
+    public void drawFrames(int layer, int sheet, int[] frameNumbers, char direction, float[] x, float[] y, int count) {
+        SpriteSheet spriteSheet = mSheets[sheet];
+        if (mCuller == null) {
+            for (int i = 0; i < count; i++) {
+                submitSprite(layer, sheet, spriteSheet, frameNumbers[i], direction, x[i], y[i]);
+            }
+            return;
+        }
+
+        if (mVisible.length < count) {
+            mVisible = new int[Math.max(count, mVisible.length * 2)];
+        }
+        int[] visible = mVisible;
+        int visibleCount = mCuller.cull(x, y, count, spriteSheet.getFrameWidth(), spriteSheet.getFrameHeight(), visible);
+        for (int n = 0; n < visibleCount; n++) {
+            int i = visible[n];
+            submitSprite(layer, sheet, spriteSheet, frameNumbers[i], direction, x[i], y[i]);
+        }
+    }
+
+    /**
+     * Stores a sprite command which has passed culling
+     */
+    private void submitSprite(int layer, int sheet, SpriteSheet spriteSheet, int frameNumber, char direction,
+                              float x, float y) {
+        int c = submit(layer, spriteSheet.getTextureName(frameNumber), 0,
+                y + spriteSheet.getFrameHeight(), KIND_SPRITE, sheet, frameNumber, direction);
+        mFloats[c] = x;
+        mFloats[c + 1] = y;
+    }
+
+    /**
+     * Submits a frame of a sprite sheet rotated to an angle about a center position
+     * @param layer The layer
+     * @param sheet The sheet index from addSheet
+     * @param frameNumber The frame number
+     * @param direction The direction the sprite is facing
+     * @param angle The angle of rotation
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param centerX The center x of rotation
+     * @param centerY The center y of rotation
+     */
+    public void drawFrame(int layer, int sheet, int frameNumber, char direction, float angle,
+                          int x, int y, int centerX, int centerY) {
+        SpriteSheet spriteSheet = mSheets[sheet];
+        if (mCuller != null) {
+            // Any angle stays within the circle through the corner furthest from the center.
+            float reachX = Math.max(centerX, spriteSheet.getFrameWidth() - centerX);
+            float reachY = Math.max(centerY, spriteSheet.getFrameHeight() - centerY);
+            float radius = (float) Math.sqrt(reachX * reachX + reachY * reachY);
+            if (!mCuller.isVisible(x + centerX - radius, y + centerY - radius, radius * 2, radius * 2)) {
+                return;
+            }
+        }
+        int c = submit(layer, spriteSheet.getTextureName(frameNumber), spriteSheet.getBufferName(),
+                y + spriteSheet.getFrameHeight(), KIND_ROTATED, sheet, frameNumber, direction);
+        mFloats[c] = x;
+        mFloats[c + 1] = y;
+        mFloats[c + 2] = centerX;
+        mFloats[c + 3] = centerY;
+        mFloats[c + 4] = angle;
+    }
+
+    /**
+     * Submits a frame of a sprite sheet repeated to a width and height
+     * @param layer The layer
+     * @param sheet The sheet index from addSheet
+     * @param frameNumber The frame number
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param repeatWidth The width to repeat the sprite
+     * @param repeatHeight The height to repeat the sprite
+     */
+    public void drawFrame(int layer, int sheet, int frameNumber, float x, float y,
+                          float repeatWidth, float repeatHeight) {
+        SpriteSheet spriteSheet = mSheets[sheet];
+        if (mCuller != null && !mCuller.isVisible(x, y, repeatWidth, repeatHeight)) {
+            return;
+        }
+        int c = submit(layer, spriteSheet.getTextureName(frameNumber), 0,
+                y + repeatHeight, KIND_TILED, sheet, frameNumber, 'l');
+        mFloats[c] = x;
+        mFloats[c + 1] = y;
+        mFloats[c + 2] = repeatWidth;
+        mFloats[c + 3] = repeatHeight;
+    }
+
+    /**
+     * Stores the key and the integer payload of a command
+     * @return The offset of the command's float payload
+     */
+    private int submit(int layer, int texture, int buffer, float bottom, int kind, int sheet,
+                       int frameNumber, char direction) {
+        if (mCount == mKeys.length) {
+            grow();
+        }
+
+        long key = (long) layer << LAYER_SHIFT;
+        if (mOrderedLayers[layer]) {
+            key |= mCount;
+        } else {
+            int depth = Math.max(0, Math.min(DEPTH_MAX, (int) bottom + DEPTH_BIAS));
+            key |= (texture & FIELD_MASK) << TEXTURE_SHIFT
+                    | (buffer & FIELD_MASK) << BUFFER_SHIFT
+                    | depth;
+        }
+        mKeys[mCount] = key;
+        mCommands[mCount] = mCount;
+
+        int i = mCount * INTS_PER_COMMAND;
+        mInts[i] = kind;
+        mInts[i + 1] = sheet;
+        mInts[i + 2] = frameNumber;
+        mInts[i + 3] = direction;
+
+        return mCount++ * FLOATS_PER_COMMAND;
+    }
+
+    /**
+     * Doubles the command arrays
+     */
+    private void grow() {
+        int capacity = mKeys.length * 2;
+        long[] keys = new long[capacity];
+        System.arraycopy(mKeys, 0, keys, 0, mCount);
+        mKeys = keys;
+        mSortedKeys = new long[capacity];
+
+        int[] commands = new int[capacity];
+        System.arraycopy(mCommands, 0, commands, 0, mCount);
+        mCommands = commands;
+        mSortedCommands = new int[capacity];
+
+        int[] ints = new int[capacity * INTS_PER_COMMAND];
+        System.arraycopy(mInts, 0, ints, 0, mCount * INTS_PER_COMMAND);
+        mInts = ints;
+
+        float[] floats = new float[capacity * FLOATS_PER_COMMAND];
+        System.arraycopy(mFloats, 0, floats, 0, mCount * FLOATS_PER_COMMAND);
+        mFloats = floats;
+    }
+
+    /**
+     * Sorts the commands by key with a stable least significant digit radix sort. Bytes
+     * which are the same in every key are skipped, so a frame usually takes a few passes.
+     */
+    void sort() {
+        int count = mCount;
+        if (count < 2) {
+            return;
+        }
+
+        long first = mKeys[0];
+        long differing = 0;
+        for (int i = 1; i < count; i++) {
+            differing |= mKeys[i] ^ first;
+        }
+
+        int[] histogram = mHistogram;
+        for (int shift = 0; shift < 64; shift += 8) {
+            if (((differing >>> shift) & 0xFF) == 0) {
+                continue;
+            }
+
+            long[] keys = mKeys, sortedKeys = mSortedKeys;
+            int[] commands = mCommands, sortedCommands = mSortedCommands;
+
+            for (int i = 0; i < 256; i++) {
+                histogram[i] = 0;
+            }
+            for (int i = 0; i < count; i++) {
+                histogram[(int) (keys[i] >>> shift) & 0xFF]++;
+            }
+            int offset = 0;
+            for (int i = 0; i < 256; i++) {
+                int n = histogram[i];
+                histogram[i] = offset;
+                offset += n;
+            }
+            for (int i = 0; i < count; i++) {
+                int slot = histogram[(int) (keys[i] >>> shift) & 0xFF]++;
+                sortedKeys[slot] = keys[i];
+                sortedCommands[slot] = commands[i];
+            }
+
+            mKeys = sortedKeys;
+            mSortedKeys = keys;
+            mCommands = sortedCommands;
+            mSortedCommands = commands;
+        }
+    }
+
+    /**
+     * Sorts and draws the commands submitted this frame, empties the queue and ends the
+     * culler's frame
+     * @param gl The GL context
+     */
+    public void execute(GL10 gl) {
+        sort();
+
+        int lastTexture = 0;
+        mTextureSwitchCount = 0;
+        mBackend.begin(gl);
+        for (int n = 0; n < mCount; n++) {
+            int command = mCommands[n];
+            int i = command * INTS_PER_COMMAND;
+            int f = command * FLOATS_PER_COMMAND;
+            SpriteSheet sheet = mSheets[mInts[i + 1]];
+            int frameNumber = mInts[i + 2];
+            boolean flipped = mInts[i + 3] == 'r';
+
+            int texture = sheet.getTextureName(frameNumber);
+            if (texture != lastTexture) {
+                mTextureSwitchCount++;
+                lastTexture = texture;
+            }
+
+            switch (mInts[i]) {
+                case KIND_SPRITE:
+                    mBackend.drawSprite(sheet, frameNumber, flipped, mFloats[f], mFloats[f + 1]);
+                    break;
+                case KIND_ROTATED:
+                    mBackend.drawRotated(sheet, frameNumber, flipped, mFloats[f + 4], (int) mFloats[f],
+                            (int) mFloats[f + 1], (int) mFloats[f + 2], (int) mFloats[f + 3]);
+                    break;
+                case KIND_TILED:
+                    mBackend.drawTiled(sheet, frameNumber, mFloats[f], mFloats[f + 1], mFloats[f + 2], mFloats[f + 3]);
+                    break;
+            }
+        }
+        mBackend.end();
+
+        mExecutedCount = mCount;
+        mCount = 0;
+        if (mCuller != null) {
+            mCuller.endFrame();
+        }
+    }
+
+    /**
+     * Returns the number of commands submitted since the last execute
+     * @return The command count
+     */
+    public int getCommandCount() {
+        return mCount;
+    }
+
+    /**
+     * Returns the number of commands drawn by the last execute
+     * @return The command count
+     */
+    public int getExecutedCount() {
+        return mExecutedCount;
+    }
+
+    /**
+     * Returns the number of times the texture changed between commands in the last execute
+     * @return The texture switch count
+     */
+    public int getTextureSwitchCount() {
+        return mTextureSwitchCount;
+    }
+
+    /**
+     * Returns the sort key of a submitted command after sort()
+     */
+    long getKey(int index) {
+        return mKeys[index];
+    }
+
+    /**
+     * When the OpenGL ES device is lost, GL handles become invalidated.
+     * Forget the backend handles so new ones are made on the next execute.
+     */
+    public void invalidateHardwareBuffers() {
+        mBackend.invalidateHardwareBuffers();
+    }
+
+    /**
+     * Deletes the GL objects allocated by the backend
+     * @param gl The GL context
+     */
+    public void releaseHardwareBuffers(GL10 gl) {
+        mBackend.releaseHardwareBuffers(gl);
+    }
+}
@@ -0,0 +1,104 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Updates the game on its own thread, so the update steps run on a second core alongside the
+ * GL thread instead of adding to each frame. The thread runs the steps due on the game's
+ * fixed timestep and publishes a snapshot after them, then sleeps until the next step is due.
+ * The GL thread draws the latest snapshot without waiting for the update.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class SimulationThread extends Thread {
+
+    /** The game updated by the thread */
+    private final GamePanel mGamePanel;
+
+    /** Set to stop the thread, and while the game is paused */
+    private boolean mDone, mPaused;
+
+    /**
+     * Constructs the SimulationThread
+     * @param gamePanel The game to update
+     */
+    public SimulationThread(GamePanel gamePanel) {
+        super();
+        mGamePanel = gamePanel;
+        setName("SimulationThread");
+    }
+
+    /**
+     * Runs the update steps as they fall due until the thread is asked to stop
+     */
+    @Override
+    public void run() {
+        FixedTimestep timestep = mGamePanel.getTimestep();
+        long stepNanos = (long) (timestep.getStep() * 1000000);
+        long time1 = System.nanoTime();
+
+        try {
+            while (true) {
+                synchronized (this) {
+                    if (mPaused) {
+                        while (mPaused && !mDone) {
+                            wait();
+                        }
+                        // Time spent paused is not caught up.
+                        time1 = System.nanoTime();
+                    }
+                    if (mDone) {
+                        break;
+                    }
+                }
+
+                long time2 = System.nanoTime();
+                mGamePanel.simulate((time2 - time1) / 1000000f);
+                time1 = time2;
+
+                // Sleep for the part of a step not yet accumulated
+                LockSupport.parkNanos(this, (long) ((1 - timestep.getAlpha()) * stepNanos));
+            }
+        } catch (InterruptedException e) {
+            // fall thru and exit normally
+        }
+    }
+
+    /**
+     * Stops updating the game until onResume() is called
+     */
+    public void onPause() {
+        synchronized (this) {
+            mPaused = true;
+        }
+    }
+
+    /**
+     * Carries on updating the game from where it was paused
+     */
+    public void onResume() {
+        synchronized (this) {
+            mPaused = false;
+            notify();
+        }
+    }
+
+    /**
+     * Stops the thread and waits for the update in progress to finish
+     */
+    public void requestExitAndWait() {
+        synchronized (this) {
+            mDone = true;
+            notify();
+        }
+        LockSupport.unpark(this);
+        try {
+            join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the playfield which finds the entities near a position without
+ * scanning all of them. The grid is stored as a hash of cell coordinates, so entities off the
+ * screen still hash to a cell and only occupied cells use memory.
+ *
+ * Every structure is a primitive array. The cell table uses open addressing with linear
+ * probing, each cell holds the head of a doubly linked list of its entities threaded through
+ * per entity next and previous arrays, and moving an entity relinks it only when it crosses
+ * into another cell. Entities are boxes of one size for the whole hash, placed by their top
+ * left corner like the sprites they stand for.
+ *
+ * Region, point and nearest queries visit the cells covering the query and write the ids
+ * they find to a caller supplied array, so nothing is allocated after the arrays have grown.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class SpatialHash {
+
+    /** Marks an empty cell table slot and the end of a list */
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int NONE = -1;
+
+    /** The largest cell coordinate, keeping keys clear of EMPTY */
+    private static final int CELL_LIMIT = 0x7FFF;
+
+    /** The cell size */
+    private final float mCellSize;
+
+    /** The entity size */
+    private final float mEntityWidth, mEntityHeight;
+
+    /** The cell table, the packed cell coordinates and the first entity of each slot */
+    private int[] mCellKeys, mCellHeads;
+
+    /** The number of cell table slots in use, including cells which have emptied */
+    private int mUsedSlots;
+
+    /** The entity positions */
+    private float[] mX, mY;
+
+    /** The cell key of each entity, or EMPTY for an unused id */
+    private int[] mEntityCells;
+
+    /** The neighbours of each entity in its cell list, and the free list through mNext */
+    private int[] mNext, mPrevious;
+
+    /** The number of ids handed out and the head of the free id list */
+    private int mIdCount, mFreeId = NONE;
+
+    /** The number of live entities */
+    private int mSize;
+
+    /**
+     * Constructs the SpatialHash
+     * @param cellSize The cell size, around the size of the entities
+     * @param entityWidth The entity width
+     * @param entityHeight The entity height
+     * @param capacity The number of entities to make room for
+     */
+    public SpatialHash(float cellSize, float entityWidth, float entityHeight, int capacity) {
+        mCellSize = cellSize;
+        mEntityWidth = entityWidth;
+        mEntityHeight = entityHeight;
+
+        capacity = Math.max(capacity, 16);
+        mX = new float[capacity];
+        mY = new float[capacity];
+        mEntityCells = new int[capacity];
+        mNext = new int[capacity];
+        mPrevious = new int[capacity];
+        allocateCells(tableSizeFor(capacity));
+    }
+
+    /**
+     * Returns a power of two table size keeping the load below a half
+     */
+    private static int tableSizeFor(int cells) {
+        int size = 16;
+        while (size < cells * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Allocates an empty cell table
+     */
+    private void allocateCells(int size) {
+        mCellKeys = new int[size];
+        mCellHeads = new int[size];
+        Arrays.fill(mCellKeys, EMPTY);
+        mUsedSlots = 0;
+    }
+
+    /**
+     * Adds an entity
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @return The entity id
+     */
+    public int add(float x, float y) {
+        int id;
+        if (mFreeId != NONE) {
+            id = mFreeId;
+            mFreeId = mNext[id];
+        } else {
+            if (mIdCount == mX.length) {
+                growEntities();
+            }
+            id = mIdCount++;
+        }
+
+        mX[id] = x;
+        mY[id] = y;
+        link(id, cellKey(cellOf(x), cellOf(y)));
+        mSize++;
+        return id;
+    }
+
+    /**
+     * Removes an entity. Its id may be handed out again by add.
+     * @param id The entity id
+     */
+    public void remove(int id) {
+        unlink(id);
+        mEntityCells[id] = EMPTY;
+        mNext[id] = mFreeId;
+        mFreeId = id;
+        mSize--;
+    }
+
+    /**
+     * Moves an entity, relinking it only if it crosses into another cell
+     * @param id The entity id
+     * @param x The new x coordinate
+     * @param y The new y coordinate
+     */
+    public void move(int id, float x, float y) {
+        mX[id] = x;
+        mY[id] = y;
+        int key = cellKey(cellOf(x), cellOf(y));
+        if (key != mEntityCells[id]) {
+            unlink(id);
+            link(id, key);
+        }
+    }
+
+    /**
+     * Returns the x coordinate of an entity
+     * @param id The entity id
+     * @return The x coordinate
+     */
+    public float getX(int id) {
+        return mX[id];
+    }
+
+    /**
+     * Returns the y coordinate of an entity
+     * @param id The entity id
+     * @return The y coordinate
+     */
+    public float getY(int id) {
+        return mY[id];
+    }
+
+    /**
+     * Returns the number of entities
+     * @return The entity count
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Finds the entities whose boxes overlap a rectangle
+     * @param left The left edge
+     * @param top The top edge
+     * @param right The right edge
+     * @param bottom The bottom edge
+     * @param out Receives the entity ids
+     * @return The number of ids found, which may be more than fit in out
+     */
+    public int queryRegion(float left, float top, float right, float bottom, int[] out) {
+        // An entity overlaps when its top left corner lies within the rectangle grown up and left by its size.
+        int minCellX = cellOf(left - mEntityWidth), maxCellX = cellOf(right);
+        int minCellY = cellOf(top - mEntityHeight), maxCellY = cellOf(bottom);
+
+        int count = 0;
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                int slot = findSlot(cellKey(cellX, cellY));
+                if (mCellKeys[slot] == EMPTY) {
+                    continue;
+                }
+                for (int id = mCellHeads[slot]; id != NONE; id = mNext[id]) {
+                    float x = mX[id], y = mY[id];
+                    if (x <= right && x + mEntityWidth >= left && y <= bottom && y + mEntityHeight >= top) {
+                        if (count < out.length) {
+                            out[count] = id;
+                        }
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the entities whose boxes contain a point, such as a touch
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param out Receives the entity ids
+     * @return The number of ids found, which may be more than fit in out
+     */
+    public int queryPoint(float x, float y, int[] out) {
+        return queryRegion(x, y, x, y, out);
+    }
+
+    /**
+     * Finds the entity whose center is nearest a point. The rings of cells around the point
+     * are searched outwards until no closer entity can remain.
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param maxDistance The distance beyond which entities are ignored
+     * @return The entity id, or -1 if there is none within the distance
+     */
+    public int findNearest(float x, float y, float maxDistance) {
+        // Search for the nearest top left corner to the point shifted by half the entity size.
+        float px = x - mEntityWidth / 2;
+        float py = y - mEntityHeight / 2;
+        int centerX = cellOf(px), centerY = cellOf(py);
+        int rings = (int) Math.ceil(maxDistance / mCellSize) + 1;
+
+        int nearest = NONE;
+        float nearestDistance = maxDistance * maxDistance;
+        for (int ring = 0; ring <= rings; ring++) {
+            for (int cellX = centerX - ring; cellX <= centerX + ring; cellX++) {
+                // Only the edge of the square is new in this ring.
+                int step = (cellX == centerX - ring || cellX == centerX + ring) ? 1 : Math.max(1, ring * 2);
+                for (int cellY = centerY - ring; cellY <= centerY + ring; cellY += step) {
+                    int slot = findSlot(cellKey(cellX, cellY));
+                    if (mCellKeys[slot] == EMPTY) {
+                        continue;
+                    }
+                    for (int id = mCellHeads[slot]; id != NONE; id = mNext[id]) {
+                        float dx = mX[id] - px, dy = mY[id] - py;
+                        float distance = dx * dx + dy * dy;
+                        if (distance <= nearestDistance) {
+                            nearestDistance = distance;
+                            nearest = id;
+                        }
+                    }
+                }
+            }
+
+            // Every cell in the next ring is at least this far from the point.
+            float reach = ring * mCellSize;
+            if (nearest != NONE && nearestDistance <= reach * reach) {
+                break;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the cell coordinate of a position
+     */
+    private int cellOf(float position) {
+        int cell = (int) Math.floor(position / mCellSize);
+        return Math.max(-CELL_LIMIT, Math.min(CELL_LIMIT, cell));
+    }
+
+    /**
+     * Packs cell coordinates into a key
+     */
+    private static int cellKey(int cellX, int cellY) {
+        return (cellX << 16) | (cellY & 0xFFFF);
+    }
+
+    /**
+     * Returns the slot holding a cell key, or the empty slot where it would be added
+     */
+    private int findSlot(int key) {
+        int mask = mCellKeys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (mCellKeys[slot] != key && mCellKeys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Adds an entity to the front of the list of a cell
+     */
+    private void link(int id, int key) {
+        int slot = findSlot(key);
+        if (mCellKeys[slot] == EMPTY) {
+            if ((mUsedSlots + 1) * 2 > mCellKeys.length) {
+                rehash();
+                slot = findSlot(key);
+            }
+            mCellKeys[slot] = key;
+            mCellHeads[slot] = NONE;
+            mUsedSlots++;
+        }
+
+        int head = mCellHeads[slot];
+        mNext[id] = head;
+        mPrevious[id] = NONE;
+        if (head != NONE) {
+            mPrevious[head] = id;
+        }
+        mCellHeads[slot] = id;
+        mEntityCells[id] = key;
+    }
+
+    /**
+     * Removes an entity from the list of its cell
+     */
+    private void unlink(int id) {
+        int next = mNext[id], previous = mPrevious[id];
+        if (previous != NONE) {
+            mNext[previous] = next;
+        } else {
+            mCellHeads[findSlot(mEntityCells[id])] = next;
+        }
+        if (next != NONE) {
+            mPrevious[next] = previous;
+        }
+    }
+
+    /**
+     * Rebuilds the cell table without the cells which have emptied, growing it if the
+     * occupied cells alone would fill more than a quarter of it
+     */
+    private void rehash() {
+        int[] keys = mCellKeys;
+        int[] heads = mCellHeads;
+        int occupied = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && heads[slot] != NONE) {
+                occupied++;
+            }
+        }
+
+        allocateCells(occupied * 4 > keys.length ? keys.length * 2 : keys.length);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && heads[slot] != NONE) {
+                int newSlot = findSlot(keys[slot]);
+                mCellKeys[newSlot] = keys[slot];
+                mCellHeads[newSlot] = heads[slot];
+                mUsedSlots++;
+            }
+        }
+    }
+
+    /**
+     * Doubles the entity arrays
+     */
+    private void growEntities() {
+        int capacity = mX.length * 2;
+        mX = Arrays.copyOf(mX, capacity);
+        mY = Arrays.copyOf(mY, capacity);
+        mEntityCells = Arrays.copyOf(mEntityCells, capacity);
+        mNext = Arrays.copyOf(mNext, capacity);
+        mPrevious = Arrays.copyOf(mPrevious, capacity);
+    }
+}
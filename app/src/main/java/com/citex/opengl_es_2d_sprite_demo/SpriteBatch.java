@@ -0,0 +1,261 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * Collects textured quads into one streaming vertex buffer and draws them with a single
+ * glDrawElements call. The batch is flushed when the texture changes, when it is full or
+ * when end() is called, so any number of sprites sharing a texture cost one draw call.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class SpriteBatch {
+
+    /** The maximum number of quads which can be addressed with 16 bit indices */
+    public static final int MAX_QUADS = QuadIndexBuffer.MAX_QUADS;
+
+    /** The number of floats per vertex (x, y, u, v) */
+    private static final int FLOATS_PER_VERTEX = 4;
+
+    /** The number of floats per quad */
+    private static final int FLOATS_PER_QUAD = FLOATS_PER_VERTEX * 4;
+
+    /** The size of an interleaved vertex in bytes */
+    private static final int VERTEX_STRIDE = FLOATS_PER_VERTEX * 4;
+
+    /** The number of quads the batch can hold before it is flushed */
+    private final int mCapacity;
+
+    /** The client side vertex array the quads are written to */
+    private final float[] mVertices;
+
+    /** The direct buffer used to upload the vertex array */
+    private final FloatBuffer mVertexBuffer;
+
+    /** The number of quads waiting to be drawn */
+    private int mQuadCount;
+
+    /** The texture of the quads waiting to be drawn */
+    private int mTextureName;
+
+    /** The GL context between begin() and end() */
+    private GL10 mGL;
+
+    /** The streaming vertex buffer handle */
+    private int mVertBufferIndex;
+
+    /** Are hardware buffers allocated */
+    private boolean mUseHardwareBuffers;
+
+    /** The number of draw calls issued since begin() */
+    private int mDrawCallCount;
+
+    /**
+     * Constructs the SpriteBatch
+     * @param capacity The number of quads to buffer before flushing
+     */
+    public SpriteBatch(int capacity) {
+        if (capacity < 1 || capacity > MAX_QUADS) {
+            throw new IllegalArgumentException("capacity");
+        }
+
+        mCapacity = capacity;
+        mVertices = new float[capacity * FLOATS_PER_QUAD];
+        mVertexBuffer = ByteBuffer.allocateDirect(mVertices.length * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Starts collecting quads
+     * @param gl The GL context
+     */
+    public void begin(GL10 gl) {
+        mGL = gl;
+        mQuadCount = 0;
+        mDrawCallCount = 0;
+        generateHardwareBuffers(gl);
+    }
+
+    /**
+     * Adds a textured quad to the batch. The coordinates are in screen space and are swapped
+     * into the rotated projection in the same way as GLSprite.draw(gl, x, y).
+     * @param textureName The texture to draw with
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param w The width of the quad
+     * @param h The height of the quad
+     * @param uMin The texture coordinate at the left edge
+     * @param vMin The texture coordinate at the top edge
+     * @param uMax The texture coordinate at the right edge
+     * @param vMax The texture coordinate at the bottom edge
+     */
+    public void draw(int textureName, float x, float y, float w, float h,
+                     float uMin, float vMin, float uMax, float vMax) {
+        if (textureName != mTextureName || mQuadCount == mCapacity) {
+            flush();
+            mTextureName = textureName;
+        }
+
+        float[] v = mVertices;
+        int i = mQuadCount * FLOATS_PER_QUAD;
+
+        v[i++] = y;     v[i++] = x;     v[i++] = uMin; v[i++] = vMin; //0
+        v[i++] = y + h; v[i++] = x;     v[i++] = uMin; v[i++] = vMax; //1
+        v[i++] = y;     v[i++] = x + w; v[i++] = uMax; v[i++] = vMin; //2
+        v[i++] = y + h; v[i++] = x + w; v[i++] = uMax; v[i]   = vMax; //3
+
+        mQuadCount++;
+    }
+
+    /**
+     * Adds a quad copied from a table of quads which are already in the rotated projection,
+     * such as the frames of a SpriteSheet
+     * @param textureName The texture to draw with
+     * @param quads The quad table, four (x, y, u, v) vertices per quad
+     * @param quad The index of the quad in the table
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    public void draw(int textureName, float[] quads, int quad, float x, float y) {
+        if (textureName != mTextureName || mQuadCount == mCapacity) {
+            flush();
+            mTextureName = textureName;
+        }
+
+        float[] v = mVertices;
+        int i = mQuadCount * FLOATS_PER_QUAD;
+        int j = quad * FLOATS_PER_QUAD;
+
+        for (int vertex = 0; vertex < 4; vertex++) {
+            v[i++] = quads[j++] + y;
+            v[i++] = quads[j++] + x;
+            v[i++] = quads[j++];
+            v[i++] = quads[j++];
+        }
+
+        mQuadCount++;
+    }
+
+    /**
+     * Adds a quad copied from a table of quads with its corners transformed, so rotated
+     * sprites join the batch instead of drawing through the model view matrix
+     * @param textureName The texture to draw with
+     * @param quads The quad table, four (x, y, u, v) vertices per quad
+     * @param quad The index of the quad in the table
+     * @param transform Places the quad on the screen
+     */
+    public void draw(int textureName, float[] quads, int quad, QuadTransform transform) {
+        if (textureName != mTextureName || mQuadCount == mCapacity) {
+            flush();
+            mTextureName = textureName;
+        }
+
+        transform.transform(quads, quad, mVertices, mQuadCount);
+        mQuadCount++;
+    }
+
+    /**
+     * Draws the quads waiting in the batch
+     */
+    public void flush() {
+        if (mQuadCount == 0 || mGL == null) {
+            return;
+        }
+
+        GL10 gl = mGL;
+        mVertexBuffer.clear();
+        mVertexBuffer.put(mVertices, 0, mQuadCount * FLOATS_PER_QUAD);
+        mVertexBuffer.position(0);
+
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, mTextureName);
+
+        if (mUseHardwareBuffers) {
+            GL11 gl11 = (GL11) gl;
+            // Orphan the previous contents so the driver does not stall on them.
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mVertBufferIndex);
+            gl11.glBufferData(GL11.GL_ARRAY_BUFFER, mQuadCount * FLOATS_PER_QUAD * 4,
+                    mVertexBuffer, GL11.GL_DYNAMIC_DRAW);
+            GLResourceRegistry.getInstance().setBytes(GLResourceRegistry.BUFFER, mVertBufferIndex,
+                    mQuadCount * FLOATS_PER_QUAD * 4);
+            gl11.glVertexPointer(2, GL10.GL_FLOAT, VERTEX_STRIDE, 0);
+            gl11.glTexCoordPointer(2, GL10.GL_FLOAT, VERTEX_STRIDE, 2 * 4);
+
+            QuadIndexBuffer.getInstance().bind(gl11, mQuadCount);
+            gl11.glDrawElements(GL11.GL_TRIANGLES, mQuadCount * 6, GL11.GL_UNSIGNED_SHORT, 0);
+        } else {
+            gl.glVertexPointer(2, GL10.GL_FLOAT, VERTEX_STRIDE, mVertexBuffer);
+            mVertexBuffer.position(2);
+            gl.glTexCoordPointer(2, GL10.GL_FLOAT, VERTEX_STRIDE, mVertexBuffer);
+            mVertexBuffer.position(0);
+            gl.glDrawElements(GL10.GL_TRIANGLES, mQuadCount * 6, GL10.GL_UNSIGNED_SHORT,
+                    QuadIndexBuffer.getInstance().getIndices(mQuadCount));
+        }
+
+        mDrawCallCount++;
+        mQuadCount = 0;
+    }
+
+    /**
+     * Draws the remaining quads and stops collecting
+     */
+    public void end() {
+        flush();
+        mTextureName = 0;
+        mGL = null;
+    }
+
+    /**
+     * Allocates the streaming vertex buffer if it has not already been allocated. The quads
+     * are drawn with the shared QuadIndexBuffer.
+     * @param gl The GL context
+     */
+    public void generateHardwareBuffers(GL10 gl) {
+        if (!mUseHardwareBuffers && gl instanceof GL11) {
+            mVertBufferIndex = GLResourceRegistry.getInstance().genBuffer((GL11) gl, "SpriteBatch");
+            mUseHardwareBuffers = true;
+        }
+    }
+
+    /**
+     * When the OpenGL ES device is lost, GL handles become invalidated.
+     * Forget the old handles so new ones are made on the next begin().
+     */
+    public void invalidateHardwareBuffers() {
+        mVertBufferIndex = 0;
+        mUseHardwareBuffers = false;
+    }
+
+    /**
+     * Deletes the hardware buffers allocated by this object (if any).
+     * @param gl The GL context
+     */
+    public void releaseHardwareBuffers(GL10 gl) {
+        GLResourceRegistry registry = GLResourceRegistry.getInstance();
+        registry.release(gl, GLResourceRegistry.BUFFER, mVertBufferIndex);
+        invalidateHardwareBuffers();
+    }
+
+    /**
+     * Returns the number of draw calls issued since begin()
+     * @return The draw call count
+     */
+    public int getDrawCallCount() {
+        return mDrawCallCount;
+    }
+
+    /**
+     * Returns the number of quads the batch holds before flushing
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return mCapacity;
+    }
+}
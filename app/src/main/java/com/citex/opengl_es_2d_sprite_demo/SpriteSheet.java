@@ -6,6 +6,9 @@ import java.io.IOException;
 
 /**
  *  This class loads an image containing a sprite sheet and buffers the frames of animation.
+ *  Every frame is stored in one shared FrameMesh, so selecting a frame is an offset into
+ *  the same vertex buffer, and frames are placed on the screen by transforming their corners
+ *  instead of through the model view matrix.
  *
  *  @version 1.0
  *  @modified 29/10/2023
@@ -17,8 +20,26 @@ public class SpriteSheet {
     /** The sprite sheet containing the animation */
     private GLSprite mSpriteSheet;
 
-    /** The buffered frames of animation */
-    private GLSprite mFrames[];
+    /** The number of tiled strips kept for each sprite sheet */
+    private static final int TILED_MESH_CACHE_SIZE = 4;
+
+    /** The tiled strips drawn recently, reused while the frame and size are unchanged */
+    private final TiledMesh mTiledMeshes[] = new TiledMesh[TILED_MESH_CACHE_SIZE];
+
+    /** The cache slot replaced when a new tiled strip is built */
+    private int mNextTiledMesh;
+
+    /** The texture size, rectangle and trimmed offset of each frame, eight floats per frame */
+    private float mFrameRects[];
+
+    /** The quads of every frame in one vertex buffer */
+    private FrameMesh mMesh;
+
+    /** Places frames drawn directly through GL */
+    private final QuadTransform mTransform = new QuadTransform();
+
+    /** The texture holding each frame */
+    private int mFrameTextures[];
 
     /** The frame dimensions */
     private int mFrameWidth, mFrameHeight;
@@ -32,8 +53,17 @@ public class SpriteSheet {
     /** The number of frames in the sprite sheet */
     private int mFrameCount;
 
-    /** Provides access to an application's raw asset files */
-    private AssetManager mAssetManager;
+    /** The texture atlas holding the frames, or null when loaded from a single image */
+    private TextureAtlas mAtlas;
+
+    /** The sprite name in the texture atlas */
+    private String mAtlasName;
+
+    /** The asset reported as the owner of the hardware buffers */
+    private String mAssetName;
+
+    /** The pixel shapes of the frames, or null when the image pixels were not available */
+    private CollisionMask mCollisionMask;
 
     /**
      * Constructs the sprite sheet
@@ -46,12 +76,37 @@ public class SpriteSheet {
      * @throws IOException
      */
     public SpriteSheet(Object gl, String path, int frameWidth, int frameHeight, int frameCount, AssetManager assetManager) throws IOException  {
+        this(gl, new GLSprite((GL10) gl, path, assetManager), frameWidth, frameHeight, frameCount);
+    }
+
+    /**
+     * Constructs the sprite sheet
+     * @param gl The GL context
+     * @param path The path of the image file
+     * @param frameWidth The frame width
+     * @param frameHeight The frame height
+     * @param frameCount The frame count
+     * @param textureLoader Opens the asset files and uploads their images to textures
+     * @throws IOException
+     */
+    public SpriteSheet(Object gl, String path, int frameWidth, int frameHeight, int frameCount, TextureLoader textureLoader) throws IOException  {
+        this(gl, new GLSprite((GL10) gl, path, textureLoader), frameWidth, frameHeight, frameCount);
+    }
+
+    /**
+     * Constructs the sprite sheet from a sprite which has already been loaded
+     * @param gl The GL context
+     * @param spriteSheet The sprite containing the sheet
+     * @param frameWidth The frame width
+     * @param frameHeight The frame height
+     * @param frameCount The frame count
+     */
+    SpriteSheet(Object gl, GLSprite spriteSheet, int frameWidth, int frameHeight, int frameCount) {
 
         mFrameWidth = frameWidth;
         mFrameHeight = frameHeight;
         mFrameCount = frameCount;
-        mAssetManager = assetManager;
-        mSpriteSheet = new GLSprite((GL10) gl, path, mAssetManager);
+        mSpriteSheet = spriteSheet;
 
         if (mSpriteSheet != null) {
             mSheetWidth = mSpriteSheet.getWidth();
@@ -67,10 +122,106 @@ public class SpriteSheet {
         }
 
         //buffer frames from sheet
-        mFrames = new GLSprite[mFrameCount];
+        mAssetName = mSpriteSheet != null ? mSpriteSheet.getAssetName() : "sprite sheet";
+        mFrameTextures = new int[mFrameCount];
+        mFrameRects = new float[mFrameCount * 8];
+        mMesh = new FrameMesh(mFrameCount, mAssetName);
+        for (int i = 0; i < mFrameCount; i++) {
+            mFrameTextures[i] = mSpriteSheet != null ? mSpriteSheet.getTextureName() : 0;
+            setFrame(i, mSheetWidth, mSheetHeight, getFrameX(i), getFrameY(i),
+                    mFrameWidth, mFrameHeight, 0, 0);
+        }
+        mMesh.generateHardwareBuffers((GL10) gl);
+
+        // Cut the frame shapes out of the alpha packed when the image was loaded
+        CollisionMaskBuilder pixels = mSpriteSheet != null ? mSpriteSheet.getCollisionPixels() : null;
+        if (pixels != null) {
+            mCollisionMask = new CollisionMask(mFrameWidth, mFrameHeight, mFrameCount);
+            for (int i = 0; i < mFrameCount; i++) {
+                mCollisionMask.setFrame(i, pixels, getFrameX(i), getFrameY(i), mFrameWidth, mFrameHeight, 0, 0);
+            }
+        }
+    }
+
+    /**
+     * Constructs the sprite sheet from a sprite in a texture atlas. The frame size and count
+     * are read from the atlas descriptor.
+     * @param gl The GL context
+     * @param atlas The texture atlas
+     * @param name The sprite name in the atlas
+     */
+    SpriteSheet(Object gl, TextureAtlas atlas, String name) {
+
+        mAtlas = atlas;
+        mAtlasName = name;
+        mFrameWidth = atlas.getFrameWidth(name);
+        mFrameHeight = atlas.getFrameHeight(name);
+        mFrameCount = atlas.getFrameCount(name);
+
+        //buffer frames from atlas
+        mAssetName = "atlas " + name;
+        mFrameTextures = new int[mFrameCount];
+        mFrameRects = new float[mFrameCount * 8];
+        mMesh = new FrameMesh(mFrameCount, mAssetName);
+        int[] rect = new int[7];
         for (int i = 0; i < mFrameCount; i++) {
-            mFrames[i] = getFrameFromSheet(gl, i); //store each frame in the array
+            atlas.getFrameRect(name, i, rect);
+            GLSprite page = atlas.getPage(Math.max(rect[0], 0));
+            mFrameTextures[i] = page.getTextureName();
+            setFrame(i, page.getWidth(), page.getHeight(), rect[1], rect[2], rect[3], rect[4],
+                    rect[5], rect[6]);
+        }
+        mMesh.generateHardwareBuffers((GL10) gl);
+
+        // Cut the trimmed frame shapes out of the alpha packed when the pages were loaded.
+        // A completely transparent frame keeps an empty shape.
+        mCollisionMask = new CollisionMask(mFrameWidth, mFrameHeight, mFrameCount);
+        for (int i = 0; i < mFrameCount && mCollisionMask != null; i++) {
+            atlas.getFrameRect(name, i, rect);
+            if (rect[0] < 0) {
+                continue;
+            }
+            CollisionMaskBuilder pixels = atlas.getPage(rect[0]).getCollisionPixels();
+            if (pixels == null) {
+                mCollisionMask = null;
+            } else {
+                mCollisionMask.setFrame(i, pixels, rect[1], rect[2], rect[3], rect[4], rect[5], rect[6]);
+            }
+        }
+    }
+
+    /**
+     * Stores the rectangle of a frame and writes its quads to the frame mesh
+     */
+    private void setFrame(int frame, float textureWidth, float textureHeight, float x, float y,
+                          float w, float h, float offsetX, float offsetY) {
+        float[] r = mFrameRects;
+        int i = frame * 8;
+        r[i++] = textureWidth; r[i++] = textureHeight;
+        r[i++] = x; r[i++] = y; r[i++] = w; r[i++] = h;
+        r[i++] = offsetX; r[i] = offsetY;
+        mMesh.setFrame(frame, textureWidth, textureHeight, x, y, w, h, offsetX, offsetY, mFrameWidth);
+    }
+
+    /**
+     * Returns the x coordinate of a frame in the sprite sheet image
+     */
+    private int getFrameX(int frameNumber) {
+        if (mRows > 0 && mColumns > 0) {
+            return (frameNumber / mRows) * mFrameWidth; //column
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the y coordinate of a frame in the sprite sheet image
+     */
+    private int getFrameY(int frameNumber) {
+        if (mRows > 0 && mColumns > 0) {
+            int col = frameNumber / mRows; //column
+            return (frameNumber - (col * mRows)) * mFrameHeight; //row
         }
+        return frameNumber * mFrameHeight; //one column in sheet
     }
 
     /**
@@ -80,15 +231,11 @@ public class SpriteSheet {
      */
     public GLSprite getFrameFromSheet(Object gl, int frameNumber) {
         try {
-            if (mRows > 0 && mColumns > 0) {
-                int col = frameNumber / mRows; //column
-                int row = frameNumber - (col * mRows); //row
-                return mSpriteSheet.getSubImage(gl, col * mFrameWidth,
-                        row * mFrameHeight, mFrameWidth, mFrameHeight);
-            } else //one column in sheet
-            {
-                return mSpriteSheet.getSubImage(gl, 0, frameNumber * 16, mFrameWidth, mFrameHeight);
+            if (mAtlas != null) {
+                return mAtlas.getFrame(gl, mAtlasName, frameNumber);
             }
+            return mSpriteSheet.getSubImage(gl, getFrameX(frameNumber), getFrameY(frameNumber),
+                    mFrameWidth, mFrameHeight);
         } catch (Exception e) {
             return null;
         }
@@ -102,13 +249,14 @@ public class SpriteSheet {
      * @param y The x coordinate
      */
     public void drawFrame(GL10 gl, int frameNumber, float x, float y) {
-        mFrames[frameNumber].draw(gl, x, y);
+        drawFrame(gl, frameNumber, 'l', x, y);
     }
 
 
     /**
      * Draws a buffered frame of animation from the sprite sheet repeating to a set width and height
-     * Used to draw repeating tiles in one draw routine
+     * Used to draw repeating tiles in one draw routine. The tiled strip is cached by frame,
+     * position and size and drawn with a single draw call.
      * @param gl The GL context
      * @param x The x coordinate
      * @param y The x coordinate
@@ -116,7 +264,37 @@ public class SpriteSheet {
      * @param repeatHeight The height to repeat the sprite.
      */
     public void drawFrame(GL10 gl, int frameNumber, float x, float y, float repeatWidth, float repeatHeight) {
-        mFrames[frameNumber].draw(gl, x, y, repeatWidth, repeatHeight);
+        if (repeatWidth < 0 || repeatHeight < 0) {
+            return;
+        }
+
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, mFrameTextures[frameNumber]);
+        getTiledMesh(frameNumber, (int) x, (int) y, repeatWidth, repeatHeight).draw(gl);
+    }
+
+    /**
+     * Returns the cached strip of a frame repeated at a position to a size, building it in the
+     * least recently built cache slot if it is not cached
+     */
+    TiledMesh getTiledMesh(int frameNumber, float x, float y, float repeatWidth, float repeatHeight) {
+        for (TiledMesh mesh : mTiledMeshes) {
+            if (mesh != null && mesh.matches(frameNumber, x, y, repeatWidth, repeatHeight)) {
+                return mesh;
+            }
+        }
+
+        TiledMesh mesh = mTiledMeshes[mNextTiledMesh];
+        if (mesh == null) {
+            mesh = new TiledMesh(mAssetName);
+            mTiledMeshes[mNextTiledMesh] = mesh;
+        }
+        mNextTiledMesh = (mNextTiledMesh + 1) % TILED_MESH_CACHE_SIZE;
+
+        float[] r = mFrameRects;
+        int i = frameNumber * 8;
+        mesh.build(frameNumber, x, y, r[i], r[i + 1], r[i + 2], r[i + 3], r[i + 4], r[i + 5], r[i + 6], r[i + 7],
+                mFrameWidth, mFrameHeight, repeatWidth, repeatHeight);
+        return mesh;
     }
 
 
@@ -129,7 +307,44 @@ public class SpriteSheet {
      * @param y The x coordinate
      */
     public void drawFrame(GL10 gl, int frameNumber, char direction, float x, float y) {
-        mFrames[frameNumber].draw(gl, direction, x, y);
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, mFrameTextures[frameNumber]);
+        mTransform.setTranslation(x, y);
+        mMesh.draw(gl, frameNumber, direction == 'r', mTransform);
+    }
+
+    /**
+     * Adds a buffered frame of animation from the sprite sheet to a batch at x,y coordinates
+     * in a 'l' - left or 'r' - right direction
+     * @param batch The sprite batch
+     * @param frameNumber The frame number
+     * @param direction The direction the sprite is facing
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    public void drawFrame(SpriteBatch batch, int frameNumber, char direction, float x, float y) {
+        batch.draw(mFrameTextures[frameNumber], mMesh.getVertices(),
+                mMesh.getQuad(frameNumber, direction == 'r'), x, y);
+    }
+
+    /**
+     * Adds a buffered frame of animation from the sprite sheet to a batch at x,y coordinates
+     * in a 'l' - left or 'r' - right direction rotated to an angle with a center position
+     * @param batch The sprite batch
+     * @param frameNumber The frame number
+     * @param direction The direction the sprite is facing
+     * @param angle The angle of rotation
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param centerX The center x of rotation
+     * @param centerY The center y of rotation
+     */
+    public void drawFrame(SpriteBatch batch, int frameNumber, char direction, float angle, int x, int y,
+                          int centerX, int centerY) {
+        if (frameNumber < mFrameCount) {
+            mTransform.setRotation(angle, x, y, centerX, centerY);
+            batch.draw(mFrameTextures[frameNumber], mMesh.getVertices(),
+                    mMesh.getQuad(frameNumber, direction == 'r'), mTransform);
+        }
     }
 
     /**
@@ -144,8 +359,11 @@ public class SpriteSheet {
      * @param centerY The center y of rotation
      */
     public void drawFrame(GL10 gl, int frameNumber, char direction, float angle, int x, int y, int centerX, int centerY) {
-        if(frameNumber <= mFrameCount)
-            mFrames[frameNumber].draw(gl, direction, angle, x, y, centerX, centerY);
+        if(frameNumber < mFrameCount) {
+            gl.glBindTexture(GL10.GL_TEXTURE_2D, mFrameTextures[frameNumber]);
+            mTransform.setRotation(angle, x, y, centerX, centerY);
+            mMesh.draw(gl, frameNumber, direction == 'r', mTransform);
+        }
     }
 
     /**
@@ -153,6 +371,17 @@ public class SpriteSheet {
      * @param gl The GL context
      */
     public void destroy(GL10 gl) {
+        mMesh.releaseHardwareBuffers(gl);
+        for (int i = 0; i < TILED_MESH_CACHE_SIZE; i++) {
+            if (mTiledMeshes[i] != null) {
+                mTiledMeshes[i].releaseHardwareBuffers(gl);
+                mTiledMeshes[i] = null;
+            }
+        }
+        // Atlas pages are shared between sheets and are destroyed with the atlas.
+        if (mAtlas == null && mSpriteSheet != null) {
+            mSpriteSheet.destroy(gl);
+        }
     }
 
     /**
@@ -171,4 +400,52 @@ public class SpriteSheet {
     public int getFrameHeight() {
         return mFrameHeight;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the pixel shapes of the frames.
+     * @return Collision mask, or null if the image pixels were not available when it loaded.
+     */
+    public CollisionMask getCollisionMask() {
+        return mCollisionMask;
+    }
+
+    /**
+     * Gets the number of frames.
+     * @return Frame count.
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Gets the texture a frame is drawn from.
+     * @param frameNumber The frame number
+     * @return Texture name.
+     */
+    public int getTextureName(int frameNumber) {
+        return mFrameTextures[frameNumber];
+    }
+
+    /**
+     * Returns the quad table of the frames, four (x, y, u, v) vertices per quad in the
+     * rotated projection
+     */
+    float[] getQuads() {
+        return mMesh.getVertices();
+    }
+
+    /**
+     * Returns the index of a frame's quad in the quad table
+     */
+    int getQuad(int frameNumber, boolean flipped) {
+        return mMesh.getQuad(frameNumber, flipped);
+    }
+
+    /**
+     * Gets the hardware buffer the frames are drawn from.
+     * @return Buffer name, or 0 before the first draw.
+     */
+    public int getBufferName() {
+        return mMesh.getVertexBuffer();
+    }
+}
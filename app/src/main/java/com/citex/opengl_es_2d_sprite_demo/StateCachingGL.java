@@ -0,0 +1,1523 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import javax.microedition.khronos.opengles.GL;
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL10Ext;
+import javax.microedition.khronos.opengles.GL11;
+import javax.microedition.khronos.opengles.GL11Ext;
+import javax.microedition.khronos.opengles.GL11ExtensionPack;
+
+/**
+ * A GLSurfaceView.GLWrapper which shadows the GL state the sprites change most often and
+ * drops calls which would set it to the value it already has. The bound texture, the bound
+ * array and element buffers, the enabled client states and capabilities, the blend function
+ * and the matrix mode are tracked. Everything else is forwarded unchanged.
+ *
+ * The wrapper implements the GL interfaces itself and calls straight through to the wrapped
+ * context, so a call costs one extra virtual call and the tracked calls an int compare. It
+ * implements the same interfaces as the Android GL implementation, and a context which
+ * lacks any of them is returned unwrapped so the renderer's instanceof checks stay true.
+ *
+ * The state is unknown when a context is wrapped, so the first call of each kind always
+ * reaches the driver.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class StateCachingGL implements GL10, GL10Ext, GL11, GL11Ext, GL11ExtensionPack, GLSurfaceView.GLWrapper {
+
+    /** The value of a state which has not been set since the context was wrapped */
+    private static final int UNKNOWN = -1;
+
+    /** The capabilities and client states which are tracked */
+    private static final int[] TRACKED = {
+            GL10.GL_BLEND, GL10.GL_TEXTURE_2D, GL10.GL_DEPTH_TEST, GL10.GL_DITHER, GL10.GL_LIGHTING,
+            GL10.GL_VERTEX_ARRAY, GL10.GL_TEXTURE_COORD_ARRAY, GL10.GL_COLOR_ARRAY};
+
+    /** The GL the calls are forwarded to, as each of the interfaces it implements */
+    private GL11 mGL;
+    private GL10Ext mGL10Ext;
+    private GL11Ext mGL11Ext;
+    private GL11ExtensionPack mExtensionPack;
+
+    /** The bound texture and buffers */
+    private int mTexture2D, mArrayBuffer, mElementArrayBuffer;
+
+    /** The state of each tracked capability, 1 enabled, 0 disabled or UNKNOWN */
+    private final int[] mEnabled = new int[TRACKED.length];
+
+    /** The blend function */
+    private int mBlendSrc, mBlendDst;
+
+    /** The matrix mode */
+    private int mMatrixMode;
+
+    /** The number of calls dropped in total, in the current frame and in the last frame */
+    private long mEliminatedCount;
+    private int mFrameEliminatedCount, mLastFrameEliminatedCount;
+
+    /**
+     * Constructs the StateCachingGL
+     */
+    public StateCachingGL() {
+        invalidate();
+    }
+
+    /**
+     * Wraps a GL so that redundant state changes are dropped
+     * @param gl The GL to forward to
+     * @return The state caching GL, or the GL itself if it lacks one of the GL interfaces
+     */
+    @Override
+    public GL wrap(GL gl) {
+        if (!(gl instanceof GL11 && gl instanceof GL10Ext && gl instanceof GL11Ext
+                && gl instanceof GL11ExtensionPack)) {
+            return gl;
+        }
+        mGL = (GL11) gl;
+        mGL10Ext = (GL10Ext) gl;
+        mGL11Ext = (GL11Ext) gl;
+        mExtensionPack = (GL11ExtensionPack) gl;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Forgets the shadowed state so that the next call of each kind reaches the driver
+     */
+    public void invalidate() {
+        mTexture2D = UNKNOWN;
+        mArrayBuffer = UNKNOWN;
+        mElementArrayBuffer = UNKNOWN;
+        for (int i = 0; i < mEnabled.length; i++) {
+            mEnabled[i] = UNKNOWN;
+        }
+        mBlendSrc = UNKNOWN;
+        mBlendDst = UNKNOWN;
+        mMatrixMode = UNKNOWN;
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        if (target == GL10.GL_TEXTURE_2D) {
+            if (mTexture2D == texture) {
+                eliminate();
+                return;
+            }
+            mTexture2D = texture;
+        }
+        mGL.glBindTexture(target, texture);
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        if (target == GL11.GL_ARRAY_BUFFER) {
+            if (mArrayBuffer == buffer) {
+                eliminate();
+                return;
+            }
+            mArrayBuffer = buffer;
+        } else if (target == GL11.GL_ELEMENT_ARRAY_BUFFER) {
+            if (mElementArrayBuffer == buffer) {
+                eliminate();
+                return;
+            }
+            mElementArrayBuffer = buffer;
+        }
+        mGL.glBindBuffer(target, buffer);
+    }
+
+    @Override
+    public void glEnable(int cap) {
+        if (setEnabled(cap, 1)) {
+            mGL.glEnable(cap);
+        }
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        if (setEnabled(cap, 0)) {
+            mGL.glDisable(cap);
+        }
+    }
+
+    @Override
+    public void glEnableClientState(int array) {
+        if (setEnabled(array, 1)) {
+            mGL.glEnableClientState(array);
+        }
+    }
+
+    @Override
+    public void glDisableClientState(int array) {
+        if (setEnabled(array, 0)) {
+            mGL.glDisableClientState(array);
+        }
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        if (mBlendSrc == sfactor && mBlendDst == dfactor) {
+            eliminate();
+            return;
+        }
+        mBlendSrc = sfactor;
+        mBlendDst = dfactor;
+        mGL.glBlendFunc(sfactor, dfactor);
+    }
+
+    @Override
+    public void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        mBlendSrc = UNKNOWN;
+        mBlendDst = UNKNOWN;
+        mExtensionPack.glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+    }
+
+    @Override
+    public void glMatrixMode(int mode) {
+        if (mMatrixMode == mode) {
+            eliminate();
+            return;
+        }
+        mMatrixMode = mode;
+        mGL.glMatrixMode(mode);
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+        // Deleting a bound texture reverts the binding to zero.
+        if (contains(textures, offset, n, mTexture2D)) {
+            mTexture2D = 0;
+        }
+        mGL.glDeleteTextures(n, textures, offset);
+    }
+
+    @Override
+    public void glDeleteTextures(int n, IntBuffer textures) {
+        if (contains(textures, n, mTexture2D)) {
+            mTexture2D = 0;
+        }
+        mGL.glDeleteTextures(n, textures);
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+        if (contains(buffers, offset, n, mArrayBuffer)) {
+            mArrayBuffer = 0;
+        }
+        if (contains(buffers, offset, n, mElementArrayBuffer)) {
+            mElementArrayBuffer = 0;
+        }
+        mGL.glDeleteBuffers(n, buffers, offset);
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, IntBuffer buffers) {
+        if (contains(buffers, n, mArrayBuffer)) {
+            mArrayBuffer = 0;
+        }
+        if (contains(buffers, n, mElementArrayBuffer)) {
+            mElementArrayBuffer = 0;
+        }
+        mGL.glDeleteBuffers(n, buffers);
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+        invalidateTextureUnit();
+        mGL.glActiveTexture(texture);
+    }
+
+    @Override
+    public void glClientActiveTexture(int texture) {
+        invalidateTextureUnit();
+        mGL.glClientActiveTexture(texture);
+    }
+
+    /**
+     * Forgets the state kept per texture unit, the binding and texture coordinate array
+     */
+    private void invalidateTextureUnit() {
+        mTexture2D = UNKNOWN;
+        mEnabled[indexOf(GL10.GL_TEXTURE_COORD_ARRAY)] = UNKNOWN;
+        mEnabled[indexOf(GL10.GL_TEXTURE_2D)] = UNKNOWN;
+    }
+
+    /**
+     * Counts a dropped call
+     */
+    private void eliminate() {
+        mEliminatedCount++;
+        mFrameEliminatedCount++;
+    }
+
+    /**
+     * Updates a tracked capability and returns whether the call must reach the driver
+     */
+    private boolean setEnabled(int capability, int enabled) {
+        int i = indexOf(capability);
+        if (i < 0) {
+            return true;
+        }
+        if (mEnabled[i] == enabled) {
+            eliminate();
+            return false;
+        }
+        mEnabled[i] = enabled;
+        return true;
+    }
+
+    /**
+     * Returns the index of a tracked capability or -1
+     */
+    private static int indexOf(int capability) {
+        for (int i = 0; i < TRACKED.length; i++) {
+            if (TRACKED[i] == capability) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the names passed to a delete call contain a name
+     */
+    private static boolean contains(int[] names, int offset, int n, int name) {
+        for (int i = 0; i < n; i++) {
+            if (names[offset + i] == name) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the names passed to a delete call, from the buffer's position, contain a name
+     */
+    private static boolean contains(IntBuffer names, int n, int name) {
+        int position = names.position();
+        for (int i = 0; i < n; i++) {
+            if (names.get(position + i) == name) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the end of a frame so the calls dropped in it can be reported
+     */
+    public void endFrame() {
+        mLastFrameEliminatedCount = mFrameEliminatedCount;
+        mFrameEliminatedCount = 0;
+    }
+
+    /**
+     * Returns the number of calls dropped in the last complete frame
+     * @return The eliminated call count
+     */
+    public int getLastFrameEliminatedCount() {
+        return mLastFrameEliminatedCount;
+    }
+
+    /**
+     * Returns the number of calls dropped since the wrapper was created
+     * @return The eliminated call count
+     */
+    public long getEliminatedCount() {
+        return mEliminatedCount;
+    }
+
+    // The calls below change no tracked state and are forwarded unchanged.
+
+    @Override
+    public void glAlphaFunc(int func, float ref) {
+        mGL.glAlphaFunc(func, ref);
+    }
+
+    @Override
+    public void glAlphaFuncx(int func, int ref) {
+        mGL.glAlphaFuncx(func, ref);
+    }
+
+    @Override
+    public void glClear(int mask) {
+        mGL.glClear(mask);
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        mGL.glClearColor(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glClearColorx(int red, int green, int blue, int alpha) {
+        mGL.glClearColorx(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glClearDepthf(float depth) {
+        mGL.glClearDepthf(depth);
+    }
+
+    @Override
+    public void glClearDepthx(int depth) {
+        mGL.glClearDepthx(depth);
+    }
+
+    @Override
+    public void glClearStencil(int s) {
+        mGL.glClearStencil(s);
+    }
+
+    @Override
+    public void glColor4f(float red, float green, float blue, float alpha) {
+        mGL.glColor4f(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glColor4x(int red, int green, int blue, int alpha) {
+        mGL.glColor4x(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        mGL.glColorMask(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glColorPointer(int size, int type, int stride, Buffer pointer) {
+        mGL.glColorPointer(size, type, stride, pointer);
+    }
+
+    @Override
+    public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height,
+                                       int border, int imageSize, Buffer data) {
+        mGL.glCompressedTexImage2D(target, level, internalformat, width, height, border, imageSize, data);
+    }
+
+    @Override
+    public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width,
+                                          int height, int format, int imageSize, Buffer data) {
+        mGL.glCompressedTexSubImage2D(target, level, xoffset, yoffset, width, height, format, imageSize, data);
+    }
+
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width,
+                                 int height, int border) {
+        mGL.glCopyTexImage2D(target, level, internalformat, x, y, width, height, border);
+    }
+
+    @Override
+    public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width,
+                                    int height) {
+        mGL.glCopyTexSubImage2D(target, level, xoffset, yoffset, x, y, width, height);
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+        mGL.glCullFace(mode);
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+        mGL.glDepthFunc(func);
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+        mGL.glDepthMask(flag);
+    }
+
+    @Override
+    public void glDepthRangef(float zNear, float zFar) {
+        mGL.glDepthRangef(zNear, zFar);
+    }
+
+    @Override
+    public void glDepthRangex(int zNear, int zFar) {
+        mGL.glDepthRangex(zNear, zFar);
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        mGL.glDrawArrays(mode, first, count);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        mGL.glDrawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void glFinish() {
+        mGL.glFinish();
+    }
+
+    @Override
+    public void glFlush() {
+        mGL.glFlush();
+    }
+
+    @Override
+    public void glFogf(int pname, float param) {
+        mGL.glFogf(pname, param);
+    }
+
+    @Override
+    public void glFogfv(int pname, float[] params, int offset) {
+        mGL.glFogfv(pname, params, offset);
+    }
+
+    @Override
+    public void glFogfv(int pname, FloatBuffer params) {
+        mGL.glFogfv(pname, params);
+    }
+
+    @Override
+    public void glFogx(int pname, int param) {
+        mGL.glFogx(pname, param);
+    }
+
+    @Override
+    public void glFogxv(int pname, int[] params, int offset) {
+        mGL.glFogxv(pname, params, offset);
+    }
+
+    @Override
+    public void glFogxv(int pname, IntBuffer params) {
+        mGL.glFogxv(pname, params);
+    }
+
+    @Override
+    public void glFrontFace(int mode) {
+        mGL.glFrontFace(mode);
+    }
+
+    @Override
+    public void glFrustumf(float left, float right, float bottom, float top, float zNear, float zFar) {
+        mGL.glFrustumf(left, right, bottom, top, zNear, zFar);
+    }
+
+    @Override
+    public void glFrustumx(int left, int right, int bottom, int top, int zNear, int zFar) {
+        mGL.glFrustumx(left, right, bottom, top, zNear, zFar);
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        mGL.glGenTextures(n, textures, offset);
+    }
+
+    @Override
+    public void glGenTextures(int n, IntBuffer textures) {
+        mGL.glGenTextures(n, textures);
+    }
+
+    @Override
+    public int glGetError() {
+        return mGL.glGetError();
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, int[] params, int offset) {
+        mGL.glGetIntegerv(pname, params, offset);
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, IntBuffer params) {
+        mGL.glGetIntegerv(pname, params);
+    }
+
+    @Override
+    public String glGetString(int name) {
+        return mGL.glGetString(name);
+    }
+
+    @Override
+    public void glHint(int target, int mode) {
+        mGL.glHint(target, mode);
+    }
+
+    @Override
+    public void glLightModelf(int pname, float param) {
+        mGL.glLightModelf(pname, param);
+    }
+
+    @Override
+    public void glLightModelfv(int pname, float[] params, int offset) {
+        mGL.glLightModelfv(pname, params, offset);
+    }
+
+    @Override
+    public void glLightModelfv(int pname, FloatBuffer params) {
+        mGL.glLightModelfv(pname, params);
+    }
+
+    @Override
+    public void glLightModelx(int pname, int param) {
+        mGL.glLightModelx(pname, param);
+    }
+
+    @Override
+    public void glLightModelxv(int pname, int[] params, int offset) {
+        mGL.glLightModelxv(pname, params, offset);
+    }
+
+    @Override
+    public void glLightModelxv(int pname, IntBuffer params) {
+        mGL.glLightModelxv(pname, params);
+    }
+
+    @Override
+    public void glLightf(int light, int pname, float param) {
+        mGL.glLightf(light, pname, param);
+    }
+
+    @Override
+    public void glLightfv(int light, int pname, float[] params, int offset) {
+        mGL.glLightfv(light, pname, params, offset);
+    }
+
+    @Override
+    public void glLightfv(int light, int pname, FloatBuffer params) {
+        mGL.glLightfv(light, pname, params);
+    }
+
+    @Override
+    public void glLightx(int light, int pname, int param) {
+        mGL.glLightx(light, pname, param);
+    }
+
+    @Override
+    public void glLightxv(int light, int pname, int[] params, int offset) {
+        mGL.glLightxv(light, pname, params, offset);
+    }
+
+    @Override
+    public void glLightxv(int light, int pname, IntBuffer params) {
+        mGL.glLightxv(light, pname, params);
+    }
+
+    @Override
+    public void glLineWidth(float width) {
+        mGL.glLineWidth(width);
+    }
+
+    @Override
+    public void glLineWidthx(int width) {
+        mGL.glLineWidthx(width);
+    }
+
+    @Override
+    public void glLoadIdentity() {
+        mGL.glLoadIdentity();
+    }
+
+    @Override
+    public void glLoadMatrixf(float[] m, int offset) {
+        mGL.glLoadMatrixf(m, offset);
+    }
+
+    @Override
+    public void glLoadMatrixf(FloatBuffer m) {
+        mGL.glLoadMatrixf(m);
+    }
+
+    @Override
+    public void glLoadMatrixx(int[] m, int offset) {
+        mGL.glLoadMatrixx(m, offset);
+    }
+
+    @Override
+    public void glLoadMatrixx(IntBuffer m) {
+        mGL.glLoadMatrixx(m);
+    }
+
+    @Override
+    public void glLogicOp(int opcode) {
+        mGL.glLogicOp(opcode);
+    }
+
+    @Override
+    public void glMaterialf(int face, int pname, float param) {
+        mGL.glMaterialf(face, pname, param);
+    }
+
+    @Override
+    public void glMaterialfv(int face, int pname, float[] params, int offset) {
+        mGL.glMaterialfv(face, pname, params, offset);
+    }
+
+    @Override
+    public void glMaterialfv(int face, int pname, FloatBuffer params) {
+        mGL.glMaterialfv(face, pname, params);
+    }
+
+    @Override
+    public void glMaterialx(int face, int pname, int param) {
+        mGL.glMaterialx(face, pname, param);
+    }
+
+    @Override
+    public void glMaterialxv(int face, int pname, int[] params, int offset) {
+        mGL.glMaterialxv(face, pname, params, offset);
+    }
+
+    @Override
+    public void glMaterialxv(int face, int pname, IntBuffer params) {
+        mGL.glMaterialxv(face, pname, params);
+    }
+
+    @Override
+    public void glMultMatrixf(float[] m, int offset) {
+        mGL.glMultMatrixf(m, offset);
+    }
+
+    @Override
+    public void glMultMatrixf(FloatBuffer m) {
+        mGL.glMultMatrixf(m);
+    }
+
+    @Override
+    public void glMultMatrixx(int[] m, int offset) {
+        mGL.glMultMatrixx(m, offset);
+    }
+
+    @Override
+    public void glMultMatrixx(IntBuffer m) {
+        mGL.glMultMatrixx(m);
+    }
+
+    @Override
+    public void glMultiTexCoord4f(int target, float s, float t, float r, float q) {
+        mGL.glMultiTexCoord4f(target, s, t, r, q);
+    }
+
+    @Override
+    public void glMultiTexCoord4x(int target, int s, int t, int r, int q) {
+        mGL.glMultiTexCoord4x(target, s, t, r, q);
+    }
+
+    @Override
+    public void glNormal3f(float nx, float ny, float nz) {
+        mGL.glNormal3f(nx, ny, nz);
+    }
+
+    @Override
+    public void glNormal3x(int nx, int ny, int nz) {
+        mGL.glNormal3x(nx, ny, nz);
+    }
+
+    @Override
+    public void glNormalPointer(int type, int stride, Buffer pointer) {
+        mGL.glNormalPointer(type, stride, pointer);
+    }
+
+    @Override
+    public void glOrthof(float left, float right, float bottom, float top, float zNear, float zFar) {
+        mGL.glOrthof(left, right, bottom, top, zNear, zFar);
+    }
+
+    @Override
+    public void glOrthox(int left, int right, int bottom, int top, int zNear, int zFar) {
+        mGL.glOrthox(left, right, bottom, top, zNear, zFar);
+    }
+
+    @Override
+    public void glPixelStorei(int pname, int param) {
+        mGL.glPixelStorei(pname, param);
+    }
+
+    @Override
+    public void glPointSize(float size) {
+        mGL.glPointSize(size);
+    }
+
+    @Override
+    public void glPointSizex(int size) {
+        mGL.glPointSizex(size);
+    }
+
+    @Override
+    public void glPolygonOffset(float factor, float units) {
+        mGL.glPolygonOffset(factor, units);
+    }
+
+    @Override
+    public void glPolygonOffsetx(int factor, int units) {
+        mGL.glPolygonOffsetx(factor, units);
+    }
+
+    @Override
+    public void glPopMatrix() {
+        mGL.glPopMatrix();
+    }
+
+    @Override
+    public void glPushMatrix() {
+        mGL.glPushMatrix();
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+        mGL.glReadPixels(x, y, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {
+        mGL.glRotatef(angle, x, y, z);
+    }
+
+    @Override
+    public void glRotatex(int angle, int x, int y, int z) {
+        mGL.glRotatex(angle, x, y, z);
+    }
+
+    @Override
+    public void glSampleCoverage(float value, boolean invert) {
+        mGL.glSampleCoverage(value, invert);
+    }
+
+    @Override
+    public void glSampleCoveragex(int value, boolean invert) {
+        mGL.glSampleCoveragex(value, invert);
+    }
+
+    @Override
+    public void glScalef(float x, float y, float z) {
+        mGL.glScalef(x, y, z);
+    }
+
+    @Override
+    public void glScalex(int x, int y, int z) {
+        mGL.glScalex(x, y, z);
+    }
+
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        mGL.glScissor(x, y, width, height);
+    }
+
+    @Override
+    public void glShadeModel(int mode) {
+        mGL.glShadeModel(mode);
+    }
+
+    @Override
+    public void glStencilFunc(int func, int ref, int mask) {
+        mGL.glStencilFunc(func, ref, mask);
+    }
+
+    @Override
+    public void glStencilMask(int mask) {
+        mGL.glStencilMask(mask);
+    }
+
+    @Override
+    public void glStencilOp(int fail, int zfail, int zpass) {
+        mGL.glStencilOp(fail, zfail, zpass);
+    }
+
+    @Override
+    public void glTexCoordPointer(int size, int type, int stride, Buffer pointer) {
+        mGL.glTexCoordPointer(size, type, stride, pointer);
+    }
+
+    @Override
+    public void glTexEnvf(int target, int pname, float param) {
+        mGL.glTexEnvf(target, pname, param);
+    }
+
+    @Override
+    public void glTexEnvfv(int target, int pname, float[] params, int offset) {
+        mGL.glTexEnvfv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glTexEnvfv(int target, int pname, FloatBuffer params) {
+        mGL.glTexEnvfv(target, pname, params);
+    }
+
+    @Override
+    public void glTexEnvx(int target, int pname, int param) {
+        mGL.glTexEnvx(target, pname, param);
+    }
+
+    @Override
+    public void glTexEnvxv(int target, int pname, int[] params, int offset) {
+        mGL.glTexEnvxv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glTexEnvxv(int target, int pname, IntBuffer params) {
+        mGL.glTexEnvxv(target, pname, params);
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border,
+                             int format, int type, Buffer pixels) {
+        mGL.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+        mGL.glTexParameterf(target, pname, param);
+    }
+
+    @Override
+    public void glTexParameterx(int target, int pname, int param) {
+        mGL.glTexParameterx(target, pname, param);
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height,
+                                int format, int type, Buffer pixels) {
+        mGL.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void glTranslatef(float x, float y, float z) {
+        mGL.glTranslatef(x, y, z);
+    }
+
+    @Override
+    public void glTranslatex(int x, int y, int z) {
+        mGL.glTranslatex(x, y, z);
+    }
+
+    @Override
+    public void glVertexPointer(int size, int type, int stride, Buffer pointer) {
+        mGL.glVertexPointer(size, type, stride, pointer);
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        mGL.glViewport(x, y, width, height);
+    }
+
+    @Override
+    public int glQueryMatrixxOES(int[] mantissa, int mantissaOffset, int[] exponent, int exponentOffset) {
+        return mGL10Ext.glQueryMatrixxOES(mantissa, mantissaOffset, exponent, exponentOffset);
+    }
+
+    @Override
+    public int glQueryMatrixxOES(IntBuffer mantissa, IntBuffer exponent) {
+        return mGL10Ext.glQueryMatrixxOES(mantissa, exponent);
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        mGL.glBufferData(target, size, data, usage);
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        mGL.glBufferSubData(target, offset, size, data);
+    }
+
+    @Override
+    public void glClipPlanef(int plane, float[] equation, int offset) {
+        mGL.glClipPlanef(plane, equation, offset);
+    }
+
+    @Override
+    public void glClipPlanef(int plane, FloatBuffer equation) {
+        mGL.glClipPlanef(plane, equation);
+    }
+
+    @Override
+    public void glClipPlanex(int plane, int[] equation, int offset) {
+        mGL.glClipPlanex(plane, equation, offset);
+    }
+
+    @Override
+    public void glClipPlanex(int plane, IntBuffer equation) {
+        mGL.glClipPlanex(plane, equation);
+    }
+
+    @Override
+    public void glColor4ub(byte red, byte green, byte blue, byte alpha) {
+        mGL.glColor4ub(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glColorPointer(int size, int type, int stride, int offset) {
+        mGL.glColorPointer(size, type, stride, offset);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int offset) {
+        mGL.glDrawElements(mode, count, type, offset);
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        mGL.glGenBuffers(n, buffers, offset);
+    }
+
+    @Override
+    public void glGenBuffers(int n, IntBuffer buffers) {
+        mGL.glGenBuffers(n, buffers);
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, boolean[] params, int offset) {
+        mGL.glGetBooleanv(pname, params, offset);
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, IntBuffer params) {
+        mGL.glGetBooleanv(pname, params);
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, int[] params, int offset) {
+        mGL.glGetBufferParameteriv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
+        mGL.glGetBufferParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glGetClipPlanef(int pname, float[] eqn, int offset) {
+        mGL.glGetClipPlanef(pname, eqn, offset);
+    }
+
+    @Override
+    public void glGetClipPlanef(int pname, FloatBuffer eqn) {
+        mGL.glGetClipPlanef(pname, eqn);
+    }
+
+    @Override
+    public void glGetClipPlanex(int pname, int[] eqn, int offset) {
+        mGL.glGetClipPlanex(pname, eqn, offset);
+    }
+
+    @Override
+    public void glGetClipPlanex(int pname, IntBuffer eqn) {
+        mGL.glGetClipPlanex(pname, eqn);
+    }
+
+    @Override
+    public void glGetFixedv(int pname, int[] params, int offset) {
+        mGL.glGetFixedv(pname, params, offset);
+    }
+
+    @Override
+    public void glGetFixedv(int pname, IntBuffer params) {
+        mGL.glGetFixedv(pname, params);
+    }
+
+    @Override
+    public void glGetFloatv(int pname, float[] params, int offset) {
+        mGL.glGetFloatv(pname, params, offset);
+    }
+
+    @Override
+    public void glGetFloatv(int pname, FloatBuffer params) {
+        mGL.glGetFloatv(pname, params);
+    }
+
+    @Override
+    public void glGetLightfv(int light, int pname, float[] params, int offset) {
+        mGL.glGetLightfv(light, pname, params, offset);
+    }
+
+    @Override
+    public void glGetLightfv(int light, int pname, FloatBuffer params) {
+        mGL.glGetLightfv(light, pname, params);
+    }
+
+    @Override
+    public void glGetLightxv(int light, int pname, int[] params, int offset) {
+        mGL.glGetLightxv(light, pname, params, offset);
+    }
+
+    @Override
+    public void glGetLightxv(int light, int pname, IntBuffer params) {
+        mGL.glGetLightxv(light, pname, params);
+    }
+
+    @Override
+    public void glGetMaterialfv(int face, int pname, float[] params, int offset) {
+        mGL.glGetMaterialfv(face, pname, params, offset);
+    }
+
+    @Override
+    public void glGetMaterialfv(int face, int pname, FloatBuffer params) {
+        mGL.glGetMaterialfv(face, pname, params);
+    }
+
+    @Override
+    public void glGetMaterialxv(int face, int pname, int[] params, int offset) {
+        mGL.glGetMaterialxv(face, pname, params, offset);
+    }
+
+    @Override
+    public void glGetMaterialxv(int face, int pname, IntBuffer params) {
+        mGL.glGetMaterialxv(face, pname, params);
+    }
+
+    @Override
+    public void glGetPointerv(int pname, Buffer[] params) {
+        mGL.glGetPointerv(pname, params);
+    }
+
+    @Override
+    public void glGetTexEnviv(int env, int pname, int[] params, int offset) {
+        mGL.glGetTexEnviv(env, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexEnviv(int env, int pname, IntBuffer params) {
+        mGL.glGetTexEnviv(env, pname, params);
+    }
+
+    @Override
+    public void glGetTexEnvxv(int env, int pname, int[] params, int offset) {
+        mGL.glGetTexEnvxv(env, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexEnvxv(int env, int pname, IntBuffer params) {
+        mGL.glGetTexEnvxv(env, pname, params);
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, float[] params, int offset) {
+        mGL.glGetTexParameterfv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
+        mGL.glGetTexParameterfv(target, pname, params);
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, int[] params, int offset) {
+        mGL.glGetTexParameteriv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
+        mGL.glGetTexParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glGetTexParameterxv(int target, int pname, int[] params, int offset) {
+        mGL.glGetTexParameterxv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexParameterxv(int target, int pname, IntBuffer params) {
+        mGL.glGetTexParameterxv(target, pname, params);
+    }
+
+    @Override
+    public boolean glIsBuffer(int buffer) {
+        return mGL.glIsBuffer(buffer);
+    }
+
+    @Override
+    public boolean glIsEnabled(int cap) {
+        return mGL.glIsEnabled(cap);
+    }
+
+    @Override
+    public boolean glIsTexture(int texture) {
+        return mGL.glIsTexture(texture);
+    }
+
+    @Override
+    public void glNormalPointer(int type, int stride, int offset) {
+        mGL.glNormalPointer(type, stride, offset);
+    }
+
+    @Override
+    public void glPointParameterf(int pname, float param) {
+        mGL.glPointParameterf(pname, param);
+    }
+
+    @Override
+    public void glPointParameterfv(int pname, float[] params, int offset) {
+        mGL.glPointParameterfv(pname, params, offset);
+    }
+
+    @Override
+    public void glPointParameterfv(int pname, FloatBuffer params) {
+        mGL.glPointParameterfv(pname, params);
+    }
+
+    @Override
+    public void glPointParameterx(int pname, int param) {
+        mGL.glPointParameterx(pname, param);
+    }
+
+    @Override
+    public void glPointParameterxv(int pname, int[] params, int offset) {
+        mGL.glPointParameterxv(pname, params, offset);
+    }
+
+    @Override
+    public void glPointParameterxv(int pname, IntBuffer params) {
+        mGL.glPointParameterxv(pname, params);
+    }
+
+    @Override
+    public void glPointSizePointerOES(int type, int stride, Buffer pointer) {
+        mGL.glPointSizePointerOES(type, stride, pointer);
+    }
+
+    @Override
+    public void glTexCoordPointer(int size, int type, int stride, int offset) {
+        mGL.glTexCoordPointer(size, type, stride, offset);
+    }
+
+    @Override
+    public void glTexEnvi(int target, int pname, int param) {
+        mGL.glTexEnvi(target, pname, param);
+    }
+
+    @Override
+    public void glTexEnviv(int target, int pname, int[] params, int offset) {
+        mGL.glTexEnviv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glTexEnviv(int target, int pname, IntBuffer params) {
+        mGL.glTexEnviv(target, pname, params);
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, float[] params, int offset) {
+        mGL.glTexParameterfv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, FloatBuffer params) {
+        mGL.glTexParameterfv(target, pname, params);
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        mGL.glTexParameteri(target, pname, param);
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, int[] params, int offset) {
+        mGL.glTexParameteriv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, IntBuffer params) {
+        mGL.glTexParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glTexParameterxv(int target, int pname, int[] params, int offset) {
+        mGL.glTexParameterxv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glTexParameterxv(int target, int pname, IntBuffer params) {
+        mGL.glTexParameterxv(target, pname, params);
+    }
+
+    @Override
+    public void glVertexPointer(int size, int type, int stride, int offset) {
+        mGL.glVertexPointer(size, type, stride, offset);
+    }
+
+    @Override
+    public void glCurrentPaletteMatrixOES(int matrixpaletteindex) {
+        mGL11Ext.glCurrentPaletteMatrixOES(matrixpaletteindex);
+    }
+
+    @Override
+    public void glDrawTexfOES(float x, float y, float z, float width, float height) {
+        mGL11Ext.glDrawTexfOES(x, y, z, width, height);
+    }
+
+    @Override
+    public void glDrawTexfvOES(float[] coords, int offset) {
+        mGL11Ext.glDrawTexfvOES(coords, offset);
+    }
+
+    @Override
+    public void glDrawTexfvOES(FloatBuffer coords) {
+        mGL11Ext.glDrawTexfvOES(coords);
+    }
+
+    @Override
+    public void glDrawTexiOES(int x, int y, int z, int width, int height) {
+        mGL11Ext.glDrawTexiOES(x, y, z, width, height);
+    }
+
+    @Override
+    public void glDrawTexivOES(int[] coords, int offset) {
+        mGL11Ext.glDrawTexivOES(coords, offset);
+    }
+
+    @Override
+    public void glDrawTexivOES(IntBuffer coords) {
+        mGL11Ext.glDrawTexivOES(coords);
+    }
+
+    @Override
+    public void glDrawTexsOES(short x, short y, short z, short width, short height) {
+        mGL11Ext.glDrawTexsOES(x, y, z, width, height);
+    }
+
+    @Override
+    public void glDrawTexsvOES(short[] coords, int offset) {
+        mGL11Ext.glDrawTexsvOES(coords, offset);
+    }
+
+    @Override
+    public void glDrawTexsvOES(ShortBuffer coords) {
+        mGL11Ext.glDrawTexsvOES(coords);
+    }
+
+    @Override
+    public void glDrawTexxOES(int x, int y, int z, int width, int height) {
+        mGL11Ext.glDrawTexxOES(x, y, z, width, height);
+    }
+
+    @Override
+    public void glDrawTexxvOES(int[] coords, int offset) {
+        mGL11Ext.glDrawTexxvOES(coords, offset);
+    }
+
+    @Override
+    public void glDrawTexxvOES(IntBuffer coords) {
+        mGL11Ext.glDrawTexxvOES(coords);
+    }
+
+    @Override
+    public void glLoadPaletteFromModelViewMatrixOES() {
+        mGL11Ext.glLoadPaletteFromModelViewMatrixOES();
+    }
+
+    @Override
+    public void glMatrixIndexPointerOES(int size, int type, int stride, Buffer pointer) {
+        mGL11Ext.glMatrixIndexPointerOES(size, type, stride, pointer);
+    }
+
+    @Override
+    public void glMatrixIndexPointerOES(int size, int type, int stride, int offset) {
+        mGL11Ext.glMatrixIndexPointerOES(size, type, stride, offset);
+    }
+
+    @Override
+    public void glWeightPointerOES(int size, int type, int stride, Buffer pointer) {
+        mGL11Ext.glWeightPointerOES(size, type, stride, pointer);
+    }
+
+    @Override
+    public void glWeightPointerOES(int size, int type, int stride, int offset) {
+        mGL11Ext.glWeightPointerOES(size, type, stride, offset);
+    }
+
+    @Override
+    public void glBindFramebufferOES(int target, int framebuffer) {
+        mExtensionPack.glBindFramebufferOES(target, framebuffer);
+    }
+
+    @Override
+    public void glBindRenderbufferOES(int target, int renderbuffer) {
+        mExtensionPack.glBindRenderbufferOES(target, renderbuffer);
+    }
+
+    @Override
+    public void glBlendEquation(int mode) {
+        mExtensionPack.glBlendEquation(mode);
+    }
+
+    @Override
+    public void glBlendEquationSeparate(int modeRGB, int modeAlpha) {
+        mExtensionPack.glBlendEquationSeparate(modeRGB, modeAlpha);
+    }
+
+    @Override
+    public int glCheckFramebufferStatusOES(int target) {
+        return mExtensionPack.glCheckFramebufferStatusOES(target);
+    }
+
+    @Override
+    public void glDeleteFramebuffersOES(int n, int[] framebuffers, int offset) {
+        mExtensionPack.glDeleteFramebuffersOES(n, framebuffers, offset);
+    }
+
+    @Override
+    public void glDeleteFramebuffersOES(int n, IntBuffer framebuffers) {
+        mExtensionPack.glDeleteFramebuffersOES(n, framebuffers);
+    }
+
+    @Override
+    public void glDeleteRenderbuffersOES(int n, int[] renderbuffers, int offset) {
+        mExtensionPack.glDeleteRenderbuffersOES(n, renderbuffers, offset);
+    }
+
+    @Override
+    public void glDeleteRenderbuffersOES(int n, IntBuffer renderbuffers) {
+        mExtensionPack.glDeleteRenderbuffersOES(n, renderbuffers);
+    }
+
+    @Override
+    public void glFramebufferRenderbufferOES(int target, int attachment, int renderbuffertarget,
+                                             int renderbuffer) {
+        mExtensionPack.glFramebufferRenderbufferOES(target, attachment, renderbuffertarget, renderbuffer);
+    }
+
+    @Override
+    public void glFramebufferTexture2DOES(int target, int attachment, int textarget, int texture, int level) {
+        mExtensionPack.glFramebufferTexture2DOES(target, attachment, textarget, texture, level);
+    }
+
+    @Override
+    public void glGenerateMipmapOES(int target) {
+        mExtensionPack.glGenerateMipmapOES(target);
+    }
+
+    @Override
+    public void glGenFramebuffersOES(int n, int[] framebuffers, int offset) {
+        mExtensionPack.glGenFramebuffersOES(n, framebuffers, offset);
+    }
+
+    @Override
+    public void glGenFramebuffersOES(int n, IntBuffer framebuffers) {
+        mExtensionPack.glGenFramebuffersOES(n, framebuffers);
+    }
+
+    @Override
+    public void glGenRenderbuffersOES(int n, int[] renderbuffers, int offset) {
+        mExtensionPack.glGenRenderbuffersOES(n, renderbuffers, offset);
+    }
+
+    @Override
+    public void glGenRenderbuffersOES(int n, IntBuffer renderbuffers) {
+        mExtensionPack.glGenRenderbuffersOES(n, renderbuffers);
+    }
+
+    @Override
+    public void glGetFramebufferAttachmentParameterivOES(int target, int attachment, int pname, int[] params,
+                                                         int offset) {
+        mExtensionPack.glGetFramebufferAttachmentParameterivOES(target, attachment, pname, params, offset);
+    }
+
+    @Override
+    public void glGetFramebufferAttachmentParameterivOES(int target, int attachment, int pname,
+                                                         IntBuffer params) {
+        mExtensionPack.glGetFramebufferAttachmentParameterivOES(target, attachment, pname, params);
+    }
+
+    @Override
+    public void glGetRenderbufferParameterivOES(int target, int pname, int[] params, int offset) {
+        mExtensionPack.glGetRenderbufferParameterivOES(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetRenderbufferParameterivOES(int target, int pname, IntBuffer params) {
+        mExtensionPack.glGetRenderbufferParameterivOES(target, pname, params);
+    }
+
+    @Override
+    public void glGetTexGenfv(int coord, int pname, float[] params, int offset) {
+        mExtensionPack.glGetTexGenfv(coord, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexGenfv(int coord, int pname, FloatBuffer params) {
+        mExtensionPack.glGetTexGenfv(coord, pname, params);
+    }
+
+    @Override
+    public void glGetTexGeniv(int coord, int pname, int[] params, int offset) {
+        mExtensionPack.glGetTexGeniv(coord, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexGeniv(int coord, int pname, IntBuffer params) {
+        mExtensionPack.glGetTexGeniv(coord, pname, params);
+    }
+
+    @Override
+    public void glGetTexGenxv(int coord, int pname, int[] params, int offset) {
+        mExtensionPack.glGetTexGenxv(coord, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexGenxv(int coord, int pname, IntBuffer params) {
+        mExtensionPack.glGetTexGenxv(coord, pname, params);
+    }
+
+    @Override
+    public boolean glIsFramebufferOES(int framebuffer) {
+        return mExtensionPack.glIsFramebufferOES(framebuffer);
+    }
+
+    @Override
+    public boolean glIsRenderbufferOES(int renderbuffer) {
+        return mExtensionPack.glIsRenderbufferOES(renderbuffer);
+    }
+
+    @Override
+    public void glRenderbufferStorageOES(int target, int internalformat, int width, int height) {
+        mExtensionPack.glRenderbufferStorageOES(target, internalformat, width, height);
+    }
+
+    @Override
+    public void glTexGenf(int coord, int pname, float param) {
+        mExtensionPack.glTexGenf(coord, pname, param);
+    }
+
+    @Override
+    public void glTexGenfv(int coord, int pname, float[] params, int offset) {
+        mExtensionPack.glTexGenfv(coord, pname, params, offset);
+    }
+
+    @Override
+    public void glTexGenfv(int coord, int pname, FloatBuffer params) {
+        mExtensionPack.glTexGenfv(coord, pname, params);
+    }
+
+    @Override
+    public void glTexGeni(int coord, int pname, int param) {
+        mExtensionPack.glTexGeni(coord, pname, param);
+    }
+
+    @Override
+    public void glTexGeniv(int coord, int pname, int[] params, int offset) {
+        mExtensionPack.glTexGeniv(coord, pname, params, offset);
+    }
+
+    @Override
+    public void glTexGeniv(int coord, int pname, IntBuffer params) {
+        mExtensionPack.glTexGeniv(coord, pname, params);
+    }
+
+    @Override
+    public void glTexGenx(int coord, int pname, int param) {
+        mExtensionPack.glTexGenx(coord, pname, param);
+    }
+
+    @Override
+    public void glTexGenxv(int coord, int pname, int[] params, int offset) {
+        mExtensionPack.glTexGenxv(coord, pname, params, offset);
+    }
+
+    @Override
+    public void glTexGenxv(int coord, int pname, IntBuffer params) {
+        mExtensionPack.glTexGenxv(coord, pname, params);
+    }
+}
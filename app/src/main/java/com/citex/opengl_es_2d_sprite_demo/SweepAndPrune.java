@@ -0,0 +1,316 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.Arrays;
+
+/**
+ * A sort and sweep broadphase which finds the overlapping pairs of a set of boxes without
+ * testing every box against every other. The boxes are kept in order of their left edges,
+ * and a sweep along that order tests each box only against the boxes starting before its
+ * right edge, so the work grows with the number of boxes and the pairs that are close on the
+ * x axis rather than with the square of the number of boxes.
+ *
+ * The boxes are numbered 0 to getCount() - 1, like the indices of an EntityStore, and are
+ * held in primitive arrays. The order is kept from one step to the next and repaired with an
+ * insertion sort, which takes a single pass when the boxes have moved a little and not past
+ * many others. When they have moved so far that the insertion sort would take longer than
+ * sorting afresh, it gives up and the order is rebuilt with a full sort.
+ *
+ * The pairs are reported to a PairListener and the region queries write ids to a caller
+ * supplied array, so nothing is allocated after the arrays have grown.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class SweepAndPrune {
+
+    /** The insertion sort moves allowed for each box before the order is rebuilt instead */
+    private static final int SHIFTS_PER_BOX = 8;
+
+    /** The box edges by id */
+    private float[] mLeft, mTop, mRight, mBottom;
+
+    /** The box ids in order of their left edges */
+    private int[] mOrder;
+
+    /** The box edges in sorted order, gathered for the sweep */
+    private float[] mSortedLeft, mSortedTop, mSortedRight, mSortedBottom;
+
+    /** The sort keys of a full sort, each a left edge and an id */
+    private long[] mSortKeys;
+
+    /** The number of boxes */
+    private int mCount;
+
+    /** The widest box, which bounds how far left of a region an overlapping box can start */
+    private float mMaxWidth;
+
+    /** The insertion sort moves of the last sort */
+    private int mLastShiftCount;
+
+    /** Whether the last sort rebuilt the order */
+    private boolean mLastSortRebuilt;
+
+    /**
+     * Constructs the SweepAndPrune
+     * @param capacity The number of boxes to make room for
+     */
+    public SweepAndPrune(int capacity) {
+        allocate(Math.max(capacity, 16));
+    }
+
+    /**
+     * Allocates the box arrays, keeping the boxes already in them
+     */
+    private void allocate(int capacity) {
+        if (mLeft == null) {
+            mLeft = new float[capacity];
+            mTop = new float[capacity];
+            mRight = new float[capacity];
+            mBottom = new float[capacity];
+            mOrder = new int[capacity];
+            mSortedLeft = new float[capacity];
+            mSortedTop = new float[capacity];
+            mSortedRight = new float[capacity];
+            mSortedBottom = new float[capacity];
+            mSortKeys = new long[capacity];
+            return;
+        }
+        mLeft = Arrays.copyOf(mLeft, capacity);
+        mTop = Arrays.copyOf(mTop, capacity);
+        mRight = Arrays.copyOf(mRight, capacity);
+        mBottom = Arrays.copyOf(mBottom, capacity);
+        mOrder = Arrays.copyOf(mOrder, capacity);
+        mSortedLeft = new float[capacity];
+        mSortedTop = new float[capacity];
+        mSortedRight = new float[capacity];
+        mSortedBottom = new float[capacity];
+        mSortKeys = new long[capacity];
+    }
+
+    /**
+     * Sets the number of boxes. New boxes are placed at the end of the order until the next
+     * sort moves them into place, and the boxes past the new count are dropped from it.
+     * @param count The number of boxes
+     */
+    public void setCount(int count) {
+        if (count > mLeft.length) {
+            allocate(Math.max(count, mLeft.length * 2));
+        }
+
+        if (count > mCount) {
+            for (int id = mCount; id < count; id++) {
+                mOrder[id] = id;
+            }
+        } else if (count < mCount) {
+            // Keep the order of the boxes that remain.
+            int kept = 0;
+            for (int i = 0; i < mCount; i++) {
+                int id = mOrder[i];
+                if (id < count) {
+                    mOrder[kept++] = id;
+                }
+            }
+        }
+        mCount = count;
+    }
+
+    /**
+     * Returns the number of boxes
+     * @return The box count
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Sets the edges of a box
+     * @param id The box id
+     * @param left The left edge
+     * @param top The top edge
+     * @param right The right edge
+     * @param bottom The bottom edge
+     */
+    public void setBox(int id, float left, float top, float right, float bottom) {
+        mLeft[id] = left;
+        mTop[id] = top;
+        mRight[id] = right;
+        mBottom[id] = bottom;
+    }
+
+    /**
+     * Sets the boxes from the top left corners of entities of one size, such as the
+     * positions of an EntityStore and the frame size of their SpriteSheet
+     * @param x The x coordinates
+     * @param y The y coordinates
+     * @param count The number of entities
+     * @param width The entity width
+     * @param height The entity height
+     */
+    public void update(float[] x, float[] y, int count, float width, float height) {
+        setCount(count);
+        final float[] left = mLeft, top = mTop, right = mRight, bottom = mBottom;
+        for (int i = 0; i < count; i++) {
+            left[i] = x[i];
+            top[i] = y[i];
+            right[i] = x[i] + width;
+            bottom[i] = y[i] + height;
+        }
+    }
+
+    /**
+     * Puts the boxes back in order of their left edges after they have moved
+     */
+    public void sort() {
+        final int count = mCount;
+        final int[] order = mOrder;
+        final float[] keys = mSortedLeft, left = mLeft;
+        for (int i = 0; i < count; i++) {
+            keys[i] = left[order[i]];
+        }
+
+        // Insertion sort, moving each box back past the boxes now starting right of it.
+        int budget = count * SHIFTS_PER_BOX;
+        int shifts = 0;
+        boolean rebuilt = false;
+        for (int i = 1; i < count; i++) {
+            float key = keys[i];
+            if (keys[i - 1] <= key) {
+                continue;
+            }
+            int id = order[i];
+            int j = i - 1;
+            do {
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            } while (j >= 0 && keys[j] > key);
+            keys[j + 1] = key;
+            order[j + 1] = id;
+
+            shifts += i - 1 - j;
+            if (shifts > budget) {
+                rebuild();
+                rebuilt = true;
+                break;
+            }
+        }
+        mLastShiftCount = shifts;
+        mLastSortRebuilt = rebuilt;
+
+        // Gather the other edges into the sorted order for the sweep.
+        final float[] top = mTop, right = mRight, bottom = mBottom;
+        final float[] sortedTop = mSortedTop, sortedRight = mSortedRight, sortedBottom = mSortedBottom;
+        float maxWidth = 0;
+        for (int i = 0; i < count; i++) {
+            int id = order[i];
+            sortedTop[i] = top[id];
+            sortedRight[i] = right[id];
+            sortedBottom[i] = bottom[id];
+            maxWidth = Math.max(maxWidth, right[id] - keys[i]);
+        }
+        mMaxWidth = maxWidth;
+    }
+
+    /**
+     * Sorts the boxes afresh by packing each left edge and id into a long, ordered like the
+     * edge, and sorting the longs
+     */
+    private void rebuild() {
+        final int count = mCount;
+        final long[] sortKeys = mSortKeys;
+        final float[] left = mLeft;
+        for (int id = 0; id < count; id++) {
+            // Flip the magnitude bits of negative floats so their bits order as signed ints.
+            int bits = Float.floatToIntBits(left[id]);
+            bits ^= (bits >> 31) & 0x7FFFFFFF;
+            sortKeys[id] = (long) bits << 32 | id;
+        }
+        Arrays.sort(sortKeys, 0, count);
+        for (int i = 0; i < count; i++) {
+            int id = (int) sortKeys[i];
+            mOrder[i] = id;
+            mSortedLeft[i] = left[id];
+        }
+    }
+
+    /**
+     * Sorts the boxes and reports every pair of boxes that overlap or touch
+     * @param listener Receives the pairs
+     * @return The number of pairs
+     */
+    public int findPairs(PairListener listener) {
+        sort();
+
+        final int count = mCount;
+        final int[] order = mOrder;
+        final float[] left = mSortedLeft, top = mSortedTop, right = mSortedRight, bottom = mSortedBottom;
+        int pairs = 0;
+        for (int i = 0; i < count; i++) {
+            float boxRight = right[i], boxTop = top[i], boxBottom = bottom[i];
+            // Only the boxes starting before this one ends can overlap it on the x axis.
+            for (int j = i + 1; j < count && left[j] <= boxRight; j++) {
+                if (top[j] <= boxBottom && bottom[j] >= boxTop) {
+                    listener.onPair(order[i], order[j]);
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Finds the boxes that overlap or touch a rectangle. Call after sort() or findPairs()
+     * has ordered the boxes in their current positions.
+     * @param left The left edge
+     * @param top The top edge
+     * @param right The right edge
+     * @param bottom The bottom edge
+     * @param out Receives the box ids
+     * @return The number of ids found, which may be more than fit in out
+     */
+    public int queryRegion(float left, float top, float right, float bottom, int[] out) {
+        final float[] sortedLeft = mSortedLeft;
+
+        // Find the first box starting far enough right to reach the region.
+        float start = left - mMaxWidth;
+        int low = 0, high = mCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedLeft[middle] < start) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int found = 0;
+        for (int i = low; i < mCount && sortedLeft[i] <= right; i++) {
+            if (mSortedRight[i] >= left && mSortedTop[i] <= bottom && mSortedBottom[i] >= top) {
+                if (found < out.length) {
+                    out[found] = mOrder[i];
+                }
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the number of insertion sort moves the last sort made, small while the boxes
+     * move coherently
+     * @return The shift count
+     */
+    public int getLastShiftCount() {
+        return mLastShiftCount;
+    }
+
+    /**
+     * Returns whether the last sort gave up on the insertion sort and rebuilt the order
+     * @return True if the order was rebuilt
+     */
+    public boolean wasLastSortRebuilt() {
+        return mLastSortRebuilt;
+    }
+}
@@ -0,0 +1,251 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import javax.microedition.khronos.opengles.GL10;
+import android.content.res.AssetManager;
+
+/**
+ * This class loads a texture atlas generated by the atlas-packer module. Every sprite sheet
+ * in app/src/main/atlas is packed into one or more atlas pages with trimmed, deduplicated
+ * frames, so sprites of different types share a texture.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class TextureAtlas {
+
+    /** The file names of the atlas pages */
+    private final ArrayList<String> mPageFiles;
+
+    /** The loaded atlas pages */
+    private GLSprite[] mPages;
+
+    /** The sprites in the atlas by name */
+    private final HashMap<String, Sprite> mSprites;
+
+    /**
+     * Constructs the TextureAtlas from a descriptor without loading the pages
+     * @param descriptor The atlas descriptor
+     * @throws IOException
+     */
+    TextureAtlas(Reader descriptor) throws IOException {
+        mPageFiles = new ArrayList<>();
+        mSprites = new HashMap<>();
+        parse(new BufferedReader(descriptor));
+        mPages = new GLSprite[mPageFiles.size()];
+    }
+
+    /**
+     * Loads the atlas descriptor and its pages
+     * @param gl The GL context
+     * @param path The path of the descriptor
+     * @param assetManager Provides access to an application's raw asset files
+     * @return The texture atlas
+     * @throws IOException
+     */
+    public static TextureAtlas load(GL10 gl, String path, AssetManager assetManager) throws IOException {
+        return load(gl, path, new AssetTextureLoader(assetManager));
+    }
+
+    /**
+     * Loads the atlas descriptor and its pages
+     * @param gl The GL context
+     * @param path The path of the descriptor
+     * @param textureLoader Opens the asset files and uploads their images to textures
+     * @return The texture atlas
+     * @throws IOException
+     */
+    public static TextureAtlas load(GL10 gl, String path, TextureLoader textureLoader) throws IOException {
+        TextureAtlas atlas;
+        Reader reader = new InputStreamReader(textureLoader.open(path));
+        try {
+            atlas = new TextureAtlas(reader);
+        } finally {
+            reader.close();
+        }
+
+        for (int i = 0; i < atlas.mPages.length; i++) {
+            atlas.mPages[i] = new GLSprite(gl, atlas.mPageFiles.get(i), textureLoader);
+        }
+        return atlas;
+    }
+
+    /**
+     * Reads the page, sprite and frame lines of the descriptor
+     */
+    private void parse(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.length() == 0 || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+            try {
+                if (tokens[0].equals("page")) {
+                    mPageFiles.add(Integer.parseInt(tokens[1]), tokens[2]);
+                } else if (tokens[0].equals("sprite")) {
+                    mSprites.put(tokens[1], new Sprite(Integer.parseInt(tokens[2]),
+                            Integer.parseInt(tokens[3]), Integer.parseInt(tokens[4])));
+                } else if (tokens[0].equals("frame")) {
+                    Sprite sprite = mSprites.get(tokens[1]);
+                    int frame = Integer.parseInt(tokens[2]);
+                    for (int i = 0; i < 7; i++) {
+                        sprite.frames[frame * 7 + i] = Integer.parseInt(tokens[3 + i]);
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Bad atlas line: " + line);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the atlas contains a sprite
+     * @param name The sprite name
+     * @return True if the sprite is in the atlas
+     */
+    public boolean contains(String name) {
+        return mSprites.containsKey(name);
+    }
+
+    /**
+     * Returns a sprite sheet holding every frame of a sprite
+     * @param gl The GL context
+     * @param name The sprite name
+     * @return The sprite sheet
+     */
+    public SpriteSheet getSpriteSheet(Object gl, String name) {
+        return new SpriteSheet(gl, this, name);
+    }
+
+    /**
+     * Returns a frame of a sprite
+     * @param gl The GL context
+     * @param name The sprite name
+     * @param frameNumber The frame number
+     * @return The GLSprite representing the frame
+     */
+    public GLSprite getFrame(Object gl, String name, int frameNumber) {
+        Sprite sprite = getSprite(name);
+        int[] f = sprite.frames;
+        int i = frameNumber * 7;
+
+        if (f[i] < 0) { // completely transparent frame
+            return mPages[0].getSubImage(gl, 0, 0, 0, 0, 0, 0, sprite.frameWidth);
+        }
+        return mPages[f[i]].getSubImage(gl, f[i + 1], f[i + 2], f[i + 3], f[i + 4],
+                f[i + 5], f[i + 6], sprite.frameWidth);
+    }
+
+    /**
+     * Copies the rectangle of a frame as seven ints: page, x, y, width, height, offset x and
+     * offset y. A completely transparent frame has page -1 and an empty rectangle.
+     * @param name The sprite name
+     * @param frameNumber The frame number
+     * @param rect The destination array
+     */
+    public void getFrameRect(String name, int frameNumber, int[] rect) {
+        System.arraycopy(getSprite(name).frames, frameNumber * 7, rect, 0, 7);
+    }
+
+    /**
+     * Returns an atlas page
+     * @param index The page index
+     * @return The sprite holding the page texture
+     */
+    public GLSprite getPage(int index) {
+        return mPages[index];
+    }
+
+    /**
+     * Gets the frame width of a sprite before trimming
+     * @param name The sprite name
+     * @return Frame width
+     */
+    public int getFrameWidth(String name) {
+        return getSprite(name).frameWidth;
+    }
+
+    /**
+     * Gets the frame height of a sprite before trimming
+     * @param name The sprite name
+     * @return Frame height
+     */
+    public int getFrameHeight(String name) {
+        return getSprite(name).frameHeight;
+    }
+
+    /**
+     * Gets the number of frames of a sprite
+     * @param name The sprite name
+     * @return Frame count
+     */
+    public int getFrameCount(String name) {
+        return getSprite(name).frameCount;
+    }
+
+    /**
+     * Gets the number of atlas pages
+     * @return Page count
+     */
+    public int getPageCount() {
+        return mPages.length;
+    }
+
+    /**
+     * Sets an atlas page which has already been loaded
+     * @param index The page index
+     * @param page The sprite holding the page texture
+     */
+    void setPage(int index, GLSprite page) {
+        mPages[index] = page;
+    }
+
+    /**
+     * Destroys the page textures
+     * @param gl The GL context
+     */
+    public void destroy(GL10 gl) {
+        for (GLSprite page : mPages) {
+            if (page != null) {
+                page.destroy(gl);
+            }
+        }
+    }
+
+    /**
+     * Returns a sprite or throws if it is not in the atlas
+     */
+    private Sprite getSprite(String name) {
+        Sprite sprite = mSprites.get(name);
+        if (sprite == null) {
+            throw new IllegalArgumentException("Sprite not in atlas: " + name);
+        }
+        return sprite;
+    }
+
+    /**
+     * The frame layout of a sprite. Each frame is stored as seven ints: page, x, y, width,
+     * height, offset x and offset y.
+     */
+    private static final class Sprite {
+        final int frameWidth, frameHeight, frameCount;
+        final int[] frames;
+
+        Sprite(int frameWidth, int frameHeight, int frameCount) {
+            this.frameWidth = frameWidth;
+            this.frameHeight = frameHeight;
+            this.frameCount = frameCount;
+            this.frames = new int[frameCount * 7];
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Opens the game's asset files and uploads images to textures. The Android implementation
+ * reads the APK assets, while a headless implementation lets the sprites and the game panel
+ * run on a plain JVM against a recording GL.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public interface TextureLoader {
+
+    /**
+     * Opens an asset file
+     * @param path The path of the asset
+     * @return The asset contents
+     * @throws IOException
+     */
+    InputStream open(String path) throws IOException;
+
+    /**
+     * Decodes an image and uploads it to the texture bound to GL_TEXTURE_2D
+     * @param gl The GL context
+     * @param path The path of the image
+     * @param size Receives the image width, height and size in bytes
+     * @param mask Receives the rows of the image before the decoded image is released, or
+     *             null if they are not wanted
+     * @return True if the image was uploaded
+     */
+    boolean load(GL10 gl, String path, int[] size, CollisionMaskBuilder mask);
+}
@@ -0,0 +1,235 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * A strip of tiles repeating one frame across a width and height, with the tiles on the
+ * right and bottom edges cropped to fit. The strip is built once at its screen position into
+ * a single vertex buffer and drawn with one glDrawElements call, and is only rebuilt when the
+ * frame, position or size changes, so drawing the same strip every frame allocates nothing
+ * and needs no model view matrix.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+class TiledMesh {
+
+    /** The size of an interleaved vertex in bytes */
+    private static final int VERTEX_STRIDE = FrameMesh.FLOATS_PER_VERTEX * 4;
+
+    /** The asset reported as the owner of the hardware buffers */
+    private final String mOwner;
+
+    /** The frame the strip was built from */
+    private int mFrame = -1;
+
+    /** The position the strip was built at */
+    private float mX, mY;
+
+    /** The size the strip was built to */
+    private float mRepeatWidth, mRepeatHeight;
+
+    /** The quad table */
+    private float[] mVertices;
+
+    /** The number of quads in the strip */
+    private int mQuadCount;
+
+    /** The direct buffer used to upload the strip */
+    private FloatBuffer mVertexBuffer;
+
+    /** The hardware buffer handle */
+    private int mVertBufferIndex;
+
+    /** Are the hardware buffers filled with the current strip */
+    private boolean mUseHardwareBuffers;
+
+    /**
+     * Constructs the TiledMesh
+     * @param owner The asset reported as the owner of the hardware buffers
+     */
+    TiledMesh(String owner) {
+        mOwner = owner;
+    }
+
+    /**
+     * Returns whether the strip was built from a frame at a position to a size
+     * @param frame The frame number
+     * @param x The x coordinate of the strip
+     * @param y The y coordinate of the strip
+     * @param repeatWidth The width of the strip
+     * @param repeatHeight The height of the strip
+     * @return True if the strip matches
+     */
+    boolean matches(int frame, float x, float y, float repeatWidth, float repeatHeight) {
+        return mFrame == frame && mX == x && mY == y
+                && mRepeatWidth == repeatWidth && mRepeatHeight == repeatHeight;
+    }
+
+    /**
+     * Builds the strip by repeating a frame of a texture. The tiles are spaced by the size of
+     * the source frame and the trimmed frame is drawn at its offset within each tile.
+     * @param frame The frame number used as the cache key
+     * @param positionX The x coordinate of the strip on the screen
+     * @param positionY The y coordinate of the strip on the screen
+     * @param textureWidth The texture width
+     * @param textureHeight The texture height
+     * @param x The x coordinate of the frame in the texture
+     * @param y The y coordinate of the frame in the texture
+     * @param w The width of the frame in the texture
+     * @param h The height of the frame in the texture
+     * @param offsetX The x offset of a trimmed frame within its source frame
+     * @param offsetY The y offset of a trimmed frame within its source frame
+     * @param tileWidth The width of the source frame
+     * @param tileHeight The height of the source frame
+     * @param repeatWidth The width to repeat the frame
+     * @param repeatHeight The height to repeat the frame
+     */
+    void build(int frame, float positionX, float positionY, float textureWidth, float textureHeight, float x, float y, float w, float h,
+               float offsetX, float offsetY, float tileWidth, float tileHeight,
+               float repeatWidth, float repeatHeight) {
+        mFrame = frame;
+        mX = positionX;
+        mY = positionY;
+        mRepeatWidth = repeatWidth;
+        mRepeatHeight = repeatHeight;
+
+        int across = tileWidth > 0 ? (int) Math.ceil(repeatWidth / tileWidth) : 0;
+        int down = tileHeight > 0 ? (int) Math.ceil(repeatHeight / tileHeight) : 0;
+        int capacity = Math.min(across * down, SpriteBatch.MAX_QUADS);
+        allocate(capacity);
+
+        int quad = 0;
+        for (int a = 0; a < across; a++) {
+            for (int b = 0; b < down && quad < capacity; b++) {
+                float left = a * tileWidth + offsetX;
+                float top = b * tileHeight + offsetY;
+
+                // Crop the edge tiles to the strip.
+                float subW = Math.min(w, repeatWidth - left);
+                float subH = Math.min(h, repeatHeight - top);
+                if (subW <= 0 || subH <= 0) {
+                    continue;
+                }
+
+                FrameMesh.putQuad(mVertices, quad++, positionX + left, positionY + top, subW, subH,
+                        x / textureWidth, y / textureHeight,
+                        (x + subW) / textureWidth, (y + subH) / textureHeight);
+            }
+        }
+        mQuadCount = quad;
+
+        mVertexBuffer.clear();
+        mVertexBuffer.put(mVertices, 0, quad * FrameMesh.FLOATS_PER_QUAD);
+        mVertexBuffer.position(0);
+        mUseHardwareBuffers = false;
+    }
+
+    /**
+     * Grows the client side arrays to hold a number of quads
+     */
+    private void allocate(int quads) {
+        if (mVertices != null && mVertices.length >= quads * FrameMesh.FLOATS_PER_QUAD) {
+            return;
+        }
+
+        mVertices = new float[quads * FrameMesh.FLOATS_PER_QUAD];
+        mVertexBuffer = ByteBuffer.allocateDirect(mVertices.length * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Draws the strip
+     * @param gl The GL context
+     */
+    void draw(GL10 gl) {
+        if (mQuadCount == 0) {
+            return;
+        }
+
+        generateHardwareBuffers(gl);
+
+        if (mUseHardwareBuffers) {
+            GL11 gl11 = (GL11) gl;
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mVertBufferIndex);
+            gl11.glVertexPointer(2, GL10.GL_FLOAT, VERTEX_STRIDE, 0);
+            gl11.glTexCoordPointer(2, GL10.GL_FLOAT, VERTEX_STRIDE, 2 * 4);
+
+            QuadIndexBuffer.getInstance().bind(gl11, mQuadCount);
+            gl11.glDrawElements(GL11.GL_TRIANGLES, mQuadCount * 6, GL11.GL_UNSIGNED_SHORT, 0);
+        } else {
+            gl.glVertexPointer(2, GL10.GL_FLOAT, VERTEX_STRIDE, mVertexBuffer);
+            mVertexBuffer.position(2);
+            gl.glTexCoordPointer(2, GL10.GL_FLOAT, VERTEX_STRIDE, mVertexBuffer);
+            mVertexBuffer.position(0);
+            gl.glDrawElements(GL10.GL_TRIANGLES, mQuadCount * 6, GL10.GL_UNSIGNED_SHORT,
+                    QuadIndexBuffer.getInstance().getIndices(mQuadCount));
+        }
+    }
+
+    /**
+     * Uploads the strip to a hardware buffer if it has not already been uploaded. The buffer
+     * handle is reused when the strip is rebuilt, and the quads are drawn with the shared
+     * QuadIndexBuffer.
+     * @param gl The GL context
+     */
+    void generateHardwareBuffers(GL10 gl) {
+        if (!mUseHardwareBuffers && gl instanceof GL11) {
+            GL11 gl11 = (GL11) gl;
+            GLResourceRegistry registry = GLResourceRegistry.getInstance();
+            if (mVertBufferIndex == 0) {
+                mVertBufferIndex = registry.genBuffer(gl11, mOwner);
+            }
+
+            int vertexSize = mQuadCount * FrameMesh.FLOATS_PER_QUAD * 4;
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, mVertBufferIndex);
+            gl11.glBufferData(GL11.GL_ARRAY_BUFFER, vertexSize, mVertexBuffer, GL11.GL_STATIC_DRAW);
+            gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
+            registry.setBytes(GLResourceRegistry.BUFFER, mVertBufferIndex, vertexSize);
+
+            mUseHardwareBuffers = true;
+        }
+    }
+
+    /**
+     * When the OpenGL ES device is lost, GL handles become invalidated.
+     * Forget the old handles so new ones are made.
+     */
+    void invalidateHardwareBuffers() {
+        mVertBufferIndex = 0;
+        mUseHardwareBuffers = false;
+    }
+
+    /**
+     * Deletes the hardware buffers allocated by this object (if any).
+     * @param gl The GL context
+     */
+    void releaseHardwareBuffers(GL10 gl) {
+        GLResourceRegistry registry = GLResourceRegistry.getInstance();
+        registry.release(gl, GLResourceRegistry.BUFFER, mVertBufferIndex);
+        invalidateHardwareBuffers();
+    }
+
+    /**
+     * Returns the number of quads in the strip
+     * @return The quad count
+     */
+    int getQuadCount() {
+        return mQuadCount;
+    }
+
+    /**
+     * Returns the quad table, FLOATS_PER_QUAD floats per quad
+     * @return The quad table
+     */
+    float[] getVertices() {
+        return mVertices;
+    }
+}
@@ -0,0 +1,23 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * Receives the touch samples drained from a TouchRingBuffer, one call for each sample in the
+ * order they were recorded.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public interface TouchListener {
+
+    /**
+     * Called for a touch sample
+     * @param action The masked MotionEvent action, ACTION_MOVE for a historical sample
+     * @param x The x coordinate in game resolution
+     * @param y The y coordinate in game resolution
+     * @param time The event time in milliseconds
+     * @param pointerId The id of the pointer
+     */
+    void onTouch(int action, float x, float y, long time, int pointerId);
+}
@@ -0,0 +1,181 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.view.MotionEvent;
+
+/**
+ * Carries touch samples from the UI thread to the thread updating the game without locks or
+ * allocation. Each sample is a record of primitives, the action, position, time and pointer
+ * id, stored at the same index of parallel arrays sized to a power of two and used as a
+ * ring. The UI thread is the only producer and advances the head; the game is the only
+ * consumer and advances the tail, draining every waiting sample in one batch at the start of
+ * a frame.
+ *
+ * A MotionEvent is recorded as its historical samples followed by its current one for every
+ * pointer, so a fast drag arrives with all of the positions the touch screen reported. When
+ * the ring is full further samples are dropped and counted rather than waited for.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public final class TouchRingBuffer {
+
+    /** The sample records */
+    private final int[] mActions, mPointerIds;
+    private final float[] mX, mY;
+    private final long[] mTimes;
+
+    /** The capacity less one, masking a sequence number to an index */
+    private final int mMask;
+
+    /** The sequence number of the next sample written, advanced by the producer */
+    private final AtomicLong mHead = new AtomicLong();
+
+    /** The sequence number of the next sample read, advanced by the consumer */
+    private final AtomicLong mTail = new AtomicLong();
+
+    /** The tail last read by the producer, so it only reads the consumer's counter when full */
+    private long mCachedTail;
+
+    /** The number of samples dropped because the ring was full, counted by the producer */
+    private volatile long mDroppedCount;
+
+    /** Scales screen coordinates to the game resolution, set when the surface changes size */
+    private volatile float mScaleX = 1, mScaleY = 1;
+
+    /**
+     * Constructs the TouchRingBuffer
+     * @param capacity The number of samples held, rounded up to a power of two
+     */
+    public TouchRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mActions = new int[size];
+        mPointerIds = new int[size];
+        mX = new float[size];
+        mY = new float[size];
+        mTimes = new long[size];
+        mMask = size - 1;
+    }
+
+    /**
+     * Sets the scale from screen coordinates to game coordinates
+     * @param scaleX The game width divided by the surface width
+     * @param scaleY The game height divided by the surface height
+     */
+    public void setScale(float scaleX, float scaleY) {
+        mScaleX = scaleX;
+        mScaleY = scaleY;
+    }
+
+    /**
+     * Records the historical and current samples of every pointer of a motion event. Called
+     * by the producer.
+     * @param event The motion event
+     */
+    public void add(MotionEvent event) {
+        float scaleX = mScaleX, scaleY = mScaleY;
+        int action = event.getActionMasked();
+        int actionIndex = event.getActionIndex();
+        int pointers = event.getPointerCount();
+        int history = event.getHistorySize();
+
+        for (int h = 0; h < history; h++) {
+            long time = event.getHistoricalEventTime(h);
+            for (int p = 0; p < pointers; p++) {
+                offer(MotionEvent.ACTION_MOVE, event.getHistoricalX(p, h) * scaleX,
+                        event.getHistoricalY(p, h) * scaleY, time, event.getPointerId(p));
+            }
+        }
+
+        long time = event.getEventTime();
+        for (int p = 0; p < pointers; p++) {
+            // A pointer going down or up moves the others
+            int pointerAction = action;
+            if ((action == MotionEvent.ACTION_POINTER_DOWN || action == MotionEvent.ACTION_POINTER_UP) && p != actionIndex) {
+                pointerAction = MotionEvent.ACTION_MOVE;
+            }
+            offer(pointerAction, event.getX(p) * scaleX, event.getY(p) * scaleY, time, event.getPointerId(p));
+        }
+    }
+
+    /**
+     * Records a sample. Called by the producer.
+     * @param action The masked MotionEvent action
+     * @param x The x coordinate in game resolution
+     * @param y The y coordinate in game resolution
+     * @param time The event time in milliseconds
+     * @param pointerId The id of the pointer
+     * @return False if the ring was full and the sample was dropped
+     */
+    public boolean offer(int action, float x, float y, long time, int pointerId) {
+        long head = mHead.get();
+        if (head - mCachedTail > mMask) {
+            mCachedTail = mTail.get();
+            if (head - mCachedTail > mMask) {
+                mDroppedCount++;
+                return false;
+            }
+        }
+
+        int index = (int) head & mMask;
+        mActions[index] = action;
+        mX[index] = x;
+        mY[index] = y;
+        mTimes[index] = time;
+        mPointerIds[index] = pointerId;
+        // Publish the record after it is written
+        mHead.lazySet(head + 1);
+        return true;
+    }
+
+    /**
+     * Passes every waiting sample to a listener in the order they were recorded. Called by
+     * the consumer.
+     * @param listener Receives the samples
+     * @return The number of samples drained
+     */
+    public int drain(TouchListener listener) {
+        long tail = mTail.get();
+        long head = mHead.get();
+        for (long sequence = tail; sequence < head; sequence++) {
+            int index = (int) sequence & mMask;
+            listener.onTouch(mActions[index], mX[index], mY[index], mTimes[index], mPointerIds[index]);
+        }
+        // Hand the slots back to the producer after they are read
+        mTail.lazySet(head);
+        return (int) (head - tail);
+    }
+
+    /**
+     * Returns the number of samples waiting to be drained
+     * @return The sample count
+     */
+    public int size() {
+        return (int) (mHead.get() - mTail.get());
+    }
+
+    /**
+     * Returns the number of samples the ring holds
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * Returns the number of samples dropped because the ring was full
+     * @return The dropped count
+     */
+    public long getDroppedCount() {
+        return mDroppedCount;
+    }
+}
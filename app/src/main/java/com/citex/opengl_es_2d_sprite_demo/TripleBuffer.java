@@ -0,0 +1,116 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands whole states from one writer thread to one reader thread without locks or waiting.
+ * Of the three buffers the writer owns the back one, the reader owns the front one, and the
+ * third holds the latest state published and not yet taken. Publishing swaps the back buffer
+ * with the middle one, and acquiring swaps the middle buffer with the front one when a newer
+ * state is there, each with a single atomic exchange, so neither side ever sees a buffer the
+ * other is using.
+ *
+ * The writer fills getBack() and calls publish(). The reader calls acquire() and reads the
+ * buffer it returns, which does not change until its next acquire(). A reader slower than the
+ * writer skips the states published between its acquires; a faster one is given the same
+ * state again.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public final class TripleBuffer<T> {
+
+    /** The bits of the shared word holding the index of the middle buffer */
+    private static final int INDEX_MASK = 3;
+
+    /** Set in the shared word while the middle buffer holds a state the reader has not taken */
+    private static final int FRESH = 4;
+
+    /** The three buffers */
+    private final Object[] mBuffers;
+
+    /** The index of the middle buffer and the FRESH flag */
+    private final AtomicInteger mShared = new AtomicInteger(1);
+
+    /** The index of the buffer owned by the writer */
+    private int mBack = 0;
+
+    /** The index of the buffer owned by the reader */
+    private int mFront = 2;
+
+    /** The number of states published, counted by the writer */
+    private long mPublishCount;
+
+    /** The number of new states acquired, counted by the reader */
+    private long mAcquireCount;
+
+    /**
+     * Constructs the TripleBuffer
+     * @param back The buffer first written
+     * @param middle The buffer first exchanged
+     * @param front The buffer returned to the reader until a state is published
+     */
+    public TripleBuffer(T back, T middle, T front) {
+        if (back == null || middle == null || front == null || back == middle || middle == front || back == front) {
+            throw new IllegalArgumentException("three distinct buffers are needed");
+        }
+        mBuffers = new Object[] {back, middle, front};
+    }
+
+    /**
+     * Returns the buffer the writer fills before publishing it
+     * @return The back buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) mBuffers[mBack];
+    }
+
+    /**
+     * Publishes the back buffer and takes a free one in its place. Called by the writer.
+     */
+    public void publish() {
+        mBack = mShared.getAndSet(mBack | FRESH) & INDEX_MASK;
+        mPublishCount++;
+    }
+
+    /**
+     * Takes the latest published state if there is a new one. Called by the reader.
+     * @return The front buffer, holding the latest state
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((mShared.get() & FRESH) != 0) {
+            mFront = mShared.getAndSet(mFront) & INDEX_MASK;
+            mAcquireCount++;
+        }
+        return (T) mBuffers[mFront];
+    }
+
+    /**
+     * Returns the buffer the reader last acquired
+     * @return The front buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        return (T) mBuffers[mFront];
+    }
+
+    /**
+     * Returns the number of states published. Read by the writer.
+     * @return The publish count
+     */
+    public long getPublishCount() {
+        return mPublishCount;
+    }
+
+    /**
+     * Returns the number of new states acquired. Read by the reader.
+     * @return The acquire count
+     */
+    public long getAcquireCount() {
+        return mAcquireCount;
+    }
+}
@@ -0,0 +1,286 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Updates the entities near the player every step and the rest less often. Each step every
+ * entity is given a tier: NEAR when it is on the screen and within a distance of the
+ * player, FAR when it is on the screen beyond that distance, and OFF_SCREEN otherwise. An
+ * entity of a tier is updated once every so many steps, the interval of the tier, and the
+ * time of the steps it skipped is saved in the store and passed to the update that follows,
+ * so it moves and animates as far as it would have step by step, only in larger jumps.
+ *
+ * The steps an entity is updated on are staggered by its index, so of the entities of a tier
+ * with an interval of four a quarter are updated on each step rather than all of them every
+ * fourth step, and the work is spread evenly over the frames. The index is spread over the
+ * steps by the golden ratio rather than taken modulo the interval, so entities whose indices
+ * fall in a regular pattern, every third one far away say, still spread out.
+ *
+ * The scheduler wraps the EntityUpdater doing the work and is itself an EntityUpdater, so it
+ * runs inside a ParallelUpdateStage. It keeps only its settings between the calls for the
+ * chunks of a step and adds up the updates it made and skipped with one atomic add per chunk
+ * and tier.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class UpdateScheduler implements EntityUpdater {
+
+    /** The tiers */
+    public static final int NEAR = 0;
+    public static final int FAR = 1;
+    public static final int OFF_SCREEN = 2;
+    public static final int TIER_COUNT = 3;
+
+    /** The default update intervals of the tiers, in steps */
+    public static final int DEFAULT_NEAR_INTERVAL = 1;
+    public static final int DEFAULT_FAR_INTERVAL = 2;
+    public static final int DEFAULT_OFF_SCREEN_INTERVAL = 8;
+
+    /** The default distance from the player within which an entity is near */
+    public static final float DEFAULT_NEAR_DISTANCE = 160;
+
+    /** 2^32 divided by the golden ratio, spreading the indices evenly over the steps */
+    private static final long GOLDEN_RATIO = 0x9E3779B9L;
+
+    /** The number of entities counted in a long before the counts are added to the totals */
+    private static final int COUNT_BLOCK = 1 << 20;
+
+    /** Updates the entities when they are due */
+    private final EntityUpdater mUpdater;
+
+    /** The entity size */
+    private final float mEntityWidth, mEntityHeight;
+
+    /** The number of steps between the updates of an entity of each tier */
+    private final int[] mIntervals = {DEFAULT_NEAR_INTERVAL, DEFAULT_FAR_INTERVAL, DEFAULT_OFF_SCREEN_INTERVAL};
+
+    /** The step number modulo the interval of each tier, for the step being run */
+    private final int[] mPhases = new int[TIER_COUNT];
+
+    /** The distance within which an entity is near, squared */
+    private float mNearDistanceSquared = DEFAULT_NEAR_DISTANCE * DEFAULT_NEAR_DISTANCE;
+
+    /** The screen rectangle */
+    private float mViewLeft, mViewTop, mViewRight, mViewBottom;
+
+    /** The position the distances are measured from, the center of the player */
+    private float mFocusX, mFocusY;
+
+    /** The number of steps begun */
+    private long mStep;
+
+    /** The entities updated and skipped in each tier this step, updated counts first */
+    private final AtomicIntegerArray mCounts = new AtomicIntegerArray(TIER_COUNT * 2);
+
+    /**
+     * Constructs the UpdateScheduler
+     * @param updater Updates the entities when they are due
+     * @param entityWidth The entity width
+     * @param entityHeight The entity height
+     */
+    public UpdateScheduler(EntityUpdater updater, float entityWidth, float entityHeight) {
+        mUpdater = updater;
+        mEntityWidth = entityWidth;
+        mEntityHeight = entityHeight;
+        mViewRight = Float.POSITIVE_INFINITY;
+        mViewBottom = Float.POSITIVE_INFINITY;
+        mViewLeft = Float.NEGATIVE_INFINITY;
+        mViewTop = Float.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Sets how often the entities of a tier are updated
+     * @param tier NEAR, FAR or OFF_SCREEN
+     * @param interval The number of steps between updates, 1 for every step
+     */
+    public void setInterval(int tier, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval");
+        }
+        mIntervals[tier] = interval;
+    }
+
+    /**
+     * Returns how often the entities of a tier are updated
+     * @param tier NEAR, FAR or OFF_SCREEN
+     * @return The number of steps between updates
+     */
+    public int getInterval(int tier) {
+        return mIntervals[tier];
+    }
+
+    /**
+     * Sets the distance from the player within which an entity on the screen is near
+     * @param distance The distance between the centers
+     */
+    public void setNearDistance(float distance) {
+        mNearDistanceSquared = distance * distance;
+    }
+
+    /**
+     * Sets the screen rectangle an entity must overlap to be visible
+     * @param left The left edge
+     * @param top The top edge
+     * @param right The right edge
+     * @param bottom The bottom edge
+     */
+    public void setViewport(float left, float top, float right, float bottom) {
+        mViewLeft = left;
+        mViewTop = top;
+        mViewRight = right;
+        mViewBottom = bottom;
+    }
+
+    /**
+     * Starts a step, before the entities are updated
+     * @param focusX The x coordinate distances are measured from, the center of the player
+     * @param focusY The y coordinate distances are measured from
+     */
+    public void beginStep(float focusX, float focusY) {
+        mStep++;
+        mFocusX = focusX;
+        mFocusY = focusY;
+        for (int tier = 0; tier < TIER_COUNT; tier++) {
+            mPhases[tier] = (int) (mStep % mIntervals[tier]);
+            mCounts.set(tier, 0);
+            mCounts.set(TIER_COUNT + tier, 0);
+        }
+    }
+
+    /**
+     * Returns the tier of an entity
+     * @param x The x coordinate of the entity
+     * @param y The y coordinate of the entity
+     * @return NEAR, FAR or OFF_SCREEN
+     */
+    public int getTier(float x, float y) {
+        if (x > mViewRight || x + mEntityWidth < mViewLeft || y > mViewBottom || y + mEntityHeight < mViewTop) {
+            return OFF_SCREEN;
+        }
+        float dx = x + mEntityWidth / 2 - mFocusX;
+        float dy = y + mEntityHeight / 2 - mFocusY;
+        return dx * dx + dy * dy <= mNearDistanceSquared ? NEAR : FAR;
+    }
+
+    @Override
+    public void update(EntityStore store, int from, int to, float dt) {
+        final float[] x = store.getX(), y = store.getY(), pending = store.getPendingTimes();
+        final int[] intervals = mIntervals, phases = mPhases;
+        final float viewLeft = mViewLeft - mEntityWidth, viewTop = mViewTop - mEntityHeight;
+        final float viewRight = mViewRight, viewBottom = mViewBottom;
+        final float focusX = mFocusX - mEntityWidth / 2, focusY = mFocusY - mEntityHeight / 2;
+        final float nearDistanceSquared = mNearDistanceSquared;
+
+        // The entities seen and updated in each tier, counted in 21 bit fields of a long and
+        // added to the totals every million entities, before a field can overflow
+        long seen = 0, updated = 0;
+
+        // Hand the due entities to the updater in runs which have waited the same time.
+        int runStart = from;
+        float runTime = 0;
+        for (int i = from; i < to; i++) {
+            if ((i - from & COUNT_BLOCK - 1) == COUNT_BLOCK - 1) {
+                addCounts(seen, updated);
+                seen = 0;
+                updated = 0;
+            }
+            float entityX = x[i], entityY = y[i];
+            float dx = entityX - focusX, dy = entityY - focusY;
+            // Non short circuit tests, leaving one branch to predict rather than four
+            boolean onScreen = entityX <= viewRight & entityX >= viewLeft & entityY <= viewBottom & entityY >= viewTop;
+            int tier = onScreen ? (dx * dx + dy * dy <= nearDistanceSquared ? NEAR : FAR) : OFF_SCREEN;
+            int field = tier * 21;
+            seen += 1L << field;
+
+            // The fraction of i times the golden ratio, scaled to the interval, is the step of the cycle it is due on.
+            float time = pending[i] + dt;
+            int offset = (int) (((i * GOLDEN_RATIO) & 0xFFFFFFFFL) * intervals[tier] >>> 32);
+            if (offset != phases[tier]) {
+                pending[i] = time;
+                if (runStart < i) {
+                    mUpdater.update(store, runStart, i, runTime);
+                }
+                runStart = i + 1;
+                continue;
+            }
+
+            pending[i] = 0;
+            updated += 1L << field;
+            if (time != runTime) {
+                if (runStart < i) {
+                    mUpdater.update(store, runStart, i, runTime);
+                }
+                runStart = i;
+                runTime = time;
+            }
+        }
+        if (runStart < to) {
+            mUpdater.update(store, runStart, to, runTime);
+        }
+        addCounts(seen, updated);
+    }
+
+    /**
+     * Adds the counts of a block of entities to the totals of the step
+     * @param seen The entities of each tier, in 21 bit fields
+     * @param updated The entities of each tier updated, in 21 bit fields
+     */
+    private void addCounts(long seen, long updated) {
+        for (int tier = 0; tier < TIER_COUNT; tier++) {
+            int tierSeen = (int) (seen >>> tier * 21) & 0x1FFFFF;
+            int tierUpdated = (int) (updated >>> tier * 21) & 0x1FFFFF;
+            if (tierUpdated != 0) {
+                mCounts.addAndGet(tier, tierUpdated);
+            }
+            if (tierSeen != tierUpdated) {
+                mCounts.addAndGet(TIER_COUNT + tier, tierSeen - tierUpdated);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entities of a tier updated in the last step
+     * @param tier NEAR, FAR or OFF_SCREEN
+     * @return The updated count
+     */
+    public int getUpdatedCount(int tier) {
+        return mCounts.get(tier);
+    }
+
+    /**
+     * Returns the number of entities of a tier whose update was skipped in the last step
+     * @param tier NEAR, FAR or OFF_SCREEN
+     * @return The skipped count
+     */
+    public int getSkippedCount(int tier) {
+        return mCounts.get(TIER_COUNT + tier);
+    }
+
+    /**
+     * Returns the number of entity updates skipped in the last step
+     * @return The skipped count of every tier
+     */
+    public int getSkippedCount() {
+        int skipped = 0;
+        for (int tier = 0; tier < TIER_COUNT; tier++) {
+            skipped += getSkippedCount(tier);
+        }
+        return skipped;
+    }
+
+    /**
+     * Returns the share of the entity updates skipped in the last step
+     * @return 0 when every entity was updated, up to 1 when none was
+     */
+    public float getSkippedFraction() {
+        int updated = 0;
+        for (int tier = 0; tier < TIER_COUNT; tier++) {
+            updated += getUpdatedCount(tier);
+        }
+        int skipped = getSkippedCount();
+        return updated + skipped == 0 ? 0 : (float) skipped / (updated + skipped);
+    }
+}
@@ -0,0 +1,240 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Declares the attributes of the vertices of a Grid up front: the number and type of the
+ * position components, the type of the texture coordinates and the type of the color. Only
+ * the declared attributes are stored, interleaved in one array with each attribute at a
+ * fixed offset in a vertex and each vertex padded to a multiple of four bytes, so a grid
+ * uploads and binds a single vertex buffer.
+ *
+ * FLOAT and FIXED are the original three position components and two texture coordinates.
+ * FLOAT_2D drops the always zero z of a sprite quad and is what sprites are drawn with: its
+ * float texture coordinates need no texture matrix. The packed formats keep two GL_SHORT
+ * position components, which hold the whole pixel offsets of a sprite exactly, and texture
+ * coordinates scaled to the range of their integer type. OpenGL ES 1.x does not normalise integer texture coordinates, so a grid drawing a
+ * packed format scales them back through the texture matrix, and uses GL_BYTE rather than
+ * GL_UNSIGNED_BYTE, which glTexCoordPointer does not accept. A packed color is four
+ * normalised GL_UNSIGNED_BYTE components. The game draws nothing packed, as the texture
+ * matrix calls around each packed draw cost more than the smaller vertices save for a quad;
+ * they are kept for meshes with many vertices and measured by VertexFormatBenchmark.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public final class VertexFormat {
+
+    /** Three float positions and two float texture coordinates */
+    public static final VertexFormat FLOAT = new VertexFormat(3, GL10.GL_FLOAT, GL10.GL_FLOAT, 0);
+
+    /** Two float positions and two float texture coordinates */
+    public static final VertexFormat FLOAT_2D = new VertexFormat(2, GL10.GL_FLOAT, GL10.GL_FLOAT, 0);
+
+    /** Three float positions, two float texture coordinates and a float color */
+    public static final VertexFormat FLOAT_COLOR = new VertexFormat(3, GL10.GL_FLOAT, GL10.GL_FLOAT, GL10.GL_FLOAT);
+
+    /** Three 16.16 fixed point positions and texture coordinates */
+    public static final VertexFormat FIXED = new VertexFormat(3, GL10.GL_FIXED, GL10.GL_FIXED, 0);
+
+    /** Two short positions and two short texture coordinates */
+    public static final VertexFormat PACKED = new VertexFormat(2, GL10.GL_SHORT, GL10.GL_SHORT, 0);
+
+    /** Two short positions, two short texture coordinates and an RGBA8 color */
+    public static final VertexFormat PACKED_COLOR = new VertexFormat(2, GL10.GL_SHORT, GL10.GL_SHORT, GL10.GL_UNSIGNED_BYTE);
+
+    /** Two short positions and two byte texture coordinates, for grids mapping whole textures */
+    public static final VertexFormat PACKED_BYTE = new VertexFormat(2, GL10.GL_SHORT, GL10.GL_BYTE, 0);
+
+    /** The number of position components */
+    private final int mPositionSize;
+
+    /** The GL types of the attributes, with 0 for an attribute which is not declared */
+    private final int mPositionType, mTexCoordType, mColorType;
+
+    /** The offsets of the attributes within a vertex and the size of a vertex in bytes */
+    private final int mTexCoordOffset, mColorOffset, mStride;
+
+    /**
+     * Constructs the VertexFormat
+     * @param positionSize The number of position components, 2 or 3
+     * @param positionType The GL type of the positions
+     * @param texCoordType The GL type of the texture coordinates, or 0 for none
+     * @param colorType The GL type of the color, or 0 for none
+     */
+    public VertexFormat(int positionSize, int positionType, int texCoordType, int colorType) {
+        if (positionSize < 2 || positionSize > 3) {
+            throw new IllegalArgumentException("positionSize");
+        }
+
+        mPositionSize = positionSize;
+        mPositionType = positionType;
+        mTexCoordType = texCoordType;
+        mColorType = colorType;
+
+        // Keep every attribute on a four byte boundary.
+        mTexCoordOffset = align(positionSize * sizeOf(positionType));
+        mColorOffset = mTexCoordOffset + align(getTexCoordBytes());
+        mStride = mColorOffset + align(getColorBytes());
+    }
+
+    /**
+     * Rounds a size up to a multiple of four bytes
+     */
+    private static int align(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    /**
+     * Returns the size in bytes of a component of a GL type
+     * @param type The GL type
+     * @return The size in bytes
+     */
+    public static int sizeOf(int type) {
+        switch (type) {
+            case GL10.GL_BYTE:
+            case GL10.GL_UNSIGNED_BYTE:
+                return 1;
+            case GL10.GL_SHORT:
+                return 2;
+            case GL10.GL_FIXED:
+            case GL10.GL_FLOAT:
+                return 4;
+            default:
+                throw new IllegalArgumentException("type");
+        }
+    }
+
+    /**
+     * Returns the number of position components
+     * @return 2 or 3
+     */
+    public int getPositionSize() {
+        return mPositionSize;
+    }
+
+    /**
+     * Returns the GL type of the positions
+     * @return The GL type
+     */
+    public int getPositionType() {
+        return mPositionType;
+    }
+
+    /**
+     * Returns the GL type of the texture coordinates
+     * @return The GL type, or 0 when the format has no texture coordinates
+     */
+    public int getTexCoordType() {
+        return mTexCoordType;
+    }
+
+    /**
+     * Returns the GL type of the color
+     * @return The GL type, or 0 when the format has no color
+     */
+    public int getColorType() {
+        return mColorType;
+    }
+
+    /**
+     * Returns whether the format has texture coordinates
+     * @return True if texture coordinates are stored per vertex
+     */
+    public boolean hasTexCoords() {
+        return mTexCoordType != 0;
+    }
+
+    /**
+     * Returns whether the format has a color
+     * @return True if a color is stored per vertex
+     */
+    public boolean hasColor() {
+        return mColorType != 0;
+    }
+
+    /**
+     * Returns the value a texture coordinate of one is stored as, which the texture matrix
+     * divides by when it is not one
+     * @return The texture coordinate scale
+     */
+    public float getTexCoordScale() {
+        switch (mTexCoordType) {
+            case GL10.GL_SHORT:
+                return Short.MAX_VALUE;
+            case GL10.GL_BYTE:
+                return Byte.MAX_VALUE;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Returns the size in bytes of the texture coordinates of a vertex
+     * @return The size in bytes, or 0 when the format has no texture coordinates
+     */
+    public int getTexCoordBytes() {
+        return hasTexCoords() ? 2 * sizeOf(mTexCoordType) : 0;
+    }
+
+    /**
+     * Returns the size in bytes of the color of a vertex
+     * @return The size in bytes, or 0 when the format has no color
+     */
+    public int getColorBytes() {
+        return hasColor() ? 4 * sizeOf(mColorType) : 0;
+    }
+
+    /**
+     * Returns the offset of the texture coordinates within a vertex
+     * @return The offset in bytes
+     */
+    public int getTexCoordOffset() {
+        return mTexCoordOffset;
+    }
+
+    /**
+     * Returns the offset of the color within a vertex
+     * @return The offset in bytes
+     */
+    public int getColorOffset() {
+        return mColorOffset;
+    }
+
+    /**
+     * Returns the size in bytes of a whole vertex including its padding, which is the stride
+     * between vertices
+     * @return The size in bytes
+     */
+    public int getStride() {
+        return mStride;
+    }
+
+    @Override
+    public String toString() {
+        return mPositionSize + "x" + typeName(mPositionType) + " " + typeName(mTexCoordType)
+                + " " + typeName(mColorType) + " (" + mStride + " bytes)";
+    }
+
+    /**
+     * Returns a short name for a GL type
+     */
+    private static String typeName(int type) {
+        switch (type) {
+            case GL10.GL_BYTE:
+                return "byte";
+            case GL10.GL_UNSIGNED_BYTE:
+                return "ubyte";
+            case GL10.GL_SHORT:
+                return "short";
+            case GL10.GL_FIXED:
+                return "fixed";
+            case GL10.GL_FLOAT:
+                return "float";
+            default:
+                return "-";
+        }
+    }
+}
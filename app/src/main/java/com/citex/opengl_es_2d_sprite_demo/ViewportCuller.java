@@ -0,0 +1,122 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * Tests sprite bounds against the visible rectangle of the virtual resolution so sprites
+ * which are entirely off the screen never reach GL. Single sprites are tested one at a time
+ * as they are submitted, and runs of sprites sharing a size are tested in one pass over
+ * primitive position arrays which neither allocates nor branches per sprite. The number of
+ * sprites drawn and culled is counted per frame.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class ViewportCuller {
+
+    /** The visible rectangle */
+    private float mLeft, mTop, mRight, mBottom;
+
+    /** The sprites drawn and culled in the current frame */
+    private int mDrawnCount, mCulledCount;
+
+    /** The sprites drawn and culled in the last complete frame */
+    private int mLastFrameDrawnCount, mLastFrameCulledCount;
+
+    /**
+     * Constructs the ViewportCuller
+     * @param width The width of the visible rectangle
+     * @param height The height of the visible rectangle
+     */
+    public ViewportCuller(float width, float height) {
+        setViewport(0, 0, width, height);
+    }
+
+    /**
+     * Sets the visible rectangle, such as the view of a scrolling scene
+     * @param left The left edge
+     * @param top The top edge
+     * @param right The right edge
+     * @param bottom The bottom edge
+     */
+    public void setViewport(float left, float top, float right, float bottom) {
+        mLeft = left;
+        mTop = top;
+        mRight = right;
+        mBottom = bottom;
+    }
+
+    /**
+     * Tests a sprite against the visible rectangle and counts it as drawn or culled
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param width The sprite width
+     * @param height The sprite height
+     * @return True if any part of the sprite is visible
+     */
+    public boolean isVisible(float x, float y, float width, float height) {
+        boolean visible = x < mRight && x + width > mLeft && y < mBottom && y + height > mTop;
+        if (visible) {
+            mDrawnCount++;
+        } else {
+            mCulledCount++;
+        }
+        return visible;
+    }
+
+    /**
+     * Tests a run of sprites sharing a size against the visible rectangle and writes the
+     * indices of the visible ones in order. The loop writes every index and only advances
+     * past the visible ones, so it has no branch per sprite.
+     * @param x The x coordinates
+     * @param y The y coordinates
+     * @param count The number of sprites
+     * @param width The sprite width
+     * @param height The sprite height
+     * @param visible Receives the visible indices, at least count long
+     * @return The number of visible sprites
+     */
+    public int cull(float[] x, float[] y, int count, float width, float height, int[] visible) {
+        // Shift the rectangle by the size so each sprite is tested by its position alone.
+        final float left = mLeft - width, top = mTop - height;
+        final float right = mRight, bottom = mBottom;
+
+        int visibleCount = 0;
+        for (int i = 0; i < count; i++) {
+            float px = x[i];
+            float py = y[i];
+            visible[visibleCount] = i;
+            visibleCount += (px < right & px > left & py < bottom & py > top) ? 1 : 0;
+        }
+
+        mDrawnCount += visibleCount;
+        mCulledCount += count - visibleCount;
+        return visibleCount;
+    }
+
+    /**
+     * Finishes the frame and resets the counts
+     */
+    public void endFrame() {
+        mLastFrameDrawnCount = mDrawnCount;
+        mLastFrameCulledCount = mCulledCount;
+        mDrawnCount = 0;
+        mCulledCount = 0;
+    }
+
+    /**
+     * Returns the number of sprites drawn in the last complete frame
+     * @return The drawn count
+     */
+    public int getLastFrameDrawnCount() {
+        return mLastFrameDrawnCount;
+    }
+
+    /**
+     * Returns the number of sprites culled in the last complete frame
+     * @return The culled count
+     */
+    public int getLastFrameCulledCount() {
+        return mLastFrameCulledCount;
+    }
+}
@@ -0,0 +1,50 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures advancing the animation of 100k entities playing a mix of looping, one shot and
+ * ping pong clips in one pass, and the bytes allocated while doing it. Run the main method.
+ */
+public class AnimationBenchmark {
+
+    private static final int ENTITIES = 100000;
+    private static final int ROUNDS = 200;
+    private static final float DT = FixedTimestep.DEFAULT_STEP;
+
+    public static void main(String[] args) {
+        AnimationLibrary library = new AnimationLibrary();
+        int[] clips = {
+                library.addClip("enemy", "walk", 0, 8, 183.3f, AnimationLibrary.LOOP),
+                library.addClip("enemy", "die", 0, 8, 50, AnimationLibrary.ONCE),
+                library.addClip("enemy", "sway", 0, 4, 120, AnimationLibrary.PING_PONG),
+                library.addClip("player", "run", 11, 3, 183.3f, AnimationLibrary.LOOP)};
+
+        EntityStore store = new EntityStore(ENTITIES);
+        for (int i = 0; i < ENTITIES; i++) {
+            int index = store.indexOf(store.add(i, i));
+            store.setClip(index, clips[(i * 7) % clips.length]);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long total = 0, allocated = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            library.advance(store, 0, store.size(), DT);
+            long time = System.nanoTime() - start;
+            if (round >= ROUNDS / 2) {
+                total += time;
+                allocated += threads.getThreadAllocatedBytes(thread) - bytes;
+            }
+        }
+
+        int measured = ROUNDS - ROUNDS / 2;
+        System.out.printf("%d entities  %.3f ms per pass  %.2f ns per entity  %d bytes allocated%n",
+                ENTITIES, total / 1e6 / measured, (double) total / measured / ENTITIES, allocated);
+        System.out.println(store.getFrames()[ENTITIES - 1]);
+    }
+}
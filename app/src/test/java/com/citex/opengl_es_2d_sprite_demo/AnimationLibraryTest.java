@@ -0,0 +1,91 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the frames each loop mode shows over time, the parsing of clip files, and that
+ * enemies added at different times play their clips apart.
+ */
+public class AnimationLibraryTest {
+
+    /** Returns the frames shown at each step of 10ms through a clip */
+    private static int[] playFrames(AnimationLibrary library, int clip, int steps) {
+        short[] clips = {(short) clip};
+        float[] times = new float[1];
+        int[] frames = new int[steps];
+        int[] frame = new int[1];
+        for (int i = 0; i < steps; i++) {
+            library.advance(clips, times, frame, 0, 1, i == 0 ? 0 : 10);
+            frames[i] = frame[0];
+        }
+        return frames;
+    }
+
+    @Test
+    public void advance_followsLoopMode() {
+        AnimationLibrary library = new AnimationLibrary();
+        int loop = library.addClip("enemy", "walk", 4, 3, 10, AnimationLibrary.LOOP);
+        int once = library.addClip("enemy", "die", 4, 3, 10, AnimationLibrary.ONCE);
+        int pingPong = library.addClip("enemy", "sway", 4, 3, 10, AnimationLibrary.PING_PONG);
+
+        assertArrayEquals(new int[] {4, 5, 6, 4, 5, 6, 4, 5}, playFrames(library, loop, 8));
+        assertArrayEquals(new int[] {4, 5, 6, 6, 6, 6, 6, 6}, playFrames(library, once, 8));
+        assertArrayEquals(new int[] {4, 5, 6, 5, 4, 5, 6, 5}, playFrames(library, pingPong, 8));
+
+        // A long way in, a looping cursor stays within the clip.
+        float time = library.advanceTime(loop, 0, 1000005);
+        assertEquals(15, time, 0.5f);
+        assertEquals(5, library.getFrame(loop, time));
+    }
+
+    @Test
+    public void parse_readsClipsBySpriteSheet() throws IOException {
+        AnimationLibrary library = new AnimationLibrary();
+        library.parse(new BufferedReader(new StringReader(
+                "# comment\nplayer run 11 3 183.3 loop\n\nblock shimmer 0 4 100 pingpong\n")));
+
+        assertEquals(2, library.getClipCount());
+        int run = library.getClip("player", "run");
+        assertEquals(AnimationLibrary.LOOP, library.getLoopMode(run));
+        assertEquals(183.3f, library.getFrameDuration(run), 0);
+        assertEquals(AnimationLibrary.PING_PONG, library.getLoopMode(library.getClip("block", "shimmer")));
+
+        try {
+            library.getClip("block", "run");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            library.parse(new BufferedReader(new StringReader("player run 11 3 183.3 backwards\n")));
+            fail();
+        } catch (IOException e) {
+            assertEquals("Bad clip line: player run 11 3 183.3 backwards", e.getMessage());
+        }
+    }
+
+    @Test
+    public void paintComponent_animatesEachEnemyFromWhenItWasAdded() throws Exception {
+        HeadlessGLSurface surface = HeadlessGLSurface.startGame();
+        GamePanel gamePanel = surface.getGamePanel();
+
+        gamePanel.addEnemy(100, 100);
+        for (int frame = 0; frame < 24; frame++) {
+            gamePanel.paintComponent(surface.getGL(), FixedTimestep.DEFAULT_STEP);
+        }
+        gamePanel.addEnemy(200, 100);
+        gamePanel.paintComponent(surface.getGL(), FixedTimestep.DEFAULT_STEP);
+
+        // 25 steps of the 183ms walk clip is frame 2, one step is frame 0.
+        GameSnapshot snapshot = gamePanel.getSnapshots().getFront();
+        assertEquals(2, snapshot.getEnemyCount());
+        assertEquals(2, snapshot.getEnemyFrames()[0]);
+        assertEquals(0, snapshot.getEnemyFrames()[1]);
+    }
+}
@@ -0,0 +1,119 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the packing of image alpha into frame shapes and tight boxes, the word-wide overlap
+ * test against a test of every pixel, and the shapes of the game's sprites.
+ */
+public class CollisionMaskTest {
+
+    private static final int OPAQUE = 0xFF000000;
+
+    /** Packs a random image with a solid pixel of about one in density */
+    private static CollisionMaskBuilder randomImage(Random random, int width, int height, int density) {
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = random.nextInt(density) == 0 ? OPAQUE | random.nextInt(0xFFFFFF) : 0x7F00FF00;
+        }
+        CollisionMaskBuilder builder = new CollisionMaskBuilder();
+        builder.setPixels(argb, width, height);
+        return builder;
+    }
+
+    @Test
+    public void setFrame_packsAlphaWithTightBoundsFacingEachWay() {
+        // A 70 pixel wide frame spans two words, with the shape trimmed and offset into it.
+        int[] argb = new int[8 * 4];
+        argb[1 * 8 + 2] = OPAQUE;
+        argb[3 * 8 + 6] = 0x80FFFFFF;
+        argb[2 * 8 + 4] = 0x7FFFFFFF; // below the threshold
+        CollisionMaskBuilder image = new CollisionMaskBuilder();
+        image.setPixels(argb, 8, 4);
+        assertTrue(image.isSolid(2, 1));
+        assertTrue(image.isSolid(6, 3));
+        assertFalse(image.isSolid(4, 2));
+        assertFalse(image.isSolid(-1, 0));
+
+        CollisionMask mask = new CollisionMask(70, 10, 2);
+        mask.setFrame(1, image, 0, 0, 8, 4, 60, 5);
+
+        int[] bounds = new int[4];
+        mask.getBounds(1, 'l', bounds);
+        assertArrayEquals(new int[] {62, 6, 66, 8}, bounds);
+        mask.getBounds(1, 'r', bounds);
+        assertArrayEquals(new int[] {3, 6, 7, 8}, bounds);
+        assertTrue(mask.isSolid(1, 'l', 62, 6));
+        assertTrue(mask.isSolid(1, 'l', 66, 8));
+        assertTrue(mask.isSolid(1, 'r', 7, 6));
+        assertTrue(mask.isSolid(1, 'r', 3, 8));
+        assertFalse(mask.isSolid(1, 'l', 63, 6));
+
+        // Frame 0 was never set and touches nothing.
+        mask.getBounds(0, 'l', bounds);
+        assertTrue(bounds[0] > bounds[2]);
+        assertFalse(mask.overlaps(0, 'l', 0, 0, mask, 0, 'l', 0, 0));
+        assertTrue(mask.overlaps(1, 'l', 0, 0, mask, 1, 'r', 63, 0));
+        assertFalse(mask.overlaps(1, 'l', 0, 0, mask, 1, 'r', 62, 0));
+    }
+
+    @Test
+    public void overlaps_matchesPixelTestAtEveryAlignment() {
+        Random random = new Random(17);
+        CollisionMask small = new CollisionMask(48, 48, 3);
+        CollisionMask wide = new CollisionMask(100, 40, 3);
+        for (int frame = 0; frame < 3; frame++) {
+            small.setFrame(frame, randomImage(random, 40, 44, 40), 0, 0, 40, 44, 4, 2);
+            wide.setFrame(frame, randomImage(random, 100, 40, 60), 0, 0, 100, 40, 0, 0);
+        }
+
+        char[] directions = {'l', 'r'};
+        for (int test = 0; test < 3000; test++) {
+            CollisionMask a = random.nextBoolean() ? small : wide;
+            CollisionMask b = random.nextBoolean() ? small : wide;
+            int frameA = random.nextInt(3), frameB = random.nextInt(3);
+            char directionA = directions[random.nextInt(2)], directionB = directions[random.nextInt(2)];
+            int bx = random.nextInt(240) - 120, by = random.nextInt(100) - 50;
+
+            boolean expected = false;
+            for (int y = 0; y < a.getFrameHeight() && !expected; y++) {
+                for (int x = 0; x < a.getFrameWidth() && !expected; x++) {
+                    expected = a.isSolid(frameA, directionA, x, y) && b.isSolid(frameB, directionB, x - bx, y - by);
+                }
+            }
+            assertEquals(expected, a.overlaps(frameA, directionA, 0, 0, b, frameB, directionB, bx, by));
+            assertEquals(expected, b.overlaps(frameB, directionB, bx + 7, by - 3, a, frameA, directionA, 7, -3));
+        }
+    }
+
+    @Test
+    public void spriteSheets_cutMasksSmallerThanTheirFrames() throws Exception {
+        HeadlessGLSurface surface = HeadlessGLSurface.startGame();
+        GamePanel gamePanel = surface.getGamePanel();
+
+        // The enemy frames have transparent padding inside their 48x48 rectangles.
+        TextureAtlas atlas = TextureAtlas.load(surface.getGL(), "atlas.txt", HeadlessTextureLoader.forSourceAssets());
+        CollisionMask mask = atlas.getSpriteSheet(surface.getGL(), "enemy").getCollisionMask();
+        assertNotNull(mask);
+        int[] bounds = new int[4];
+        mask.getBounds(0, 'r', bounds);
+        int width = bounds[2] - bounds[0] + 1, height = bounds[3] - bounds[1] + 1;
+        assertTrue(width > 0 && width < 48 && height > 0 && height <= 48);
+
+        // Frames whose rectangles overlap only in the padding are not flagged.
+        gamePanel.addEnemy(100, 100);
+        gamePanel.addEnemy(100 + 47, 100);
+        gamePanel.paintComponent(surface.getGL(), FixedTimestep.DEFAULT_STEP);
+        assertEquals(1, gamePanel.getEnemyBroadphase().findPairs(new PairListener() {
+            @Override
+            public void onPair(int first, int second) {
+            }
+        }));
+        assertEquals(0, gamePanel.getEnemyCollisionCount());
+        assertEquals(0, gamePanel.getEnemies().getFlags()[0]);
+    }
+}
@@ -1,7 +1,8 @@
 package com.citex.opengl_es_2d_sprite_demo;
 
 /**
- * This stores the enemy positions.
+ * This stores the enemy positions. The game has stored them in an EntityStore since, and the
+ * class is kept as the object per enemy baseline of EntityStoreBenchmark.
  *
  *  @version 1.0
  *  @modified 29/10/2023
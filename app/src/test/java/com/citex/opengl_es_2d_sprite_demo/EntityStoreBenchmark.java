@@ -0,0 +1,110 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compares an ArrayList of EnemyPosition objects with an EntityStore: the cost of moving every
+ * entity once and of removing and adding a tenth of them, at 10k and 100k entities. Run the
+ * main method.
+ */
+public class EntityStoreBenchmark {
+
+    private static final int[] COUNTS = {10000, 100000};
+    private static final int ROUNDS = 50;
+    private static final float DT = 16;
+
+    private static float sSink;
+
+    public static void main(String[] args) {
+        for (int count : COUNTS) {
+            long listUpdate = 0, storeUpdate = 0, listChurn = 0, storeChurn = 0;
+            ArrayList<EnemyPosition> list = createList(count);
+            EntityStore store = createStore(count);
+            Random random = new Random(1);
+
+            for (int round = 0; round < ROUNDS; round++) {
+                boolean measure = round >= ROUNDS / 2;
+
+                long start = System.nanoTime();
+                updateList(list);
+                long listTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                store.integrate(DT);
+                long storeTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                churnList(list, random);
+                long listChurnTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                churnStore(store, random);
+                long storeChurnTime = System.nanoTime() - start;
+
+                if (measure) {
+                    listUpdate += listTime;
+                    storeUpdate += storeTime;
+                    listChurn += listChurnTime;
+                    storeChurn += storeChurnTime;
+                }
+            }
+
+            int measured = ROUNDS - ROUNDS / 2;
+            System.out.printf("%6d entities  update list %7.2f ms  store %7.2f ms   churn list %8.2f ms  store %6.2f ms%n",
+                    count, listUpdate / 1e6 / measured, storeUpdate / 1e6 / measured,
+                    listChurn / 1e6 / measured, storeChurn / 1e6 / measured);
+        }
+        System.out.println(sSink);
+    }
+
+    private static ArrayList<EnemyPosition> createList(int count) {
+        ArrayList<EnemyPosition> list = new ArrayList<EnemyPosition>(count);
+        for (int i = 0; i < count; i++) {
+            EnemyPosition position = new EnemyPosition();
+            position.x = i;
+            position.y = i;
+            list.add(position);
+        }
+        return list;
+    }
+
+    private static EntityStore createStore(int count) {
+        EntityStore store = new EntityStore(count);
+        for (int i = 0; i < count; i++) {
+            store.setVelocity(store.indexOf(store.add(i, i)), 0.15f, 0.05f);
+        }
+        return store;
+    }
+
+    private static void updateList(ArrayList<EnemyPosition> list) {
+        for (EnemyPosition position : list) {
+            position.x += 0.15f * DT;
+            position.y += 0.05f * DT;
+        }
+        sSink += list.get(0).x;
+    }
+
+    private static void churnList(ArrayList<EnemyPosition> list, Random random) {
+        int churn = list.size() / 10;
+        for (int i = 0; i < churn; i++) {
+            list.remove(random.nextInt(list.size()));
+        }
+        for (int i = 0; i < churn; i++) {
+            EnemyPosition position = new EnemyPosition();
+            position.x = i;
+            list.add(position);
+        }
+    }
+
+    private static void churnStore(EntityStore store, Random random) {
+        int churn = store.size() / 10;
+        for (int i = 0; i < churn; i++) {
+            store.remove(store.getHandle(random.nextInt(store.size())));
+        }
+        for (int i = 0; i < churn; i++) {
+            store.add(i, 0);
+        }
+        sSink += store.getX()[0];
+    }
+}
@@ -0,0 +1,69 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the entity store keeps its arrays dense and its handles valid as entities are
+ * added and removed.
+ */
+public class EntityStoreTest {
+
+    @Test
+    public void remove_movesLastEntityAndKeepsItsHandle() {
+        EntityStore store = new EntityStore(4);
+        int a = store.add(1, 10);
+        int b = store.add(2, 20);
+        int c = store.add(3, 30);
+
+        assertTrue(store.remove(a));
+        assertEquals(2, store.size());
+        // The last entity fills the hole, and its handle follows it.
+        assertEquals(0, store.indexOf(c));
+        assertEquals(3, store.getX()[0], 0);
+        assertEquals(30, store.getY()[0], 0);
+        assertEquals(1, store.indexOf(b));
+        assertEquals(c, store.getHandle(0));
+        assertFalse(store.contains(a));
+        assertFalse(store.remove(a));
+    }
+
+    @Test
+    public void add_reusedSlotMakesOldHandleStale() {
+        EntityStore store = new EntityStore(1);
+        int first = store.add(5, 5);
+        store.remove(first);
+
+        int second = store.add(6, 6);
+        assertNotEquals(first, second);
+        assertEquals(EntityStore.NONE, store.indexOf(first));
+        assertEquals(0, store.indexOf(second));
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertFalse(store.contains(second));
+        assertEquals(EntityStore.NONE, store.indexOf(EntityStore.NONE));
+    }
+
+    @Test
+    public void add_growsPastCapacityAndIntegratesEveryEntity() {
+        EntityStore store = new EntityStore(2);
+        int[] handles = new int[100];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = store.add(i, 0);
+            store.setVelocity(store.indexOf(handles[i]), 1, 2);
+        }
+        for (int i = 0; i < handles.length; i += 2) {
+            store.remove(handles[i]);
+        }
+
+        store.integrate(10);
+        assertEquals(50, store.size());
+        for (int i = 1; i < handles.length; i += 2) {
+            int index = store.indexOf(handles[i]);
+            assertEquals(i + 10, store.getX()[index], 0);
+            assertEquals(20, store.getY()[index], 0);
+        }
+    }
+}
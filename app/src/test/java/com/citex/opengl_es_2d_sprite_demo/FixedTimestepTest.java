@@ -0,0 +1,58 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the fixed timestep runs whole steps for the frame time, caps the catch up
+ * after a slow frame and runs the game at the same pace whatever the frame rate.
+ */
+public class FixedTimestepTest {
+
+    @Test
+    public void advance_carriesRemainderIntoAlpha() {
+        FixedTimestep timestep = new FixedTimestep(10, 5);
+
+        assertEquals(0, timestep.advance(4));
+        assertEquals(0.4f, timestep.getAlpha(), 1e-5f);
+        assertEquals(1, timestep.advance(9));
+        assertEquals(0.3f, timestep.getAlpha(), 1e-5f);
+        assertEquals(0, timestep.advance(-20));
+        assertEquals(0.3f, timestep.getAlpha(), 1e-5f);
+    }
+
+    @Test
+    public void advance_capsCatchUpAndDiscardsTheRest() {
+        FixedTimestep timestep = new FixedTimestep(10, 5);
+
+        assertEquals(5, timestep.advance(1005));
+        assertEquals(950, timestep.getDroppedTime(), 1e-3f);
+        assertEquals(0.5f, timestep.getAlpha(), 1e-5f);
+        // The next frame is back to normal rather than paying for the stall.
+        assertEquals(1, timestep.advance(10));
+        assertEquals(6, timestep.getStepCount());
+    }
+
+    @Test
+    public void paintComponent_movesPlayerAtSamePaceAtAnyFrameRate() throws Exception {
+        FixedTimestep fast = runGame(120);
+        FixedTimestep slow = runGame(20);
+
+        assertEquals(fast.getStepCount(), slow.getStepCount(), 1);
+        assertEquals(3, slow.getLastFrameSteps());
+        assertEquals(0, slow.getDroppedTime(), 0);
+    }
+
+    /**
+     * Draws one second of the game at a frame rate and returns its timestep
+     */
+    private static FixedTimestep runGame(int framesPerSecond) throws Exception {
+        HeadlessGLSurface surface = HeadlessGLSurface.startGame();
+        GamePanel gamePanel = surface.getGamePanel();
+        for (int frame = 0; frame < framesPerSecond; frame++) {
+            gamePanel.paintComponent(surface.getGL(), 1000f / framesPerSecond);
+        }
+        return gamePanel.getTimestep();
+    }
+}
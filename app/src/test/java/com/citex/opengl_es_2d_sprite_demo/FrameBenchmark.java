@@ -0,0 +1,42 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * Measures the CPU cost of a game frame against the headless recording GL, along with the
+ * GL calls, draw calls and buffer uploads per frame. Run the main method with the app module
+ * as the working directory.
+ */
+public class FrameBenchmark {
+
+    private static final int WARMUP_FRAMES = 500;
+    private static final int FRAMES = 2000;
+
+    public static void main(String[] args) throws Exception {
+        for (int enemies : new int[] {0, 1000, 10000}) {
+            run(enemies);
+        }
+    }
+
+    private static void run(int enemies) throws Exception {
+        HeadlessGLSurface surface = HeadlessGLSurface.startGame();
+        RecordingGL recorder = surface.getRecorder();
+        for (int i = 0; i < enemies; i++) {
+            surface.getGamePanel().addEnemy((i * 7) % 480, (i * 13) % 272);
+        }
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            surface.drawFrame();
+        }
+        recorder.reset();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            surface.drawFrame();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%6d enemies: %8.1f us/frame %6d calls/frame %4d draws/frame %8.1f KB uploaded/frame%n",
+                enemies, elapsed / 1e3 / FRAMES, recorder.getCallCount() / FRAMES,
+                recorder.getDrawCallCount() / FRAMES, recorder.getBufferUploadBytes() / 1024.0 / FRAMES);
+        surface.finish();
+    }
+}
@@ -0,0 +1,111 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the game headless through the GLES 2.0 renderer and checks that it only uses the
+ * shader pipeline.
+ */
+public class GLES20RendererTest {
+
+    /** Fixed function calls which must not be made on a GLES 2.0 context */
+    private static final String[] FIXED_FUNCTION = {
+            "glMatrixMode", "glPushMatrix", "glTranslatef", "glRotatef", "glOrthof", "glTexEnvf",
+            "glVertexPointer", "glTexCoordPointer", "glEnableClientState", "glTexParameteriv"};
+
+    private RecordingGL mRecorder;
+    private GLES20Renderer mRenderer;
+    private HeadlessGLSurface mSurface;
+
+    @Before
+    public void setUp() throws Exception {
+        mRecorder = new RecordingGL();
+        mRenderer = new GLES20Renderer(HeadlessTextureLoader.forSourceAssets(), RecordingGL.create20(mRecorder));
+    }
+
+    private void assertNoFixedFunctionCalls() {
+        for (String name : FIXED_FUNCTION) {
+            assertEquals(name, 0, mRecorder.getCallCount(name));
+        }
+    }
+
+    @Test
+    public void start_loadsTexturesAndLinksShader() {
+        mSurface = HeadlessGLSurface.startGame(mRenderer, mRecorder);
+
+        assertEquals(5, mRecorder.getLiveTextures());
+        assertEquals(1, mRecorder.getCallCount("glLinkProgram"));
+        assertEquals(1, mRecorder.getLiveCount("Programs"));
+        assertEquals(0, mRecorder.getLiveCount("Shaders"));
+        assertNoFixedFunctionCalls();
+    }
+
+    @Test
+    public void drawFrame_drawsEachTextureOnceWithoutMatrixStack() {
+        mSurface = HeadlessGLSurface.startGame(mRenderer, mRecorder);
+        for (int i = 0; i < 1000; i++) {
+            mRenderer.getGamePanel().addEnemy(i % 480, i % 272);
+        }
+        mSurface.drawFrame();
+        mRecorder.reset();
+
+        ViewportCuller culler = mRenderer.getGamePanel().getCuller();
+        int expected = 0;
+        for (int frame = 0; frame < 60; frame++) {
+            mSurface.drawFrame();
+            // The player is culled on frames it spends off the screen.
+            expected += culler.getLastFrameCulledCount() == 0 ? 5 : 4;
+        }
+
+        // background, moon, player, enemies and terrain strip
+        assertEquals(expected, mRecorder.getDrawCallCount());
+        assertEquals(0, mRecorder.getCallCount("glDrawArrays"));
+        assertEquals(0, mRecorder.getCallCount("glUniformMatrix4fv"));
+        assertNoFixedFunctionCalls();
+    }
+
+    @Test
+    public void drawRotated_writesPivotOffsetAndRotation() {
+        GL20 gl20 = RecordingGL.create20(mRecorder);
+        GL11 gl = GL20Adapter.create(gl20);
+        SpriteSheet moon = new SpriteSheet(gl, new GLSprite(gl, 9, 32, 32), 32, 32, 1);
+        GLES20RenderBackend backend = new GLES20RenderBackend(gl20, gl, 16);
+
+        // Drawing only calls the GL20; the GL10 argument is not used.
+        backend.begin(null);
+        backend.drawRotated(moon, 0, false, 90, 430, 25, 16, 16);
+        backend.end();
+
+        IntBuffer vertices = (IntBuffer) mRecorder.getLastArgs("glBufferData")[2];
+        float[] vertex = new float[GLES20RenderBackend.WORDS_PER_VERTEX];
+        for (int i = 0; i < 7; i++) {
+            vertex[i] = Float.intBitsToFloat(vertices.get(i));
+        }
+        // The top left corner is 16,16 from the pivot at the sprite's centre.
+        assertArrayEquals(new float[] {446, 41, -16, -16, 0, 0, (float) Math.PI / 2},
+                Arrays.copyOf(vertex, 7), 0.0001f);
+        assertEquals(1, backend.getDrawCallCount());
+    }
+
+    @Test
+    public void finish_deletesEveryObject() {
+        mSurface = HeadlessGLSurface.startGame(mRenderer, mRecorder);
+        mRenderer.getGamePanel().addEnemy(100, 100);
+        for (int frame = 0; frame < 10; frame++) {
+            mSurface.drawFrame();
+        }
+        mSurface.finish();
+
+        assertEquals(0, mRecorder.getLiveTextures());
+        assertEquals(0, mRecorder.getLiveBuffers());
+        assertEquals(0, mRecorder.getLiveCount("Programs"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks reference counting, bulk release and leak reports of the GL resource registry.
+ */
+public class GLResourceRegistryTest {
+
+    private RecordingGL mRecorder;
+    private GL11 mGL;
+    private GLResourceRegistry mRegistry;
+
+    @Before
+    public void setUp() {
+        mRecorder = new RecordingGL();
+        mGL = RecordingGL.create(mRecorder);
+        mRegistry = GLResourceRegistry.getInstance();
+        mRegistry.invalidateAll();
+    }
+
+    @Test
+    public void clonedSprites_shareTextureUntilLastIsDestroyed() {
+        GLSprite sheet = new GLSprite(mGL, 9, 32, 512);
+        GLSprite frame = sheet.getSubImage(mGL, 0, 32, 32, 32);
+        assertEquals(2, mRegistry.getReferences(GLResourceRegistry.TEXTURE, 9));
+
+        sheet.destroy(mGL);
+        assertEquals(0, mRecorder.getCallCount("glDeleteTextures"));
+        assertEquals(1, mRegistry.getReferences(GLResourceRegistry.TEXTURE, 9));
+
+        frame.destroy(mGL);
+        assertEquals(1, mRecorder.getCallCount("glDeleteTextures"));
+        assertEquals(0, mRegistry.getLiveCount(GLResourceRegistry.TEXTURE));
+        assertEquals(0, mRegistry.getLiveCount(GLResourceRegistry.BUFFER));
+    }
+
+    @Test
+    public void releaseAll_deletesEveryLiveHandle() {
+        GLSprite sheet = new GLSprite(mGL, 9, 64, 1024);
+        new SpriteSheet(mGL, sheet, 48, 48, 8);
+        int buffers = mRecorder.getLiveBuffers();
+        assertTrue(buffers > 0);
+        assertEquals(buffers, mRegistry.getLiveCount(GLResourceRegistry.BUFFER));
+
+        assertEquals(buffers + 1, mRegistry.releaseAll(mGL));
+        assertEquals(0, mRecorder.getLiveBuffers());
+        assertEquals(1, mRecorder.getCallCount("glDeleteTextures"));
+        assertEquals(0, mRegistry.getLiveBytes());
+    }
+
+    @Test
+    public void leakReport_listsOwnerAndCreationSite() {
+        GLSprite sheet = new GLSprite(mGL, 9, 64, 1024);
+        mRegistry.setTrackingSites(true);
+        try {
+            new SpriteSheet(mGL, sheet, 48, 48, 8);
+        } finally {
+            mRegistry.setTrackingSites(false);
+        }
+
+        // Only the handles tracked while sites were on list where they were created.
+        String report = mRegistry.getLeakReport();
+        assertTrue(report.contains("texture 9 refs=1"));
+        assertTrue(report.contains("owner=texture 9"));
+        assertTrue(report.contains("FrameMesh.generateHardwareBuffers"));
+        assertTrue(report.contains("SpriteSheet.<init>"));
+        assertFalse(report.contains("GLSprite.<init>"));
+    }
+
+    @Test
+    public void spriteOnRegisteredTexture_keepsOwnerAndCreationSite() {
+        mRegistry.setTrackingSites(true);
+        int texture;
+        try {
+            texture = mRegistry.genTexture(mGL, "terrain cache");
+        } finally {
+            mRegistry.setTrackingSites(false);
+        }
+
+        GLSprite sprite = new GLSprite(mGL, texture, 16, 16, "terrain cache");
+        assertEquals(1, mRegistry.getReferences(GLResourceRegistry.TEXTURE, texture));
+        String report = mRegistry.getLeakReport();
+        assertTrue(report.contains("texture " + texture + " refs=1"));
+        assertTrue(report.contains("owner=terrain cache"));
+        assertTrue(report.contains("GLResourceRegistryTest.spriteOnRegisteredTexture"));
+
+        sprite.destroy(mGL);
+        assertEquals(1, mRecorder.getCallCount("glDeleteTextures"));
+        assertEquals(0, mRegistry.getLiveCount(GLResourceRegistry.TEXTURE));
+    }
+
+    @Test
+    public void liveBytes_stayFlatWhileDrawing() {
+        GLSprite sheet = new GLSprite(mGL, 9, 16, 64);
+        SpriteSheet blocks = new SpriteSheet(mGL, sheet, 16, 16, 4);
+        SpriteBatch batch = new SpriteBatch(64);
+        for (int frame = 0; frame < 4; frame++) {
+            blocks.drawFrame(mGL, frame, 0, 256, 480, 16);
+        }
+        batch.begin(mGL);
+        blocks.drawFrame(batch, 0, 'r', 10, 10);
+        batch.end();
+        long bytes = mRegistry.getLiveBytes();
+
+        for (int frame = 0; frame < 10 * 60 * 60; frame++) {
+            blocks.drawFrame(mGL, (frame / 10) % 4, 0, 256, 480, 16);
+            batch.begin(mGL);
+            blocks.drawFrame(batch, frame % 4, 'r', 10, 10);
+            batch.end();
+            blocks.drawFrame(mGL, frame % 4, 'l', 10, 10);
+            assertEquals(bytes, mRegistry.getLiveBytes());
+        }
+
+        blocks.destroy(mGL);
+        batch.releaseHardwareBuffers(mGL);
+        QuadIndexBuffer.getInstance().releaseHardwareBuffers(mGL);
+        assertEquals(0, mRegistry.getLiveCount(GLResourceRegistry.BUFFER));
+        assertEquals(0, mRegistry.getLiveBytes());
+    }
+}
@@ -0,0 +1,108 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the game headless through the renderer and checks its uploads and draw calls.
+ */
+public class GamePanelTest {
+
+    private HeadlessGLSurface mSurface;
+    private RecordingGL mRecorder;
+
+    @Before
+    public void setUp() throws Exception {
+        mSurface = HeadlessGLSurface.startGame();
+        mRecorder = mSurface.getRecorder();
+    }
+
+    @Test
+    public void start_uploadsEachPageOnce() {
+
+        // background 512x256, block 16x64, enemy 64x1024, moon 32x32, player 32x512
+        assertEquals(5, mRecorder.getLiveTextures());
+        assertEquals((512 * 256 + 16 * 64 + 64 * 1024 + 32 * 32 + 32 * 512) * 4,
+                mRecorder.getTextureUploadBytes());
+    }
+
+    @Test
+    public void drawFrame_drawsEnemiesInOneCall() {
+        for (int i = 0; i < 1000; i++) {
+            mSurface.getGamePanel().addEnemy(i % 480, i % 272);
+        }
+        mSurface.drawFrame();
+        mRecorder.reset();
+
+        ViewportCuller culler = mSurface.getGamePanel().getCuller();
+        int expected = 0;
+        for (int frame = 0; frame < 60; frame++) {
+            mSurface.drawFrame();
+            // The player is culled on frames it spends off the screen.
+            expected += culler.getLastFrameCulledCount() == 0 ? 5 : 4;
+        }
+
+        // background, moon, player, enemy batch and terrain strip
+        assertEquals(expected, mRecorder.getDrawCallCount());
+        assertEquals(0, mRecorder.getTextureUploadBytes());
+    }
+
+    @Test
+    public void drawFrame_leavesMatrixStackAlone() {
+        mSurface.getGamePanel().addEnemy(100, 100);
+        mSurface.drawFrame();
+        mRecorder.reset();
+
+        for (int frame = 0; frame < 60; frame++) {
+            mSurface.drawFrame();
+        }
+
+        // Only sizeChanged sets up the projection, sprites are placed on the CPU.
+        assertEquals(0, mRecorder.getCallCount("glPushMatrix"));
+        assertEquals(0, mRecorder.getCallCount("glTranslatef"));
+        assertEquals(0, mRecorder.getCallCount("glRotatef"));
+    }
+
+    @Test
+    public void simulate_keepsEnemyHashInStepWithStore() {
+        GamePanel gamePanel = mSurface.getGamePanel();
+        int first = gamePanel.addEnemy(100, 100);
+        int second = gamePanel.addEnemy(200, 100);
+        int third = gamePanel.addEnemy(300, 100);
+        EntityStore enemies = gamePanel.getEnemies();
+        enemies.setVelocity(enemies.indexOf(third), -0.5f, 0.25f);
+
+        // Removing the first enemy moves the third into its index.
+        assertTrue(gamePanel.removeEnemy(first));
+        assertFalse(gamePanel.removeEnemy(first));
+        for (int frame = 0; frame < 60; frame++) {
+            gamePanel.simulate(FixedTimestep.DEFAULT_STEP);
+        }
+
+        SpatialHash hash = gamePanel.getEnemyHash();
+        int[] hashIds = enemies.getSpatialIds();
+        assertEquals(2, enemies.size());
+        assertEquals(2, hash.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            assertEquals(enemies.getX()[i], hash.getX(hashIds[i]), 0);
+            assertEquals(enemies.getY()[i], hash.getY(hashIds[i]), 0);
+        }
+        int moved = enemies.indexOf(third);
+        assertTrue(enemies.getX()[moved] < 300 - 24);
+        assertEquals(1, enemies.indexOf(second));
+    }
+
+    @Test
+    public void finish_deletesEveryHandle() {
+        mSurface.getGamePanel().addEnemy(100, 100);
+        for (int frame = 0; frame < 10; frame++) {
+            mSurface.drawFrame();
+        }
+        mSurface.finish();
+
+        assertEquals(0, mRecorder.getLiveTextures());
+        assertEquals(0, mRecorder.getLiveBuffers());
+    }
+}
@@ -0,0 +1,129 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a grid stores, uploads and draws its vertices in the layout of its format.
+ */
+public class GridTest {
+
+    private RecordingGL mRecorder;
+    private GL11 mGL;
+
+    @Before
+    public void setUp() {
+        mRecorder = new RecordingGL();
+        mGL = RecordingGL.create(mRecorder);
+    }
+
+    private Grid createQuad(VertexFormat format) {
+        Grid grid = new Grid(2, 2, format);
+        grid.set(0, 0, 3, 7, 0, 0, 0, null);
+        grid.set(1, 0, 35, 7, 0, 0, 0.5f, null);
+        grid.set(0, 1, 3, 39, 0, 0.25f, 0, null);
+        grid.set(1, 1, 35, 39, 0, 0.25f, 0.5f, null);
+        return grid;
+    }
+
+    @Test
+    public void generateHardwareBuffers_uploadsOnlyDeclaredAttributesInOneBuffer() {
+        createQuad(VertexFormat.FLOAT_COLOR).generateHardwareBuffers(mGL);
+        assertEquals(1, mRecorder.getCallCount("glGenBuffers"));
+        // 4 vertices of 12 position, 8 texture coordinate and 16 color bytes
+        assertEquals(4 * (12 + 8 + 16), mRecorder.getBufferUploadBytes());
+
+        mRecorder.reset();
+        createQuad(VertexFormat.FLOAT).generateHardwareBuffers(mGL);
+        assertEquals(4 * (12 + 8), mRecorder.getBufferUploadBytes());
+
+        mRecorder.reset();
+        createQuad(VertexFormat.FLOAT_2D).generateHardwareBuffers(mGL);
+        assertEquals(4 * (8 + 8), mRecorder.getBufferUploadBytes());
+
+        mRecorder.reset();
+        createQuad(VertexFormat.PACKED).generateHardwareBuffers(mGL);
+        assertEquals(1, mRecorder.getCallCount("glGenBuffers"));
+        assertEquals(4 * (4 + 4), mRecorder.getBufferUploadBytes());
+
+        // Byte texture coordinates are padded to keep each vertex on a four byte boundary.
+        assertEquals(8, VertexFormat.PACKED_BYTE.getStride());
+        assertEquals(12, VertexFormat.PACKED_COLOR.getStride());
+    }
+
+    @Test
+    public void draw_bindsOneInterleavedBuffer() {
+        Grid grid = createQuad(VertexFormat.PACKED_COLOR);
+        grid.generateHardwareBuffers(mGL);
+        mRecorder.reset();
+
+        grid.draw(mGL, true, true);
+        assertArrayEquals(new Object[] {2, GL10.GL_SHORT, 12, 0}, mRecorder.getLastArgs("glVertexPointer"));
+        assertArrayEquals(new Object[] {2, GL10.GL_SHORT, 12, 4}, mRecorder.getLastArgs("glTexCoordPointer"));
+        assertArrayEquals(new Object[] {4, GL10.GL_UNSIGNED_BYTE, 12, 8}, mRecorder.getLastArgs("glColorPointer"));
+        // The vertex buffer and the shared quad indices
+        assertEquals(2, mRecorder.getCallCount("glBindBuffer"));
+
+        mRecorder.reset();
+        grid.draw(mGL, true, false);
+        assertEquals(0, mRecorder.getCallCount("glColorPointer"));
+    }
+
+    @Test
+    public void draw_packedFormatScalesTexCoordsThroughTextureMatrix() {
+        Grid grid = createQuad(VertexFormat.PACKED);
+        grid.generateHardwareBuffers(mGL);
+        mRecorder.reset();
+
+        grid.draw(mGL, true, false);
+        assertArrayEquals(new Object[] {1f / Short.MAX_VALUE, 1f / Short.MAX_VALUE, 1f},
+                mRecorder.getLastArgs("glScalef"));
+        assertEquals(GL10.GL_PROJECTION, mRecorder.getLastArgs("glMatrixMode")[0]);
+
+        Grid floats = createQuad(VertexFormat.FLOAT_2D);
+        floats.generateHardwareBuffers(mGL);
+        mRecorder.reset();
+        floats.draw(mGL, true, false);
+        assertEquals(0, mRecorder.getCallCount("glMatrixMode"));
+    }
+
+    @Test
+    public void draw_formatWithoutTexCoordsSetsNoTexCoordPointer() {
+        Grid grid = createQuad(new VertexFormat(2, GL10.GL_FLOAT, 0, 0));
+        grid.generateHardwareBuffers(mGL);
+        mRecorder.reset();
+
+        grid.draw(mGL, true, false);
+        grid.draw(mGL, new QuadTransform());
+        assertEquals(0, mRecorder.getCallCount("glTexCoordPointer"));
+        assertEquals(2, mRecorder.getCallCount("glDisableClientState"));
+        assertEquals(2, mRecorder.getCallCount("glEnableClientState"));
+        assertEquals(GL10.GL_TEXTURE_COORD_ARRAY, mRecorder.getLastArgs("glEnableClientState")[0]);
+    }
+
+    @Test
+    public void draw_transformReadsPackedPositions() {
+        QuadTransform transform = new QuadTransform();
+        transform.setTranslation(100, 200);
+
+        for (VertexFormat format : new VertexFormat[] {VertexFormat.FLOAT, VertexFormat.FLOAT_2D,
+                VertexFormat.FLOAT_COLOR, VertexFormat.FIXED, VertexFormat.PACKED, VertexFormat.PACKED_COLOR, VertexFormat.PACKED_BYTE}) {
+            Grid grid = createQuad(format);
+            grid.generateHardwareBuffers(mGL);
+            grid.draw(mGL, transform);
+
+            FloatBuffer positions = (FloatBuffer) mRecorder.getLastArgs("glVertexPointer")[3];
+            assertEquals(format.toString(), 3 + 200, positions.get(0), 0);
+            assertEquals(format.toString(), 7 + 100, positions.get(1), 0);
+            assertEquals(format.toString(), 35 + 200, positions.get(6), 0);
+            assertEquals(format.toString(), 39 + 100, positions.get(7), 0);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.io.IOException;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Drives a GLSurfaceView.Renderer against a RecordingGL in the same order as
+ * GLSurfaceView.GLThread, without EGL or a surface. Used to run the game on a plain JVM
+ * for tests and CPU frame cost benchmarks.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class HeadlessGLSurface {
+
+    /** The surface size the game is started at by startGame */
+    public static final int WIDTH = 800, HEIGHT = 480;
+
+    /** The renderer being driven */
+    private final GLSurfaceView.Renderer mRenderer;
+
+    /** The recorder behind the GL passed to the renderer */
+    private final RecordingGL mRecorder;
+
+    /** The GL passed to the renderer */
+    private final GL10 mGL;
+
+    /** The surface size */
+    private final int mWidth, mHeight;
+
+    /**
+     * Constructs the HeadlessGLSurface
+     * @param renderer The renderer to drive
+     * @param recorder The recorder receiving the GL calls
+     * @param width The surface width
+     * @param height The surface height
+     */
+    public HeadlessGLSurface(GLSurfaceView.Renderer renderer, RecordingGL recorder, int width, int height) {
+        this(renderer, recorder, null, width, height);
+    }
+
+    /**
+     * Constructs the HeadlessGLSurface with a wrapper between the renderer and the recorder,
+     * as installed on a device with GLSurfaceView.setGLWrapper
+     * @param renderer The renderer to drive
+     * @param recorder The recorder receiving the GL calls
+     * @param wrapper The wrapper around the recording GL or null
+     * @param width The surface width
+     * @param height The surface height
+     */
+    public HeadlessGLSurface(GLSurfaceView.Renderer renderer, RecordingGL recorder,
+                             GLSurfaceView.GLWrapper wrapper, int width, int height) {
+        mRenderer = renderer;
+        mRecorder = recorder;
+        GL10 gl = RecordingGL.create(recorder);
+        mGL = wrapper != null ? (GL10) wrapper.wrap(gl) : gl;
+        mWidth = width;
+        mHeight = height;
+    }
+
+    /**
+     * Starts the game from the source assets on a new recording surface
+     * @return The started surface
+     * @throws IOException If the source assets cannot be read
+     */
+    public static HeadlessGLSurface startGame() throws IOException {
+        return startGame(new GLSurfaceViewRenderer(HeadlessTextureLoader.forSourceAssets()));
+    }
+
+    /**
+     * Starts the game from the source assets on a surface recording into a recorder set up
+     * by the caller, such as with the extensions to report
+     * @param recorder The recorder receiving the GL calls
+     * @return The started surface
+     * @throws IOException If the source assets cannot be read
+     */
+    public static HeadlessGLSurface startGame(RecordingGL recorder) throws IOException {
+        return startGame(new GLSurfaceViewRenderer(HeadlessTextureLoader.forSourceAssets()), recorder);
+    }
+
+    /**
+     * Starts the game on a new recording surface with a renderer set up by the caller
+     * @param renderer The renderer to drive
+     * @return The started surface
+     */
+    public static HeadlessGLSurface startGame(GLSurfaceViewRenderer renderer) {
+        return startGame(renderer, new RecordingGL());
+    }
+
+    /**
+     * Starts the game with a renderer and recorder set up by the caller
+     * @param renderer The renderer to drive
+     * @param recorder The recorder receiving the GL calls
+     * @return The started surface
+     */
+    public static HeadlessGLSurface startGame(GLSurfaceViewRenderer renderer, RecordingGL recorder) {
+        HeadlessGLSurface surface = new HeadlessGLSurface(renderer, recorder, WIDTH, HEIGHT);
+        surface.start();
+        return surface;
+    }
+
+    /**
+     * Tells the renderer the surface was created and sized, as the GL thread does before
+     * drawing the first frame
+     */
+    public void start() {
+        mRenderer.surfaceCreated(mGL);
+        mRenderer.sizeChanged(mGL, mWidth, mHeight);
+    }
+
+    /**
+     * Draws a frame
+     */
+    public void drawFrame() {
+        mRenderer.drawFrame(mGL);
+    }
+
+    /**
+     * Tells the renderer the GL thread is shutting down
+     */
+    public void finish() {
+        mRenderer.shutdown(mGL);
+    }
+
+    /**
+     * Returns the GL passed to the renderer
+     * @return The GL context
+     */
+    public GL10 getGL() {
+        return mGL;
+    }
+
+    /**
+     * Returns the game panel of a GLSurfaceViewRenderer being driven
+     * @return The game panel or null before the surface is started
+     */
+    public GamePanel getGamePanel() {
+        return ((GLSurfaceViewRenderer) mRenderer).getGamePanel();
+    }
+
+    /**
+     * Returns the recorder behind the GL
+     * @return The recorder
+     */
+    public RecordingGL getRecorder() {
+        return mRecorder;
+    }
+}
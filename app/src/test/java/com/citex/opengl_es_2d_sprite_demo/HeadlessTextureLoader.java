@@ -0,0 +1,147 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Loads assets from the source tree for headless runs. The size is read from the PNG header
+ * and an empty RGBA texture of that size is uploaded, so the recording GL sees the same
+ * upload sizes as a device. Images are decoded only to pack their collision masks.
+ */
+class HeadlessTextureLoader implements TextureLoader {
+
+    /** The source assets, relative to the app module */
+    static final File ASSETS = new File("src/main/assets");
+
+    /** The sprite sheets the atlas is packed from, relative to the app module */
+    static final File SHEETS = new File("src/main/atlas");
+
+    /** The frame layout of the sprite sheets */
+    static final File FRAMES = new File(SHEETS, "frames.txt");
+
+    private final File mRoot;
+    private final Map<String, byte[]> mFiles = new HashMap<>();
+
+    HeadlessTextureLoader(File root) {
+        mRoot = root;
+    }
+
+    /**
+     * Creates a loader for the source sheets with an atlas descriptor which places every
+     * sprite sheet on its own page, untrimmed, so the game can run without the packer output.
+     * Files which are not sheets, such as the animation clips, are read from the assets.
+     */
+    static HeadlessTextureLoader forSourceAssets() throws IOException {
+        HeadlessTextureLoader loader = new HeadlessTextureLoader(SHEETS);
+        Map<String, int[]> layouts = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new FileReader(FRAMES));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens.length >= 4 && !tokens[0].startsWith("#")) {
+                    layouts.put(tokens[0], new int[] {Integer.parseInt(tokens[1]),
+                            Integer.parseInt(tokens[2]), Integer.parseInt(tokens[3])});
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        StringBuilder atlas = new StringBuilder();
+        String[] images = SHEETS.list();
+        Arrays.sort(images);
+        int page = 0;
+        int[] size = new int[2];
+        for (String image : images) {
+            if (!image.endsWith(".png")) {
+                continue;
+            }
+            readSize(new File(SHEETS, image), size);
+            int[] layout = layouts.containsKey(image) ? layouts.get(image) : new int[] {size[0], size[1], 1};
+            String name = image.substring(0, image.length() - 4);
+            int rows = size[1] / layout[1];
+
+            atlas.append("page ").append(page).append(' ').append(image).append(' ')
+                    .append(size[0]).append(' ').append(size[1]).append('\n');
+            atlas.append("sprite ").append(name).append(' ').append(layout[0]).append(' ')
+                    .append(layout[1]).append(' ').append(layout[2]).append('\n');
+            for (int f = 0; f < layout[2]; f++) {
+                atlas.append("frame ").append(name).append(' ').append(f).append(' ').append(page)
+                        .append(' ').append((f / rows) * layout[0]).append(' ').append((f % rows) * layout[1])
+                        .append(' ').append(layout[0]).append(' ').append(layout[1]).append(" 0 0\n");
+            }
+            page++;
+        }
+        loader.mFiles.put("atlas.txt", atlas.toString().getBytes(StandardCharsets.UTF_8));
+        return loader;
+    }
+
+    @Override
+    public InputStream open(String path) throws IOException {
+        byte[] contents = mFiles.get(path);
+        if (contents != null) {
+            return new ByteArrayInputStream(contents);
+        }
+        return new FileInputStream(find(path));
+    }
+
+    /**
+     * Returns a file under the root, or under the assets if the root has no such file
+     */
+    private File find(String path) {
+        File file = new File(mRoot, path);
+        return file.exists() ? file : new File(ASSETS, path);
+    }
+
+    @Override
+    public boolean load(GL10 gl, String path, int[] size, CollisionMaskBuilder mask) {
+        try {
+            File file = find(path);
+            readSize(file, size);
+            if (mask != null) {
+                BufferedImage image = ImageIO.read(file);
+                int[] row = new int[image.getWidth()];
+                mask.begin(image.getWidth(), image.getHeight());
+                for (int y = 0; y < image.getHeight(); y++) {
+                    image.getRGB(0, y, row.length, 1, row, 0, row.length);
+                    mask.addRow(y, row, 0);
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        size[2] = size[0] * size[1] * 4;
+        gl.glTexImage2D(GL10.GL_TEXTURE_2D, 0, GL10.GL_RGBA, size[0], size[1], 0,
+                GL10.GL_RGBA, GL10.GL_UNSIGNED_BYTE, null);
+        return true;
+    }
+
+    /**
+     * Reads the width and height from the IHDR chunk of a PNG file
+     */
+    private static void readSize(File file, int[] size) throws IOException {
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.skipBytes(16); // signature, chunk length and type
+            size[0] = in.readInt();
+            size[1] = in.readInt();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.microedition.khronos.opengles.GL10;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the game headless and checks that the terrain strip is only redrawn into its layer
+ * cache when the block animation advances.
+ */
+public class LayerCacheTest {
+
+    /** A 60Hz frame, which advances the block animation every 11 update steps */
+    private static final float FRAME_DELTA = 16;
+
+    private RecordingGL mRecorder;
+    private HeadlessGLSurface mSurface;
+
+    @Before
+    public void setUp() {
+        mRecorder = new RecordingGL();
+    }
+
+    @Test
+    public void paintComponent_redrawsTerrainOnlyWhenBlockFrameChanges() throws Exception {
+        mRecorder.setExtensions("GL_OES_element_index_uint " + LayerCache.EXTENSION);
+        mSurface = HeadlessGLSurface.startGame(mRecorder);
+        GamePanel gamePanel = mSurface.getGamePanel();
+        LayerCache cache = gamePanel.getTerrainCache();
+        assertTrue(cache.isSupported());
+        mRecorder.reset();
+
+        GL10 gl = mSurface.getGL();
+        for (int frame = 0; frame < 110; frame++) {
+            gamePanel.paintComponent(gl, FRAME_DELTA);
+        }
+
+        // The first frame and the nine block frame changes seen before the last frame
+        assertEquals(10, cache.getRenderCount());
+        assertEquals(10 * 2, mRecorder.getCallCount("glBindFramebufferOES"));
+        // background, moon, player and the cached strip every frame, plus each redraw, less the
+        // first frame, which is drawn before the first step with the player off the screen
+        assertEquals(4 * 110 + 10 - 1, mRecorder.getDrawCallCount());
+
+        // The screen state set by the renderer is restored after each redraw.
+        assertArrayEquals(new Object[] {0, 0, HeadlessGLSurface.WIDTH, HeadlessGLSurface.HEIGHT},
+                mRecorder.getLastArgs("glViewport"));
+        assertArrayEquals(new Object[] {0.5f, 0.5f, 0.5f, 1f}, mRecorder.getLastArgs("glClearColor"));
+    }
+
+    @Test
+    public void paintComponent_drawsTerrainDirectlyWithoutExtension() throws Exception {
+        mSurface = HeadlessGLSurface.startGame(mRecorder);
+        GamePanel gamePanel = mSurface.getGamePanel();
+        assertFalse(gamePanel.getTerrainCache().isSupported());
+        mRecorder.reset();
+
+        for (int frame = 0; frame < 10; frame++) {
+            gamePanel.paintComponent(mSurface.getGL(), FRAME_DELTA);
+        }
+
+        assertEquals(0, mRecorder.getCallCount("glBindFramebufferOES"));
+        assertEquals(4 * 10 - 1, mRecorder.getDrawCallCount());
+    }
+
+    @Test
+    public void finish_deletesFramebuffer() throws Exception {
+        mRecorder.setExtensions(LayerCache.EXTENSION);
+        mSurface = HeadlessGLSurface.startGame(mRecorder);
+        mSurface.getGamePanel().paintComponent(mSurface.getGL(), FRAME_DELTA);
+        assertEquals(1, mRecorder.getLiveCount("FramebuffersOES"));
+
+        mSurface.finish();
+        assertEquals(0, mRecorder.getLiveCount("FramebuffersOES"));
+        assertEquals(0, mRecorder.getLiveTextures());
+    }
+}
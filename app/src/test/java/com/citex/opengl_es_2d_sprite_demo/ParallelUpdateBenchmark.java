@@ -0,0 +1,72 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how the parallel update stage scales with the number of threads, for a memory
+ * bound update which only moves the entities and a heavier one which also animates them, at
+ * 50k and 200k entities. The speedup is against one thread, which runs sequentially. Run the
+ * main method; the results depend on the cores of the machine it runs on.
+ */
+public class ParallelUpdateBenchmark {
+
+    private static final int[] COUNTS = {50000, 200000};
+    private static final int ROUNDS = 100;
+    private static final float DT = 1000f / 60;
+
+    /** Moves each entity along a wave and picks its frame from its position */
+    private static final EntityUpdater ANIMATE = new EntityUpdater() {
+        @Override
+        public void update(EntityStore store, int from, int to, float dt) {
+            store.integrate(from, to, dt);
+            float[] x = store.getX();
+            float[] y = store.getY();
+            int[] frames = store.getFrames();
+            for (int i = from; i < to; i++) {
+                y[i] += (float) Math.sin(x[i] * 0.05f) * 0.5f;
+                frames[i] = ((int) x[i] >> 3) & 7;
+            }
+        }
+    };
+
+    public static void main(String[] args) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println(cores + " cores");
+
+        for (int count : COUNTS) {
+            for (int kernel = 0; kernel < 2; kernel++) {
+                EntityUpdater updater = kernel == 0 ? ParallelUpdateStage.INTEGRATE : ANIMATE;
+                double single = 0;
+                for (int threads = 1; threads <= Math.max(cores, 4); threads *= 2) {
+                    double ms = run(updater, count, threads);
+                    if (threads == 1) {
+                        single = ms;
+                    }
+                    System.out.printf("%6d entities  %-9s %2d threads  %7.3f ms  speedup %4.2f%n",
+                            count, kernel == 0 ? "integrate" : "animate", threads, ms, single / ms);
+                }
+            }
+        }
+    }
+
+    private static double run(EntityUpdater updater, int count, int threads) {
+        EntityStore store = new EntityStore(count);
+        for (int i = 0; i < count; i++) {
+            store.setVelocity(store.indexOf(store.add(i % 480, i % 272)), 0.1f, 0.01f);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ParallelUpdateStage stage = new ParallelUpdateStage(pool, updater,
+                ParallelUpdateStage.DEFAULT_CHUNK_SIZE, ParallelUpdateStage.DEFAULT_SEQUENTIAL_THRESHOLD);
+
+        long total = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            stage.run(store, DT);
+            if (round >= ROUNDS / 2) {
+                total += System.nanoTime() - start;
+            }
+        }
+        pool.shutdown();
+        return total / 1e6 / (ROUNDS - ROUNDS / 2);
+    }
+}
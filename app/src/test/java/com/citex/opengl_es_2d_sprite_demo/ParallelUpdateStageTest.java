@@ -0,0 +1,120 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the parallel update stage splits the entities into the same chunks whatever
+ * the pool, leaves them exactly as a sequential update does, and keeps small updates on the
+ * calling thread.
+ */
+public class ParallelUpdateStageTest {
+
+    private static final int ENTITIES = 50001;
+
+    /** Moves each entity and bounces it off the edges of the screen */
+    private static final EntityUpdater BOUNCE = new EntityUpdater() {
+        @Override
+        public void update(EntityStore store, int from, int to, float dt) {
+            store.integrate(from, to, dt);
+            float[] x = store.getX();
+            float[] velocityX = store.getVelocityX();
+            int[] frames = store.getFrames();
+            for (int i = from; i < to; i++) {
+                if (x[i] < 0 || x[i] > 480) {
+                    velocityX[i] = -velocityX[i];
+                }
+                frames[i] = (frames[i] * 31 + (int) x[i]) & 7;
+            }
+        }
+    };
+
+    private static EntityStore createStore() {
+        EntityStore store = new EntityStore(ENTITIES);
+        for (int i = 0; i < ENTITIES; i++) {
+            int index = store.indexOf(store.add(i % 480, i % 272));
+            store.setVelocity(index, (i % 13 - 6) * 0.037f, (i % 7 - 3) * 0.011f);
+        }
+        return store;
+    }
+
+    @Test
+    public void run_parallelMatchesSequential() {
+        EntityStore sequential = createStore();
+        EntityStore parallel = createStore();
+        ParallelUpdateStage stage = new ParallelUpdateStage(new ForkJoinPool(4), BOUNCE, 1000, 0);
+
+        for (int step = 0; step < 20; step++) {
+            BOUNCE.update(sequential, 0, sequential.size(), 16.6f);
+            stage.run(parallel, 16.6f);
+        }
+
+        assertEquals(51, stage.getLastChunkCount());
+        assertArrayEquals(sequential.getX(), parallel.getX(), 0);
+        assertArrayEquals(sequential.getY(), parallel.getY(), 0);
+        assertArrayEquals(sequential.getVelocityX(), parallel.getVelocityX(), 0);
+        assertArrayEquals(sequential.getFrames(), parallel.getFrames());
+    }
+
+    @Test
+    public void run_chunksDependOnlyOnEntityCount() {
+        assertEquals(recordChunks(new ForkJoinPool(2)), recordChunks(new ForkJoinPool(8)));
+
+        List<String> chunks = recordChunks(new ForkJoinPool(3));
+        assertEquals(13, chunks.size());
+        assertEquals("0-4096", chunks.get(0));
+        assertEquals("49152-50001", chunks.get(12));
+    }
+
+    @Test
+    public void run_staysOnCallingThreadBelowThreshold() {
+        final List<Thread> threads = new ArrayList<Thread>();
+        EntityUpdater recorder = new EntityUpdater() {
+            @Override
+            public void update(EntityStore store, int from, int to, float dt) {
+                threads.add(Thread.currentThread());
+                assertEquals(0, from);
+                assertEquals(store.size(), to);
+            }
+        };
+        EntityStore store = new EntityStore(16);
+        for (int i = 0; i < 1000; i++) {
+            store.add(i, i);
+        }
+
+        ParallelUpdateStage stage = new ParallelUpdateStage(new ForkJoinPool(4), recorder,
+                ParallelUpdateStage.DEFAULT_CHUNK_SIZE, ParallelUpdateStage.DEFAULT_SEQUENTIAL_THRESHOLD);
+        stage.run(store, 16);
+        assertEquals(1, stage.getLastChunkCount());
+        assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+    }
+
+    /**
+     * Returns the ranges the stage updates with the default chunk size, in index order
+     */
+    private static List<String> recordChunks(ForkJoinPool pool) {
+        final List<String> chunks = Collections.synchronizedList(new ArrayList<String>());
+        EntityUpdater recorder = new EntityUpdater() {
+            @Override
+            public void update(EntityStore store, int from, int to, float dt) {
+                chunks.add(from + "-" + to);
+            }
+        };
+        new ParallelUpdateStage(pool, recorder, ParallelUpdateStage.DEFAULT_CHUNK_SIZE, 0).run(createStore(), 16);
+
+        List<String> sorted = new ArrayList<String>(chunks);
+        Collections.sort(sorted, new java.util.Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return Integer.parseInt(a.split("-")[0]) - Integer.parseInt(b.split("-")[0]);
+            }
+        });
+        return sorted;
+    }
+}
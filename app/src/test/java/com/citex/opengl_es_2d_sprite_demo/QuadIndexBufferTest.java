@@ -0,0 +1,85 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that quads share one index buffer which grows on demand and survives a context loss.
+ */
+public class QuadIndexBufferTest {
+
+    private RecordingGL mRecorder;
+    private GL11 mGL;
+
+    @Before
+    public void setUp() {
+        mRecorder = new RecordingGL();
+        mGL = RecordingGL.create(mRecorder);
+        GLResourceRegistry.getInstance().invalidateAll();
+    }
+
+    @Test
+    public void draw_spritesBatchesAndStripsShareOneIndexBuffer() {
+        GLSprite sheet = new GLSprite(mGL, 3, 32, 512);
+        SpriteSheet sprites = new SpriteSheet(mGL, sheet, 32, 32, 14);
+        GLSprite frame = sprites.getFrameFromSheet(mGL, 2);
+        SpriteBatch batch = new SpriteBatch(64);
+        mRecorder.reset();
+
+        frame.draw(mGL, 10, 20);
+        int indices = (Integer) mRecorder.getLastArgs("glBindBuffer")[1];
+        sprites.drawFrame(mGL, 1, 0, 0, 256, 32);
+        assertEquals(indices, mRecorder.getLastArgs("glBindBuffer")[1]);
+        batch.begin(mGL);
+        batch.draw(3, 0, 0, 32, 32, 0, 0, 1, 1);
+        batch.end();
+        assertEquals(indices, mRecorder.getLastArgs("glBindBuffer")[1]);
+
+        // The strip, the batch stream and the shared indices, with no index buffer of their own
+        assertEquals(3, mRecorder.getCallCount("glGenBuffers"));
+    }
+
+    @Test
+    public void bind_growsToCoverTheQuadsDrawn() {
+        QuadIndexBuffer indices = new QuadIndexBuffer();
+        indices.bind(mGL, 1);
+        int name = (Integer) mRecorder.getLastArgs("glBindBuffer")[1];
+        assertEquals(64, indices.getQuadCapacity());
+
+        indices.bind(mGL, 64);
+        assertEquals(1, indices.getUploadCount());
+
+        indices.bind(mGL, 65);
+        assertEquals(128, indices.getQuadCapacity());
+        assertEquals(2, indices.getUploadCount());
+        assertEquals(name, mRecorder.getLastArgs("glBindBuffer")[1]);
+        assertEquals(1, mRecorder.getCallCount("glGenBuffers"));
+
+        CharBuffer client = indices.getIndices(QuadIndexBuffer.MAX_QUADS);
+        assertEquals(QuadIndexBuffer.MAX_QUADS * 6, client.capacity());
+        assertEquals(65535, client.get(client.capacity() - 1));
+    }
+
+    @Test
+    public void bind_recreatesBufferAfterContextLoss() {
+        QuadIndexBuffer indices = new QuadIndexBuffer();
+        indices.bind(mGL, 1);
+        indices.bind(mGL, 1);
+        assertEquals(1, mRecorder.getCallCount("glGenBuffers"));
+
+        GLResourceRegistry.getInstance().invalidateAll();
+        indices.bind(mGL, 1);
+        assertEquals(2, mRecorder.getCallCount("glGenBuffers"));
+        assertEquals(2, indices.getUploadCount());
+        assertEquals(1, GLResourceRegistry.getInstance().getLiveCount(GLResourceRegistry.BUFFER));
+
+        indices.releaseHardwareBuffers(mGL);
+        assertEquals(0, GLResourceRegistry.getInstance().getLiveCount(GLResourceRegistry.BUFFER));
+    }
+}
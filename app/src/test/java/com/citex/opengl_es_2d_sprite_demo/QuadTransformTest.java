@@ -0,0 +1,76 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that quads transformed on the CPU land where the matrix stack put them.
+ */
+public class QuadTransformTest {
+
+    private static final float EPSILON = 1e-3f;
+
+    @Test
+    public void setTranslation_swapsForRotatedProjection() {
+        float[] quads = new float[FrameMesh.FLOATS_PER_QUAD];
+        float[] out = new float[FrameMesh.FLOATS_PER_QUAD];
+        FrameMesh.putQuad(quads, 0, 2, 3, 16, 8, 0.25f, 0.5f, 0.75f, 1f);
+
+        QuadTransform transform = new QuadTransform();
+        transform.setTranslation(100, 40);
+        transform.transform(quads, 0, out, 0);
+
+        // vertex 3 holds (y + h, x + w, uRight, vBottom)
+        assertEquals(40 + 3 + 8, out[12], EPSILON);
+        assertEquals(100 + 2 + 16, out[13], EPSILON);
+        assertEquals(0.75f, out[14], 0f);
+        assertEquals(1f, out[15], 0f);
+    }
+
+    @Test
+    public void setRotation_matchesMatrixStack() {
+        float[] quads = new float[FrameMesh.FLOATS_PER_QUAD];
+        float[] out = new float[FrameMesh.FLOATS_PER_QUAD];
+        float[] positions = new float[8];
+        FrameMesh.putQuad(quads, 0, 0, 0, 32, 32, 0, 0, 1, 1);
+
+        float angle = 37, x = 430, y = 25, centerX = 16, centerY = 16;
+        QuadTransform transform = new QuadTransform();
+        transform.setRotation(angle, x, y, centerX, centerY);
+        transform.transform(quads, 0, out, 0);
+        transform.transformPositions(quads, 0, positions);
+
+        // glTranslatef(y + cy, x + cx), glRotatef(angle), glTranslatef(-cy, -cx)
+        double r = Math.toRadians(angle);
+        for (int vertex = 0; vertex < 4; vertex++) {
+            double px = quads[vertex * 4] - centerY;
+            double py = quads[vertex * 4 + 1] - centerX;
+            double expectedX = px * Math.cos(r) - py * Math.sin(r) + y + centerY;
+            double expectedY = px * Math.sin(r) + py * Math.cos(r) + x + centerX;
+
+            assertEquals(expectedX, out[vertex * 4], EPSILON);
+            assertEquals(expectedY, out[vertex * 4 + 1], EPSILON);
+            assertEquals(expectedX, positions[vertex * 2], EPSILON);
+            assertEquals(expectedY, positions[vertex * 2 + 1], EPSILON);
+        }
+    }
+
+    @Test
+    public void spriteBatch_addsRotatedQuadWithoutFlushing() {
+        RecordingGL recorder = new RecordingGL();
+        SpriteBatch batch = new SpriteBatch(16);
+        float[] quads = new float[FrameMesh.FLOATS_PER_QUAD];
+        FrameMesh.putQuad(quads, 0, 0, 0, 32, 32, 0, 0, 1, 1);
+        QuadTransform transform = new QuadTransform();
+
+        batch.begin(RecordingGL.create(recorder));
+        batch.draw(3, quads, 0, 10, 10);
+        transform.setRotation(90, 50, 50, 16, 16);
+        batch.draw(3, quads, 0, transform);
+        batch.end();
+
+        assertEquals(1, recorder.getDrawCallCount());
+        assertEquals(0, recorder.getCallCount("glRotatef"));
+    }
+}
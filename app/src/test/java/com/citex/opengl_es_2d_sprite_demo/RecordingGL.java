@@ -0,0 +1,379 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.microedition.khronos.opengles.GL;
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL10Ext;
+import javax.microedition.khronos.opengles.GL11;
+import javax.microedition.khronos.opengles.GL11Ext;
+import javax.microedition.khronos.opengles.GL11ExtensionPack;
+
+/**
+ * A GL10/GL11 implementation in plain Java which records the commands issued to it. Every
+ * call is counted, generated names are handed out in sequence and tracked until deleted,
+ * and buffer and texture uploads are added up in bytes, so the renderer can be run on a JVM
+ * without a device to assert on draw calls and uploads or to measure the CPU cost of a frame.
+ *
+ * On its own the recorder is headless and every query returns a default value, except that
+ * framebuffers always report complete and the clear color reads back as it was set. As a
+ * GLSurfaceView.GLWrapper it forwards each call to the EGL provided GL and records it on the
+ * way, but texture uploads made through GLUtils bypass the GL object and are not seen.
+ *
+ * The recorder also stands in for GLES 2.0 through create20, so the shader backend can be
+ * run headless too.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class RecordingGL implements InvocationHandler, GLSurfaceView.GLWrapper {
+
+    /** The GL interfaces the recorder implements */
+    private static final Class<?>[] INTERFACES = {
+            GL10.class, GL10Ext.class, GL11.class, GL11Ext.class, GL11ExtensionPack.class};
+
+    /** The GLES 2.0 interface the recorder implements */
+    private static final Class<?>[] INTERFACES_20 = {GL20.class};
+
+    /** The GL the calls are forwarded to, or null when headless */
+    private GL mDelegate;
+
+    /** The number of calls to each GL function */
+    private final Map<String, int[]> mCalls = new HashMap<>();
+
+    /** The arguments of the last call to each GL function */
+    private final Map<String, Object[]> mLastArgs = new HashMap<>();
+
+    /** The generated names which have not been deleted, by kind such as "Buffers" */
+    private final Map<String, Set<Integer>> mLiveNames = new HashMap<>();
+
+    /** The command log, or null when commands are only counted */
+    private List<String> mLog;
+
+    /** The next generated name */
+    private int mNextName = 1;
+
+    /** The bytes uploaded to buffers and textures */
+    private long mBufferUploadBytes, mTextureUploadBytes;
+
+    /** The number of draw calls and the vertices or indices they drew */
+    private int mDrawCallCount, mDrawnVertexCount;
+
+    /** The value returned for glGetString(GL_EXTENSIONS) */
+    private String mExtensions = "";
+
+    /** The color last passed to glClearColor, returned for GL_COLOR_CLEAR_VALUE */
+    private final float[] mClearColor = new float[4];
+
+    /**
+     * Creates a headless GL backed by a recorder
+     * @param recorder The recorder receiving the calls
+     * @return The GL context
+     */
+    public static GL11 create(RecordingGL recorder) {
+        return (GL11) Proxy.newProxyInstance(RecordingGL.class.getClassLoader(), INTERFACES, recorder);
+    }
+
+    /**
+     * Creates a headless GLES 2.0 stand-in backed by a recorder. Shaders always compile and
+     * programs always link.
+     * @param recorder The recorder receiving the calls
+     * @return The GLES 2.0 functions
+     */
+    public static GL20 create20(RecordingGL recorder) {
+        return (GL20) Proxy.newProxyInstance(RecordingGL.class.getClassLoader(), INTERFACES_20, recorder);
+    }
+
+    /**
+     * Wraps the EGL provided GL so that calls are recorded before they are forwarded
+     * @param gl The GL to forward to
+     * @return The recording GL
+     */
+    @Override
+    public GL wrap(GL gl) {
+        mDelegate = gl;
+        return create(this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        record(name, args);
+
+        if (mDelegate != null) {
+            try {
+                return method.invoke(mDelegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        if (name.equals("glGetString") && (Integer) args[0] == GL10.GL_EXTENSIONS) {
+            return mExtensions;
+        }
+
+        // Shader objects are named by their create call and report success.
+        if (name.startsWith("glCreate")) {
+            int object = mNextName++;
+            getLiveSet(name.substring(8) + "s").add(object);
+            return object;
+        }
+        if (name.startsWith("glCheckFramebufferStatus")) {
+            return GL11ExtensionPack.GL_FRAMEBUFFER_COMPLETE_OES;
+        }
+        if (name.equals("glClearColor")) {
+            for (int i = 0; i < 4; i++) {
+                mClearColor[i] = (Float) args[i];
+            }
+        }
+        if (name.equals("glGetFloatv") && (Integer) args[0] == GL11.GL_COLOR_CLEAR_VALUE
+                && args[1] instanceof float[]) {
+            System.arraycopy(mClearColor, 0, (float[]) args[1], (Integer) args[2], 4);
+            return null;
+        }
+        if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+            ((int[]) args[2])[(Integer) args[3]] = 1;
+            return null;
+        }
+
+        Class<?> type = method.getReturnType();
+        if (type == int.class) {
+            return 0;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == String.class) {
+            return "";
+        }
+        return null;
+    }
+
+    /**
+     * Records a call and its effect on names, uploads and draws
+     */
+    private void record(String name, Object[] args) {
+        int[] count = mCalls.get(name);
+        if (count == null) {
+            count = new int[1];
+            mCalls.put(name, count);
+        }
+        count[0]++;
+        mLastArgs.put(name, args);
+
+        if (mLog != null) {
+            mLog.add(args == null ? name + "()" : name + Arrays.deepToString(args));
+        }
+
+        if (name.startsWith("glGen") && args != null && args.length == 3 && args[1] instanceof int[]) {
+            Set<Integer> live = getLiveSet(name.substring(5));
+            int n = (Integer) args[0];
+            int[] names = (int[]) args[1];
+            int offset = (Integer) args[2];
+            for (int i = 0; i < n; i++) {
+                // A forwarded call has already filled in the driver's names.
+                if (mDelegate == null) {
+                    names[offset + i] = mNextName++;
+                }
+                live.add(names[offset + i]);
+            }
+        } else if (name.startsWith("glDelete") && args != null && args.length == 3 && args[1] instanceof int[]) {
+            Set<Integer> live = getLiveSet(name.substring(8));
+            int n = (Integer) args[0];
+            int[] names = (int[]) args[1];
+            int offset = (Integer) args[2];
+            for (int i = 0; i < n; i++) {
+                live.remove(names[offset + i]);
+            }
+        } else if (name.startsWith("glDelete") && args != null && args.length == 1) {
+            getLiveSet(name.substring(8) + "s").remove(args[0]);
+        } else if (name.equals("glBufferData")) {
+            mBufferUploadBytes += (Integer) args[1];
+        } else if (name.equals("glBufferSubData")) {
+            mBufferUploadBytes += (Integer) args[2];
+        } else if (name.equals("glTexImage2D")) {
+            mTextureUploadBytes += (long) (Integer) args[3] * (Integer) args[4]
+                    * bytesPerPixel((Integer) args[6], (Integer) args[7]);
+        } else if (name.equals("glTexSubImage2D")) {
+            mTextureUploadBytes += (long) (Integer) args[4] * (Integer) args[5]
+                    * bytesPerPixel((Integer) args[6], (Integer) args[7]);
+        } else if (name.equals("glDrawArrays")) {
+            mDrawCallCount++;
+            mDrawnVertexCount += (Integer) args[2];
+        } else if (name.equals("glDrawElements")) {
+            mDrawCallCount++;
+            mDrawnVertexCount += (Integer) args[1];
+        }
+    }
+
+    /**
+     * Returns the live names of a kind
+     */
+    private Set<Integer> getLiveSet(String kind) {
+        Set<Integer> live = mLiveNames.get(kind);
+        if (live == null) {
+            live = new HashSet<>();
+            mLiveNames.put(kind, live);
+        }
+        return live;
+    }
+
+    /**
+     * Returns the size of a pixel in a texture upload
+     */
+    private static int bytesPerPixel(int format, int type) {
+        if (type == GL10.GL_UNSIGNED_SHORT_5_6_5 || type == GL10.GL_UNSIGNED_SHORT_4_4_4_4
+                || type == GL10.GL_UNSIGNED_SHORT_5_5_5_1) {
+            return 2;
+        }
+        switch (format) {
+            case GL10.GL_ALPHA:
+            case GL10.GL_LUMINANCE:
+                return 1;
+            case GL10.GL_LUMINANCE_ALPHA:
+                return 2;
+            case GL10.GL_RGB:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    /**
+     * Keeps a log of every command from now on
+     * @param logging True to log commands, false to only count them
+     */
+    public void setLogging(boolean logging) {
+        mLog = logging ? new ArrayList<String>() : null;
+    }
+
+    /**
+     * Returns the commands logged since logging was turned on or the recorder was reset
+     * @return The command log, one entry per call with its arguments
+     */
+    public List<String> getLog() {
+        return mLog;
+    }
+
+    /**
+     * Sets the extensions reported by the headless GL
+     * @param extensions The space separated extension names
+     */
+    public void setExtensions(String extensions) {
+        mExtensions = extensions;
+    }
+
+    /**
+     * Returns how many times a GL function was called
+     * @param name The GL function name
+     * @return The call count
+     */
+    public int getCallCount(String name) {
+        int[] count = mCalls.get(name);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Returns the total number of GL calls
+     * @return The call count
+     */
+    public int getCallCount() {
+        int total = 0;
+        for (int[] count : mCalls.values()) {
+            total += count[0];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the arguments of the last call to a GL function
+     * @param name The GL function name
+     * @return The arguments or null if the function was not called
+     */
+    public Object[] getLastArgs(String name) {
+        return mLastArgs.get(name);
+    }
+
+    /**
+     * Returns the number of names of a kind generated and not yet deleted
+     * @param kind The kind in the GL function names, such as "Buffers" or "Textures"
+     * @return The live name count
+     */
+    public int getLiveCount(String kind) {
+        Set<Integer> live = mLiveNames.get(kind);
+        return live == null ? 0 : live.size();
+    }
+
+    /**
+     * Returns the number of buffers generated and not yet deleted
+     * @return The live buffer count
+     */
+    public int getLiveBuffers() {
+        return getLiveCount("Buffers");
+    }
+
+    /**
+     * Returns the number of textures generated and not yet deleted
+     * @return The live texture count
+     */
+    public int getLiveTextures() {
+        return getLiveCount("Textures");
+    }
+
+    /**
+     * Returns the bytes uploaded with glBufferData and glBufferSubData
+     * @return The buffer upload size
+     */
+    public long getBufferUploadBytes() {
+        return mBufferUploadBytes;
+    }
+
+    /**
+     * Returns the bytes uploaded with glTexImage2D and glTexSubImage2D
+     * @return The texture upload size
+     */
+    public long getTextureUploadBytes() {
+        return mTextureUploadBytes;
+    }
+
+    /**
+     * Returns the number of glDrawArrays and glDrawElements calls
+     * @return The draw call count
+     */
+    public int getDrawCallCount() {
+        return mDrawCallCount;
+    }
+
+    /**
+     * Returns the vertices drawn by glDrawArrays and the indices drawn by glDrawElements
+     * @return The vertex count
+     */
+    public int getDrawnVertexCount() {
+        return mDrawnVertexCount;
+    }
+
+    /**
+     * Forgets the calls, uploads and draws recorded so far. Live names are kept.
+     */
+    public void reset() {
+        mCalls.clear();
+        mLastArgs.clear();
+        mBufferUploadBytes = 0;
+        mTextureUploadBytes = 0;
+        mDrawCallCount = 0;
+        mDrawnVertexCount = 0;
+        if (mLog != null) {
+            mLog.clear();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the render queue groups draws by texture inside a layer and keeps layer order.
+ */
+public class RenderQueueTest {
+
+    private static final int SPRITE_COUNT = 3000;
+
+    private RecordingGL mRecorder;
+    private GL11 mGL;
+    private RenderQueue mQueue;
+    private int[] mSheets;
+
+    @Before
+    public void setUp() {
+        mRecorder = new RecordingGL();
+        mGL = RecordingGL.create(mRecorder);
+        mQueue = new RenderQueue(16, SpriteBatch.MAX_QUADS);
+        mSheets = new int[] {
+                mQueue.addSheet(new SpriteSheet(mGL, new GLSprite(mGL, 3, 32, 512), 32, 32, 14)),
+                mQueue.addSheet(new SpriteSheet(mGL, new GLSprite(mGL, 5, 64, 1024), 48, 48, 8)),
+                mQueue.addSheet(new SpriteSheet(mGL, new GLSprite(mGL, 7, 16, 64), 16, 16, 4))};
+        mRecorder.reset();
+    }
+
+    private void submitMixedScene(int layer) {
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            mQueue.drawFrame(layer, mSheets[i % 3], 0, 'r', i % 480, (i * 7) % 272);
+        }
+    }
+
+    @Test
+    public void execute_groupsMixedSpritesByTexture() {
+        submitMixedScene(2);
+        mQueue.execute(mGL);
+
+        assertEquals(3, mRecorder.getDrawCallCount());
+        assertEquals(3, mQueue.getTextureSwitchCount());
+        assertEquals(SPRITE_COUNT, mQueue.getExecutedCount());
+        assertEquals(0, mQueue.getCommandCount());
+    }
+
+    @Test
+    public void execute_keepsSubmissionOrderInOrderedLayer() {
+        mQueue.setLayerOrdered(2, true);
+        submitMixedScene(2);
+        mQueue.execute(mGL);
+
+        assertEquals(SPRITE_COUNT, mQueue.getTextureSwitchCount());
+        assertEquals(SPRITE_COUNT, mRecorder.getDrawCallCount());
+    }
+
+    @Test
+    public void execute_drawsLayersBackToFront() {
+        mRecorder.setLogging(true);
+        mQueue.drawFrame(3, mSheets[2], 0, 0, 256, 480, 16);
+        mQueue.drawFrame(1, mSheets[0], 0, 'l', 0, 0);
+        mQueue.drawFrame(2, mSheets[1], 0, 'r', 0, 0);
+        mQueue.execute(mGL);
+
+        StringBuilder textures = new StringBuilder();
+        for (String call : mRecorder.getLog()) {
+            if (call.startsWith("glBindTexture")) {
+                textures.append(call.substring(call.indexOf(',') + 2, call.length() - 1)).append(' ');
+            }
+        }
+        assertEquals("3 5 7 ", textures.toString());
+    }
+
+    @Test
+    public void sort_ordersKeysAndIsStable() {
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            mQueue.drawFrame(i % 4, mSheets[i % 3], 0, 'l', 0, (i * 31) % 300 - 20);
+        }
+        mQueue.sort();
+
+        for (int i = 1; i < SPRITE_COUNT; i++) {
+            assertTrue(mQueue.getKey(i - 1) <= mQueue.getKey(i));
+        }
+        mQueue.execute(mGL);
+        assertEquals(12, mQueue.getTextureSwitchCount());
+    }
+
+    @Test
+    public void submit_doesNotAllocateOnceGrown() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        long thread = Thread.currentThread().getId();
+
+        submitMixedScene(2);
+        mQueue.execute(mGL);
+
+        long allocated = 0;
+        for (int frame = 0; frame < 10; frame++) {
+            long before = allocations.getThreadAllocatedBytes(thread);
+            submitMixedScene(2);
+            mQueue.sort();
+            allocated += allocations.getThreadAllocatedBytes(thread) - before;
+            mQueue.execute(mGL);
+        }
+        assertTrue("allocated " + allocated, allocated < 64 * 1024);
+    }
+}
@@ -0,0 +1,93 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.util.Random;
+
+/**
+ * Measures the spatial hash against a scan of every enemy for 1k, 10k and 100k enemies
+ * spread over the 480x272 playfield: moving every enemy, and player sized region, touch
+ * point and nearest enemy queries. Run the main method.
+ */
+public class SpatialHashBenchmark {
+
+    private static final int QUERIES = 100000;
+    private static final int ROUNDS = 5;
+
+    /** Keeps the results live so the queries are not optimised away */
+    private static long sSink;
+
+    public static void main(String[] args) {
+        for (int enemies : new int[] {1000, 10000, 100000}) {
+            for (int round = 0; round < ROUNDS; round++) {
+                run(enemies, round == ROUNDS - 1);
+            }
+        }
+        System.out.println(sSink == 42 ? "" : "done");
+    }
+
+    private static void run(int enemies, boolean print) {
+        Random random = new Random(3);
+        float[] x = new float[enemies];
+        float[] y = new float[enemies];
+        SpatialHash hash = new SpatialHash(32, 32, 32, enemies);
+        for (int i = 0; i < enemies; i++) {
+            x[i] = random.nextFloat() * 480;
+            y[i] = random.nextFloat() * 272;
+            hash.add(x[i], y[i]);
+        }
+        float[] qx = new float[QUERIES];
+        float[] qy = new float[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            qx[i] = random.nextFloat() * 480;
+            qy[i] = random.nextFloat() * 272;
+        }
+        int[] out = new int[enemies];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < enemies; i++) {
+            x[i] += (i & 1) == 0 ? 1 : -1;
+            hash.move(i, x[i], y[i]);
+        }
+        long move = System.nanoTime() - start;
+
+        int queries = Math.min(QUERIES, 10000000 / enemies);
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            sSink += hash.queryRegion(qx[i], qy[i], qx[i] + 32, qy[i] + 32, out);
+        }
+        long region = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            sSink += hash.queryPoint(qx[i], qy[i], out);
+        }
+        long point = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            sSink += hash.findNearest(qx[i], qy[i], 64);
+        }
+        long nearest = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            sSink += scan(x, y, enemies, qx[i], qy[i], qx[i] + 32, qy[i] + 32);
+        }
+        long scan = System.nanoTime() - start;
+
+        if (print) {
+            System.out.printf("%7d enemies: move %7.1f ns/enemy  region %8.1f ns  point %8.1f ns  nearest %8.1f ns  scan %10.1f ns%n",
+                    enemies, (double) move / enemies, (double) region / queries, (double) point / queries,
+                    (double) nearest / queries, (double) scan / queries);
+        }
+    }
+
+    private static int scan(float[] x, float[] y, int count, float left, float top, float right, float bottom) {
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            if (x[i] <= right && x[i] + 32 >= left && y[i] <= bottom && y[i] + 32 >= top) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,139 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the spatial hash queries against a scan of every entity as entities are added,
+ * moved and removed.
+ */
+public class SpatialHashTest {
+
+    private static final int ENTITY_COUNT = 2000;
+    private static final float SIZE = 32;
+
+    private SpatialHash mHash;
+    private float[] mX, mY;
+    private boolean[] mLive;
+    private Random mRandom;
+
+    @Before
+    public void setUp() {
+        // A small capacity so the entity arrays and the cell table have to grow.
+        mHash = new SpatialHash(32, SIZE, SIZE, 16);
+        mX = new float[ENTITY_COUNT];
+        mY = new float[ENTITY_COUNT];
+        mLive = new boolean[ENTITY_COUNT];
+        mRandom = new Random(11);
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            mX[i] = randomX();
+            mY[i] = randomY();
+            assertEquals(i, mHash.add(mX[i], mY[i]));
+            mLive[i] = true;
+        }
+    }
+
+    private float randomX() {
+        return mRandom.nextFloat() * 600 - 60;
+    }
+
+    private float randomY() {
+        return mRandom.nextFloat() * 400 - 60;
+    }
+
+    @Test
+    public void queries_matchScanAfterMovesAndRemoves() {
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < ENTITY_COUNT; i++) {
+                if (!mLive[i]) {
+                    continue;
+                }
+                if (mRandom.nextInt(50) == 0) {
+                    mHash.remove(i);
+                    mLive[i] = false;
+                } else {
+                    mX[i] += mRandom.nextFloat() * 20 - 10;
+                    mY[i] += mRandom.nextFloat() * 20 - 10;
+                    mHash.move(i, mX[i], mY[i]);
+                }
+            }
+            checkQueries();
+        }
+    }
+
+    @Test
+    public void add_reusesRemovedIds() {
+        mHash.remove(5);
+        mHash.remove(9);
+
+        assertEquals(9, mHash.add(10, 10));
+        assertEquals(5, mHash.add(20, 20));
+        assertEquals(ENTITY_COUNT, mHash.add(30, 30));
+        assertEquals(ENTITY_COUNT + 1, mHash.size());
+    }
+
+    @Test
+    public void findNearest_returnsNoneBeyondMaxDistance() {
+        SpatialHash hash = new SpatialHash(32, SIZE, SIZE, 16);
+        hash.add(400, 200);
+
+        assertEquals(-1, hash.findNearest(0, 0, 100));
+        assertEquals(0, hash.findNearest(0, 0, 1000));
+    }
+
+    private void checkQueries() {
+        int[] out = new int[ENTITY_COUNT];
+        for (int query = 0; query < 50; query++) {
+            float left = randomX(), top = randomY();
+            float right = left + mRandom.nextFloat() * 100, bottom = top + mRandom.nextFloat() * 100;
+
+            int count = mHash.queryRegion(left, top, right, bottom, out);
+            int[] found = Arrays.copyOf(out, count);
+            Arrays.sort(found);
+            assertArrayEquals(scan(left, top, right, bottom), found);
+
+            count = mHash.queryPoint(left, top, out);
+            found = Arrays.copyOf(out, count);
+            Arrays.sort(found);
+            assertArrayEquals(scan(left, top, left, top), found);
+
+            int nearest = mHash.findNearest(left, top, 200);
+            assertEquals(nearestDistance(left, top, 200), distance(nearest, left, top), 1e-3f);
+        }
+    }
+
+    private int[] scan(float left, float top, float right, float bottom) {
+        int[] found = new int[ENTITY_COUNT];
+        int count = 0;
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            if (mLive[i] && mX[i] <= right && mX[i] + SIZE >= left && mY[i] <= bottom && mY[i] + SIZE >= top) {
+                found[count++] = i;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private float nearestDistance(float x, float y, float maxDistance) {
+        float nearest = Float.MAX_VALUE;
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            float distance = distance(mLive[i] ? i : -1, x, y);
+            if (distance <= maxDistance && distance < nearest) {
+                nearest = distance;
+            }
+        }
+        return nearest;
+    }
+
+    private float distance(int id, float x, float y) {
+        if (id < 0) {
+            return Float.MAX_VALUE;
+        }
+        float dx = mX[id] + SIZE / 2 - x, dy = mY[id] + SIZE / 2 - y;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,81 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Counts the draw calls made by the sprite batch against a headless GL context.
+ */
+public class SpriteBatchTest {
+
+    private static final int ENEMY_COUNT = 2000;
+
+    private RecordingGL mRecorder;
+    private GL11 mGL;
+    private SpriteSheet mEnemySprite;
+
+    @Before
+    public void setUp() {
+        mRecorder = new RecordingGL();
+        mGL = RecordingGL.create(mRecorder);
+        GLSprite sheet = new GLSprite(mGL, 7, 64, 1024);
+        mEnemySprite = new SpriteSheet(mGL, sheet, 48, 48, 8);
+        mRecorder.reset();
+    }
+
+    @Test
+    public void drawFrame_issuesOneDrawCallPerSprite() {
+        for (int i = 0; i < ENEMY_COUNT; i++) {
+            mEnemySprite.drawFrame(mGL, 3, 'r', i % 480, i % 272);
+        }
+
+        assertEquals(ENEMY_COUNT, mRecorder.getCallCount("glDrawArrays"));
+        assertEquals(ENEMY_COUNT, mRecorder.getCallCount("glBindTexture"));
+    }
+
+    @Test
+    public void batch_issuesOneDrawCallForWholeEnemyList() {
+        SpriteBatch batch = new SpriteBatch(SpriteBatch.MAX_QUADS);
+
+        batch.begin(mGL);
+        for (int i = 0; i < ENEMY_COUNT; i++) {
+            mEnemySprite.drawFrame(batch, 3, 'r', i % 480, i % 272);
+        }
+        batch.end();
+
+        assertEquals(1, batch.getDrawCallCount());
+        assertEquals(1, mRecorder.getCallCount("glDrawElements"));
+        assertEquals(1, mRecorder.getCallCount("glBindTexture"));
+    }
+
+    @Test
+    public void batch_flushesWhenTextureChanges() {
+        SpriteBatch batch = new SpriteBatch(64);
+
+        batch.begin(mGL);
+        batch.draw(1, 0, 0, 16, 16, 0, 0, 1, 1);
+        batch.draw(1, 16, 0, 16, 16, 0, 0, 1, 1);
+        batch.draw(2, 32, 0, 16, 16, 0, 0, 1, 1);
+        batch.draw(1, 48, 0, 16, 16, 0, 0, 1, 1);
+        batch.end();
+
+        assertEquals(3, batch.getDrawCallCount());
+    }
+
+    @Test
+    public void batch_flushesWhenFull() {
+        SpriteBatch batch = new SpriteBatch(100);
+
+        batch.begin(mGL);
+        for (int i = 0; i < 250; i++) {
+            batch.draw(1, i, 0, 16, 16, 0, 0, 1, 1);
+        }
+        batch.end();
+
+        assertEquals(3, batch.getDrawCallCount());
+    }
+}
@@ -0,0 +1,73 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a sprite sheet keeps all of its frames in one vertex buffer.
+ */
+public class SpriteSheetTest {
+
+    private RecordingGL mRecorder;
+    private GL11 mGL;
+    private GLSprite mSheet;
+
+    @Before
+    public void setUp() {
+        mRecorder = new RecordingGL();
+        mGL = RecordingGL.create(mRecorder);
+        mSheet = new GLSprite(mGL, 3, 32, 512);
+        mRecorder.reset();
+    }
+
+    @Test
+    public void constructor_allocatesOneBufferForAllFrames() {
+        new SpriteSheet(mGL, mSheet, 32, 32, 14);
+
+        assertEquals(1, mRecorder.getCallCount("glGenBuffers"));
+        assertEquals(1, mRecorder.getCallCount("glBufferData"));
+        // 14 frames and 14 flipped frames, 4 vertices of 2 texture coordinates each
+        assertEquals(28 * 8 * 4, mRecorder.getLastArgs("glBufferData")[1]);
+        FloatBuffer texCoords = (FloatBuffer) mRecorder.getLastArgs("glBufferData")[2];
+        assertEquals(0, texCoords.get(2), 0);
+        assertEquals(32f / 512, texCoords.get(3), 0);
+    }
+
+    @Test
+    public void drawFrame_selectsFrameByOffset() {
+        SpriteSheet sheet = new SpriteSheet(mGL, mSheet, 32, 32, 14);
+        mRecorder.reset();
+
+        sheet.drawFrame(mGL, 5, 'l', 10, 20);
+        assertArrayEquals(new Object[] {2, GL10.GL_FLOAT, 0, 5 * 8 * 4},
+                mRecorder.getLastArgs("glTexCoordPointer"));
+        assertArrayEquals(new Object[] {GL10.GL_TRIANGLE_STRIP, 0, 4}, mRecorder.getLastArgs("glDrawArrays"));
+
+        sheet.drawFrame(mGL, 5, 'r', 10, 20);
+        assertArrayEquals(new Object[] {2, GL10.GL_FLOAT, 0, (14 + 5) * 8 * 4},
+                mRecorder.getLastArgs("glTexCoordPointer"));
+        assertArrayEquals(new Object[] {GL10.GL_TRIANGLE_STRIP, 0, 4}, mRecorder.getLastArgs("glDrawArrays"));
+
+        assertEquals(0, mRecorder.getCallCount("glPushMatrix"));
+
+        assertEquals(0, mRecorder.getCallCount("glGenBuffers"));
+        assertEquals(0, mRecorder.getCallCount("glBufferData"));
+    }
+
+    @Test
+    public void destroy_releasesSheetBuffer() {
+        SpriteSheet sheet = new SpriteSheet(mGL, mSheet, 32, 32, 14);
+        mRecorder.reset();
+
+        sheet.destroy(mGL);
+        assertTrue(mRecorder.getCallCount("glDeleteBuffers") >= 1);
+        assertEquals(1, mRecorder.getCallCount("glDeleteTextures"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the state cache drops only the calls which change nothing.
+ */
+public class StateCachingGLTest {
+
+    private RecordingGL mRecorder;
+    private StateCachingGL mCache;
+    private GL11 mGL;
+
+    @Before
+    public void setUp() {
+        mRecorder = new RecordingGL();
+        mCache = new StateCachingGL();
+        mGL = (GL11) mCache.wrap(RecordingGL.create(mRecorder));
+        assertSame(mCache, mGL);
+    }
+
+    @Test
+    public void repeatedState_isForwardedOnce() {
+        for (int i = 0; i < 3; i++) {
+            mGL.glBindTexture(GL10.GL_TEXTURE_2D, 7);
+            mGL.glBindBuffer(GL11.GL_ARRAY_BUFFER, 3);
+            mGL.glEnableClientState(GL10.GL_VERTEX_ARRAY);
+            mGL.glEnable(GL10.GL_BLEND);
+            mGL.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
+            mGL.glMatrixMode(GL10.GL_MODELVIEW);
+        }
+        mCache.endFrame();
+
+        assertEquals(1, mRecorder.getCallCount("glBindTexture"));
+        assertEquals(1, mRecorder.getCallCount("glBindBuffer"));
+        assertEquals(1, mRecorder.getCallCount("glEnableClientState"));
+        assertEquals(1, mRecorder.getCallCount("glEnable"));
+        assertEquals(1, mRecorder.getCallCount("glBlendFunc"));
+        assertEquals(1, mRecorder.getCallCount("glMatrixMode"));
+        assertEquals(12, mCache.getLastFrameEliminatedCount());
+    }
+
+    @Test
+    public void changedState_isForwarded() {
+        mGL.glBindTexture(GL10.GL_TEXTURE_2D, 1);
+        mGL.glBindTexture(GL10.GL_TEXTURE_2D, 2);
+        mGL.glBindBuffer(GL11.GL_ARRAY_BUFFER, 1);
+        mGL.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, 1);
+        mGL.glEnableClientState(GL10.GL_COLOR_ARRAY);
+        mGL.glDisableClientState(GL10.GL_COLOR_ARRAY);
+        mGL.glMatrixMode(GL10.GL_PROJECTION);
+        mGL.glMatrixMode(GL10.GL_MODELVIEW);
+
+        assertEquals(2, mRecorder.getCallCount("glBindTexture"));
+        assertEquals(2, mRecorder.getCallCount("glBindBuffer"));
+        assertEquals(2, mRecorder.getCallCount("glMatrixMode"));
+        assertEquals(0, mCache.getEliminatedCount());
+    }
+
+    @Test
+    public void deletingBoundName_resetsBinding() {
+        int[] names = new int[1];
+        mGL.glGenTextures(1, names, 0);
+        mGL.glBindTexture(GL10.GL_TEXTURE_2D, names[0]);
+        mGL.glDeleteTextures(1, names, 0);
+        mGL.glBindTexture(GL10.GL_TEXTURE_2D, 0);
+
+        mGL.glGenBuffers(1, names, 0);
+        mGL.glBindBuffer(GL11.GL_ARRAY_BUFFER, names[0]);
+        mGL.glDeleteBuffers(1, names, 0);
+        mGL.glBindBuffer(GL11.GL_ARRAY_BUFFER, names[0]);
+
+        // Unbinding is redundant once the bound name is deleted; the buffer name may be reused.
+        assertEquals(1, mRecorder.getCallCount("glBindTexture"));
+        assertEquals(2, mRecorder.getCallCount("glBindBuffer"));
+
+        // The buffer overloads are read from the buffer's position.
+        IntBuffer deleted = IntBuffer.wrap(new int[] {0, 5});
+        deleted.position(1);
+        mGL.glBindTexture(GL10.GL_TEXTURE_2D, 5);
+        mGL.glDeleteTextures(1, deleted);
+        mGL.glBindTexture(GL10.GL_TEXTURE_2D, 0);
+        mGL.glDeleteBuffers(1, IntBuffer.wrap(new int[] {names[0]}));
+        mGL.glBindBuffer(GL11.GL_ARRAY_BUFFER, names[0]);
+        assertEquals(2, mRecorder.getCallCount("glBindTexture"));
+        assertEquals(3, mRecorder.getCallCount("glBindBuffer"));
+    }
+
+    @Test
+    public void gameFrame_drawsTheSameWithFewerCalls() throws Exception {
+        HeadlessGLSurface reference = HeadlessGLSurface.startGame();
+        RecordingGL plain = reference.getRecorder();
+        GLSurfaceViewRenderer renderer = new GLSurfaceViewRenderer(HeadlessTextureLoader.forSourceAssets());
+        renderer.setStateCache(mCache);
+        HeadlessGLSurface cached = new HeadlessGLSurface(renderer, mRecorder, mCache,
+                HeadlessGLSurface.WIDTH, HeadlessGLSurface.HEIGHT);
+        cached.start();
+
+        reference.drawFrame();
+        cached.drawFrame();
+        plain.reset();
+        mRecorder.reset();
+
+        for (int frame = 0; frame < 10; frame++) {
+            reference.drawFrame();
+            cached.drawFrame();
+        }
+
+        assertEquals(plain.getDrawCallCount(), mRecorder.getDrawCallCount());
+        assertEquals(plain.getDrawnVertexCount(), mRecorder.getDrawnVertexCount());
+        assertTrue(mRecorder.getCallCount() < plain.getCallCount());
+        assertTrue(mCache.getLastFrameEliminatedCount() > 0);
+    }
+}
@@ -0,0 +1,109 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Measures a step of the sweep and prune broadphase against testing every pair of 32x32
+ * enemies, for 1k, 10k and 50k enemies moving a pixel or so a step. The playfield grows with
+ * the enemy count to keep the enemies as crowded as about 64 on the 480x272 screen, so each
+ * overlaps a couple of others. A step sets the boxes, repairs the order and sweeps it. Run
+ * the main method.
+ */
+public class SweepAndPruneBenchmark {
+
+    private static final int[] COUNTS = {1000, 10000, 50000};
+    private static final int STEPS = 200;
+    private static final float SIZE = 32;
+
+    /** Keeps the pairs live so the sweeps are not optimised away */
+    private static long sSink;
+
+    /** Adds up the pairs */
+    private static final PairListener SINK = new PairListener() {
+        @Override
+        public void onPair(int first, int second) {
+            sSink += first ^ second;
+        }
+    };
+
+    public static void main(String[] args) {
+        for (int count : COUNTS) {
+            run(count);
+        }
+        System.out.println(sSink == 42 ? "" : "done");
+    }
+
+    private static void run(int count) {
+        Random random = new Random(13);
+        double scale = Math.sqrt(count / 64.0);
+        float width = (float) (480 * scale), height = (float) (272 * scale);
+        float[] x = new float[count], y = new float[count], vx = new float[count], vy = new float[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextFloat() * width;
+            y[i] = random.nextFloat() * height;
+            vx[i] = random.nextFloat() * 2 - 1;
+            vy[i] = random.nextFloat() * 2 - 1;
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        SweepAndPrune broadphase = new SweepAndPrune(count);
+        long total = 0, allocated = 0, shifts = 0;
+        int pairs = 0, rebuilds = 0;
+        for (int step = 0; step < STEPS; step++) {
+            for (int i = 0; i < count; i++) {
+                x[i] += vx[i];
+                y[i] += vy[i];
+            }
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            broadphase.update(x, y, count, SIZE, SIZE);
+            pairs = broadphase.findPairs(SINK);
+            long time = System.nanoTime() - start;
+            if (step >= STEPS / 2) {
+                total += time;
+                allocated += threads.getThreadAllocatedBytes(thread) - bytes;
+                shifts += broadphase.getLastShiftCount();
+                rebuilds += broadphase.wasLastSortRebuilt() ? 1 : 0;
+            }
+        }
+        int measured = STEPS - STEPS / 2;
+
+        // Testing every pair at 50k takes seconds, so the brute force runs fewer steps as the count grows.
+        int bruteSteps = Math.max(1, 200000000 / count / count);
+        long brute = 0;
+        int brutePairs = 0;
+        for (int step = 0; step < bruteSteps; step++) {
+            long start = System.nanoTime();
+            brutePairs = bruteForce(x, y, count, SINK);
+            brute += System.nanoTime() - start;
+        }
+
+        if (pairs != brutePairs) {
+            throw new AssertionError(pairs + " pairs swept, " + brutePairs + " by brute force");
+        }
+        double sweepMs = total / 1e6 / measured;
+        double bruteMs = brute / 1e6 / bruteSteps;
+        System.out.printf("%6d enemies  %6d pairs  sweep %8.3f ms  brute force %10.3f ms  %7.1fx  "
+                        + "%5.2f shifts per enemy  %d rebuilds  %d bytes allocated%n",
+                count, pairs, sweepMs, bruteMs, bruteMs / sweepMs, (double) shifts / measured / count,
+                rebuilds, allocated);
+    }
+
+    private static int bruteForce(float[] x, float[] y, int count, PairListener listener) {
+        int pairs = 0;
+        for (int a = 0; a < count; a++) {
+            float ax = x[a], ay = y[a];
+            for (int b = a + 1; b < count; b++) {
+                if (ax <= x[b] + SIZE && ax + SIZE >= x[b] && ay <= y[b] + SIZE && ay + SIZE >= y[b]) {
+                    listener.onPair(a, b);
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+}
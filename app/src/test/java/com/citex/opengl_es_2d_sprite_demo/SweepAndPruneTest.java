@@ -0,0 +1,159 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the sweep and prune pairs and region queries against tests of every box as boxes
+ * move, are added and are dropped, and that the game flags the enemies touching each other.
+ */
+public class SweepAndPruneTest {
+
+    private static final float SIZE = 32;
+
+    /** Records the pairs reported by a sweep in a matrix */
+    private static final class PairMatrix implements PairListener {
+
+        final boolean[][] mPairs;
+        int mDuplicates;
+
+        PairMatrix(int count) {
+            mPairs = new boolean[count][count];
+        }
+
+        @Override
+        public void onPair(int first, int second) {
+            int a = Math.min(first, second), b = Math.max(first, second);
+            if (mPairs[a][b]) {
+                mDuplicates++;
+            }
+            mPairs[a][b] = true;
+        }
+    }
+
+    private static boolean overlaps(float[] x, float[] y, int a, int b) {
+        return x[a] <= x[b] + SIZE && x[a] + SIZE >= x[b] && y[a] <= y[b] + SIZE && y[a] + SIZE >= y[b];
+    }
+
+    private static void checkPairs(SweepAndPrune broadphase, float[] x, float[] y, int count) {
+        PairMatrix matrix = new PairMatrix(count);
+        int pairs = broadphase.findPairs(matrix);
+
+        int expected = 0;
+        for (int a = 0; a < count; a++) {
+            for (int b = a + 1; b < count; b++) {
+                boolean overlap = overlaps(x, y, a, b);
+                assertEquals("pair " + a + " " + b, overlap, matrix.mPairs[a][b]);
+                if (overlap) {
+                    expected++;
+                }
+            }
+        }
+        assertEquals(expected, pairs);
+        assertEquals(0, matrix.mDuplicates);
+    }
+
+    @Test
+    public void findPairs_matchesEveryPairAsBoxesMoveAndCountChanges() {
+        Random random = new Random(5);
+        int capacity = 600;
+        float[] x = new float[capacity];
+        float[] y = new float[capacity];
+        for (int i = 0; i < capacity; i++) {
+            x[i] = random.nextFloat() * 480;
+            y[i] = random.nextFloat() * 272;
+        }
+
+        // A small capacity so the arrays have to grow.
+        SweepAndPrune broadphase = new SweepAndPrune(4);
+        int count = 300;
+        for (int round = 0; round < 30; round++) {
+            for (int i = 0; i < capacity; i++) {
+                x[i] += random.nextFloat() * 6 - 3;
+                y[i] += random.nextFloat() * 6 - 3;
+            }
+            if (round % 5 == 4) {
+                count = 100 + random.nextInt(capacity - 100);
+            }
+            broadphase.update(x, y, count, SIZE, SIZE);
+            checkPairs(broadphase, x, y, count);
+        }
+
+        // Small coherent moves repair the order without rebuilding it.
+        broadphase.update(x, y, count, SIZE, SIZE);
+        broadphase.sort();
+        assertEquals(0, broadphase.getLastShiftCount());
+        for (int i = 0; i < count; i++) {
+            x[i] += (i & 1) == 0 ? 0.5f : -0.5f;
+        }
+        broadphase.update(x, y, count, SIZE, SIZE);
+        checkPairs(broadphase, x, y, count);
+        assertFalse(broadphase.wasLastSortRebuilt());
+
+        // Scattering every box rebuilds it.
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextFloat() * 480;
+        }
+        broadphase.update(x, y, count, SIZE, SIZE);
+        checkPairs(broadphase, x, y, count);
+        assertTrue(broadphase.wasLastSortRebuilt());
+    }
+
+    @Test
+    public void queryRegion_matchesScanWithMixedSizes() {
+        Random random = new Random(8);
+        int count = 400;
+        float[] left = new float[count], top = new float[count], right = new float[count], bottom = new float[count];
+        SweepAndPrune broadphase = new SweepAndPrune(count);
+        broadphase.setCount(count);
+        for (int i = 0; i < count; i++) {
+            left[i] = random.nextFloat() * 600 - 60;
+            top[i] = random.nextFloat() * 400 - 60;
+            right[i] = left[i] + 1 + random.nextFloat() * 80;
+            bottom[i] = top[i] + 1 + random.nextFloat() * 80;
+            broadphase.setBox(i, left[i], top[i], right[i], bottom[i]);
+        }
+        broadphase.sort();
+
+        int[] out = new int[count];
+        for (int query = 0; query < 200; query++) {
+            float qx = random.nextFloat() * 480, qy = random.nextFloat() * 272;
+            float qRight = qx + random.nextFloat() * 40, qBottom = qy + random.nextFloat() * 40;
+            int found = broadphase.queryRegion(qx, qy, qRight, qBottom, out);
+
+            boolean[] reported = new boolean[count];
+            for (int i = 0; i < found; i++) {
+                reported[out[i]] = true;
+            }
+            int expected = 0;
+            for (int i = 0; i < count; i++) {
+                boolean overlap = left[i] <= qRight && right[i] >= qx && top[i] <= qBottom && bottom[i] >= qy;
+                assertEquals(overlap, reported[i]);
+                if (overlap) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void paintComponent_flagsEnemiesTouchingEachOther() throws Exception {
+        HeadlessGLSurface surface = HeadlessGLSurface.startGame();
+        GamePanel gamePanel = surface.getGamePanel();
+
+        gamePanel.addEnemy(100, 100);
+        gamePanel.addEnemy(110, 105);
+        gamePanel.addEnemy(300, 100);
+        gamePanel.paintComponent(surface.getGL(), FixedTimestep.DEFAULT_STEP);
+
+        assertEquals(1, gamePanel.getEnemyCollisionCount());
+        int[] flags = gamePanel.getEnemies().getFlags();
+        assertEquals(GamePanel.FLAG_TOUCHING, flags[0]);
+        assertEquals(GamePanel.FLAG_TOUCHING, flags[1]);
+        assertEquals(0, flags[2]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reads an atlas descriptor and checks the frames built from it.
+ */
+public class TextureAtlasTest {
+
+    private static final String DESCRIPTOR =
+            "# Generated by atlas-packer, do not edit.\n" +
+            "page 0 atlas0.png 128 64\n" +
+            "sprite enemy 48 48 3\n" +
+            "frame enemy 0 0 0 0 26 35 12 13\n" +
+            "frame enemy 1 0 26 0 26 34 10 14\n" +
+            "frame enemy 2 -1 0 0 0 0 0 0\n";
+
+    private GL11 mGL;
+    private TextureAtlas mAtlas;
+    private RecordingGL mRecorder;
+
+    @Before
+    public void setUp() throws IOException {
+        mRecorder = new RecordingGL();
+        mGL = RecordingGL.create(mRecorder);
+        mAtlas = new TextureAtlas(new StringReader(DESCRIPTOR));
+        mAtlas.setPage(0, new GLSprite(mGL, 5, 128, 64));
+    }
+
+    @Test
+    public void spriteSheet_usesFrameSizeFromDescriptor() {
+        SpriteSheet sheet = mAtlas.getSpriteSheet(mGL, "enemy");
+
+        assertEquals(1, mAtlas.getPageCount());
+        assertTrue(mAtlas.contains("enemy"));
+        assertFalse(mAtlas.contains("player"));
+        assertEquals(48, sheet.getFrameWidth());
+        assertEquals(48, sheet.getFrameHeight());
+    }
+
+    @Test
+    public void getFrame_mapsTrimmedRectangle() {
+        GLSprite frame = mAtlas.getFrame(mGL, "enemy", 1);
+
+        assertEquals(26f, frame.spriteX, 0f);
+        assertEquals(26f, frame.spriteWidth, 0f);
+        assertEquals(34f, frame.spriteHeight, 0f);
+        assertEquals(26f / 128f, frame.uMin, 0f);
+        assertEquals(52f / 128f, frame.uMax, 0f);
+        assertEquals(34f / 64f, frame.vMax, 0f);
+        assertEquals(5, frame.getTextureName());
+    }
+
+    @Test
+    public void getFrame_returnsEmptyQuadForTransparentFrame() {
+        GLSprite frame = mAtlas.getFrame(mGL, "enemy", 2);
+
+        assertEquals(0f, frame.spriteWidth, 0f);
+        assertEquals(0f, frame.spriteHeight, 0f);
+    }
+
+    @Test(expected = IOException.class)
+    public void constructor_rejectsMalformedLine() throws IOException {
+        new TextureAtlas(new StringReader("sprite enemy 48\n"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that tiled strips are built once, cropped at the edges and do not leak buffers.
+ */
+public class TiledMeshTest {
+
+    /** Ten minutes at 60 frames per second */
+    private static final int SOAK_FRAMES = 10 * 60 * 60;
+
+    private RecordingGL mRecorder;
+    private GL11 mGL;
+    private SpriteSheet mBlockSprite;
+
+    @Before
+    public void setUp() {
+        mRecorder = new RecordingGL();
+        mGL = RecordingGL.create(mRecorder);
+        GLSprite sheet = new GLSprite(mGL, 5, 16, 64);
+        mBlockSprite = new SpriteSheet(mGL, sheet, 16, 16, 4);
+        mRecorder.reset();
+    }
+
+    @Test
+    public void drawFrame_drawsStripInOneCall() {
+        mBlockSprite.drawFrame(mGL, 2, 0, 256, 480, 16);
+
+        assertEquals(1, mRecorder.getCallCount("glDrawElements"));
+    }
+
+    @Test
+    public void build_cropsEdgeTiles() {
+        TiledMesh mesh = new TiledMesh("block");
+        mesh.build(0, 0, 0, 16, 64, 0, 16, 16, 16, 0, 0, 16, 16, 470, 20);
+
+        // 30 columns of 2 rows, the last column 6 wide and the bottom row 4 high
+        assertEquals(60, mesh.getQuadCount());
+        float[] v = mesh.getVertices();
+        int last = (mesh.getQuadCount() - 1) * FrameMesh.FLOATS_PER_QUAD;
+        // vertex 3 holds (y + h, x + w, uRight, vBottom)
+        assertEquals(20f, v[last + 12], 0f);
+        assertEquals(470f, v[last + 13], 0f);
+        assertEquals(6f / 16f, v[last + 14], 1e-6f);
+        assertEquals(20f / 64f, v[last + 15], 1e-6f);
+    }
+
+    @Test
+    public void soak_spriteSheetBufferCountStaysFlat() {
+        for (int frame = 0; frame < 4; frame++) {
+            mBlockSprite.drawFrame(mGL, frame, 0, 256, 480, 16);
+        }
+        int buffers = mRecorder.getLiveBuffers();
+
+        for (int frame = 0; frame < SOAK_FRAMES; frame++) {
+            mBlockSprite.drawFrame(mGL, (frame / 10) % 4, 0, 256, 480, 16);
+            assertEquals(buffers, mRecorder.getLiveBuffers());
+        }
+        // One strip per block frame, each built and uploaded once, and the shared indices
+        assertEquals(4 + 1, mRecorder.getCallCount("glGenBuffers"));
+        assertEquals(4 + 1, mRecorder.getCallCount("glBufferData"));
+    }
+
+    @Test
+    public void soak_glSpriteBufferCountStaysFlat() {
+        GLSprite tile = mBlockSprite.getFrameFromSheet(mGL, 1);
+        tile.draw(mGL, 0, 256, 480, 16);
+        int buffers = mRecorder.getLiveBuffers();
+
+        for (int frame = 0; frame < SOAK_FRAMES; frame++) {
+            tile.draw(mGL, 0, 256, 480, 16);
+            tile.draw(mGL, 'r', 0, 0);
+            tile.draw(mGL, 'l', 0, 0);
+            assertEquals(buffers, mRecorder.getLiveBuffers());
+        }
+    }
+}
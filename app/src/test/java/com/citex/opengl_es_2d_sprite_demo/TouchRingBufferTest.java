@@ -0,0 +1,105 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import android.view.MotionEvent;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the touch ring buffer hands samples over in order across its wrap, drops them
+ * when full, and carries them between threads without losing or allocating any.
+ */
+public class TouchRingBufferTest {
+
+    /** Checks the samples it receives carry consecutive numbers */
+    private static class SequenceListener implements TouchListener {
+        long mNext;
+        String mFailure;
+
+        @Override
+        public void onTouch(int action, float x, float y, long time, int pointerId) {
+            if (mFailure == null && (time != mNext || x != (int) time % 480 || pointerId != (int) time % 10)) {
+                mFailure = "sample " + time + " at " + x + " from " + pointerId + ", expected " + mNext;
+            }
+            mNext++;
+        }
+    }
+
+    private static boolean offer(TouchRingBuffer ring, long sequence) {
+        return ring.offer(MotionEvent.ACTION_MOVE, (int) sequence % 480, 0, sequence, (int) sequence % 10);
+    }
+
+    @Test
+    public void drain_deliversSamplesInOrderAcrossWrap() {
+        TouchRingBuffer ring = new TouchRingBuffer(6);
+        assertEquals(8, ring.getCapacity());
+        SequenceListener listener = new SequenceListener();
+
+        long sequence = 0;
+        for (int batch = 0; batch < 10; batch++) {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(offer(ring, sequence++));
+            }
+            assertEquals(5, ring.size());
+            assertEquals(5, ring.drain(listener));
+        }
+        assertNull(listener.mFailure);
+        assertEquals(50, listener.mNext);
+        assertEquals(0, ring.drain(listener));
+    }
+
+    @Test
+    public void offer_dropsSamplesWhenFull() {
+        TouchRingBuffer ring = new TouchRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(offer(ring, i));
+        }
+        assertFalse(offer(ring, 4));
+        assertEquals(1, ring.getDroppedCount());
+
+        SequenceListener listener = new SequenceListener();
+        assertEquals(4, ring.drain(listener));
+        assertNull(listener.mFailure);
+        assertTrue(offer(ring, 4));
+    }
+
+    @Test
+    public void drain_carriesSamplesBetweenThreadsWithoutAllocating() throws Exception {
+        final TouchRingBuffer ring = new TouchRingBuffer(64);
+        final int samples = 200000;
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                for (long sequence = 0; sequence < samples; sequence++) {
+                    while (!offer(ring, sequence)) {
+                        Thread.yield();
+                    }
+                }
+            }
+        };
+
+        SequenceListener listener = new SequenceListener();
+        ring.drain(listener);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        boolean measure = threads instanceof com.sun.management.ThreadMXBean;
+        long before = measure ? ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread) : 0;
+
+        producer.start();
+        while (listener.mNext < samples && listener.mFailure == null) {
+            if (ring.drain(listener) == 0) {
+                Thread.yield();
+            }
+        }
+        long allocated = measure ? ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread) - before : 0;
+        producer.join();
+
+        assertNull(listener.mFailure);
+        assertEquals(samples, listener.mNext);
+        assertTrue("allocated " + allocated, allocated < 1024);
+    }
+}
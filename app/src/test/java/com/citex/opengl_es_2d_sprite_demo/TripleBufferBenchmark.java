@@ -0,0 +1,117 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+/**
+ * Measures how many game snapshots of 10k enemies a writer thread can publish per second
+ * while a reader thread takes them, through the lock free TripleBuffer and through a
+ * snapshot copied under a lock, and how long the reader is held up taking each one. Run the
+ * main method.
+ */
+public class TripleBufferBenchmark {
+
+    private static final int ENEMIES = 10000;
+    private static final long RUN_NANOS = 1000000000L;
+    private static final int ROUNDS = 3;
+
+    private static float[] sX = new float[ENEMIES], sY = new float[ENEMIES];
+    private static int[] sFrames = new int[ENEMIES];
+    private static volatile boolean sDone;
+    private static float sSink;
+
+    public static void main(String[] args) throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean print = round == ROUNDS - 1;
+            runTripleBuffer(print);
+            runLocked(print);
+        }
+        System.out.println(sSink);
+    }
+
+    private static void runTripleBuffer(boolean print) throws Exception {
+        final TripleBuffer<GameSnapshot> buffer = new TripleBuffer<GameSnapshot>(
+                new GameSnapshot(), new GameSnapshot(), new GameSnapshot());
+        final long[] published = new long[1];
+        sDone = false;
+
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                while (!sDone) {
+                    write(buffer.getBack(), published[0]);
+                    buffer.publish();
+                    published[0]++;
+                }
+            }
+        };
+        writer.start();
+
+        long reads = 0, readNanos = 0;
+        long end = System.nanoTime() + RUN_NANOS;
+        while (System.nanoTime() < end) {
+            long start = System.nanoTime();
+            GameSnapshot snapshot = buffer.acquire();
+            readNanos += System.nanoTime() - start;
+            sSink += snapshot.getPlayerX(1);
+            reads++;
+        }
+        sDone = true;
+        writer.join();
+
+        if (print) {
+            System.out.printf("triple buffer  %8d publishes/s  %8d new states taken  %6.1f ns per acquire%n",
+                    published[0], buffer.getAcquireCount(), (double) readNanos / reads);
+        }
+    }
+
+    private static void runLocked(boolean print) throws Exception {
+        final GameSnapshot shared = new GameSnapshot();
+        final GameSnapshot writing = new GameSnapshot();
+        final GameSnapshot reading = new GameSnapshot();
+        final long[] published = new long[1];
+        sDone = false;
+
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                while (!sDone) {
+                    write(writing, published[0]);
+                    synchronized (shared) {
+                        copy(writing, shared);
+                    }
+                    published[0]++;
+                }
+            }
+        };
+        writer.start();
+
+        long reads = 0, readNanos = 0;
+        long end = System.nanoTime() + RUN_NANOS;
+        while (System.nanoTime() < end) {
+            long start = System.nanoTime();
+            synchronized (shared) {
+                copy(shared, reading);
+            }
+            readNanos += System.nanoTime() - start;
+            sSink += reading.getPlayerX(1);
+            reads++;
+        }
+        sDone = true;
+        writer.join();
+
+        if (print) {
+            System.out.printf("locked copy    %8d publishes/s  %8d states copied      %6.1f ns per read%n",
+                    published[0], reads, (double) readNanos / reads);
+        }
+    }
+
+    private static void write(GameSnapshot snapshot, long step) {
+        snapshot.mStep = step;
+        snapshot.mPlayerX = step;
+        snapshot.setEnemies(sX, sY, sFrames, ENEMIES);
+    }
+
+    private static void copy(GameSnapshot from, GameSnapshot to) {
+        to.mStep = from.mStep;
+        to.mPlayerX = from.mPlayerX;
+        to.setEnemies(from.getEnemyX(), from.getEnemyY(), from.getEnemyFrames(), from.getEnemyCount());
+    }
+}
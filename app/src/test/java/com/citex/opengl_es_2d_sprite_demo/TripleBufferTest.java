@@ -0,0 +1,98 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the triple buffer hands the latest state from the writer to the reader, never
+ * lets the reader see a state being written, and that the game runs through it on its own
+ * thread.
+ */
+public class TripleBufferTest {
+
+    /** The values written to each state by the stress test */
+    private static final int STATE_SIZE = 256;
+
+    @Test
+    public void acquire_returnsLatestPublishedState() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<int[]>(new int[1], new int[1], new int[1]);
+        int[] initial = buffer.acquire();
+
+        for (int i = 1; i <= 3; i++) {
+            buffer.getBack()[0] = i;
+            buffer.publish();
+        }
+        // The reader skips to the last state and keeps it until another is published.
+        assertEquals(3, buffer.acquire()[0]);
+        assertSame(buffer.getFront(), buffer.acquire());
+        assertNotSame(initial, buffer.getFront());
+        assertNotSame(buffer.getFront(), buffer.getBack());
+        assertEquals(1, buffer.getAcquireCount());
+        assertEquals(3, buffer.getPublishCount());
+    }
+
+    @Test
+    public void acquire_neverSeesTornState() throws Exception {
+        final TripleBuffer<int[]> buffer = new TripleBuffer<int[]>(
+                new int[STATE_SIZE], new int[STATE_SIZE], new int[STATE_SIZE]);
+        final int states = 200000;
+        final AtomicReference<String> failure = new AtomicReference<String>();
+
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= states; i++) {
+                    Arrays.fill(buffer.getBack(), i);
+                    buffer.publish();
+                }
+            }
+        };
+        writer.start();
+
+        int last = 0;
+        while (last < states && failure.get() == null) {
+            int[] state = buffer.acquire();
+            int value = state[0];
+            for (int i = 1; i < STATE_SIZE; i++) {
+                if (state[i] != value) {
+                    failure.set("torn state " + value + " and " + state[i]);
+                    break;
+                }
+            }
+            if (value < last) {
+                failure.set("state " + value + " after " + last);
+            }
+            last = value;
+        }
+        writer.join();
+
+        assertNull(failure.get());
+        assertEquals(states, buffer.acquire()[0]);
+    }
+
+    @Test
+    public void simulationThread_updatesGameWhileFramesAreDrawn() throws Exception {
+        GLSurfaceViewRenderer renderer = new GLSurfaceViewRenderer(HeadlessTextureLoader.forSourceAssets());
+        renderer.setSimulationThreaded(true);
+        HeadlessGLSurface surface = HeadlessGLSurface.startGame(renderer);
+        SimulationThread thread = renderer.getSimulationThread();
+        assertTrue(thread.isAlive());
+
+        TripleBuffer<GameSnapshot> snapshots = renderer.getGamePanel().getSnapshots();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (snapshots.acquire().getStep() < 3 && System.currentTimeMillis() < deadline) {
+            surface.drawFrame();
+            Thread.sleep(5);
+        }
+        assertTrue(snapshots.getFront().getStep() >= 3);
+
+        surface.finish();
+        assertFalse(thread.isAlive());
+        assertNull(renderer.getSimulationThread());
+        assertEquals(0, surface.getRecorder().getLiveTextures());
+    }
+}
@@ -0,0 +1,126 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the tiers the scheduler gives entities, that the updates of a tier are spread
+ * evenly over the steps and catch up on the time skipped, that parallel chunks schedule the
+ * same updates as a sequential pass, and that the game skips its distant enemies.
+ */
+public class UpdateSchedulerTest {
+
+    private static final float DT = 1000f / 60;
+
+    /** Fills a store with entities moving right, a third near the focus, a third far and a third off the screen */
+    private static EntityStore createStore(int count) {
+        EntityStore store = new EntityStore(count);
+        for (int i = 0; i < count; i++) {
+            float x = i % 3 == 0 ? 100 : i % 3 == 1 ? 400 : 1000;
+            int index = store.indexOf(store.add(x, 100 + i % 50));
+            store.setVelocity(index, 0.01f * (i % 7), 0.02f);
+        }
+        return store;
+    }
+
+    private static UpdateScheduler createScheduler(EntityUpdater updater) {
+        UpdateScheduler scheduler = new UpdateScheduler(updater, 48, 48);
+        scheduler.setViewport(0, 0, 480, 272);
+        scheduler.setNearDistance(160);
+        scheduler.setInterval(UpdateScheduler.FAR, 3);
+        scheduler.setInterval(UpdateScheduler.OFF_SCREEN, 6);
+        return scheduler;
+    }
+
+    @Test
+    public void update_staggersTiersAndCatchesUp() {
+        int count = 600;
+        EntityStore store = createStore(count);
+        EntityStore reference = createStore(count);
+        UpdateScheduler scheduler = createScheduler(ParallelUpdateStage.INTEGRATE);
+
+        for (int step = 1; step <= 12; step++) {
+            scheduler.beginStep(124, 124);
+            scheduler.update(store, 0, count, DT);
+            reference.integrate(DT);
+            if (step == 1) {
+                assertEquals(UpdateScheduler.NEAR, scheduler.getTier(100, 100));
+                assertEquals(UpdateScheduler.FAR, scheduler.getTier(400, 100));
+                assertEquals(UpdateScheduler.OFF_SCREEN, scheduler.getTier(1000, 100));
+                assertEquals(UpdateScheduler.OFF_SCREEN, scheduler.getTier(-49, 100));
+            }
+
+            // Each tier updates the same share of its entities every step.
+            assertEquals(200, scheduler.getUpdatedCount(UpdateScheduler.NEAR));
+            assertEquals(0, scheduler.getSkippedCount(UpdateScheduler.NEAR));
+            assertEquals(200 / 3, scheduler.getUpdatedCount(UpdateScheduler.FAR), 1);
+            assertEquals(200 / 6, scheduler.getUpdatedCount(UpdateScheduler.OFF_SCREEN), 1);
+            assertEquals(count - 200 - scheduler.getUpdatedCount(UpdateScheduler.FAR)
+                    - scheduler.getUpdatedCount(UpdateScheduler.OFF_SCREEN), scheduler.getSkippedCount());
+            assertEquals((float) scheduler.getSkippedCount() / count, scheduler.getSkippedFraction(), 1e-6f);
+        }
+
+        // Moved on by the skipped time, each entity is where a step by step update puts it.
+        float[] pending = store.getPendingTimes();
+        for (int i = 0; i < count; i++) {
+            float x = store.getX()[i] + store.getVelocityX()[i] * pending[i];
+            assertEquals(reference.getX()[i], x, 1e-3f);
+            assertEquals(reference.getY()[i], store.getY()[i] + store.getVelocityY()[i] * pending[i], 1e-3f);
+            assertTrue(pending[i] < 6 * DT);
+        }
+    }
+
+    @Test
+    public void run_inParallelChunksSchedulesLikeOnePass() {
+        int count = 5000;
+        EntityStore sequential = createStore(count);
+        EntityStore parallel = createStore(count);
+        UpdateScheduler sequentialScheduler = createScheduler(ParallelUpdateStage.INTEGRATE);
+        UpdateScheduler parallelScheduler = createScheduler(ParallelUpdateStage.INTEGRATE);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ParallelUpdateStage stage = new ParallelUpdateStage(pool, parallelScheduler, 256, 0);
+
+        for (int step = 0; step < 10; step++) {
+            sequentialScheduler.beginStep(124, 124);
+            sequentialScheduler.update(sequential, 0, count, DT);
+            parallelScheduler.beginStep(124, 124);
+            stage.run(parallel, DT);
+
+            for (int tier = 0; tier < UpdateScheduler.TIER_COUNT; tier++) {
+                assertEquals(sequentialScheduler.getUpdatedCount(tier), parallelScheduler.getUpdatedCount(tier));
+                assertEquals(sequentialScheduler.getSkippedCount(tier), parallelScheduler.getSkippedCount(tier));
+            }
+        }
+        pool.shutdown();
+
+        assertArrayEquals(sequential.getX(), parallel.getX(), 0);
+        assertArrayEquals(sequential.getY(), parallel.getY(), 0);
+        assertArrayEquals(sequential.getPendingTimes(), parallel.getPendingTimes(), 0);
+    }
+
+    @Test
+    public void paintComponent_skipsEnemiesOffTheScreen() throws Exception {
+        HeadlessGLSurface surface = HeadlessGLSurface.startGame();
+        GamePanel gamePanel = surface.getGamePanel();
+
+        // One enemy beside the player as it enters and one off the screen.
+        gamePanel.addEnemy(20, 230);
+        gamePanel.addEnemy(-300, 100);
+        UpdateScheduler scheduler = gamePanel.getEnemyScheduler();
+        int skipped = 0;
+        for (int frame = 0; frame < 24; frame++) {
+            gamePanel.paintComponent(surface.getGL(), FixedTimestep.DEFAULT_STEP);
+            assertEquals(1, scheduler.getUpdatedCount(UpdateScheduler.NEAR));
+            skipped += scheduler.getSkippedCount(UpdateScheduler.OFF_SCREEN);
+        }
+        assertEquals(24 - 24 / UpdateScheduler.DEFAULT_OFF_SCREEN_INTERVAL, skipped);
+
+        // The distant enemy's clip is behind by exactly the time it has waited.
+        EntityStore enemies = gamePanel.getEnemies();
+        float[] times = enemies.getAnimationTimes();
+        assertEquals(times[0], times[1] + enemies.getPendingTimes()[1], 1e-2f);
+    }
+}
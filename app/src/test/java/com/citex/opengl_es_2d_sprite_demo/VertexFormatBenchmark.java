@@ -0,0 +1,59 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * Compares the vertex formats of Grid: the bytes uploaded for a 256x255 vertex grid and the
+ * CPU cost of filling it through set(), with and without a color. Run the main method.
+ */
+public class VertexFormatBenchmark {
+
+    private static final int ACROSS = 256;
+    private static final int DOWN = 255;
+    private static final int ROUNDS = 20;
+
+    private static final VertexFormat[] FORMATS = {VertexFormat.FLOAT, VertexFormat.FLOAT_2D,
+            VertexFormat.FLOAT_COLOR, VertexFormat.FIXED, VertexFormat.PACKED, VertexFormat.PACKED_COLOR, VertexFormat.PACKED_BYTE};
+
+    public static void main(String[] args) {
+        float[] color = {1, 0.5f, 0.25f, 1};
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean print = round == ROUNDS - 1;
+            for (VertexFormat format : FORMATS) {
+                run(format, null, print);
+                if (format.hasColor()) {
+                    run(format, color, print);
+                }
+            }
+        }
+    }
+
+    private static void run(VertexFormat format, float[] color, boolean print) {
+        Grid grid = new Grid(ACROSS, DOWN, format);
+
+        long start = System.nanoTime();
+        fill(grid, color);
+        long fill = System.nanoTime() - start;
+
+        RecordingGL recorder = new RecordingGL();
+        GL11 gl = RecordingGL.create(recorder);
+        grid.generateHardwareBuffers(gl);
+        long upload = recorder.getBufferUploadBytes();
+        grid.releaseHardwareBuffers(gl);
+
+        if (print) {
+            int vertices = ACROSS * DOWN;
+            System.out.printf("%-30s %-6s upload %8d bytes  fill %5.1f ns/vertex%n",
+                    format, color != null ? "color" : "", upload,
+                    (double) fill / vertices);
+        }
+    }
+
+    private static void fill(Grid grid, float[] color) {
+        for (int j = 0; j < DOWN; j++) {
+            for (int i = 0; i < ACROSS; i++) {
+                grid.set(i, j, i * 32, j * 32, 0, i / (float) ACROSS, j / (float) DOWN, color);
+            }
+        }
+    }
+}
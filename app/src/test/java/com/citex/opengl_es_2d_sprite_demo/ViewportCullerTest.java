@@ -0,0 +1,102 @@
+package com.citex.opengl_es_2d_sprite_demo;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import javax.microedition.khronos.opengles.GL11;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that sprites outside the 480x272 screen are culled before they reach GL.
+ */
+public class ViewportCullerTest {
+
+    private static final int SPRITE_COUNT = 10000;
+
+    @Test
+    public void cull_matchesSingleSpriteTest() {
+        ViewportCuller culler = new ViewportCuller(480, 272);
+        ViewportCuller reference = new ViewportCuller(480, 272);
+        float[] x = new float[SPRITE_COUNT];
+        float[] y = new float[SPRITE_COUNT];
+        Random random = new Random(7);
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            x[i] = random.nextInt(1000) - 500;
+            y[i] = random.nextInt(600) - 300;
+        }
+        // Touching an edge from outside is culled
+        x[0] = -32; y[0] = 10;
+        x[1] = 480; y[1] = 10;
+
+        int[] visible = new int[SPRITE_COUNT];
+        int count = culler.cull(x, y, SPRITE_COUNT, 32, 32, visible);
+
+        int n = 0;
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            if (reference.isVisible(x[i], y[i], 32, 32)) {
+                assertEquals(i, visible[n++]);
+            }
+        }
+        assertEquals(n, count);
+        assertNotEquals(0, visible[0]);
+
+        culler.endFrame();
+        assertEquals(count, culler.getLastFrameDrawnCount());
+        assertEquals(SPRITE_COUNT - count, culler.getLastFrameCulledCount());
+    }
+
+    @Test
+    public void paintComponent_countsOffscreenEnemiesAsCulled() throws Exception {
+        HeadlessGLSurface surface = HeadlessGLSurface.startGame();
+        GamePanel gamePanel = surface.getGamePanel();
+        for (int i = 0; i < 100; i++) {
+            gamePanel.addEnemy(i % 2 == 0 ? 100 : -100, 100);
+        }
+
+        // The player starts at x = -32, entirely off the screen.
+        gamePanel.paintComponent(surface.getGL(), 0);
+
+        ViewportCuller culler = gamePanel.getCuller();
+        assertEquals(50 + 1, culler.getLastFrameCulledCount());
+        // background, moon, terrain and the visible enemies
+        assertEquals(3 + 50, culler.getLastFrameDrawnCount());
+    }
+
+    @Test
+    public void drawFrames_doesNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        long thread = Thread.currentThread().getId();
+
+        RenderQueue queue = new RenderQueue(SPRITE_COUNT, new GL11RenderBackend(16));
+        int sheet = queue.addSheet(new SpriteSheet(null, (GLSprite) null, 32, 32, 1));
+        queue.setCuller(new ViewportCuller(480, 272));
+        float[] x = new float[SPRITE_COUNT];
+        float[] y = new float[SPRITE_COUNT];
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            x[i] = (i * 7) % 960 - 240;
+            y[i] = (i * 13) % 544 - 136;
+        }
+        GL11 gl = RecordingGL.create(new RecordingGL());
+        queue.drawFrames(0, sheet, 0, 'l', x, y, SPRITE_COUNT);
+        queue.execute(gl);
+
+        long allocated = 0;
+        for (int frame = 0; frame < 10; frame++) {
+            long before = allocations.getThreadAllocatedBytes(thread);
+            queue.drawFrames(0, sheet, 0, 'l', x, y, SPRITE_COUNT);
+            queue.sort();
+            allocated += allocations.getThreadAllocatedBytes(thread) - before;
+            queue.execute(gl);
+        }
+        assertTrue("allocated " + allocated, allocated < 1024);
+        assertTrue(queue.getCuller().getLastFrameCulledCount() > 0);
+    }
+}
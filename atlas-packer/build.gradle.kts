@@ -0,0 +1,38 @@
+plugins {
+    id("java")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
+
+val sheetsDir = rootProject.file("app/src/main/atlas")
+val frameSpec = sheetsDir.resolve("frames.txt")
+val atlasDir = rootProject.file("app/build/generated/atlas")
+
+// Packs the app sprite sheets into power-of-two texture atlases and writes atlas.txt.
+tasks.register<JavaExec>("packAtlas") {
+    group = "build"
+    description = "Packs app/src/main/atlas into texture atlases"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.citex.atlas_packer.AtlasPacker")
+    inputs.dir(sheetsDir)
+    inputs.file(frameSpec)
+    outputs.dir(atlasDir)
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(sheetsDir.path, frameSpec.path, atlasDir.path)
+    })
+}
+
+// Runs the packer benchmark on the JVM.
+tasks.register<JavaExec>("benchmark") {
+    group = "verification"
+    description = "Benchmarks the MaxRects packer"
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.citex.atlas_packer.AtlasPackerBenchmark")
+}
@@ -0,0 +1,516 @@
+package com.citex.atlas_packer;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Packs the frames of sprite sheets into power-of-two texture atlases. Transparent borders
+ * are trimmed from each frame, identical frames are stored once and the frames are placed
+ * with a MaxRectsPacker. The atlas is described by a plain text file which the app reads
+ * with TextureAtlas:
+ *
+ * <pre>
+ * page  &lt;index&gt; &lt;file&gt; &lt;width&gt; &lt;height&gt;
+ * sprite &lt;name&gt; &lt;frame width&gt; &lt;frame height&gt; &lt;frame count&gt;
+ * frame &lt;name&gt; &lt;index&gt; &lt;page&gt; &lt;x&gt; &lt;y&gt; &lt;width&gt; &lt;height&gt; &lt;offset x&gt; &lt;offset y&gt;
+ * </pre>
+ *
+ * A frame which is completely transparent has page -1 and an empty rectangle.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class AtlasPacker {
+
+    /** The default maximum atlas page size */
+    public static final int DEFAULT_MAX_SIZE = 2048;
+
+    /** The name of the atlas descriptor */
+    public static final String DESCRIPTOR_NAME = "atlas.txt";
+
+    /** The maximum page width and height */
+    private final int mMaxSize;
+
+    /** The transparent gap left between frames */
+    private final int mPadding;
+
+    /** The sheets in the order they were added */
+    private final ArrayList<Sheet> mSheets;
+
+    /** The unique frame images keyed by their own pixels */
+    private final HashMap<Region, Region> mRegions;
+
+    /** The packed pages */
+    private final ArrayList<Page> mPages;
+
+    /**
+     * Constructs the AtlasPacker
+     * @param maxSize The maximum page width and height, a power of two
+     * @param padding The transparent gap left between frames
+     */
+    public AtlasPacker(int maxSize, int padding) {
+        if (maxSize <= 0 || Integer.bitCount(maxSize) != 1) {
+            throw new IllegalArgumentException("maxSize");
+        }
+        if (padding < 0) {
+            throw new IllegalArgumentException("padding");
+        }
+        mMaxSize = maxSize;
+        mPadding = padding;
+        mSheets = new ArrayList<>();
+        mRegions = new LinkedHashMap<>();
+        mPages = new ArrayList<>();
+    }
+
+    /**
+     * Slices a sprite sheet into frames and adds them to the atlas. Frames are ordered down
+     * each column first, the same way as SpriteSheet.getFrameFromSheet.
+     * @param name The sprite name
+     * @param argb The sheet pixels as ARGB values
+     * @param width The sheet width
+     * @param height The sheet height
+     * @param frameWidth The frame width
+     * @param frameHeight The frame height
+     * @param frameCount The frame count
+     * @param trim Trim the transparent border of each frame
+     */
+    public void addSheet(String name, int[] argb, int width, int height,
+                         int frameWidth, int frameHeight, int frameCount, boolean trim) {
+        if (frameWidth <= 0 || frameHeight <= 0 || frameCount <= 0) {
+            throw new IllegalArgumentException(name + ": frame size");
+        }
+
+        int rows = height / frameHeight;
+        int columns = width / frameWidth;
+
+        Sheet sheet = new Sheet(name, frameWidth, frameHeight, frameCount);
+        for (int i = 0; i < frameCount; i++) {
+            int frameX, frameY;
+            if (rows > 0 && columns > 0) {
+                int col = i / rows;
+                int row = i - (col * rows);
+                frameX = col * frameWidth;
+                frameY = row * frameHeight;
+            } else { // one column in sheet
+                frameX = 0;
+                frameY = i * frameHeight;
+            }
+            sheet.frames[i] = createFrame(argb, width, height, frameX, frameY, frameWidth, frameHeight, trim);
+        }
+        mSheets.add(sheet);
+        mPages.clear();
+    }
+
+    /**
+     * Copies a frame out of a sheet, trims it and stores its image once
+     */
+    private Frame createFrame(int[] argb, int width, int height, int frameX, int frameY,
+                              int frameWidth, int frameHeight, boolean trim) {
+        int minX = 0, minY = 0, maxX = frameWidth - 1, maxY = frameHeight - 1;
+
+        if (trim) {
+            minX = frameWidth;
+            minY = frameHeight;
+            maxX = -1;
+            maxY = -1;
+            for (int y = 0; y < frameHeight; y++) {
+                for (int x = 0; x < frameWidth; x++) {
+                    if ((pixel(argb, width, height, frameX + x, frameY + y) >>> 24) != 0) {
+                        if (x < minX) minX = x;
+                        if (x > maxX) maxX = x;
+                        if (y < minY) minY = y;
+                        if (y > maxY) maxY = y;
+                    }
+                }
+            }
+            if (maxX < 0) { // completely transparent
+                return new Frame(null, 0, 0);
+            }
+        }
+
+        int w = maxX - minX + 1;
+        int h = maxY - minY + 1;
+        int[] pixels = new int[w * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                pixels[y * w + x] = pixel(argb, width, height, frameX + minX + x, frameY + minY + y);
+            }
+        }
+
+        Region region = new Region(w, h, pixels);
+        Region existing = mRegions.get(region);
+        if (existing == null) {
+            mRegions.put(region, region);
+            existing = region;
+        }
+        return new Frame(existing, minX, minY);
+    }
+
+    /**
+     * Returns a sheet pixel, treating pixels outside the sheet as transparent
+     */
+    private static int pixel(int[] argb, int width, int height, int x, int y) {
+        if (x >= width || y >= height) {
+            return 0;
+        }
+        return argb[y * width + x];
+    }
+
+    /**
+     * Packs the unique frames into as few pages as possible. Each page is the smallest power
+     * of two size that holds the remaining frames, up to the maximum size.
+     * @return The packed pages
+     */
+    public List<Page> pack() {
+        ArrayList<Region> remaining = new ArrayList<>(mRegions.values());
+        Collections.sort(remaining, new Comparator<Region>() {
+            @Override
+            public int compare(Region a, Region b) {
+                int side = Math.max(b.w, b.h) - Math.max(a.w, a.h);
+                return side != 0 ? side : b.w * b.h - a.w * a.h;
+            }
+        });
+
+        for (Region region : remaining) {
+            if (region.w > mMaxSize || region.h > mMaxSize) {
+                throw new IllegalArgumentException("frame " + region.w + "x" + region.h
+                        + " is larger than the maximum page size " + mMaxSize);
+            }
+        }
+
+        mPages.clear();
+        while (!remaining.isEmpty()) {
+            Page page = packPage(remaining);
+            page.index = mPages.size();
+            mPages.add(page);
+        }
+        return mPages;
+    }
+
+    /**
+     * Packs as many of the remaining frames as possible into one page and removes them from
+     * the list
+     */
+    private Page packPage(ArrayList<Region> remaining) {
+        int minWidth = 1, minHeight = 1;
+        long area = 0;
+        for (Region region : remaining) {
+            minWidth = Math.max(minWidth, region.w);
+            minHeight = Math.max(minHeight, region.h);
+            area += (long) (region.w + mPadding) * (region.h + mPadding);
+        }
+
+        // Try the power of two sizes in order of area, squarest first, until everything fits.
+        ArrayList<int[]> sizes = new ArrayList<>();
+        for (int width = nextPowerOfTwo(minWidth); width <= mMaxSize; width *= 2) {
+            for (int height = nextPowerOfTwo(minHeight); height <= mMaxSize; height *= 2) {
+                if ((long) width * height >= area) {
+                    sizes.add(new int[] {width, height});
+                }
+            }
+        }
+        Collections.sort(sizes, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                int area = Long.compare((long) a[0] * a[1], (long) b[0] * b[1]);
+                return area != 0 ? area : Math.max(a[0], a[1]) - Math.max(b[0], b[1]);
+            }
+        });
+
+        for (int[] size : sizes) {
+            Page page = tryPackAll(remaining, size[0], size[1]);
+            if (page != null) {
+                remaining.clear();
+                return page;
+            }
+        }
+
+        // Fill a full size page and leave the rest for the next one.
+        MaxRectsPacker packer = new MaxRectsPacker(mMaxSize + mPadding, mMaxSize + mPadding);
+        Page page = new Page(mMaxSize, mMaxSize);
+        for (int i = 0; i < remaining.size(); i++) {
+            Region region = remaining.get(i);
+            MaxRectsPacker.Rect rect = packer.insert(region.w + mPadding, region.h + mPadding);
+            if (rect != null) {
+                page.place(region, rect.x, rect.y);
+                remaining.remove(i);
+                i--;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Packs every remaining frame into a page of the given size
+     * @return The page or null if the frames do not fit
+     */
+    private Page tryPackAll(List<Region> regions, int width, int height) {
+        MaxRectsPacker packer = new MaxRectsPacker(width + mPadding, height + mPadding);
+        MaxRectsPacker.Rect[] rects = new MaxRectsPacker.Rect[regions.size()];
+        for (int i = 0; i < rects.length; i++) {
+            Region region = regions.get(i);
+            rects[i] = packer.insert(region.w + mPadding, region.h + mPadding);
+            if (rects[i] == null) {
+                return null;
+            }
+        }
+
+        Page page = new Page(width, height);
+        for (int i = 0; i < rects.length; i++) {
+            page.place(regions.get(i), rects[i].x, rects[i].y);
+        }
+        return page;
+    }
+
+    /**
+     * Writes the atlas descriptor
+     * @param writer The destination
+     * @param pageName The page file name prefix, the page index and .png are appended
+     */
+    public void writeDescriptor(Writer writer, String pageName) throws IOException {
+        if (mPages.isEmpty() && !mRegions.isEmpty()) {
+            pack();
+        }
+
+        writer.write("# Generated by atlas-packer, do not edit.\n");
+        for (Page page : mPages) {
+            writer.write("page " + page.index + " " + pageName + page.index + ".png "
+                    + page.width + " " + page.height + "\n");
+        }
+        for (Sheet sheet : mSheets) {
+            writer.write("sprite " + sheet.name + " " + sheet.frameWidth + " "
+                    + sheet.frameHeight + " " + sheet.frames.length + "\n");
+            for (int i = 0; i < sheet.frames.length; i++) {
+                Frame frame = sheet.frames[i];
+                Region r = frame.region;
+                if (r == null) {
+                    writer.write("frame " + sheet.name + " " + i + " -1 0 0 0 0 0 0\n");
+                } else {
+                    writer.write("frame " + sheet.name + " " + i + " " + r.page.index + " "
+                            + r.x + " " + r.y + " " + r.w + " " + r.h + " "
+                            + frame.offsetX + " " + frame.offsetY + "\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct frame images after trimming and deduplication
+     * @return The unique frame count
+     */
+    public int getUniqueFrameCount() {
+        return mRegions.size();
+    }
+
+    /**
+     * Returns the smallest power of two which is greater than or equal to a value
+     */
+    static int nextPowerOfTwo(int value) {
+        int result = 1;
+        while (result < value) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Packs every png in an assets folder into atlas pages and writes the descriptor.
+     * Arguments: assets folder, frame spec file, output folder and an optional maximum
+     * page size.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: AtlasPacker <assets dir> <frame spec> <output dir> [max size]");
+            System.exit(1);
+        }
+
+        File assetsDir = new File(args[0]);
+        File specFile = new File(args[1]);
+        File outputDir = new File(args[2]);
+        int maxSize = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MAX_SIZE;
+
+        Map<String, String[]> spec = readSpec(specFile);
+        AtlasPacker packer = new AtlasPacker(maxSize, 1);
+
+        File[] images = assetsDir.listFiles();
+        if (images == null) {
+            throw new IOException("cannot list " + assetsDir);
+        }
+        Arrays.sort(images);
+
+        for (File file : images) {
+            String fileName = file.getName();
+            if (!fileName.endsWith(".png")) {
+                continue;
+            }
+            BufferedImage image = ImageIO.read(file);
+            if (image == null) {
+                throw new IOException("cannot read " + file);
+            }
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+            String name = fileName.substring(0, fileName.length() - 4);
+
+            String[] frames = spec.get(fileName);
+            if (frames != null) {
+                boolean trim = !(frames.length > 4 && frames[4].equals("notrim"));
+                packer.addSheet(name, argb, width, height, Integer.parseInt(frames[1]),
+                        Integer.parseInt(frames[2]), Integer.parseInt(frames[3]), trim);
+            } else {
+                packer.addSheet(name, argb, width, height, width, height, 1, true);
+            }
+        }
+
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("cannot create " + outputDir);
+        }
+
+        for (Page page : packer.pack()) {
+            BufferedImage image = new BufferedImage(page.width, page.height, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(0, 0, page.width, page.height, page.pixels, 0, page.width);
+            ImageIO.write(image, "png", new File(outputDir, "atlas" + page.index + ".png"));
+        }
+
+        Writer writer = new FileWriter(new File(outputDir, DESCRIPTOR_NAME));
+        try {
+            packer.writeDescriptor(writer, "atlas");
+        } finally {
+            writer.close();
+        }
+
+        System.out.println("Packed " + packer.getUniqueFrameCount() + " unique frames into "
+                + packer.mPages.size() + " page(s) in " + outputDir);
+    }
+
+    /**
+     * Reads the frame spec, one "image frameWidth frameHeight frameCount [notrim]" per line
+     */
+    static Map<String, String[]> readSpec(File file) throws IOException {
+        HashMap<String, String[]> spec = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split("\\s+");
+                if (tokens.length < 4) {
+                    throw new IOException(file + ": bad line '" + line + "'");
+                }
+                spec.put(tokens[0], tokens);
+            }
+        } finally {
+            reader.close();
+        }
+        return spec;
+    }
+
+    /**
+     * A sprite sheet added to the atlas
+     */
+    private static final class Sheet {
+        final String name;
+        final int frameWidth, frameHeight;
+        final Frame[] frames;
+
+        Sheet(String name, int frameWidth, int frameHeight, int frameCount) {
+            this.name = name;
+            this.frameWidth = frameWidth;
+            this.frameHeight = frameHeight;
+            this.frames = new Frame[frameCount];
+        }
+    }
+
+    /**
+     * A frame of a sheet, pointing at a possibly shared image
+     */
+    private static final class Frame {
+        final Region region;
+        final int offsetX, offsetY;
+
+        Frame(Region region, int offsetX, int offsetY) {
+            this.region = region;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+    }
+
+    /**
+     * A unique trimmed frame image and where it was placed
+     */
+    static final class Region {
+        final int w, h;
+        final int[] pixels;
+        private final int mHash;
+        Page page;
+        int x, y;
+
+        Region(int w, int h, int[] pixels) {
+            this.w = w;
+            this.h = h;
+            this.pixels = pixels;
+            mHash = 31 * (31 * w + h) + Arrays.hashCode(pixels);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Region)) {
+                return false;
+            }
+            Region r = (Region) o;
+            return r.mHash == mHash && r.w == w && r.h == h && Arrays.equals(r.pixels, pixels);
+        }
+    }
+
+    /**
+     * An atlas page
+     */
+    public static final class Page {
+        public final int width, height;
+        public final int[] pixels;
+        public int index;
+
+        Page(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.pixels = new int[width * height];
+        }
+
+        /**
+         * Copies a frame image into the page
+         */
+        void place(Region region, int x, int y) {
+            region.page = this;
+            region.x = x;
+            region.y = y;
+            for (int row = 0; row < region.h; row++) {
+                System.arraycopy(region.pixels, row * region.w, pixels, (y + row) * width + x, region.w);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.citex.atlas_packer;
+
+import java.util.ArrayList;
+
+/**
+ * Packs rectangles into a fixed size bin using the MaxRects algorithm with the best short
+ * side fit heuristic. The free space is kept as a list of maximal rectangles which may
+ * overlap each other.
+ *
+ *  @version 1.0
+ *  @modified 29/10/2023
+ *  @author Lawrence Schmid
+ */
+
+public class MaxRectsPacker {
+
+    /** The bin dimensions */
+    private final int mWidth, mHeight;
+
+    /** The maximal free rectangles */
+    private final ArrayList<Rect> mFreeRects;
+
+    /** The area used by placed rectangles */
+    private long mUsedArea;
+
+    /**
+     * Constructs the MaxRectsPacker
+     * @param width The bin width
+     * @param height The bin height
+     */
+    public MaxRectsPacker(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width, height");
+        }
+        mWidth = width;
+        mHeight = height;
+        mFreeRects = new ArrayList<>();
+        mFreeRects.add(new Rect(0, 0, width, height));
+    }
+
+    /**
+     * Places a rectangle in the bin
+     * @param width The rectangle width
+     * @param height The rectangle height
+     * @return The placed rectangle or null if it does not fit
+     */
+    public Rect insert(int width, int height) {
+        Rect best = null;
+        int bestShortSide = Integer.MAX_VALUE;
+        int bestLongSide = Integer.MAX_VALUE;
+
+        for (int i = 0; i < mFreeRects.size(); i++) {
+            Rect free = mFreeRects.get(i);
+            if (width <= free.w && height <= free.h) {
+                int leftoverW = free.w - width;
+                int leftoverH = free.h - height;
+                int shortSide = Math.min(leftoverW, leftoverH);
+                int longSide = Math.max(leftoverW, leftoverH);
+                if (shortSide < bestShortSide || (shortSide == bestShortSide && longSide < bestLongSide)) {
+                    best = new Rect(free.x, free.y, width, height);
+                    bestShortSide = shortSide;
+                    bestLongSide = longSide;
+                }
+            }
+        }
+
+        if (best == null) {
+            return null;
+        }
+
+        splitFreeRects(best);
+        pruneFreeRects();
+        mUsedArea += (long) width * height;
+        return best;
+    }
+
+    /**
+     * Splits every free rectangle which intersects the placed rectangle into the maximal
+     * rectangles around it
+     * @param used The placed rectangle
+     */
+    private void splitFreeRects(Rect used) {
+        int count = mFreeRects.size();
+        for (int i = 0; i < count; i++) {
+            Rect free = mFreeRects.get(i);
+            if (!free.intersects(used)) {
+                continue;
+            }
+
+            if (used.x > free.x) { // left
+                mFreeRects.add(new Rect(free.x, free.y, used.x - free.x, free.h));
+            }
+            if (used.right() < free.right()) { // right
+                mFreeRects.add(new Rect(used.right(), free.y, free.right() - used.right(), free.h));
+            }
+            if (used.y > free.y) { // top
+                mFreeRects.add(new Rect(free.x, free.y, free.w, used.y - free.y));
+            }
+            if (used.bottom() < free.bottom()) { // bottom
+                mFreeRects.add(new Rect(free.x, used.bottom(), free.w, free.bottom() - used.bottom()));
+            }
+
+            mFreeRects.remove(i);
+            i--;
+            count--;
+        }
+    }
+
+    /**
+     * Removes free rectangles which are contained in another free rectangle
+     */
+    private void pruneFreeRects() {
+        for (int i = 0; i < mFreeRects.size(); i++) {
+            for (int j = i + 1; j < mFreeRects.size(); j++) {
+                Rect a = mFreeRects.get(i);
+                Rect b = mFreeRects.get(j);
+                if (b.contains(a)) {
+                    mFreeRects.remove(i);
+                    i--;
+                    break;
+                }
+                if (a.contains(b)) {
+                    mFreeRects.remove(j);
+                    j--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the fraction of the bin covered by placed rectangles
+     * @return The occupancy between 0 and 1
+     */
+    public float getOccupancy() {
+        return (float) mUsedArea / ((long) mWidth * mHeight);
+    }
+
+    /**
+     * Gets the bin width
+     * @return The bin width
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * Gets the bin height
+     * @return The bin height
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * An axis aligned rectangle in bin pixels
+     */
+    public static final class Rect {
+        public final int x, y, w, h;
+
+        public Rect(int x, int y, int w, int h) {
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+        }
+
+        public int right() {
+            return x + w;
+        }
+
+        public int bottom() {
+            return y + h;
+        }
+
+        public boolean intersects(Rect r) {
+            return x < r.right() && r.x < right() && y < r.bottom() && r.y < bottom();
+        }
+
+        public boolean contains(Rect r) {
+            return r.x >= x && r.y >= y && r.right() <= right() && r.bottom() <= bottom();
+        }
+    }
+}
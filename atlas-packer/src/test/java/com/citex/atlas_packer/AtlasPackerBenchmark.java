@@ -0,0 +1,65 @@
+package com.citex.atlas_packer;
+
+import java.util.Random;
+
+/**
+ * Measures trimming, deduplication and MaxRects packing on the JVM. Run with
+ * ./gradlew :atlas-packer:benchmark
+ */
+public class AtlasPackerBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) {
+        for (int frames : new int[] {64, 256, 1024}) {
+            int[] sheet = createSheet(frames, 32);
+            run(frames, sheet);
+        }
+    }
+
+    private static void run(int frames, int[] sheet) {
+        int unique = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            unique = pack(frames, sheet);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            unique = pack(frames, sheet);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%5d frames (%4d unique): %8.3f ms/op%n",
+                frames, unique, elapsed / 1e6 / ITERATIONS);
+    }
+
+    private static int pack(int frames, int[] sheet) {
+        AtlasPacker packer = new AtlasPacker(AtlasPacker.DEFAULT_MAX_SIZE, 1);
+        packer.addSheet("sheet", sheet, 32, 32 * frames, 32, 32, frames, true);
+        packer.pack();
+        return packer.getUniqueFrameCount();
+    }
+
+    /**
+     * Creates one column of frames holding random sized opaque blocks, a quarter of which
+     * repeat an earlier frame
+     */
+    private static int[] createSheet(int frames, int frameSize) {
+        Random random = new Random(1);
+        int[] argb = new int[frameSize * frameSize * frames];
+        for (int i = 0; i < frames; i++) {
+            int seed = i % 4 == 3 ? i - 1 : i;
+            Random frame = new Random(seed);
+            int w = 4 + frame.nextInt(frameSize - 4);
+            int h = 4 + frame.nextInt(frameSize - 4);
+            int color = 0xff000000 | frame.nextInt(0xffffff) | random.nextInt(1);
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    argb[(i * frameSize + y) * frameSize + x] = color;
+                }
+            }
+        }
+        return argb;
+    }
+}
@@ -0,0 +1,115 @@
+package com.citex.atlas_packer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks trimming, frame deduplication and the descriptor written by the packer.
+ */
+public class AtlasPackerTest {
+
+    private static final int OPAQUE = 0xff00ff00;
+
+    /**
+     * Creates a sheet with one column of frames, each holding an opaque square
+     */
+    private static int[] createSheet(int frameSize, int frameCount, int[] squareSizes) {
+        int[] argb = new int[frameSize * frameSize * frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            int size = squareSizes[i];
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    argb[(i * frameSize + 2 + y) * frameSize + 3 + x] = OPAQUE + size;
+                }
+            }
+        }
+        return argb;
+    }
+
+    @Test
+    public void addSheet_trimsAndDeduplicatesFrames() throws IOException {
+        AtlasPacker packer = new AtlasPacker(256, 1);
+        int[] sheet = createSheet(32, 4, new int[] {8, 10, 8, 10});
+        packer.addSheet("enemy", sheet, 32, 128, 32, 32, 4, true);
+
+        assertEquals(2, packer.getUniqueFrameCount());
+
+        List<AtlasPacker.Page> pages = packer.pack();
+        assertEquals(1, pages.size());
+        assertEquals(16, pages.get(0).width);
+        assertEquals(32, pages.get(0).height);
+
+        StringWriter writer = new StringWriter();
+        packer.writeDescriptor(writer, "atlas");
+        String[] lines = writer.toString().split("\n");
+
+        assertEquals("page 0 atlas0.png 16 32", lines[1]);
+        assertEquals("sprite enemy 32 32 4", lines[2]);
+
+        // Frames 0 and 2 share a rectangle, trimmed to 8x8 at offset 3,2.
+        String[] frame0 = lines[3].split(" ");
+        String[] frame2 = lines[5].split(" ");
+        assertEquals("8", frame0[6]);
+        assertEquals("8", frame0[7]);
+        assertEquals("3", frame0[8]);
+        assertEquals("2", frame0[9]);
+        assertArrayEquals(Arrays.copyOfRange(frame0, 3, 10), Arrays.copyOfRange(frame2, 3, 10));
+    }
+
+    @Test
+    public void addSheet_keepsBorderWhenNotTrimmed() throws IOException {
+        AtlasPacker packer = new AtlasPacker(256, 0);
+        packer.addSheet("block", createSheet(16, 1, new int[] {4}), 16, 16, 16, 16, 1, false);
+        packer.pack();
+
+        StringWriter writer = new StringWriter();
+        packer.writeDescriptor(writer, "atlas");
+        assertTrue(writer.toString().contains("frame block 0 0 0 0 16 16 0 0"));
+    }
+
+    @Test
+    public void addSheet_marksTransparentFrameEmpty() throws IOException {
+        AtlasPacker packer = new AtlasPacker(256, 1);
+        packer.addSheet("ghost", new int[16 * 16], 16, 16, 16, 16, 1, true);
+        packer.pack();
+
+        StringWriter writer = new StringWriter();
+        packer.writeDescriptor(writer, "atlas");
+        assertTrue(writer.toString().contains("frame ghost 0 -1 0 0 0 0 0 0"));
+    }
+
+    @Test
+    public void pack_usesPowerOfTwoPagesAndSpillsToNewPage() {
+        AtlasPacker packer = new AtlasPacker(64, 0);
+        for (int i = 0; i < 5; i++) {
+            int[] argb = new int[32 * 32];
+            argb[0] = OPAQUE + i; // make every frame unique
+            Arrays.fill(argb, 1, argb.length, OPAQUE);
+            packer.addSheet("tile" + i, argb, 32, 32, 32, 32, 1, false);
+        }
+
+        List<AtlasPacker.Page> pages = packer.pack();
+        assertEquals(2, pages.size());
+        for (AtlasPacker.Page page : pages) {
+            assertEquals(1, Integer.bitCount(page.width));
+            assertEquals(1, Integer.bitCount(page.height));
+        }
+        assertEquals(64, pages.get(0).width);
+        assertEquals(64, pages.get(0).height);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pack_rejectsFrameLargerThanMaxSize() {
+        AtlasPacker packer = new AtlasPacker(32, 0);
+        int[] argb = new int[64 * 64];
+        Arrays.fill(argb, OPAQUE);
+        packer.addSheet("huge", argb, 64, 64, 64, 64, 1, true);
+        packer.pack();
+    }
+}
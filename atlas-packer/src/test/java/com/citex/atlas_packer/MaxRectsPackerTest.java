@@ -0,0 +1,51 @@
+package com.citex.atlas_packer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that packed rectangles stay inside the bin and never overlap.
+ */
+public class MaxRectsPackerTest {
+
+    @Test
+    public void insert_fillsBinExactly() {
+        MaxRectsPacker packer = new MaxRectsPacker(64, 64);
+        for (int i = 0; i < 16; i++) {
+            assertNotNull(packer.insert(16, 16));
+        }
+        assertNull(packer.insert(1, 1));
+        assertEquals(1f, packer.getOccupancy(), 0f);
+    }
+
+    @Test
+    public void insert_rejectsRectangleLargerThanBin() {
+        MaxRectsPacker packer = new MaxRectsPacker(32, 32);
+        assertNull(packer.insert(33, 8));
+        assertNotNull(packer.insert(32, 32));
+    }
+
+    @Test
+    public void insert_neverOverlaps() {
+        Random random = new Random(42);
+        MaxRectsPacker packer = new MaxRectsPacker(512, 512);
+        ArrayList<MaxRectsPacker.Rect> placed = new ArrayList<>();
+
+        for (int i = 0; i < 500; i++) {
+            MaxRectsPacker.Rect rect = packer.insert(4 + random.nextInt(60), 4 + random.nextInt(60));
+            if (rect == null) {
+                continue;
+            }
+            assertTrue(rect.x >= 0 && rect.y >= 0 && rect.right() <= 512 && rect.bottom() <= 512);
+            for (MaxRectsPacker.Rect other : placed) {
+                assertFalse(rect.intersects(other));
+            }
+            placed.add(rect);
+        }
+        assertTrue(packer.getOccupancy() > 0.8f);
+    }
+}
@@ -15,4 +15,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "OpenGL-ES-2D-Sprites"
 include(":app")
+include(":atlas-packer")
  
\ No newline at end of file